@@ -0,0 +1,205 @@
+/*
+ * mathan-dependency-updates-sonar-plugin
+ * Copyright (c) 2019 Matthias Hanisch
+ * matthias@mathan.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mathan.sonar.dependencyupdates.cli;
+
+import io.mathan.sonar.dependencyupdates.Constants;
+import io.mathan.sonar.dependencyupdates.DependencyUpdatesSettings;
+import io.mathan.sonar.dependencyupdates.parser.Analysis;
+import io.mathan.sonar.dependencyupdates.report.GradleReportFile;
+import io.mathan.sonar.dependencyupdates.report.GradleReportFileImpl;
+import io.mathan.sonar.dependencyupdates.report.XmlReportFile;
+import io.mathan.sonar.dependencyupdates.report.XmlReportFileImpl;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import javax.annotation.Nullable;
+import javax.xml.stream.XMLStreamException;
+import org.sonar.api.batch.rule.Severity;
+import org.sonar.api.utils.MessageException;
+
+/**
+ * Command line interface running the report parser, the dependency filter and the metrics of the Sonar-Plugin outside of SonarQube, e.g. in a pre-commit hook. Only the classes needed for a single
+ * module are loaded, so the interface starts fast and can be combined with a class data sharing archive.
+ */
+public final class Main {
+
+  static final int EXIT_OK = 0;
+  static final int EXIT_ISSUES = 1;
+  static final int EXIT_ERROR = 2;
+
+  private static final String PROPERTIES_FILE = "sonar-project.properties";
+  private static final String USAGE = String.join(System.lineSeparator(),
+      "Usage: java -jar mathan-dependency-updates-cli.jar [options]",
+      "  -D<key>=<value>          Sets a property, e.g. -Dsonar.dependencyUpdates.reportPath=target/dependency-updates-report.xml",
+      "  --base-dir <dir>         Directory of the module, defaults to the current directory",
+      "  --properties <file>      Properties file, defaults to " + PROPERTIES_FILE + " in the directory of the module if it exists",
+      "  --format <text|json>     Format of the output, defaults to text",
+      "  --fail-on <severity>     Exits with " + EXIT_ISSUES + " if there is an issue with at least this severity",
+      "  --help                   Prints this help");
+
+  private Main() {
+  }
+
+  public static void main(String[] args) {
+    PrintStream out = System.out;
+    // without logback the loggers of the plugin write to the standard output which is kept for the result
+    System.setOut(System.err);
+    System.exit(run(args, out, System.err));
+  }
+
+  /**
+   * Runs the analysis of a single module.
+   *
+   * @return The exit code, {@link #EXIT_ISSUES} if an issue with at least the severity given by <code>--fail-on</code> is reported or {@link #EXIT_ERROR} if the analysis failed.
+   */
+  static int run(String[] args, PrintStream out, PrintStream err) {
+    Options options;
+    try {
+      options = Options.parse(args);
+    } catch (IllegalArgumentException e) {
+      err.println(e.getMessage());
+      err.println(USAGE);
+      return EXIT_ERROR;
+    }
+    if (options.help) {
+      out.println(USAGE);
+      return EXIT_OK;
+    }
+    try {
+      PropertiesConfiguration configuration = new PropertiesConfiguration(options.properties());
+      DependencyUpdatesSettings settings = new DependencyUpdatesSettings(configuration);
+      List<XmlReportFile> reports = XmlReportFileImpl.findReports(configuration, options.baseDir, settings.getReportKinds());
+      GradleReportFile gradleReport = GradleReportFileImpl.findReport(configuration, options.baseDir);
+      if (reports.isEmpty() && gradleReport == null) {
+        err.printf("No Dependency-Updates report found for %s (see properties %s and %s)%n", options.baseDir.getAbsolutePath(), Constants.CONFIG_REPORT_PATH_PROPERTY,
+            Constants.CONFIG_GRADLE_REPORT_PATH_PROPERTY);
+        return EXIT_ERROR;
+      }
+      Analysis analysis = settings.getParser().parse(reports, gradleReport);
+      Result result = Result.of(analysis, settings.getFilter());
+      if (options.json) {
+        result.writeJson(out);
+      } else {
+        result.writeText(out);
+      }
+      out.flush();
+      return options.failOn != null && result.hasIssues(options.failOn) ? EXIT_ISSUES : EXIT_OK;
+    } catch (MessageException e) {
+      err.println(e.getMessage());
+    } catch (IOException e) {
+      err.println("Analysis aborted due to: IO Errors: " + e.getMessage());
+    } catch (XMLStreamException e) {
+      err.println("Analysis aborted due to: XML is not valid: " + e.getMessage());
+    }
+    return EXIT_ERROR;
+  }
+
+  /**
+   * Options given on the command line.
+   */
+  static final class Options {
+
+    private final Map<String, String> properties = new HashMap<>();
+    private File baseDir = new File(".");
+    @Nullable
+    private File propertiesFile;
+    private boolean json;
+    @Nullable
+    private Severity failOn;
+    private boolean help;
+
+    static Options parse(String[] args) {
+      Options options = new Options();
+      for (int i = 0; i < args.length; i++) {
+        String arg = args[i];
+        if (arg.startsWith("-D")) {
+          int separator = arg.indexOf('=');
+          if (separator < 0) {
+            options.properties.put(arg.substring(2), "");
+          } else {
+            options.properties.put(arg.substring(2, separator), arg.substring(separator + 1));
+          }
+        } else if ("--base-dir".equals(arg)) {
+          options.baseDir = new File(value(args, ++i, arg));
+        } else if ("--properties".equals(arg)) {
+          options.propertiesFile = new File(value(args, ++i, arg));
+        } else if ("--format".equals(arg)) {
+          String format = value(args, ++i, arg);
+          if (!"text".equals(format) && !"json".equals(format)) {
+            throw new IllegalArgumentException(String.format("Invalid format '%s'. Valid formats are text and json.", format));
+          }
+          options.json = "json".equals(format);
+        } else if ("--fail-on".equals(arg)) {
+          options.failOn = severity(value(args, ++i, arg));
+        } else if ("--help".equals(arg) || "-h".equals(arg)) {
+          options.help = true;
+        } else {
+          throw new IllegalArgumentException(String.format("Unknown option '%s'.", arg));
+        }
+      }
+      return options;
+    }
+
+    private static String value(String[] args, int index, String option) {
+      if (index >= args.length) {
+        throw new IllegalArgumentException(String.format("Missing value for option %s.", option));
+      }
+      return args[index];
+    }
+
+    private static Severity severity(String value) {
+      try {
+        return Severity.valueOf(value);
+      } catch (IllegalArgumentException e) {
+        throw new IllegalArgumentException(String.format("Invalid severity '%s'. Valid severities are INFO, MINOR, MAJOR, CRITICAL and BLOCKER.", value), e);
+      }
+    }
+
+    /**
+     * Returns the properties of the properties file overridden by those given on the command line.
+     */
+    Map<String, String> properties() throws IOException {
+      File file = propertiesFile != null ? propertiesFile : new File(baseDir, PROPERTIES_FILE);
+      Map<String, String> merged = new HashMap<>();
+      if (propertiesFile != null || file.isFile()) {
+        merged.putAll(read(file));
+      }
+      merged.putAll(properties);
+      return merged;
+    }
+
+    private static Map<String, String> read(File file) throws IOException {
+      Properties properties = new Properties();
+      try (InputStream inputStream = Files.newInputStream(file.toPath())) {
+        properties.load(inputStream);
+      }
+      Map<String, String> values = new HashMap<>();
+      for (String key : properties.stringPropertyNames()) {
+        values.put(key, properties.getProperty(key).trim());
+      }
+      return values;
+    }
+  }
+}
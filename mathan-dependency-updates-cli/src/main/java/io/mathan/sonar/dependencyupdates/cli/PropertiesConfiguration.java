@@ -0,0 +1,67 @@
+/*
+ * mathan-dependency-updates-sonar-plugin
+ * Copyright (c) 2019 Matthias Hanisch
+ * matthias@mathan.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mathan.sonar.dependencyupdates.cli;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.sonar.api.config.Configuration;
+
+/**
+ * Configuration of the command line interface. The properties are read from a properties file and the command line, so the same <code>sonar.dependencyUpdates.*</code> properties as for a scanner
+ * run can be used.
+ */
+final class PropertiesConfiguration implements Configuration {
+
+  private final Map<String, String> properties;
+
+  PropertiesConfiguration(Map<String, String> properties) {
+    this.properties = properties;
+  }
+
+  @Override
+  public Optional<String> get(String key) {
+    return Optional.ofNullable(properties.get(key));
+  }
+
+  @Override
+  public boolean hasKey(String key) {
+    return properties.containsKey(key);
+  }
+
+  /**
+   * Splits a comma-separated value like the scanner does for multi-value properties. Empty values are ignored.
+   */
+  @Override
+  public String[] getStringArray(String key) {
+    String value = properties.get(key);
+    if (value == null) {
+      return new String[0];
+    }
+    List<String> values = new ArrayList<>();
+    for (String part : value.split(",")) {
+      String trimmed = part.trim();
+      if (!trimmed.isEmpty()) {
+        values.add(trimmed);
+      }
+    }
+    return values.toArray(new String[0]);
+  }
+}
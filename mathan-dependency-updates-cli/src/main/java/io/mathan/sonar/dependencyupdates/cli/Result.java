@@ -0,0 +1,194 @@
+/*
+ * mathan-dependency-updates-sonar-plugin
+ * Copyright (c) 2019 Matthias Hanisch
+ * matthias@mathan.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mathan.sonar.dependencyupdates.cli;
+
+import io.mathan.sonar.dependencyupdates.DependencyFilter;
+import io.mathan.sonar.dependencyupdates.IssueSensor;
+import io.mathan.sonar.dependencyupdates.MaintenanceRating;
+import io.mathan.sonar.dependencyupdates.parser.Analysis;
+import io.mathan.sonar.dependencyupdates.parser.Dependency;
+import java.io.PrintStream;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import org.sonar.api.batch.rule.Severity;
+import org.sonar.api.utils.text.JsonWriter;
+
+/**
+ * The issues and metrics of a module as the Sonar-Plugin would report them. Other than in a scanner run there is no quality profile, so an issue is reported for each dependency with updates the
+ * {@link DependencyFilter} classifies.
+ */
+final class Result {
+
+  private static final String RATINGS = "ABCDE";
+
+  private final List<Issue> issues = new ArrayList<>();
+  private final int dependencies;
+  private final int patches;
+  private final int patchesMissed;
+  private final int upgrades;
+  private final int upgradesMissed;
+
+  private Result(Analysis analysis, DependencyFilter filter) {
+    addIssues(filter, analysis.getDependencyManagements(), true);
+    addIssues(filter, analysis.getDependencies(), false);
+    int withPatches = 0;
+    int withUpgrades = 0;
+    int updateCount = 0;
+    int upgradeCount = 0;
+    List<Dependency> all = analysis.all();
+    for (Dependency dependency : all) {
+      if (!dependency.getIncrementals().isEmpty()) {
+        withPatches++;
+      }
+      if (dependency.getUpgradeCount() > 0) {
+        withUpgrades++;
+      }
+      updateCount += dependency.getUpdateCount();
+      upgradeCount += dependency.getUpgradeCount();
+    }
+    this.dependencies = all.size();
+    this.patches = withPatches;
+    this.patchesMissed = updateCount;
+    this.upgrades = withUpgrades;
+    this.upgradesMissed = upgradeCount;
+  }
+
+  static Result of(Analysis analysis, DependencyFilter filter) {
+    return new Result(analysis, filter);
+  }
+
+  private void addIssues(DependencyFilter filter, List<Dependency> analysed, boolean dependencyManagement) {
+    List<Severity> severities = filter.severities(analysed);
+    for (int i = 0; i < analysed.size(); i++) {
+      Severity severity = severities.get(i);
+      if (severity != null) {
+        issues.add(new Issue(analysed.get(i), dependencyManagement, severity));
+      }
+    }
+  }
+
+  List<Issue> getIssues() {
+    return issues;
+  }
+
+  /**
+   * Checks if there is an issue with at least the given severity.
+   */
+  boolean hasIssues(Severity minimum) {
+    for (Issue issue : issues) {
+      if (issue.severity.compareTo(minimum) >= 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  int getDependencies() {
+    return dependencies;
+  }
+
+  int getPatches() {
+    return patches;
+  }
+
+  int getUpgrades() {
+    return upgrades;
+  }
+
+  private double ratio(int count) {
+    return dependencies > 0 ? 100.0 * count / dependencies : 0;
+  }
+
+  private char rating(int count) {
+    return RATINGS.charAt(MaintenanceRating.of(count, dependencies) - 1);
+  }
+
+  void writeText(PrintStream out) {
+    for (Issue issue : issues) {
+      out.printf("%-8s %s%n", issue.severity, issue.message);
+    }
+    if (!issues.isEmpty()) {
+      out.println();
+    }
+    out.printf(Locale.ROOT, "%-13s %5d%n", "Dependencies", dependencies);
+    out.printf(Locale.ROOT, "%-13s %5d %6.1f %%  rating %c  missed %d%n", "Patches", patches, ratio(patches), rating(patches), patchesMissed);
+    out.printf(Locale.ROOT, "%-13s %5d %6.1f %%  rating %c  missed %d%n", "Upgrades", upgrades, ratio(upgrades), rating(upgrades), upgradesMissed);
+    out.printf(Locale.ROOT, "%-13s %5d%n", "Issues", issues.size());
+  }
+
+  void writeJson(PrintStream out) {
+    StringWriter buffer = new StringWriter();
+    try (JsonWriter json = JsonWriter.of(buffer)) {
+      json.setSerializeNulls(true);
+      json.beginObject();
+      json.name("issues").beginArray();
+      for (Issue issue : issues) {
+        Dependency dependency = issue.dependency;
+        json.beginObject()
+            .prop("severity", issue.severity.name())
+            .prop("kind", dependency.getKind().getKey())
+            .prop("groupId", dependency.getGroupId())
+            .prop("artifactId", dependency.getArtifactId())
+            .prop("version", dependency.getVersion())
+            .prop("managed", issue.dependencyManagement)
+            .prop("message", issue.message)
+            .endObject();
+      }
+      json.endArray();
+      json.name("metrics").beginObject()
+          .prop("dependencies", dependencies)
+          .prop("patches", patches)
+          .prop("patchesRatio", ratio(patches))
+          .prop("patchesRating", String.valueOf(rating(patches)))
+          .prop("patchesMissed", patchesMissed)
+          .prop("upgrades", upgrades)
+          .prop("upgradesRatio", ratio(upgrades))
+          .prop("upgradesRating", String.valueOf(rating(upgrades)))
+          .prop("upgradesMissed", upgradesMissed)
+          .endObject();
+      json.endObject();
+    }
+    out.println(buffer);
+  }
+
+  static final class Issue {
+
+    private final Dependency dependency;
+    private final boolean dependencyManagement;
+    private final Severity severity;
+    private final String message;
+
+    private Issue(Dependency dependency, boolean dependencyManagement, Severity severity) {
+      this.dependency = dependency;
+      this.dependencyManagement = dependencyManagement;
+      this.severity = severity;
+      this.message = IssueSensor.formatDescription(dependency, dependencyManagement);
+    }
+
+    Severity getSeverity() {
+      return severity;
+    }
+
+    String getMessage() {
+      return message;
+    }
+  }
+}
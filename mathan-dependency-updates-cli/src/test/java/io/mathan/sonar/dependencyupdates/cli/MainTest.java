@@ -0,0 +1,101 @@
+/*
+ * mathan-dependency-updates-sonar-plugin
+ * Copyright (c) 2019 Matthias Hanisch
+ * matthias@mathan.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mathan.sonar.dependencyupdates.cli;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class MainTest {
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+  private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+  private int run(String... args) {
+    return Main.run(args, new PrintStream(out, true), new PrintStream(err, true));
+  }
+
+  private static String baseDir() throws Exception {
+    return new File(MainTest.class.getClassLoader().getResource("project").toURI()).getAbsolutePath();
+  }
+
+  private String output() {
+    return new String(out.toByteArray(), StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void text() throws Exception {
+    Assert.assertEquals(Main.EXIT_OK, run("--base-dir", baseDir()));
+    String output = output();
+    Assert.assertTrue(output, output.contains("CRITICAL Major update available for dependency io.mathan.test:dependency-with-major:1.4.0."));
+    Assert.assertTrue(output, output.contains("(see dependency management)"));
+    Assert.assertTrue(output, output.matches("(?s).*Dependencies +8.*"));
+    Assert.assertTrue(output, output.matches("(?s).*Patches +2 +25\\.0 %  rating C  missed 2.*"));
+    Assert.assertTrue(output, output.matches("(?s).*Upgrades +4 +50\\.0 %  rating D  missed 4.*"));
+    Assert.assertTrue(output, output.matches("(?s).*Issues +6.*"));
+  }
+
+  @Test
+  public void json() throws Exception {
+    Assert.assertEquals(Main.EXIT_OK, run("--base-dir", baseDir(), "--format", "json", "-Dsonar.dependencyUpdates.exclusions=*:*-with-major"));
+    String output = output();
+    Assert.assertTrue(output, output.startsWith("{\"issues\":[{\"severity\":\"MAJOR\",\"kind\":\"dependency\",\"groupId\":\"io.mathan.test\""));
+    Assert.assertFalse(output, output.contains("CRITICAL"));
+    Assert.assertTrue(output, output.contains("\"metrics\":{\"dependencies\":8,\"patches\":2,\"patchesRatio\":25.0,\"patchesRating\":\"C\",\"patchesMissed\":2,"));
+  }
+
+  @Test
+  public void failOn() throws Exception {
+    Assert.assertEquals(Main.EXIT_ISSUES, run("--base-dir", baseDir(), "--fail-on", "CRITICAL"));
+    out.reset();
+    Assert.assertEquals(Main.EXIT_OK, run("--base-dir", baseDir(), "--fail-on", "BLOCKER"));
+  }
+
+  @Test
+  public void propertiesFile() throws Exception {
+    File properties = temporaryFolder.newFile("dependency-updates.properties");
+    Files.write(properties.toPath(), "sonar.dependencyUpdates.override.blocker=*:dependency-with-minor\n".getBytes(StandardCharsets.ISO_8859_1));
+    Assert.assertEquals(Main.EXIT_ISSUES, run("--base-dir", baseDir(), "--properties", properties.getAbsolutePath(), "--fail-on", "BLOCKER"));
+    Assert.assertTrue(output(), output().contains("BLOCKER  Minor update available for dependency io.mathan.test:dependency-with-minor:4.0.0."));
+  }
+
+  @Test
+  public void missingReport() throws Exception {
+    Assert.assertEquals(Main.EXIT_ERROR, run("--base-dir", temporaryFolder.getRoot().getAbsolutePath()));
+    Assert.assertTrue(new String(err.toByteArray(), StandardCharsets.UTF_8).startsWith("No Dependency-Updates report found"));
+  }
+
+  @Test
+  public void invalidOptions() {
+    Assert.assertEquals(Main.EXIT_ERROR, run("--format", "xml"));
+    Assert.assertEquals(Main.EXIT_ERROR, run("--fail-on", "HIGH"));
+    Assert.assertEquals(Main.EXIT_ERROR, run("--base-dir"));
+    Assert.assertEquals(Main.EXIT_ERROR, run("--unknown"));
+    Assert.assertEquals(Main.EXIT_ERROR, run("-Dsonar.dependencyUpdates.updateMajor=HIGH"));
+  }
+}
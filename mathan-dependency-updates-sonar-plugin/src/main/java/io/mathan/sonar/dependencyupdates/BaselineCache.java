@@ -0,0 +1,201 @@
+/*
+ * mathan-dependency-updates-sonar-plugin
+ * Copyright (c) 2019 Matthias Hanisch
+ * matthias@mathan.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mathan.sonar.dependencyupdates;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import io.mathan.sonar.dependencyupdates.report.ReportArchive;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import org.sonar.api.batch.ScannerSide;
+import org.sonar.api.config.Configuration;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+
+/**
+ * Keeps the coordinates declared by the pom and the outdated dependencies of each module for each analysed branch in the directory configured with {@link Constants#CONFIG_BASELINE_DIR}. The
+ * analysis of a pull request reads the coordinates of its target branch to report only the dependencies changed by the pull request. The outdated dependencies of the previous analysis of a
+ * branch, or of the target branch of a pull request, are the baseline of the changes measured since the previous analysis. The SonarQube server does not provide the analysis of the target
+ * branch to a scanner, so the directory has to be kept between the builds, e.g. by the cache of the build server.
+ */
+@ScannerSide
+public class BaselineCache {
+
+  private static final Logger LOGGER = Loggers.get(BaselineCache.class);
+  private static final String PROJECT_BASE_DIR = "sonar.projectBaseDir";
+  private static final String PULL_REQUEST_KEY = "sonar.pullrequest.key";
+  private static final String PULL_REQUEST_BASE = "sonar.pullrequest.base";
+  private static final String BRANCH_NAME = "sonar.branch.name";
+  /**
+   * Name the coordinates of the main branch are kept with if the branch name is not configured.
+   */
+  private static final String DEFAULT_BRANCH = "default";
+  private static final String FILE_NAME = "coordinates.properties";
+  private static final String OUTDATED_FILE_NAME = "outdated.txt";
+
+  private final Configuration configuration;
+  private final Path projectBaseDir;
+
+  public BaselineCache(Configuration configuration) {
+    this.configuration = configuration;
+    this.projectBaseDir = configuration.get(PROJECT_BASE_DIR).map(Paths::get).orElse(Paths.get("")).toAbsolutePath().normalize();
+  }
+
+  /**
+   * Checks if a pull request is analysed.
+   */
+  public boolean isPullRequest() {
+    return configuration.get(PULL_REQUEST_KEY).isPresent();
+  }
+
+  /**
+   * Checks if only the dependencies changed by the analysed pull request are reported.
+   */
+  public boolean isChangedOnly() {
+    return isPullRequest() && configuration.getBoolean(Constants.CONFIG_CHANGED_ONLY).orElse(Constants.CONFIG_CHANGED_ONLY_DEFAULT);
+  }
+
+  /**
+   * Checks if the coordinates of the branches are kept.
+   */
+  public boolean isEnabled() {
+    return configuration.get(Constants.CONFIG_BASELINE_DIR).isPresent();
+  }
+
+  /**
+   * Reads the coordinates declared by the pom of the module with the given base directory on the target branch of the analysed pull request.
+   *
+   * @return The coordinates or <code>null</code> if the coordinates of the target branch are not known.
+   */
+  @CheckForNull
+  public Map<String, String> read(File moduleBaseDir) {
+    Path file = baselineFile(moduleBaseDir, FILE_NAME);
+    if (file == null) {
+      return null;
+    }
+    Properties properties = new Properties();
+    try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      properties.load(reader);
+    } catch (IOException e) {
+      LOGGER.warn("Dependency-Updates baseline {} could not be read", file, e);
+      return null;
+    }
+    Map<String, String> coordinates = new HashMap<>();
+    properties.stringPropertyNames().forEach(name -> coordinates.put(name, properties.getProperty(name)));
+    return coordinates;
+  }
+
+  /**
+   * Keeps the coordinates declared by the pom of the module with the given base directory for the analysed branch. Nothing is kept for a pull request.
+   */
+  public void write(File moduleBaseDir, Map<String, String> coordinates) {
+    if (isPullRequest()) {
+      return;
+    }
+    Path file = file(branch(), moduleBaseDir, FILE_NAME);
+    Properties properties = new Properties();
+    properties.putAll(coordinates);
+    try {
+      Files.createDirectories(file.getParent());
+      try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+        properties.store(writer, null);
+      }
+    } catch (IOException e) {
+      LOGGER.warn("Dependency-Updates baseline {} could not be written", file, e);
+    }
+  }
+
+  /**
+   * Reads the sorted outdated dependencies of the module with the given base directory of the previous analysis of the analysed branch or of the target branch of the analysed pull request.
+   *
+   * @return The outdated dependencies or <code>null</code> if there is no previous analysis.
+   * @see DependencyDelta#outdated(io.mathan.sonar.dependencyupdates.parser.Analysis)
+   */
+  @CheckForNull
+  List<String> readOutdated(File moduleBaseDir) {
+    Path file = baselineFile(moduleBaseDir, OUTDATED_FILE_NAME);
+    if (file == null) {
+      return null;
+    }
+    try {
+      return Files.readAllLines(file, StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      LOGGER.warn("Dependency-Updates baseline {} could not be read", file, e);
+      return null;
+    }
+  }
+
+  /**
+   * Keeps the sorted outdated dependencies of the module with the given base directory for the analysed branch. Nothing is kept for a pull request.
+   */
+  void writeOutdated(File moduleBaseDir, List<String> outdated) {
+    if (isPullRequest()) {
+      return;
+    }
+    Path file = file(branch(), moduleBaseDir, OUTDATED_FILE_NAME);
+    try {
+      Files.createDirectories(file.getParent());
+      Files.write(file, outdated, StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      LOGGER.warn("Dependency-Updates baseline {} could not be written", file, e);
+    }
+  }
+
+  /**
+   * Returns the branch analysed or, for a pull request, its target branch.
+   */
+  private String branch() {
+    return configuration.get(isPullRequest() ? PULL_REQUEST_BASE : BRANCH_NAME).orElse(DEFAULT_BRANCH);
+  }
+
+  @CheckForNull
+  private Path baselineFile(File moduleBaseDir, String fileName) {
+    Path file = file(branch(), moduleBaseDir, fileName);
+    if (!Files.isRegularFile(file)) {
+      // the main branch may have been analysed without its name
+      file = file(DEFAULT_BRANCH, moduleBaseDir, fileName);
+    }
+    return Files.isRegularFile(file) ? file : null;
+  }
+
+  private Path file(String branch, File moduleBaseDir, String fileName) {
+    Path directory = projectBaseDir.resolve(configuration.get(Constants.CONFIG_BASELINE_DIR).orElse("")).resolve(encode(branch));
+    String module = ReportArchive.normalize(projectBaseDir.relativize(moduleBaseDir.toPath().toAbsolutePath().normalize()).toString());
+    return (module.isEmpty() ? directory : directory.resolve(module)).resolve(fileName);
+  }
+
+  private static String encode(String branch) {
+    try {
+      return URLEncoder.encode(branch, StandardCharsets.UTF_8.name());
+    } catch (UnsupportedEncodingException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,125 @@
+/*
+ * mathan-dependency-updates-sonar-plugin
+ * Copyright (c) 2019 Matthias Hanisch
+ * matthias@mathan.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mathan.sonar.dependencyupdates;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Fixed-size HyperLogLog sketch estimating the number of distinct dependencies. Sketches of child components can be merged without loss, so the size of a measure containing a sketch does not depend
+ * on the number of dependencies within a component tree. With 2048 registers the standard error of the estimate is about 2.3%.
+ */
+public final class CardinalitySketch {
+
+  /**
+   * Prefix of a measure value containing an encoded sketch instead of a list of dependencies. It can not be confused with a dependency as these are starting with a groupId.
+   */
+  private static final String PREFIX = "#hll11:";
+  private static final int PRECISION = 11;
+  private static final int REGISTERS = 1 << PRECISION;
+  private static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTERS);
+
+  private final byte[] registers;
+
+  CardinalitySketch() {
+    this(new byte[REGISTERS]);
+  }
+
+  private CardinalitySketch(byte[] registers) {
+    this.registers = registers;
+  }
+
+  public static boolean isSketch(String value) {
+    return value.startsWith(PREFIX);
+  }
+
+  /**
+   * Decodes a sketch encoded with {@link #encode()}.
+   *
+   * @throws IllegalArgumentException If the value is not an encoded sketch.
+   */
+  public static CardinalitySketch decode(String value) {
+    if (!isSketch(value)) {
+      throw new IllegalArgumentException("Not a cardinality sketch: " + value);
+    }
+    byte[] registers = Base64.getDecoder().decode(value.substring(PREFIX.length()).getBytes(StandardCharsets.US_ASCII));
+    if (registers.length != REGISTERS) {
+      throw new IllegalArgumentException("Invalid number of registers in cardinality sketch: " + registers.length);
+    }
+    return new CardinalitySketch(registers);
+  }
+
+  String encode() {
+    return PREFIX + Base64.getEncoder().encodeToString(registers);
+  }
+
+  void add(String value) {
+    long hash = hash(value);
+    int index = (int) (hash >>> (Long.SIZE - PRECISION));
+    int rank = Math.min(Long.numberOfLeadingZeros(hash << PRECISION), Long.SIZE - PRECISION) + 1;
+    if (rank > registers[index]) {
+      registers[index] = (byte) rank;
+    }
+  }
+
+  void merge(CardinalitySketch other) {
+    for (int i = 0; i < REGISTERS; i++) {
+      if (other.registers[i] > registers[i]) {
+        registers[i] = other.registers[i];
+      }
+    }
+  }
+
+  /**
+   * Returns the estimated number of distinct values added to this sketch or any of the sketches merged into it.
+   */
+  public int estimate() {
+    double sum = 0;
+    int zeros = 0;
+    for (byte register : registers) {
+      sum += 1.0 / (1L << register);
+      if (register == 0) {
+        zeros++;
+      }
+    }
+    double estimate = ALPHA * REGISTERS * REGISTERS / sum;
+    if (estimate <= 2.5 * REGISTERS && zeros > 0) {
+      // linear counting is more accurate for small cardinalities
+      estimate = REGISTERS * Math.log((double) REGISTERS / zeros);
+    }
+    return (int) Math.min(Math.round(estimate), Integer.MAX_VALUE);
+  }
+
+  /**
+   * 64 bit FNV-1a hash of the characters finished with the MurmurHash3 mixer to spread the bits used for the register index and the rank.
+   */
+  private static long hash(String value) {
+    long hash = 0xcbf29ce484222325L;
+    for (int i = 0; i < value.length(); i++) {
+      hash ^= value.charAt(i);
+      hash *= 0x100000001b3L;
+    }
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+}
@@ -40,6 +40,27 @@ public class Configuration {
             .description("path to the 'dependency-updates-report.xml' file")
             .defaultValue(Constants.CONFIG_REPORT_PATH_DEFAULT)
             .build(),
+        PropertyDefinition.builder(Constants.CONFIG_REPORT_BUNDLE)
+            .subCategory("Paths")
+            .name("Dependency-Updates report bundle")
+            .description("path to a zip or tar.gz archive containing the 'dependency-updates-report.xml' files of all modules. If set the reports are not read from the modules.")
+            .build(),
+        PropertyDefinition.builder(Constants.CONFIG_REPORT_KINDS)
+            .subCategory("Paths")
+            .name("Dependency-Updates report kinds")
+            .description("Kinds of reports read. The 'plugin-updates-report.xml' and 'property-updates-report.xml' are only read if enabled and are expected next to the "
+                + "'dependency-updates-report.xml'.")
+            .options("dependency", "plugin", "property")
+            .defaultValue(Constants.CONFIG_REPORT_KINDS_DEFAULT)
+            .type(PropertyType.SINGLE_SELECT_LIST)
+            .multiValues(true)
+            .build(),
+        PropertyDefinition.builder(Constants.CONFIG_GRADLE_REPORT_PATH_PROPERTY)
+            .subCategory("Paths")
+            .name("Gradle report path")
+            .description("path to the JSON 'report.json' file of the Gradle versions plugin (com.github.ben-manes.versions). It is read for modules built with Gradle.")
+            .defaultValue(Constants.CONFIG_GRADLE_REPORT_PATH_DEFAULT)
+            .build(),
         PropertyDefinition.builder(Constants.CONFIG_UPDATE_INCREMENTAL)
             .subCategory(Constants.SUB_CATEGORY_DEFAULT_SEVERITIES)
             .name("Incremental updates")
@@ -165,6 +186,147 @@ public class Configuration {
             .description("Flag indicating whether the total number of missed patches/upgrades measure will be hidden. (Change requires restart)")
             .type(PropertyType.BOOLEAN)
             .defaultValue(String.valueOf(Constants.CONFIG_MEASURE_HIDE_MISSED_DEFAULT))
+            .build(),
+        PropertyDefinition.builder(Constants.CONFIG_ISSUE_GROUPING)
+            .subCategory(Constants.SUB_CATEGORY_ISSUES)
+            .name("Issue grouping")
+            .description("Reports all updates of the same kind ('availability') or of the same kind and group id ('groupId') with a single issue instead of an issue per dependency.")
+            .options("none", "availability", "groupId")
+            .defaultValue(Constants.CONFIG_ISSUE_GROUPING_DEFAULT)
+            .type(PropertyType.SINGLE_SELECT_LIST)
+            .index(1)
+            .build(),
+        PropertyDefinition.builder(Constants.CONFIG_MAX_ISSUES)
+            .subCategory(Constants.SUB_CATEGORY_ISSUES)
+            .name("Maximum issues per module")
+            .description("Maximum number of issues reported for a module. Issues with higher severity are reported first. 0 reports all issues.")
+            .type(PropertyType.INTEGER)
+            .defaultValue(String.valueOf(Constants.CONFIG_MAX_ISSUES_DEFAULT))
+            .index(2)
+            .build(),
+        PropertyDefinition.builder(Constants.CONFIG_FOLD_BOMS)
+            .subCategory(Constants.SUB_CATEGORY_ISSUES)
+            .name("Fold BOM imports")
+            .description("Reports the managed dependencies imported from a BOM with a single issue on the import of the BOM in the pom.xml.")
+            .type(PropertyType.BOOLEAN)
+            .defaultValue(String.valueOf(Constants.CONFIG_FOLD_BOMS_DEFAULT))
+            .index(3)
+            .build(),
+        PropertyDefinition.builder(Constants.CONFIG_CHANGED_ONLY)
+            .subCategory(Constants.SUB_CATEGORY_PULL_REQUESTS)
+            .name("Changed dependencies only")
+            .description("Reports only the dependencies changed by a pull request. The analysis of a module is skipped if the pull request does not change its pom.xml.")
+            .type(PropertyType.BOOLEAN)
+            .defaultValue(String.valueOf(Constants.CONFIG_CHANGED_ONLY_DEFAULT))
+            .index(1)
+            .build(),
+        PropertyDefinition.builder(Constants.CONFIG_BASELINE_DIR)
+            .subCategory(Constants.SUB_CATEGORY_PULL_REQUESTS)
+            .name("Baseline directory")
+            .description("Directory the coordinates declared by the pom.xml of each module are kept in for each branch. Pull requests compare the pom.xml with the coordinates of their"
+                + " target branch. The directory has to be kept between builds.")
+            .index(2)
+            .build(),
+        PropertyDefinition.builder(Constants.CONFIG_PARALLEL_THRESHOLD)
+            .subCategory(Constants.SUB_CATEGORY_PERFORMANCE)
+            .name("Parallel classification threshold")
+            .description("Minimum number of dependencies of a module for which the severities are determined in parallel. A value of '0' disables"
+                + " parallel classification.")
+            .type(PropertyType.INTEGER)
+            .defaultValue(String.valueOf(Constants.CONFIG_PARALLEL_THRESHOLD_DEFAULT))
+            .index(1)
+            .build(),
+        PropertyDefinition.builder(Constants.CONFIG_SKIP)
+            .subCategory(Constants.SUB_CATEGORY_PERFORMANCE)
+            .name("Skip analysis")
+            .description("Skips the Dependency-Updates analysis, e.g. for projects not built with Maven.")
+            .type(PropertyType.BOOLEAN)
+            .defaultValue(String.valueOf(Constants.CONFIG_SKIP_DEFAULT))
+            .index(2)
+            .build(),
+        PropertyDefinition.builder(Constants.CONFIG_PARALLEL_PARSING)
+            .subCategory(Constants.SUB_CATEGORY_PERFORMANCE)
+            .name("Parallel parsing")
+            .description("Large reports are split into chunks of dependencies which are parsed in parallel.")
+            .type(PropertyType.BOOLEAN)
+            .defaultValue(String.valueOf(Constants.CONFIG_PARALLEL_PARSING_DEFAULT))
+            .index(3)
+            .build(),
+        PropertyDefinition.builder(Constants.CONFIG_COMPACT)
+            .subCategory(Constants.SUB_CATEGORY_PERFORMANCE)
+            .name("Compact measures")
+            .description("Lists of dependencies exceeding the exact limit are replaced by a fixed-size sketch. The number of distinct dependencies is estimated"
+                + " then and missed patches/upgrades are summed up over the child components.")
+            .type(PropertyType.BOOLEAN)
+            .defaultValue(String.valueOf(Constants.CONFIG_COMPACT_DEFAULT))
+            .index(4)
+            .build(),
+        PropertyDefinition.builder(Constants.CONFIG_COMPACT_EXACT_LIMIT)
+            .subCategory(Constants.SUB_CATEGORY_PERFORMANCE)
+            .name("Compact measures exact limit")
+            .description("Maximum number of dependencies of a component kept as exact list if compact measures are enabled.")
+            .type(PropertyType.INTEGER)
+            .defaultValue(String.valueOf(Constants.CONFIG_COMPACT_EXACT_LIMIT_DEFAULT))
+            .index(5)
+            .build(),
+        PropertyDefinition.builder(Constants.CONFIG_SLOW_COMPONENT_THRESHOLD)
+            .subCategory(Constants.SUB_CATEGORY_PERFORMANCE)
+            .name("Slow component threshold (ms)")
+            .description("A warning is logged by the compute engine if computing the measures of a single component takes longer. 0 disables the warning.")
+            .type(PropertyType.INTEGER)
+            .defaultValue(String.valueOf(Constants.CONFIG_SLOW_COMPONENT_THRESHOLD_DEFAULT))
+            .index(6)
+            .build(),
+        PropertyDefinition.builder(Constants.CONFIG_LARGE_MEASURE_THRESHOLD)
+            .subCategory(Constants.SUB_CATEGORY_PERFORMANCE)
+            .name("Large measure threshold (KB)")
+            .description("A warning is logged by the compute engine if a list of dependencies measured for a single component is larger. Such components should use compact measures. "
+                + "0 disables the warning.")
+            .type(PropertyType.INTEGER)
+            .defaultValue(String.valueOf(Constants.CONFIG_LARGE_MEASURE_THRESHOLD_DEFAULT))
+            .index(7)
+            .build(),
+        PropertyDefinition.builder(Constants.CONFIG_TIME_BUDGET)
+            .subCategory(Constants.SUB_CATEGORY_PERFORMANCE)
+            .name("Time budget per module (ms)")
+            .description("Time the analysis of a module may take. If exceeded, the analysis of the module finishes without further issues, measures of changes since the "
+                + "previous analysis and lists of dependencies (only their estimated number is kept) and the module is counted in the measure 'Modules analysed in degraded mode'. "
+                + "0 disables the time budget.")
+            .type(PropertyType.INTEGER)
+            .defaultValue(String.valueOf(Constants.CONFIG_TIME_BUDGET_DEFAULT))
+            .index(8)
+            .build(),
+        PropertyDefinition.builder(Constants.CONFIG_EXTERNAL_MERGE)
+            .subCategory(Constants.SUB_CATEGORY_PERFORMANCE)
+            .name("Aggregate project in scanner")
+            .description("If enabled, the measures of the project are computed by the scanner from the dependencies of all modules instead of the compute engine. Dependencies exceeding the "
+                + "memory threshold are written to sorted files in the work directory and merged at the end of the analysis.")
+            .type(PropertyType.BOOLEAN)
+            .defaultValue(String.valueOf(Constants.CONFIG_EXTERNAL_MERGE_DEFAULT))
+            .index(9)
+            .build(),
+        PropertyDefinition.builder(Constants.CONFIG_EXTERNAL_MERGE_THRESHOLD)
+            .subCategory(Constants.SUB_CATEGORY_PERFORMANCE)
+            .name("Aggregation memory threshold (MB)")
+            .description("Estimated memory in MB the dependencies of the modules may take before they are written to the work directory, if the project is aggregated in the scanner.")
+            .type(PropertyType.INTEGER)
+            .defaultValue(String.valueOf(Constants.CONFIG_EXTERNAL_MERGE_THRESHOLD_DEFAULT))
+            .index(10)
+            .build(),
+        PropertyDefinition.builder(Constants.CONFIG_WS_CACHE_SIZE)
+            .subCategory(Constants.SUB_CATEGORY_WEB_SERVICE)
+            .name("Cache size (MB)")
+            .description("Memory in MB used by the web service api/dependency_updates to keep the dependencies of recently requested projects. Changes take effect after a restart.")
+            .type(PropertyType.INTEGER)
+            .defaultValue(String.valueOf(Constants.CONFIG_WS_CACHE_SIZE_DEFAULT))
+            .index(1)
+            .build(),
+        PropertyDefinition.builder(Constants.CONFIG_INDEX_DIR)
+            .subCategory(Constants.SUB_CATEGORY_WEB_SERVICE)
+            .name("Artifact index directory")
+            .description("Directory of the index of the projects using an artifact which is updated after each analysis of a main branch. Defaults to the directory dependency-updates in the "
+                + "data directory of SonarQube. The directory has to be shared by the web server and the compute engine, in a cluster it has to be on a file system shared by all nodes.")
+            .index(2)
             .build()
     );
   }
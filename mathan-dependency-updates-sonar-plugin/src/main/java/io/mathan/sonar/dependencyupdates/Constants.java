@@ -24,6 +24,11 @@ public final class Constants {
 
   public static final String CONFIG_REPORT_PATH_PROPERTY = "sonar.dependencyUpdates.reportPath";
   public static final String CONFIG_REPORT_PATH_DEFAULT = "target/dependency-updates-report.xml";
+  static final String CONFIG_REPORT_BUNDLE = "sonar.dependencyUpdates.reportBundle";
+  static final String CONFIG_REPORT_KINDS = "sonar.dependencyUpdates.reportKinds";
+  static final String CONFIG_REPORT_KINDS_DEFAULT = "dependency";
+  public static final String CONFIG_GRADLE_REPORT_PATH_PROPERTY = "sonar.dependencyUpdates.gradleReportPath";
+  public static final String CONFIG_GRADLE_REPORT_PATH_DEFAULT = "build/dependencyUpdates/report.json";
 
   static final String CONFIG_UPDATE_INCREMENTAL = "sonar.dependencyUpdates.updateIncremental";
   static final String CONFIG_UPDATE_INCREMENTAL_DEFAULT = Severity.MINOR;
@@ -53,17 +58,60 @@ public final class Constants {
   static final String CONFIG_MEASURE_HIDE_RATING = "sonar.dependencyUpdates.hide.rating";
   static final Boolean CONFIG_MEASURE_HIDE_RATING_DEFAULT = false;
 
+  static final String CONFIG_PARALLEL_THRESHOLD = "sonar.dependencyUpdates.parallelThreshold";
+  static final int CONFIG_PARALLEL_THRESHOLD_DEFAULT = 0;
+  static final String CONFIG_SKIP = "sonar.dependencyUpdates.skip";
+  static final Boolean CONFIG_SKIP_DEFAULT = false;
+  static final String CONFIG_PARALLEL_PARSING = "sonar.dependencyUpdates.parallelParsing";
+  static final Boolean CONFIG_PARALLEL_PARSING_DEFAULT = false;
+  static final String CONFIG_COMPACT = "sonar.dependencyUpdates.compact";
+  static final Boolean CONFIG_COMPACT_DEFAULT = false;
+  static final String CONFIG_COMPACT_EXACT_LIMIT = "sonar.dependencyUpdates.compact.exactLimit";
+  static final int CONFIG_COMPACT_EXACT_LIMIT_DEFAULT = 1000;
+  static final String CONFIG_SLOW_COMPONENT_THRESHOLD = "sonar.dependencyUpdates.slowComponentThreshold";
+  static final int CONFIG_SLOW_COMPONENT_THRESHOLD_DEFAULT = 1000;
+  static final String CONFIG_LARGE_MEASURE_THRESHOLD = "sonar.dependencyUpdates.largeMeasureThreshold";
+  static final int CONFIG_LARGE_MEASURE_THRESHOLD_DEFAULT = 1024;
+  static final String CONFIG_TIME_BUDGET = "sonar.dependencyUpdates.timeBudget";
+  static final long CONFIG_TIME_BUDGET_DEFAULT = 0;
+  static final String CONFIG_EXTERNAL_MERGE = "sonar.dependencyUpdates.externalMerge";
+  static final Boolean CONFIG_EXTERNAL_MERGE_DEFAULT = false;
+  static final String CONFIG_EXTERNAL_MERGE_THRESHOLD = "sonar.dependencyUpdates.externalMerge.threshold";
+  static final long CONFIG_EXTERNAL_MERGE_THRESHOLD_DEFAULT = 64;
+  static final String CONFIG_ISSUE_GROUPING = "sonar.dependencyUpdates.issueGrouping";
+  static final String CONFIG_ISSUE_GROUPING_DEFAULT = "none";
+  static final String CONFIG_MAX_ISSUES = "sonar.dependencyUpdates.maxIssues";
+  static final int CONFIG_MAX_ISSUES_DEFAULT = 0;
+  static final String CONFIG_FOLD_BOMS = "sonar.dependencyUpdates.foldBoms";
+  static final Boolean CONFIG_FOLD_BOMS_DEFAULT = false;
+  static final String CONFIG_CHANGED_ONLY = "sonar.dependencyUpdates.pullRequest.changedOnly";
+  static final Boolean CONFIG_CHANGED_ONLY_DEFAULT = true;
+  static final String CONFIG_BASELINE_DIR = "sonar.dependencyUpdates.pullRequest.baselineDir";
+  public static final String CONFIG_WS_CACHE_SIZE = "sonar.dependencyUpdates.ws.cacheSize";
+  public static final int CONFIG_WS_CACHE_SIZE_DEFAULT = 64;
+  public static final String CONFIG_INDEX_DIR = "sonar.dependencyUpdates.index.dir";
+
 
 
 
   public static final String REPOSITORY_KEY = "DependencyUpdates";
   public static final String LANGUAGE_KEY = "mathan";
+  /**
+   * Key of the rule for all updates. Replaced by the rules for patches, minor and major updates.
+   */
   public static final String RULE_KEY = "UsingDependencyWithAvailableUpdates";
+  public static final String RULE_KEY_PATCH = "UsingDependencyWithAvailablePatch";
+  public static final String RULE_KEY_MINOR = "UsingDependencyWithAvailableMinorUpdate";
+  public static final String RULE_KEY_MAJOR = "UsingDependencyWithAvailableMajorUpdate";
   static final String SUB_CATEGORY_DEFAULT_SEVERITIES = "Default Severities";
   static final String SUB_CATEGORY_INCLUSIONS_EXCLUSIONS = "Inclusions/Exclusions";
   static final String SUB_CATEGORY_OVERRIDES = "Overrides";
   static final String SUB_CATEGORY_VERSIONS = "Versions";
   static final String SUB_CATEGORY_APPEARANCE = "Appearance";
+  static final String SUB_CATEGORY_PERFORMANCE = "Performance";
+  static final String SUB_CATEGORY_ISSUES = "Issues";
+  static final String SUB_CATEGORY_PULL_REQUESTS = "Pull Requests";
+  static final String SUB_CATEGORY_WEB_SERVICE = "Web Service";
 
   private Constants() {
   }
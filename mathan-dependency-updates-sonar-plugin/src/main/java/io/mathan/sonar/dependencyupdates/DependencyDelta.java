@@ -0,0 +1,102 @@
+/*
+ * mathan-dependency-updates-sonar-plugin
+ * Copyright (c) 2019 Matthias Hanisch
+ * matthias@mathan.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mathan.sonar.dependencyupdates;
+
+import io.mathan.sonar.dependencyupdates.parser.Analysis;
+import io.mathan.sonar.dependencyupdates.parser.Dependency;
+import io.mathan.sonar.dependencyupdates.parser.Dependency.Availability;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * The changes of the outdated dependencies of a module compared to a previous analysis. Both lists of outdated dependencies are sorted, so the delta is determined with a single merge of the
+ * lists.
+ */
+final class DependencyDelta {
+
+  private final List<String> newOutdated = new ArrayList<>();
+  private int resolved;
+  private int stillOutdated;
+
+  private DependencyDelta() {
+  }
+
+  /**
+   * Returns the sorted keys of the outdated dependencies of the given analysis. A dependency stays the same outdated dependency if its version changed but there are still updates available.
+   *
+   * @see Dependency#toKeyString()
+   */
+  static List<String> outdated(Analysis analysis) {
+    return analysis.all().stream()
+        .filter(dependency -> dependency.getAvailability() != Availability.None)
+        .map(Dependency::toKeyString)
+        .sorted()
+        .distinct()
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Merges the sorted outdated dependencies of the previous and the current analysis.
+   */
+  static DependencyDelta merge(List<String> previous, List<String> current) {
+    DependencyDelta delta = new DependencyDelta();
+    int i = 0;
+    int j = 0;
+    while (i < previous.size() && j < current.size()) {
+      int compare = previous.get(i).compareTo(current.get(j));
+      if (compare < 0) {
+        delta.resolved++;
+        i++;
+      } else if (compare > 0) {
+        delta.newOutdated.add(current.get(j));
+        j++;
+      } else {
+        delta.stillOutdated++;
+        i++;
+        j++;
+      }
+    }
+    delta.resolved += previous.size() - i;
+    delta.newOutdated.addAll(current.subList(j, current.size()));
+    return delta;
+  }
+
+  /**
+   * Returns the keys of the dependencies outdated since the previous analysis.
+   */
+  List<String> getNewOutdated() {
+    return Collections.unmodifiableList(newOutdated);
+  }
+
+  /**
+   * Returns the number of dependencies outdated in the previous analysis which are up to date or no longer used now.
+   */
+  int getResolved() {
+    return resolved;
+  }
+
+  /**
+   * Returns the number of dependencies outdated in both analyses.
+   */
+  int getStillOutdated() {
+    return stillOutdated;
+  }
+}
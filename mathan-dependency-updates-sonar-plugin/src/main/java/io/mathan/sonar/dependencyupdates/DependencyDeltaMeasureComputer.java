@@ -0,0 +1,71 @@
+/*
+ * mathan-dependency-updates-sonar-plugin
+ * Copyright (c) 2019 Matthias Hanisch
+ * matthias@mathan.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mathan.sonar.dependencyupdates;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.TreeSet;
+import org.sonar.api.ce.measure.Component.Type;
+import org.sonar.api.ce.measure.Measure;
+import org.sonar.api.ce.measure.MeasureComputer;
+
+/**
+ * Aggregates the metrics of the changes since the previous analysis reported for the pom.xml of the modules. All counts are summed up, so a dependency outdated in several modules is counted
+ * once for each module. Only the list of outdated dependencies is unique.
+ */
+public class DependencyDeltaMeasureComputer implements MeasureComputer {
+
+  @Override
+  public MeasureComputerDefinition define(MeasureComputerDefinitionContext defContext) {
+    return defContext
+        .newDefinitionBuilder()
+        .setOutputMetrics(
+            Metrics.KEY_DELTA_OUTDATED,
+            Metrics.KEY_DELTA_OUTDATED_DATA,
+            Metrics.KEY_DELTA_RESOLVED,
+            Metrics.KEY_DELTA_STILL_OUTDATED)
+        .build();
+  }
+
+  @Override
+  public void compute(MeasureComputerContext context) {
+    if (context.getComponent().getType() == Type.FILE || !context.getChildrenMeasures(Metrics.KEY_DELTA_OUTDATED_DATA).iterator().hasNext()) {
+      // there is no previous analysis for any module
+      return;
+    }
+    Set<String> newOutdated = new TreeSet<>();
+    for (Measure m : context.getChildrenMeasures(Metrics.KEY_DELTA_OUTDATED_DATA)) {
+      if (!m.getStringValue().isEmpty()) {
+        newOutdated.addAll(Arrays.asList(m.getStringValue().split(",")));
+      }
+    }
+    context.addMeasure(Metrics.KEY_DELTA_OUTDATED_DATA, String.join(",", newOutdated));
+    context.addMeasure(Metrics.KEY_DELTA_OUTDATED, sum(context, Metrics.KEY_DELTA_OUTDATED));
+    context.addMeasure(Metrics.KEY_DELTA_RESOLVED, sum(context, Metrics.KEY_DELTA_RESOLVED));
+    context.addMeasure(Metrics.KEY_DELTA_STILL_OUTDATED, sum(context, Metrics.KEY_DELTA_STILL_OUTDATED));
+  }
+
+  private static int sum(MeasureComputerContext context, String metric) {
+    int sum = 0;
+    for (Measure m : context.getChildrenMeasures(metric)) {
+      sum += m.getIntValue();
+    }
+    return sum;
+  }
+}
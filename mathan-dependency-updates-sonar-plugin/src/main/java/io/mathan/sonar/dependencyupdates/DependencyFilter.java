@@ -21,102 +21,79 @@ package io.mathan.sonar.dependencyupdates;
 import io.mathan.sonar.dependencyupdates.filter.PatternArtifactFilter;
 import io.mathan.sonar.dependencyupdates.parser.Dependency;
 import io.mathan.sonar.dependencyupdates.parser.Dependency.Availability;
+import io.mathan.sonar.dependencyupdates.version.Version;
 import java.util.Arrays;
-import org.apache.maven.artifact.Artifact;
-import org.apache.maven.artifact.DefaultArtifact;
-import org.apache.maven.artifact.handler.DefaultArtifactHandler;
-import org.apache.maven.artifact.resolver.filter.ArtifactFilter;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import org.sonar.api.batch.rule.Severity;
-import org.sonar.api.batch.sensor.SensorContext;
 
-public class DependencyFilter {
-
-  private Severity defaultSeverityIncremental;
-  private Severity defaultSeverityMinor;
-  private Severity defaultSeverityMajor;
-
-  private ArtifactFilter inclusions;
-  private ArtifactFilter exclusions;
-  private ArtifactFilter overrideInfo;
-  private ArtifactFilter overrideMinor;
-  private ArtifactFilter overrideMajor;
-  private ArtifactFilter overrideCritical;
-  private ArtifactFilter overrideBlocker;
-
-  static DependencyFilter create(Severity defaultSeverityIncremental, Severity defaultSeverityMinor, Severity defaultSeverityMajor,
-      String inclusions, String exclusions, String overrideInfo, String overrideMinor, String overrideMajor, String overrideCritical, String overrideBlocker) {
-    DependencyFilter filter = new DependencyFilter();
-    filter.defaultSeverityIncremental = defaultSeverityIncremental;
-    filter.defaultSeverityMinor = defaultSeverityMinor;
-    filter.defaultSeverityMajor = defaultSeverityMajor;
-    filter.inclusions = getIncludeFilter(inclusions);
-    filter.exclusions = getIncludeFilter(exclusions);
-    filter.overrideInfo = getIncludeFilter(overrideInfo);
-    filter.overrideMinor = getIncludeFilter(overrideMinor);
-    filter.overrideMajor = getIncludeFilter(overrideMajor);
-    filter.overrideCritical = getIncludeFilter(overrideCritical);
-    filter.overrideBlocker = getIncludeFilter(overrideBlocker);
-    return filter;
-  }
-
-
-  static DependencyFilter create(SensorContext context) {
-    return create(
-        Severity.valueOf(context.config().get(Constants.CONFIG_UPDATE_INCREMENTAL).orElse(Constants.CONFIG_UPDATE_INCREMENTAL_DEFAULT)),
-        Severity.valueOf(context.config().get(Constants.CONFIG_UPDATE_MINOR).orElse(Constants.CONFIG_UPDATE_MINOR_DEFAULT)),
-        Severity.valueOf(context.config().get(Constants.CONFIG_UPDATE_MAJOR).orElse(Constants.CONFIG_UPDATE_MAJOR_DEFAULT)),
-        context.config().get(Constants.CONFIG_INCLUSIONS).orElse(":::::"),
-        context.config().get(Constants.CONFIG_EXCLUSIONS).orElse(""),
-        context.config().get(Constants.CONFIG_OVERRIDE_INFO).orElse(""),
-        context.config().get(Constants.CONFIG_OVERRIDE_MINOR).orElse(""),
-        context.config().get(Constants.CONFIG_OVERRIDE_MAJOR).orElse(""),
-        context.config().get(Constants.CONFIG_OVERRIDE_CRITICAL).orElse(""),
-        context.config().get(Constants.CONFIG_OVERRIDE_BLOCKER).orElse(""));
-  }
-
-  public void setDefaultSeverityIncremental(Severity defaultSeverityIncremental) {
-    this.defaultSeverityIncremental = defaultSeverityIncremental;
-  }
-
-  public void setDefaultSeverityMinor(Severity defaultSeverityMinor) {
-    this.defaultSeverityMinor = defaultSeverityMinor;
-  }
-
-  public void setDefaultSeverityMajor(Severity defaultSeverityMajor) {
-    this.defaultSeverityMajor = defaultSeverityMajor;
-  }
+/**
+ * Determines the severity of issues for dependencies with updates available. A DependencyFilter is immutable once created with {@link #builder()} and can therefore be shared between modules and
+ * threads.
+ */
+public final class DependencyFilter {
 
-  public void setInclusions(String inclusions) {
-    this.inclusions = getIncludeFilter(inclusions);
-  }
+  /**
+   * Minimum number of dependencies classified by a single fork join task.
+   */
+  private static final int MIN_CHUNK_SIZE = 256;
 
-  public void setExclusions(String exclusions) {
-    this.exclusions = getIncludeFilter(exclusions);
-  }
+  private final Severity defaultSeverityIncremental;
+  private final Severity defaultSeverityMinor;
+  private final Severity defaultSeverityMajor;
 
-  public void setOverrideInfo(String overrideInfo) {
-    this.overrideInfo = getIncludeFilter(overrideInfo);
-  }
+  private final PatternArtifactFilter inclusions;
+  private final PatternArtifactFilter exclusions;
+  private final PatternArtifactFilter overrideInfo;
+  private final PatternArtifactFilter overrideMinor;
+  private final PatternArtifactFilter overrideMajor;
+  private final PatternArtifactFilter overrideCritical;
+  private final PatternArtifactFilter overrideBlocker;
 
-  public void setOverrideMinor(String overrideMinor) {
-    this.overrideMinor = getIncludeFilter(overrideMinor);
-  }
+  private final int parallelThreshold;
 
-  public void setOverrideMajor(String overrideMajor) {
-    this.overrideMajor = getIncludeFilter(overrideMajor);
+  private DependencyFilter(Builder builder) {
+    this.defaultSeverityIncremental = builder.defaultSeverityIncremental;
+    this.defaultSeverityMinor = builder.defaultSeverityMinor;
+    this.defaultSeverityMajor = builder.defaultSeverityMajor;
+    this.inclusions = getIncludeFilter(builder.inclusions);
+    this.exclusions = getIncludeFilter(builder.exclusions);
+    this.overrideInfo = getIncludeFilter(builder.overrideInfo);
+    this.overrideMinor = getIncludeFilter(builder.overrideMinor);
+    this.overrideMajor = getIncludeFilter(builder.overrideMajor);
+    this.overrideCritical = getIncludeFilter(builder.overrideCritical);
+    this.overrideBlocker = getIncludeFilter(builder.overrideBlocker);
+    this.parallelThreshold = builder.parallelThreshold;
   }
 
-  public void setOverrideCritical(String overrideCritical) {
-    this.overrideCritical = getIncludeFilter(overrideCritical);
+  /**
+   * Creates a new {@link Builder} initialized with the default configuration of this Sonar-Plugin.
+   */
+  public static Builder builder() {
+    return new Builder();
   }
 
-  public void setOverrideBlocker(String overrideBlocker) {
-    this.overrideBlocker = getIncludeFilter(overrideBlocker);
+  static DependencyFilter create(Severity defaultSeverityIncremental, Severity defaultSeverityMinor, Severity defaultSeverityMajor,
+      String inclusions, String exclusions, String overrideInfo, String overrideMinor, String overrideMajor, String overrideCritical, String overrideBlocker) {
+    return builder()
+        .defaultSeverityIncremental(defaultSeverityIncremental)
+        .defaultSeverityMinor(defaultSeverityMinor)
+        .defaultSeverityMajor(defaultSeverityMajor)
+        .inclusions(inclusions)
+        .exclusions(exclusions)
+        .overrideInfo(overrideInfo)
+        .overrideMinor(overrideMinor)
+        .overrideMajor(overrideMajor)
+        .overrideCritical(overrideCritical)
+        .overrideBlocker(overrideBlocker)
+        .build();
   }
 
-  private static ArtifactFilter getIncludeFilter(String pattern) {
+  private static PatternArtifactFilter getIncludeFilter(String pattern) {
     if (pattern.trim().isEmpty()) {
-      return new ExcludeArtifactFilter();
+      return new PatternArtifactFilter(Collections.emptyList());
     } else {
       return new PatternArtifactFilter(Arrays.asList(pattern.split(",")));
     }
@@ -133,17 +110,17 @@ public class DependencyFilter {
     if (dependency.getAvailability() == Availability.None) {
       return null;
     }
-    Artifact artifact = asArtifact(dependency);
-    if (inclusions.include(artifact) && !exclusions.include(artifact)) {
-      if (overrideBlocker.include(artifact)) {
+    Version version = dependency.getParsedVersion();
+    if (inclusions.include(dependency, version) && !exclusions.include(dependency, version)) {
+      if (overrideBlocker.include(dependency, version)) {
         return Severity.BLOCKER;
-      } else if (overrideCritical.include(artifact)) {
+      } else if (overrideCritical.include(dependency, version)) {
         return Severity.CRITICAL;
-      } else if (overrideMajor.include(artifact)) {
+      } else if (overrideMajor.include(dependency, version)) {
         return Severity.MAJOR;
-      } else if (overrideMinor.include(artifact)) {
+      } else if (overrideMinor.include(dependency, version)) {
         return Severity.MINOR;
-      } else if (overrideInfo.include(artifact)) {
+      } else if (overrideInfo.include(dependency, version)) {
         return Severity.INFO;
       } else {
         switch (dependency.getAvailability()) {
@@ -162,22 +139,144 @@ public class DependencyFilter {
     }
   }
 
-  private static Artifact asArtifact(Dependency dependency) {
-    return new DefaultArtifact(
-        dependency.getGroupId(),
-        dependency.getArtifactId(),
-        dependency.getVersion(),
-        dependency.getScope(),
-        dependency.getType(),
-        dependency.getClassifier(),
-        new DefaultArtifactHandler());
+  /**
+   * Determines the severities for a batch of dependencies as {@link #severity(Dependency)} does for a single one. If the batch contains at least as many dependencies as configured by
+   * {@link Constants#CONFIG_PARALLEL_THRESHOLD} the classification is split across the common {@link ForkJoinPool}.
+   *
+   * @param dependencies The dependencies to determine the severities for.
+   * @return The severities in the order of the given dependencies. An element is <code>null</code> if no issue should be created for the dependency at the same position.
+   */
+  public List<Severity> severities(List<Dependency> dependencies) {
+    Severity[] severities = new Severity[dependencies.size()];
+    if (parallelThreshold > 0 && dependencies.size() >= parallelThreshold) {
+      int parallelism = ForkJoinPool.getCommonPoolParallelism();
+      int chunkSize = Math.max(MIN_CHUNK_SIZE, dependencies.size() / (parallelism * 4));
+      ForkJoinPool.commonPool().invoke(new ClassificationTask(dependencies, severities, 0, dependencies.size(), chunkSize));
+    } else {
+      classify(dependencies, severities, 0, dependencies.size());
+    }
+    return Arrays.asList(severities);
+  }
+
+  private void classify(List<Dependency> dependencies, Severity[] severities, int from, int to) {
+    for (int i = from; i < to; i++) {
+      severities[i] = severity(dependencies.get(i));
+    }
   }
 
-  static class ExcludeArtifactFilter implements ArtifactFilter {
+  /**
+   * Classifies a range of dependencies. Ranges larger than the chunk size are split in halves so the results are written to the positions of the dependencies classified.
+   */
+  private final class ClassificationTask extends RecursiveAction {
+
+    private final List<Dependency> dependencies;
+    private final Severity[] severities;
+    private final int from;
+    private final int to;
+    private final int chunkSize;
+
+    ClassificationTask(List<Dependency> dependencies, Severity[] severities, int from, int to, int chunkSize) {
+      this.dependencies = dependencies;
+      this.severities = severities;
+      this.from = from;
+      this.to = to;
+      this.chunkSize = chunkSize;
+    }
 
     @Override
-    public boolean include(Artifact artifact) {
-      return false;
+    protected void compute() {
+      if (to - from <= chunkSize) {
+        classify(dependencies, severities, from, to);
+      } else {
+        int middle = (from + to) >>> 1;
+        invokeAll(
+            new ClassificationTask(dependencies, severities, from, middle, chunkSize),
+            new ClassificationTask(dependencies, severities, middle, to, chunkSize));
+      }
+    }
+  }
+
+  /**
+   * Builder for {@link DependencyFilter}. Patterns are using the artifact pattern syntax of {@link PatternArtifactFilter} and may contain multiple patterns separated by comma. An empty pattern
+   * matches no dependency.
+   */
+  public static final class Builder {
+
+    private Severity defaultSeverityIncremental = Severity.valueOf(Constants.CONFIG_UPDATE_INCREMENTAL_DEFAULT);
+    private Severity defaultSeverityMinor = Severity.valueOf(Constants.CONFIG_UPDATE_MINOR_DEFAULT);
+    private Severity defaultSeverityMajor = Severity.valueOf(Constants.CONFIG_UPDATE_MAJOR_DEFAULT);
+    private String inclusions = ":::::";
+    private String exclusions = "";
+    private String overrideInfo = "";
+    private String overrideMinor = "";
+    private String overrideMajor = "";
+    private String overrideCritical = "";
+    private String overrideBlocker = "";
+    private int parallelThreshold = Constants.CONFIG_PARALLEL_THRESHOLD_DEFAULT;
+
+    private Builder() {
+    }
+
+    public Builder defaultSeverityIncremental(Severity defaultSeverityIncremental) {
+      this.defaultSeverityIncremental = defaultSeverityIncremental;
+      return this;
+    }
+
+    public Builder defaultSeverityMinor(Severity defaultSeverityMinor) {
+      this.defaultSeverityMinor = defaultSeverityMinor;
+      return this;
+    }
+
+    public Builder defaultSeverityMajor(Severity defaultSeverityMajor) {
+      this.defaultSeverityMajor = defaultSeverityMajor;
+      return this;
+    }
+
+    public Builder inclusions(String inclusions) {
+      this.inclusions = inclusions;
+      return this;
+    }
+
+    public Builder exclusions(String exclusions) {
+      this.exclusions = exclusions;
+      return this;
+    }
+
+    public Builder overrideInfo(String overrideInfo) {
+      this.overrideInfo = overrideInfo;
+      return this;
+    }
+
+    public Builder overrideMinor(String overrideMinor) {
+      this.overrideMinor = overrideMinor;
+      return this;
+    }
+
+    public Builder overrideMajor(String overrideMajor) {
+      this.overrideMajor = overrideMajor;
+      return this;
+    }
+
+    public Builder overrideCritical(String overrideCritical) {
+      this.overrideCritical = overrideCritical;
+      return this;
+    }
+
+    public Builder overrideBlocker(String overrideBlocker) {
+      this.overrideBlocker = overrideBlocker;
+      return this;
+    }
+
+    /**
+     * Sets the minimum number of dependencies for which {@link DependencyFilter#severities(List)} classifies in parallel. A value of <code>0</code> disables parallel classification.
+     */
+    public Builder parallelThreshold(int parallelThreshold) {
+      this.parallelThreshold = parallelThreshold;
+      return this;
+    }
+
+    public DependencyFilter build() {
+      return new DependencyFilter(this);
     }
   }
 }
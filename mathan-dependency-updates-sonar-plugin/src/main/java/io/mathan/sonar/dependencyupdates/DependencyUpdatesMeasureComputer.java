@@ -18,20 +18,34 @@
 
 package io.mathan.sonar.dependencyupdates;
 
+import io.mathan.sonar.dependencyupdates.index.ArtifactIndexTask;
+import io.mathan.sonar.dependencyupdates.profiling.PhaseEvent;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import javax.annotation.CheckForNull;
 import org.sonar.api.ce.measure.Component.Type;
 import org.sonar.api.ce.measure.Measure;
 import org.sonar.api.ce.measure.MeasureComputer;
+import org.sonar.api.ce.measure.Settings;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
 
 /**
- * As the metrics are reported for the pom.xml only, aggregation has to be made with this {@link MeasureComputer}.
+ * As the metrics are reported for the pom.xml only, aggregation has to be made with this {@link MeasureComputer}. The time spent per component and the size of the lists of dependencies are tracked
+ * per analysis and logged as summary once the project has been computed.
  */
 public class DependencyUpdatesMeasureComputer implements MeasureComputer {
 
+  private static final Logger LOGGER = Loggers.get(DependencyUpdatesMeasureComputer.class);
+  /**
+   * The components of an analysis are computed by a single thread of the compute engine, while several analyses may be computed at the same time.
+   */
+  private static final ThreadLocal<Statistics> STATISTICS = ThreadLocal.withInitial(Statistics::new);
+
   private static final Pattern PATTERN_PATCHES = Pattern.compile("[^:]*:[^:]*:[^:]*:([^:]*):[^:]*");
   private static final Pattern PATTERN_UPGRADES = Pattern.compile("[^:]*:[^:]*:[^:]*:[^:]*:([^:]*)");
 
@@ -60,43 +74,147 @@ public class DependencyUpdatesMeasureComputer implements MeasureComputer {
             Metrics.KEY_UPGRADES_DATA,
             Metrics.KEY_UPGRADES_RATIO,
             Metrics.KEY_UPGRADES_MISSED,
-            Metrics.KEY_UPGRADES_RATING)
+            Metrics.KEY_UPGRADES_RATING,
+            Metrics.KEY_DEGRADED)
         .build();
   }
 
   @Override
   public void compute(MeasureComputerContext context) {
-    if (context.getComponent().getType() != Type.FILE) {
-      int total = computeDependencies(context);
-      computeDependencies(context, Metrics.KEY_PATCHES, Metrics.KEY_PATCHES_DATA, total, Metrics.KEY_PATCHES_MISSED, Metrics.KEY_PATCHES_RATIO, Metrics.KEY_PATCHES_RATING, PATTERN_PATCHES);
-      computeDependencies(context, Metrics.KEY_UPGRADES, Metrics.KEY_UPGRADES_DATA, total, Metrics.KEY_UPGRADES_MISSED, Metrics.KEY_UPGRADES_RATIO, Metrics.KEY_UPGRADES_RATING, PATTERN_UPGRADES);
+    Type type = context.getComponent().getType();
+    if (type == Type.FILE) {
+      return;
+    }
+    boolean root = type == Type.PROJECT || type == Type.VIEW;
+    boolean computed = false;
+    long start = System.nanoTime();
+    try {
+      try (PhaseEvent event = PhaseEvent.begin(PhaseEvent.MEASURE_COMPUTATION).setComponent(context.getComponent().getKey())) {
+        if (isAggregatedByScanner(context)) {
+          // the measures of the project have been computed by ProjectAggregationSensor, see Constants.CONFIG_EXTERNAL_MERGE
+          collect(context.getMeasure(Metrics.KEY_DEPENDENCIES_DATA));
+          event.setDependencies(context.getMeasure(Metrics.KEY_DEPENDENCIES).getIntValue());
+        } else {
+          int exactLimit = exactLimit(context.getSettings());
+          int total = computeDependencies(context, exactLimit);
+          computeDependencies(context, Metrics.KEY_PATCHES, Metrics.KEY_PATCHES_DATA, total, Metrics.KEY_PATCHES_MISSED, Metrics.KEY_PATCHES_RATIO, Metrics.KEY_PATCHES_RATING, PATTERN_PATCHES,
+              exactLimit);
+          computeDependencies(context, Metrics.KEY_UPGRADES, Metrics.KEY_UPGRADES_DATA, total, Metrics.KEY_UPGRADES_MISSED, Metrics.KEY_UPGRADES_RATIO, Metrics.KEY_UPGRADES_RATING,
+              PATTERN_UPGRADES, exactLimit);
+          event.setDependencies(total);
+        }
+        computeDegraded(context);
+      }
+      Statistics statistics = STATISTICS.get();
+      statistics.component(context, System.nanoTime() - start);
+      if (root) {
+        // the root component is computed last
+        LOGGER.info(statistics.summary());
+      }
+      computed = true;
+    } finally {
+      if (root || !computed) {
+        // a failed computation aborts the analysis, the next analysis computed by this thread starts with new statistics
+        STATISTICS.remove();
+      }
+    }
+  }
+
+  /**
+   * Returns the statistics of the analysis computed by the current thread.
+   */
+  static Statistics statistics() {
+    return STATISTICS.get();
+  }
+
+  /**
+   * Returns the maximum number of dependencies kept as exact list. Without compact mode the lists are never replaced by a {@link CardinalitySketch}.
+   */
+  static int exactLimit(Settings settings) {
+    if (!Boolean.parseBoolean(settings.getString(Constants.CONFIG_COMPACT))) {
+      return Integer.MAX_VALUE;
+    }
+    return intSetting(settings, Constants.CONFIG_COMPACT_EXACT_LIMIT, Constants.CONFIG_COMPACT_EXACT_LIMIT_DEFAULT);
+  }
+
+  private static int intSetting(Settings settings, String key, int defaultValue) {
+    String value = settings.getString(key);
+    try {
+      return value == null ? defaultValue : Integer.parseInt(value.trim());
+    } catch (NumberFormatException e) {
+      return defaultValue;
+    }
+  }
+
+  private static boolean isAggregatedByScanner(MeasureComputerContext context) {
+    return context.getComponent().getType() == Type.PROJECT && context.getMeasure(Metrics.KEY_DEPENDENCIES) != null;
+  }
+
+  private static void collect(@CheckForNull Measure dependencies) {
+    if (dependencies == null || CardinalitySketch.isSketch(dependencies.getStringValue())) {
+      ArtifactIndexTask.collectUnknown();
+    } else {
+      String dataString = dependencies.getStringValue();
+      ArtifactIndexTask.collect(dataString.isEmpty() ? Collections.emptyList() : Arrays.asList(dataString.split(",")));
+    }
+  }
+
+  private static void computeDegraded(MeasureComputerContext context) {
+    int degraded = 0;
+    for (Measure m : context.getChildrenMeasures(Metrics.KEY_DEGRADED)) {
+      degraded += m.getIntValue();
+    }
+    if (degraded > 0) {
+      context.addMeasure(Metrics.KEY_DEGRADED, degraded);
     }
   }
 
-  private int computeDependencies(MeasureComputerContext context) {
-    return uniqueDependencies(context, Metrics.KEY_DEPENDENCIES, Metrics.KEY_DEPENDENCIES_DATA).size();
+  private int computeDependencies(MeasureComputerContext context, int exactLimit) {
+    UniqueDependencies uniqueDependencies = uniqueDependencies(context, Metrics.KEY_DEPENDENCIES, Metrics.KEY_DEPENDENCIES_DATA, exactLimit);
+    if (context.getComponent().getType() == Type.PROJECT && uniqueDependencies.sketch == null) {
+      ArtifactIndexTask.collect(uniqueDependencies.exact);
+    } else if (context.getComponent().getType() == Type.PROJECT) {
+      // the dependencies of a project in compact mode are no longer known and cannot be indexed
+      ArtifactIndexTask.collectUnknown();
+    }
+    return uniqueDependencies.count();
   }
 
-  private Set<String> uniqueDependencies(MeasureComputerContext context, String metric, String dataMetric) {
-    Set<String> uniqueDependencies = new HashSet<>();
+  private UniqueDependencies uniqueDependencies(MeasureComputerContext context, String metric, String dataMetric, int exactLimit) {
+    UniqueDependencies uniqueDependencies = new UniqueDependencies();
     for (Measure m : context.getChildrenMeasures(dataMetric)) {
       String dataMetricValue = m.getStringValue();
-      if (!dataMetricValue.isEmpty()) {
-        uniqueDependencies.addAll(Arrays.asList(m.getStringValue().split(",")));
+      if (CardinalitySketch.isSketch(dataMetricValue)) {
+        uniqueDependencies.toSketch().merge(CardinalitySketch.decode(dataMetricValue));
+      } else if (!dataMetricValue.isEmpty()) {
+        uniqueDependencies.exact.addAll(Arrays.asList(dataMetricValue.split(",")));
+      }
+      if (uniqueDependencies.sketch != null || uniqueDependencies.exact.size() > exactLimit) {
+        uniqueDependencies.toSketch();
       }
     }
-    String measure = String.join(",", uniqueDependencies);
-    context.addMeasure(dataMetric, measure);
-    int total = uniqueDependencies.size();
-    context.addMeasure(metric, total);
+    String dataString = uniqueDependencies.dataString();
+    context.addMeasure(dataMetric, dataString);
+    context.addMeasure(metric, uniqueDependencies.count());
+    STATISTICS.get().measure(context, dataMetric, dataString.length(), uniqueDependencies.count());
     return uniqueDependencies;
   }
 
-  private void computeDependencies(MeasureComputerContext context, String metric, String dataMetric, int total, String missedMetric, String ratioMetric, String ratingMetric, Pattern pattern) {
-    Set<String> uniqueDependencies = uniqueDependencies(context, metric, dataMetric);
-    int missed = uniqueDependencies.stream().map(dataString -> extractMatches(pattern, dataString)).mapToInt(Integer::intValue).sum();
+  private void computeDependencies(MeasureComputerContext context, String metric, String dataMetric, int total, String missedMetric, String ratioMetric, String ratingMetric, Pattern pattern,
+      int exactLimit) {
+    UniqueDependencies uniqueDependencies = uniqueDependencies(context, metric, dataMetric, exactLimit);
+    int missed;
+    if (uniqueDependencies.sketch == null) {
+      missed = uniqueDependencies.exact.stream().map(dataString -> extractMatches(pattern, dataString)).mapToInt(Integer::intValue).sum();
+    } else {
+      // the dependencies are no longer known, so the missed counts of the children are summed up instead
+      missed = 0;
+      for (Measure m : context.getChildrenMeasures(missedMetric)) {
+        missed += m.getIntValue();
+      }
+    }
     context.addMeasure(missedMetric, missed);
-    ratioRatingMeasure(context, ratioMetric, ratingMetric, uniqueDependencies.size(), total);
+    ratioRatingMeasure(context, ratioMetric, ratingMetric, uniqueDependencies.count(), total);
   }
 
   private void ratioRatingMeasure(MeasureComputerContext context, String ratioMetric, String ratingMetric, int count, int total) {
@@ -107,4 +225,110 @@ public class DependencyUpdatesMeasureComputer implements MeasureComputer {
     context.addMeasure(ratioMetric, ratio);
     context.addMeasure(ratingMetric, Metrics.calculateRating(count, total));
   }
+
+  /**
+   * Statistics of the components of an analysis computed so far. Exceeding the thresholds {@link Constants#CONFIG_SLOW_COMPONENT_THRESHOLD} and {@link Constants#CONFIG_LARGE_MEASURE_THRESHOLD} is
+   * logged right away with the key of the component.
+   */
+  static final class Statistics {
+
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+    private static final int BYTES_PER_KILOBYTE = 1024;
+
+    private int components;
+    private long totalNanos;
+    private long maxNanos;
+    private String slowestComponent;
+    private int largestBytes;
+    private int largestEntries;
+    private String largestComponent;
+
+    void component(MeasureComputerContext context, long nanos) {
+      String key = context.getComponent().getKey();
+      components++;
+      totalNanos += nanos;
+      if (nanos > maxNanos || slowestComponent == null) {
+        maxNanos = nanos;
+        slowestComponent = key;
+      }
+      int threshold = intSetting(context.getSettings(), Constants.CONFIG_SLOW_COMPONENT_THRESHOLD, Constants.CONFIG_SLOW_COMPONENT_THRESHOLD_DEFAULT);
+      if (threshold > 0 && nanos / NANOS_PER_MILLI > threshold) {
+        LOGGER.warn("Dependency-Updates measures of component {} took {} ms (see property {})", key, nanos / NANOS_PER_MILLI, Constants.CONFIG_SLOW_COMPONENT_THRESHOLD);
+      }
+    }
+
+    void measure(MeasureComputerContext context, String metric, int bytes, int entries) {
+      String key = context.getComponent().getKey();
+      if (bytes > largestBytes || largestComponent == null) {
+        largestBytes = bytes;
+        largestEntries = entries;
+        largestComponent = key;
+      }
+      int threshold = intSetting(context.getSettings(), Constants.CONFIG_LARGE_MEASURE_THRESHOLD, Constants.CONFIG_LARGE_MEASURE_THRESHOLD_DEFAULT);
+      if (threshold > 0 && bytes > (long) threshold * BYTES_PER_KILOBYTE) {
+        LOGGER.warn("Dependency-Updates measure {} of component {} has {} entries in {} bytes, consider enabling compact measures (see property {})", metric, key, entries, bytes,
+            Constants.CONFIG_COMPACT);
+      }
+    }
+
+    int getComponents() {
+      return components;
+    }
+
+    long getMaxNanos() {
+      return maxNanos;
+    }
+
+    @CheckForNull
+    String getSlowestComponent() {
+      return slowestComponent;
+    }
+
+    int getLargestBytes() {
+      return largestBytes;
+    }
+
+    int getLargestEntries() {
+      return largestEntries;
+    }
+
+    @CheckForNull
+    String getLargestComponent() {
+      return largestComponent;
+    }
+
+    String summary() {
+      return String.format("Dependency-Updates measures of %d components computed in %d ms, slowest component %s in %d ms, largest measure of component %s with %d entries in %d bytes",
+          components, totalNanos / NANOS_PER_MILLI, slowestComponent, maxNanos / NANOS_PER_MILLI, largestComponent, largestEntries, largestBytes);
+    }
+  }
+
+  /**
+   * The unique dependencies of a component. These are kept as exact set until the configured limit is exceeded and in a {@link CardinalitySketch} from then on.
+   */
+  private static final class UniqueDependencies {
+
+    private final Set<String> exact = new HashSet<>();
+    private CardinalitySketch sketch;
+
+    /**
+     * Moves the dependencies of the exact set into the sketch which is created if necessary.
+     */
+    CardinalitySketch toSketch() {
+      if (sketch == null) {
+        sketch = new CardinalitySketch();
+      }
+      exact.forEach(sketch::add);
+      exact.clear();
+      return sketch;
+    }
+
+    int count() {
+      return sketch == null ? exact.size() : sketch.estimate();
+    }
+
+    String dataString() {
+      return sketch == null ? String.join(",", exact) : sketch.encode();
+    }
+  }
 }
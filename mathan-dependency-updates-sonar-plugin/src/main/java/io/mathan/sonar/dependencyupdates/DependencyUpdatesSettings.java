@@ -0,0 +1,161 @@
+/*
+ * mathan-dependency-updates-sonar-plugin
+ * Copyright (c) 2019 Matthias Hanisch
+ * matthias@mathan.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mathan.sonar.dependencyupdates;
+
+import io.mathan.sonar.dependencyupdates.parser.PomParser;
+import io.mathan.sonar.dependencyupdates.parser.ReportParser;
+import io.mathan.sonar.dependencyupdates.report.ReportKind;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import org.sonar.api.batch.ScannerSide;
+import org.sonar.api.batch.rule.Severity;
+import org.sonar.api.config.Configuration;
+import org.sonar.api.utils.MessageException;
+
+/**
+ * Reads and validates the configuration of this Sonar-Plugin once per scanner run. The compiled {@link DependencyFilter} and {@link ReportParser} are immutable and shared by the analysis of all
+ * modules.
+ */
+@ScannerSide
+public class DependencyUpdatesSettings {
+
+  private final DependencyFilter filter;
+  private final ReportParser parser;
+  private final Set<ReportKind> reportKinds;
+  private final IssueGroup.Grouping issueGrouping;
+  private final int maxIssues;
+  private final boolean foldBoms;
+  private final long timeBudget;
+  private final PomParser pomParser = new PomParser();
+
+  public DependencyUpdatesSettings(Configuration configuration) {
+    this.filter = DependencyFilter.builder()
+        .defaultSeverityIncremental(getSeverity(configuration, Constants.CONFIG_UPDATE_INCREMENTAL, Constants.CONFIG_UPDATE_INCREMENTAL_DEFAULT))
+        .defaultSeverityMinor(getSeverity(configuration, Constants.CONFIG_UPDATE_MINOR, Constants.CONFIG_UPDATE_MINOR_DEFAULT))
+        .defaultSeverityMajor(getSeverity(configuration, Constants.CONFIG_UPDATE_MAJOR, Constants.CONFIG_UPDATE_MAJOR_DEFAULT))
+        .inclusions(configuration.get(Constants.CONFIG_INCLUSIONS).orElse(":::::"))
+        .exclusions(configuration.get(Constants.CONFIG_EXCLUSIONS).orElse(""))
+        .overrideInfo(configuration.get(Constants.CONFIG_OVERRIDE_INFO).orElse(""))
+        .overrideMinor(configuration.get(Constants.CONFIG_OVERRIDE_MINOR).orElse(""))
+        .overrideMajor(configuration.get(Constants.CONFIG_OVERRIDE_MAJOR).orElse(""))
+        .overrideCritical(configuration.get(Constants.CONFIG_OVERRIDE_CRITICAL).orElse(""))
+        .overrideBlocker(configuration.get(Constants.CONFIG_OVERRIDE_BLOCKER).orElse(""))
+        .parallelThreshold(configuration.getInt(Constants.CONFIG_PARALLEL_THRESHOLD).orElse(Constants.CONFIG_PARALLEL_THRESHOLD_DEFAULT))
+        .build();
+    this.parser = new ReportParser(
+        getPattern(configuration, Constants.CONFIG_VERSION_EXCLUSION_REGEX, Constants.CONFIG_VERSION_EXCLUSION_REGEX_DEFAULT),
+        configuration.getBoolean(Constants.CONFIG_DISCRETE_MINOR_MAJOR).orElse(Constants.CONFIG_DISCRETE_MINOR_MAJOR_DEFAULT),
+        configuration.getBoolean(Constants.CONFIG_PARALLEL_PARSING).orElse(Constants.CONFIG_PARALLEL_PARSING_DEFAULT));
+    this.reportKinds = getReportKinds(configuration, Constants.CONFIG_REPORT_KINDS, Constants.CONFIG_REPORT_KINDS_DEFAULT);
+    this.issueGrouping = getIssueGrouping(configuration, Constants.CONFIG_ISSUE_GROUPING, Constants.CONFIG_ISSUE_GROUPING_DEFAULT);
+    this.maxIssues = Math.max(0, configuration.getInt(Constants.CONFIG_MAX_ISSUES).orElse(Constants.CONFIG_MAX_ISSUES_DEFAULT));
+    this.foldBoms = configuration.getBoolean(Constants.CONFIG_FOLD_BOMS).orElse(Constants.CONFIG_FOLD_BOMS_DEFAULT);
+    this.timeBudget = Math.max(0, configuration.getLong(Constants.CONFIG_TIME_BUDGET).orElse(Constants.CONFIG_TIME_BUDGET_DEFAULT));
+  }
+
+  private static Severity getSeverity(Configuration configuration, String key, String defaultValue) {
+    String value = configuration.get(key).orElse(defaultValue);
+    try {
+      return Severity.valueOf(value);
+    } catch (IllegalArgumentException e) {
+      throw MessageException.of(String.format("Invalid severity '%s' configured for property %s. Valid severities are INFO, MINOR, MAJOR, CRITICAL and BLOCKER.", value, key), e);
+    }
+  }
+
+  private static Pattern getPattern(Configuration configuration, String key, String defaultValue) {
+    String value = configuration.get(key).orElse(defaultValue);
+    try {
+      return Pattern.compile(value);
+    } catch (PatternSyntaxException e) {
+      throw MessageException.of(String.format("Invalid regular expression '%s' configured for property %s: %s", value, key, e.getDescription()), e);
+    }
+  }
+
+  private static Set<ReportKind> getReportKinds(Configuration configuration, String key, String defaultValue) {
+    String[] values = configuration.getStringArray(key);
+    if (values.length == 0) {
+      values = defaultValue.split(",");
+    }
+    Set<ReportKind> kinds = EnumSet.noneOf(ReportKind.class);
+    for (String value : values) {
+      ReportKind kind = ReportKind.fromKey(value.trim());
+      if (kind == null) {
+        throw MessageException.of(String.format("Invalid report kind '%s' configured for property %s. Valid report kinds are dependency, plugin and property.", value, key));
+      }
+      kinds.add(kind);
+    }
+    return Collections.unmodifiableSet(kinds);
+  }
+
+  private static IssueGroup.Grouping getIssueGrouping(Configuration configuration, String key, String defaultValue) {
+    String value = configuration.get(key).orElse(defaultValue);
+    IssueGroup.Grouping grouping = IssueGroup.Grouping.fromKey(value);
+    if (grouping == null) {
+      throw MessageException.of(String.format("Invalid issue grouping '%s' configured for property %s. Valid groupings are none, availability and groupId.", value, key));
+    }
+    return grouping;
+  }
+
+  public DependencyFilter getFilter() {
+    return filter;
+  }
+
+  public ReportParser getParser() {
+    return parser;
+  }
+
+  /**
+   * Returns the kinds of reports to read for a module in the order of {@link ReportKind}.
+   */
+  public Set<ReportKind> getReportKinds() {
+    return reportKinds;
+  }
+
+  IssueGroup.Grouping getIssueGrouping() {
+    return issueGrouping;
+  }
+
+  /**
+   * Returns the maximum number of issues reported for a module or <code>0</code> if all issues are reported.
+   */
+  int getMaxIssues() {
+    return maxIssues;
+  }
+
+  /**
+   * Returns the time in milliseconds the analysis of a module may take or <code>0</code> if the time is not limited.
+   */
+  long getTimeBudget() {
+    return timeBudget;
+  }
+
+  /**
+   * Checks if managed dependencies imported from a BOM are reported with a single issue on the BOM.
+   */
+  boolean isFoldBoms() {
+    return foldBoms;
+  }
+
+  PomParser getPomParser() {
+    return pomParser;
+  }
+}
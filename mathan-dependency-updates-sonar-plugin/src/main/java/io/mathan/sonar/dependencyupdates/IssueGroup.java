@@ -0,0 +1,192 @@
+/*
+ * mathan-dependency-updates-sonar-plugin
+ * Copyright (c) 2019 Matthias Hanisch
+ * matthias@mathan.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mathan.sonar.dependencyupdates;
+
+import io.mathan.sonar.dependencyupdates.parser.Bom;
+import io.mathan.sonar.dependencyupdates.parser.Dependency;
+import io.mathan.sonar.dependencyupdates.parser.Dependency.Availability;
+import io.mathan.sonar.dependencyupdates.report.ReportKind;
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.sonar.api.batch.rule.Severity;
+import org.sonar.api.rule.RuleKey;
+
+/**
+ * Dependencies reported with a single issue. Without grouping each group contains a single dependency, otherwise all dependencies with the same availability (and group id) are reported together
+ * with the highest severity determined for one of them. Managed dependencies imported from a BOM can be reported together on the declaration of the BOM regardless of their availability, the
+ * issue is reported with the rule of the highest availability then.
+ */
+final class IssueGroup {
+
+  /**
+   * Maximum length of an issue message. Longer lists of dependencies are abbreviated.
+   */
+  static final int MAX_MESSAGE_LENGTH = 4000;
+
+  private final String groupId;
+  private final Bom bom;
+  private final List<Dependency> dependencies = new ArrayList<>();
+  private final List<Boolean> managed = new ArrayList<>();
+  private Severity severity;
+  private Availability availability;
+  private RuleKey rule;
+
+  IssueGroup(@Nullable String groupId, @Nullable Bom bom) {
+    this.groupId = groupId;
+    this.bom = bom;
+  }
+
+  void add(Dependency dependency, boolean dependencyManagement, Severity severity, RuleKey rule) {
+    if (availability == null || dependency.getAvailability().compareTo(availability) > 0) {
+      this.availability = dependency.getAvailability();
+      this.rule = rule;
+    }
+    dependencies.add(dependency);
+    managed.add(dependencyManagement);
+    if (this.severity == null || severity.compareTo(this.severity) > 0) {
+      this.severity = severity;
+    }
+  }
+
+  RuleKey getRule() {
+    return rule;
+  }
+
+  Severity getSeverity() {
+    return severity;
+  }
+
+  /**
+   * Returns the BOM the dependencies were imported from or <code>null</code> if the dependencies are not reported on a BOM.
+   */
+  @CheckForNull
+  Bom getBom() {
+    return bom;
+  }
+
+  int size() {
+    return dependencies.size();
+  }
+
+  Dependency getDependency(int index) {
+    return dependencies.get(index);
+  }
+
+  boolean isManaged(int index) {
+    return managed.get(index);
+  }
+
+  /**
+   * Creates the message for a group of several dependencies, e.g. <i>2 minor updates available: io.mathan:a:1.0.0 (next 1.1.0), io.mathan:b:2.0.0 (next 2.1.0, see dependency management)</i>.
+   */
+  String message() {
+    StringBuilder sb = new StringBuilder();
+    if (bom != null) {
+      sb.append("Updates available for ").append(dependencies.size()).append(" dependencies managed by BOM ").append(bom).append(" (");
+      int[] counts = new int[Availability.values().length];
+      dependencies.forEach(dependency -> counts[dependency.getAvailability().ordinal()]++);
+      String separator = "";
+      for (Availability kind : Availability.values()) {
+        if (counts[kind.ordinal()] > 0) {
+          sb.append(separator).append(counts[kind.ordinal()]).append(' ').append(label(kind));
+          separator = ", ";
+        }
+      }
+      sb.append("). Update the BOM to update them: ");
+    } else {
+      sb.append(dependencies.size()).append(' ').append(label(availability)).append(" available");
+      if (groupId != null) {
+        sb.append(" for group ").append(groupId);
+      }
+      sb.append(": ");
+    }
+    for (int i = 0; i < dependencies.size(); i++) {
+      String entry = entry(dependencies.get(i), managed.get(i));
+      String more = String.format(" and %d more.", dependencies.size() - i);
+      if (sb.length() + entry.length() + more.length() + 2 > MAX_MESSAGE_LENGTH) {
+        sb.setLength(sb.length() - 2);
+        return sb.append(more).toString();
+      }
+      sb.append(entry).append(i < dependencies.size() - 1 ? ", " : ".");
+    }
+    return sb.toString();
+  }
+
+  private String entry(Dependency dependency, boolean dependencyManagement) {
+    StringBuilder sb = new StringBuilder();
+    if (dependency.getKind() != ReportKind.DEPENDENCY) {
+      sb.append(dependency.getKind().getKey()).append(' ');
+    }
+    if (dependency.getProperty() != null) {
+      sb.append(dependency.getProperty()).append(' ');
+    }
+    if (groupId == null) {
+      sb.append(dependency.getGroupId()).append(':');
+    }
+    sb.append(dependency.getArtifactId()).append(':').append(dependency.getVersion()).append(" (next ").append(dependency.getNext());
+    if (dependencyManagement && bom == null) {
+      sb.append(", see ").append(dependency.getKind().getKey()).append(" management");
+    }
+    return sb.append(')').toString();
+  }
+
+  private static String label(Availability availability) {
+    switch (availability) {
+      case Incremental:
+        return "patches";
+      case Minor:
+        return "minor updates";
+      case Major:
+        return "major updates";
+      default:
+        throw new IllegalArgumentException("Unknown availability " + availability);
+    }
+  }
+
+  /**
+   * The ways dependencies can be grouped into issues.
+   */
+  enum Grouping {
+    NONE("none"),
+    AVAILABILITY("availability"),
+    GROUP_ID("groupId");
+
+    private final String key;
+
+    Grouping(String key) {
+      this.key = key;
+    }
+
+    String getKey() {
+      return key;
+    }
+
+    @CheckForNull
+    static Grouping fromKey(String key) {
+      for (Grouping grouping : values()) {
+        if (grouping.key.equals(key)) {
+          return grouping;
+        }
+      }
+      return null;
+    }
+  }
+}
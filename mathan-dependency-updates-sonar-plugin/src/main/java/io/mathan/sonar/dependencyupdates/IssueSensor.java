@@ -19,17 +19,33 @@
 package io.mathan.sonar.dependencyupdates;
 
 import io.mathan.sonar.dependencyupdates.parser.Analysis;
+import io.mathan.sonar.dependencyupdates.parser.Bom;
 import io.mathan.sonar.dependencyupdates.parser.Dependency;
-import io.mathan.sonar.dependencyupdates.parser.ReportParser;
+import io.mathan.sonar.dependencyupdates.parser.Dependency.Availability;
+import io.mathan.sonar.dependencyupdates.parser.Pom;
+import io.mathan.sonar.dependencyupdates.profiling.PhaseEvent;
+import io.mathan.sonar.dependencyupdates.report.GradleReportFile;
+import io.mathan.sonar.dependencyupdates.report.GradleReportFileImpl;
+import io.mathan.sonar.dependencyupdates.report.ReportKind;
 import io.mathan.sonar.dependencyupdates.report.XmlReportFile;
 import io.mathan.sonar.dependencyupdates.report.XmlReportFileImpl;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.util.Arrays;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
 import javax.xml.stream.XMLStreamException;
 import org.sonar.api.batch.fs.FileSystem;
 import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.rule.ActiveRules;
 import org.sonar.api.batch.rule.Severity;
 import org.sonar.api.batch.sensor.SensorContext;
 import org.sonar.api.batch.sensor.SensorDescriptor;
@@ -45,16 +61,34 @@ public class IssueSensor implements org.sonar.api.batch.sensor.Sensor {
 
   private static final Logger LOGGER = Loggers.get(IssueSensor.class);
   private static final String SENSOR_NAME = "MDU-IssueSensor";
+  /**
+   * Number of availabilities reported by a rule of their own.
+   */
+  private static final int ACTIVE_RULES_ALL = 3;
 
   private final FileSystem fileSystem;
   private final PathResolver pathResolver;
+  private final DependencyUpdatesSettings settings;
+  private final ReportBundle bundle;
+  private final BaselineCache baseline;
+  private final ProjectAggregation aggregation;
 
-  public IssueSensor(FileSystem fileSystem, PathResolver pathResolver) {
+  public IssueSensor(FileSystem fileSystem, PathResolver pathResolver, DependencyUpdatesSettings settings, ReportBundle bundle, BaselineCache baseline,
+      ProjectAggregation aggregation) {
     this.fileSystem = fileSystem;
     this.pathResolver = pathResolver;
+    this.settings = settings;
+    this.bundle = bundle;
+    this.baseline = baseline;
+    this.aggregation = aggregation;
   }
 
-  private String formatDescription(Dependency dependency, boolean dependencyManagement) {
+  /**
+   * Returns the message of the issue for a single dependency with updates.
+   *
+   * @param dependencyManagement <code>true</code> if the dependency is managed.
+   */
+  public static String formatDescription(Dependency dependency, boolean dependencyManagement) {
     StringBuilder sb = new StringBuilder();
     switch (dependency.getAvailability()) {
       case Incremental:
@@ -69,43 +103,195 @@ public class IssueSensor implements org.sonar.api.batch.sensor.Sensor {
       default:
         throw new IllegalArgumentException("Unknown availability " + dependency.getAvailability());
     }
-    sb.append(String.format("available for dependency %s:%s:%s%s. Next version is %s. Latest version is %s.", dependency.getGroupId(), dependency.getArtifactId(), dependency.getVersion(),
-        dependencyManagement ? " (see dependency management)" : "", dependency.getNext(), dependency.getLast()));
+    String kind = dependency.getKind().getKey();
+    String artifact = String.format("%s:%s:%s", dependency.getGroupId(), dependency.getArtifactId(), dependency.getVersion());
+    if (dependency.getProperty() != null) {
+      artifact = String.format("%s (%s)", dependency.getProperty(), artifact);
+    }
+    sb.append(String.format("available for %s %s%s. Next version is %s. Latest version is %s.", kind, artifact, dependencyManagement ? " (see " + kind + " management)" : "", dependency.getNext(),
+        dependency.getLast()));
     return sb.toString().trim();
   }
 
-  private void addIssues(SensorContext context, DependencyFilter filter, List<Dependency> dependencies, boolean dependencyManagement) {
-    for (Dependency dependency : dependencies) {
-      Severity severity = filter.severity(dependency);
+  /**
+   * Determines the rule to report each availability of updates with. An update is reported with the rule for its availability if it is active in the quality profile. Otherwise the deprecated rule
+   * for all updates is used if it is still active.
+   *
+   * @return The rules by availability. Availabilities without an active rule are not contained.
+   */
+  private static Map<Availability, RuleKey> activeRules(ActiveRules activeRules) {
+    RuleKey allUpdates = RuleKey.of(Constants.REPOSITORY_KEY, Constants.RULE_KEY);
+    RuleKey fallback = activeRules.find(allUpdates) != null ? allUpdates : null;
+    Map<Availability, RuleKey> rules = new EnumMap<>(Availability.class);
+    addActiveRule(rules, activeRules, Availability.Incremental, Constants.RULE_KEY_PATCH, fallback);
+    addActiveRule(rules, activeRules, Availability.Minor, Constants.RULE_KEY_MINOR, fallback);
+    addActiveRule(rules, activeRules, Availability.Major, Constants.RULE_KEY_MAJOR, fallback);
+    return rules;
+  }
+
+  private static void addActiveRule(Map<Availability, RuleKey> rules, ActiveRules activeRules, Availability availability, String ruleKey, @Nullable RuleKey fallback) {
+    RuleKey key = RuleKey.of(Constants.REPOSITORY_KEY, ruleKey);
+    if (activeRules.find(key) != null) {
+      rules.put(availability, key);
+    } else if (fallback != null) {
+      rules.put(availability, fallback);
+    }
+  }
+
+  private void collectIssues(List<IssueGroup> issues, Map<String, IssueGroup> groups, DependencyFilter filter, Map<Availability, RuleKey> rules, List<Dependency> analysed,
+      boolean dependencyManagement, @Nullable Pom pom, @Nullable Set<String> changed) {
+    List<Dependency> dependencies = analysed;
+    if (rules.size() < ACTIVE_RULES_ALL) {
+      // dependencies without an active rule are not classified at all
+      dependencies = dependencies.stream().filter(dependency -> rules.containsKey(dependency.getAvailability())).collect(Collectors.toList());
+    }
+    if (pom != null && changed != null) {
+      // dependencies not changed by the pull request are not classified at all
+      dependencies = dependencies.stream().filter(dependency -> pom.isChanged(dependency, dependencyManagement, changed)).collect(Collectors.toList());
+    }
+    List<Severity> severities;
+    try (PhaseEvent event = PhaseEvent.begin(PhaseEvent.FILTER_CLASSIFICATION).setDependencies(dependencies.size())) {
+      severities = filter.severities(dependencies);
+    }
+    IssueGroup.Grouping grouping = settings.getIssueGrouping();
+    for (int i = 0; i < dependencies.size(); i++) {
+      Severity severity = severities.get(i);
       if (severity != null) {
-        InputFile component = context.fileSystem().inputFile(context.fileSystem().predicates().hasRelativePath("pom.xml"));
-        if (component == null) {
-          LOGGER.warn("Could not find pom.xml in {}", context.fileSystem().baseDir());
+        Dependency dependency = dependencies.get(i);
+        Availability availability = dependency.getAvailability();
+        Bom bom = pom != null && settings.isFoldBoms() && dependencyManagement && dependency.getKind() == ReportKind.DEPENDENCY ? pom.bomOf(dependency) : null;
+        IssueGroup group;
+        if (bom != null) {
+          group = groups.get("bom:" + bom.getGroupId() + ":" + bom.getArtifactId());
+          if (group == null) {
+            group = new IssueGroup(null, bom);
+            groups.put("bom:" + bom.getGroupId() + ":" + bom.getArtifactId(), group);
+            issues.add(group);
+          }
+        } else if (grouping == IssueGroup.Grouping.NONE) {
+          group = new IssueGroup(null, null);
+          issues.add(group);
         } else {
-          NewIssue issue = context.newIssue();
-          NewIssueLocation location = issue.newLocation();
-
-          issue
-              .forRule(RuleKey.of(Constants.REPOSITORY_KEY, Constants.RULE_KEY))
-              .at(location
-                  //.on(context.module())
-                  .on(component)
-                  .message(formatDescription(dependency, dependencyManagement)))
-              .overrideSeverity(severity)
-              .save();
+          String groupId = grouping == IssueGroup.Grouping.GROUP_ID ? dependency.getGroupId() : null;
+          group = groups.get(availability + ":" + groupId);
+          if (group == null) {
+            group = new IssueGroup(groupId, null);
+            groups.put(availability + ":" + groupId, group);
+            issues.add(group);
+          }
         }
+        group.add(dependency, dependencyManagement, severity, rules.get(availability));
       }
     }
   }
 
-  private void addIssues(SensorContext context, Analysis analysis, DependencyFilter filter) {
-    addIssues(context, filter, analysis.getDependencyManagements(), true);
-    addIssues(context, filter, analysis.getDependencies(), false);
+  /**
+   * Adds the issues for the dependencies of the module unless the time budget is exceeded.
+   *
+   * @return <code>false</code> if issues were skipped as the time budget was exceeded.
+   */
+  private boolean addIssues(SensorContext context, @Nullable InputFile component, @Nullable Pom pom, Analysis analysis, DependencyFilter filter, Map<Availability, RuleKey> rules,
+      TimeBudget budget) {
+    Set<String> changed = pom != null ? changedCoordinates(component, pom) : null;
+    List<IssueGroup> issues = new ArrayList<>();
+    Map<String, IssueGroup> groups = new HashMap<>();
+    collectIssues(issues, groups, filter, rules, analysis.getDependencyManagements(), true, pom, changed);
+    if (budget.isExceeded()) {
+      return false;
+    }
+    collectIssues(issues, groups, filter, rules, analysis.getDependencies(), false, pom, changed);
+    if (issues.isEmpty()) {
+      return true;
+    }
+    int maxIssues = settings.getMaxIssues();
+    if (maxIssues > 0 && issues.size() > maxIssues) {
+      LOGGER.info("Reporting {} of {} Dependency-Updates issues (see property {})", maxIssues, issues.size(), Constants.CONFIG_MAX_ISSUES);
+      issues.sort(Comparator.comparing(IssueGroup::getSeverity).reversed());
+      issues = issues.subList(0, maxIssues);
+    }
+    if (component == null) {
+      LOGGER.warn("Could not find pom.xml or Gradle build file in {}", context.fileSystem().baseDir());
+      return true;
+    }
+    try (PhaseEvent event = PhaseEvent.begin(PhaseEvent.ISSUE_EMISSION).setComponent(component)) {
+      event.setDependencies(issues.stream().mapToInt(IssueGroup::size).sum());
+      for (IssueGroup group : issues) {
+        if (budget.isExceeded()) {
+          return false;
+        }
+        NewIssue issue = context.newIssue();
+        NewIssueLocation location = issue.newLocation()
+            //.on(context.module())
+            .on(component);
+        if (group.getBom() != null && group.getBom().getLine() > 0 && group.getBom().getLine() <= component.lines()) {
+          location.at(component.selectLine(group.getBom().getLine()));
+        }
+
+        issue
+            .forRule(group.getRule())
+            .at(location
+                .message(group.size() == 1 && group.getBom() == null ? formatDescription(group.getDependency(0), group.isManaged(0)) : group.message()))
+            .overrideSeverity(group.getSeverity())
+            .save();
+      }
+    }
+    return true;
   }
 
-  private Analysis parseAnalysis(SensorContext context) throws IOException, XMLStreamException {
-    XmlReportFile report = XmlReportFileImpl.getReport(context.config(), fileSystem, this.pathResolver);
-    return new ReportParser(context.config()).parse(Arrays.asList(report));
+  /**
+   * Determines the coordinates changed by the analysed pull request.
+   *
+   * @return The changed coordinates or <code>null</code> if all dependencies are reported.
+   */
+  @CheckForNull
+  private Set<String> changedCoordinates(@Nullable InputFile component, Pom pom) {
+    if (!baseline.isChangedOnly() || component == null || component.status() == InputFile.Status.ADDED) {
+      return null;
+    }
+    Map<String, String> coordinates = baseline.read(fileSystem.baseDir());
+    if (coordinates == null) {
+      LOGGER.info("No Dependency-Updates baseline of the target branch found for {}, reporting all dependencies", component);
+      return null;
+    }
+    return pom.changedSince(coordinates);
+  }
+
+  /**
+   * Reads the imported BOMs and the declared coordinates from the pom of the module if either is needed.
+   *
+   * @return The pom or <code>null</code> if the pom is not needed or could not be read. Managed dependencies are not folded and all dependencies are reported then.
+   */
+  @CheckForNull
+  private Pom readPom(@Nullable InputFile component) {
+    if (component == null || !"pom.xml".equals(component.filename()) || !settings.isFoldBoms() && !baseline.isEnabled()) {
+      return null;
+    }
+    try (InputStream inputStream = component.inputStream()) {
+      return settings.getPomParser().parse(inputStream);
+    } catch (IOException | XMLStreamException e) {
+      LOGGER.warn("Could not read {}, managed dependencies are reported separately", component, e);
+      return null;
+    }
+  }
+
+  /**
+   * Calculates the changes since the previous analysis by merging the outdated dependencies with those of the previous analysis. The outdated dependencies are kept as baseline of the next
+   * analysis afterwards.
+   */
+  private void calculateDelta(SensorContext context, Analysis analysis) {
+    List<String> outdated = DependencyDelta.outdated(analysis);
+    List<String> previous = baseline.readOutdated(fileSystem.baseDir());
+    if (previous != null) {
+      Metrics.calculateDeltaModule(context, DependencyDelta.merge(previous, outdated));
+    }
+    baseline.writeOutdated(fileSystem.baseDir(), outdated);
+  }
+
+  private Analysis parseAnalysis(@Nullable List<XmlReportFile> reports, @Nullable GradleReportFile gradleReport) throws IOException, XMLStreamException {
+    if (reports == null) {
+      return bundle.getAnalysis(fileSystem.baseDir());
+    }
+    return settings.getParser().parse(reports, gradleReport);
   }
 
   @Override
@@ -115,18 +301,77 @@ public class IssueSensor implements org.sonar.api.batch.sensor.Sensor {
 
   @Override
   public void describe(SensorDescriptor sensorDescriptor) {
-    sensorDescriptor.name(SENSOR_NAME);
+    sensorDescriptor
+        .name(SENSOR_NAME)
+        .onlyWhenConfiguration(configuration -> !configuration.getBoolean(Constants.CONFIG_SKIP).orElse(Constants.CONFIG_SKIP_DEFAULT));
   }
 
   @Override
   public void execute(SensorContext sensorContext) {
-    DependencyFilter filter = DependencyFilter.create(sensorContext);
+    // only the file attributes of the reports are checked before anything else, so modules without a report return right away
+    List<XmlReportFile> reports = null;
+    GradleReportFile gradleReport = null;
+    if (bundle.isEnabled()) {
+      if (!bundle.hasReport(fileSystem.baseDir())) {
+        LOGGER.info("Dependency-Updates report bundle does not contain a report for {}", fileSystem.baseDir());
+        return;
+      }
+    } else {
+      reports = XmlReportFileImpl.findReports(sensorContext.config(), fileSystem, this.pathResolver, settings.getReportKinds());
+      gradleReport = GradleReportFileImpl.findReport(sensorContext.config(), fileSystem, this.pathResolver);
+      if (reports.isEmpty() && gradleReport == null) {
+        return;
+      }
+    }
+    InputFile component = Utils.buildFile(fileSystem);
+    if (baseline.isChangedOnly() && component != null && component.status() == InputFile.Status.SAME) {
+      LOGGER.info("Pull request does not change {}, skipping Dependency-Updates analysis", component);
+      if (aggregation.isEnabled()) {
+        aggregation.skip();
+      }
+      return;
+    }
+    Map<Availability, RuleKey> rules = activeRules(sensorContext.activeRules());
+    DependencyFilter filter = settings.getFilter();
     Profiler profiler = Profiler.create(LOGGER);
     profiler.startInfo("Process Dependency-Updates report");
+    TimeBudget budget = TimeBudget.start(settings.getTimeBudget());
+    boolean aggregated = false;
     try {
-      Analysis analysis = parseAnalysis(sensorContext);
-      addIssues(sensorContext, analysis, filter);
-      Metrics.calculateMetricsModule(sensorContext, analysis);
+      Analysis analysis = parseAnalysis(reports, gradleReport);
+      Pom pom = readPom(component);
+      if (pom != null && baseline.isEnabled()) {
+        baseline.write(fileSystem.baseDir(), pom.getDeclared());
+      }
+      List<String> skipped = new ArrayList<>();
+      if (rules.isEmpty()) {
+        LOGGER.debug("No Dependency-Updates rule is active, skipping issues");
+      } else if (budget.isExceeded()) {
+        skipped.add("issues");
+      } else if (!addIssues(sensorContext, component, pom, analysis, filter, rules, budget)) {
+        skipped.add("remaining issues");
+      }
+      boolean degraded = !skipped.isEmpty() || budget.isExceeded();
+      if (degraded) {
+        skipped.add("lists of dependencies");
+      }
+      try (PhaseEvent event = PhaseEvent.begin(PhaseEvent.METRIC_SAVING).setComponent(component)) {
+        event.setDependencies(analysis.getDependencies().size() + analysis.getDependencyManagements().size());
+        Metrics.calculateMetricsModule(sensorContext, analysis, degraded);
+        if (aggregation.isEnabled()) {
+          aggregation.add(fileSystem.workDir(), analysis.all().stream().map(Dependency::toDataString).collect(Collectors.toList()));
+          aggregated = true;
+        }
+        if (baseline.isEnabled() && degraded) {
+          skipped.add("measures of changes since the previous analysis");
+        } else if (baseline.isEnabled()) {
+          calculateDelta(sensorContext, analysis);
+        }
+      }
+      if (degraded) {
+        LOGGER.warn("Dependency-Updates time budget of {} ms exceeded for {} after {} ms, skipped {} (see property {})", budget.getBudgetMillis(), fileSystem.baseDir(),
+            budget.getElapsedMillis(), String.join(", ", skipped), Constants.CONFIG_TIME_BUDGET);
+      }
     } catch (FileNotFoundException e) {
       LOGGER.info("Analysis skipped/aborted due to missing report file");
       LOGGER.debug(e.getMessage(), e);
@@ -134,6 +379,10 @@ public class IssueSensor implements org.sonar.api.batch.sensor.Sensor {
       LOGGER.warn("Analysis aborted due to: IO Errors", e);
     } catch (XMLStreamException e) {
       LOGGER.warn("Analysis aborted due to: XML is not valid", e);
+    } finally {
+      if (aggregation.isEnabled() && !aggregated) {
+        aggregation.skip();
+      }
     }
     profiler.stopInfo();
   }
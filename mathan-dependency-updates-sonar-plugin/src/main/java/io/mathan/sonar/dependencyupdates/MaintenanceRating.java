@@ -0,0 +1,85 @@
+/*
+ * mathan-dependency-updates-sonar-plugin
+ * Copyright (c) 2019 Matthias Hanisch
+ * matthias@mathan.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mathan.sonar.dependencyupdates;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.commons.lang3.Range;
+
+/**
+ * Maps the number of dependencies with updates to the maintenance rating A to E depending on the total number of dependencies. The rating is kept apart from {@link Metrics} so it can be used
+ * without creating the metrics, e.g. by the command line interface.
+ */
+public final class MaintenanceRating {
+
+  private static final int RATING_A = 1;
+  private static final int RATING_B = 2;
+  private static final int RATING_C = 3;
+  private static final int RATING_D = 4;
+  private static final int RATING_E = 5;
+
+  private static final Map<Range<Integer>, Map<Range<Integer>, Integer>> mapping = new HashMap<>();
+
+  static {
+    Range<Integer> range = Range.between(0, 10);
+    Map<Range<Integer>, Integer> ratings = new HashMap<>();
+    ratings.put(Range.between(0, 0), RATING_A);
+    ratings.put(Range.between(1, 1), RATING_B);
+    ratings.put(Range.between(2, 2), RATING_C);
+    ratings.put(Range.between(3, 5), RATING_D);
+    ratings.put(Range.between(6, 10), RATING_E);
+    mapping.put(range, ratings);
+    range = Range.between(11, 20);
+    ratings = new HashMap<>();
+    ratings.put(Range.between(0, 1), RATING_A);
+    ratings.put(Range.between(2, 3), RATING_B);
+    ratings.put(Range.between(4, 5), RATING_C);
+    ratings.put(Range.between(6, 10), RATING_D);
+    ratings.put(Range.between(11, 20), RATING_E);
+    mapping.put(range, ratings);
+    range = Range.between(21, 50);
+    ratings = new HashMap<>();
+    ratings.put(Range.between(0, 2), RATING_A);
+    ratings.put(Range.between(3, 5), RATING_B);
+    ratings.put(Range.between(6, 10), RATING_C);
+    ratings.put(Range.between(11, 25), RATING_D);
+    ratings.put(Range.between(26, 50), RATING_E);
+    mapping.put(range, ratings);
+    range = Range.between(51, Integer.MAX_VALUE);
+    ratings = new HashMap<>();
+    ratings.put(Range.between(0, 5), RATING_A);
+    ratings.put(Range.between(6, 10), RATING_B);
+    ratings.put(Range.between(11, 20), RATING_C);
+    ratings.put(Range.between(21, 50), RATING_D);
+    ratings.put(Range.between(51, Integer.MAX_VALUE), RATING_E);
+    mapping.put(range, ratings);
+  }
+
+  private MaintenanceRating() {
+  }
+
+  /**
+   * Returns the rating from 1 (A) to 5 (E) for the given number of dependencies with updates.
+   */
+  public static int of(int withLater, int total) {
+    Range<Integer> range = mapping.keySet().stream().filter(r -> r.contains(total)).findFirst().get();
+    Map<Range<Integer>, Integer> ratings = mapping.get(range);
+    return ratings.get(ratings.keySet().stream().filter(r -> r.contains(withLater)).findFirst().get());
+  }
+}
@@ -20,12 +20,10 @@ package io.mathan.sonar.dependencyupdates;
 
 import io.mathan.sonar.dependencyupdates.parser.Analysis;
 import io.mathan.sonar.dependencyupdates.parser.Dependency;
+import java.io.IOException;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.stream.Collectors;
-import org.apache.commons.lang3.Range;
 import org.sonar.api.batch.fs.InputComponent;
 import org.sonar.api.batch.sensor.SensorContext;
 import org.sonar.api.config.Configuration;
@@ -37,7 +35,7 @@ public final class Metrics implements org.sonar.api.measures.Metrics {
   private static final String DOMAIN = "Dependency Updates";
 
   static final String KEY_DEPENDENCIES = "metrics.dependencies";
-  static final String KEY_DEPENDENCIES_DATA = "metrics.dependencies.data";
+  public static final String KEY_DEPENDENCIES_DATA = "metrics.dependencies.data";
   static final String KEY_PATCHES = "metrics.patches";
   static final String KEY_PATCHES_DATA = "metrics.patches.data";
   static final String KEY_PATCHES_RATIO = "metrics.patches.ratio";
@@ -48,50 +46,15 @@ public final class Metrics implements org.sonar.api.measures.Metrics {
   static final String KEY_UPGRADES_RATIO = "metrics.upgrades.ratio";
   static final String KEY_UPGRADES_MISSED = "metrics.upgrades.repeatedly";
   static final String KEY_UPGRADES_RATING = "metrios.upgrades.rating";
-
-  private static final int RATING_A = 1;
-  private static final int RATING_B = 2;
-  private static final int RATING_C = 3;
-  private static final int RATING_D = 4;
-  private static final int RATING_E = 5;
-
-  private static Map<Range<Integer>, Map<Range<Integer>, Integer>> mapping = new HashMap<>();
-
-  static {
-    Range<Integer> range = Range.between(0, 10);
-    Map<Range<Integer>, Integer> ratings = new HashMap<>();
-    ratings.put(Range.between(0, 0), RATING_A);
-    ratings.put(Range.between(1, 1), RATING_B);
-    ratings.put(Range.between(2, 2), RATING_C);
-    ratings.put(Range.between(3, 5), RATING_D);
-    ratings.put(Range.between(6, 10), RATING_E);
-    mapping.put(range, ratings);
-    range = Range.between(11, 20);
-    ratings = new HashMap<>();
-    ratings.put(Range.between(0, 1), RATING_A);
-    ratings.put(Range.between(2, 3), RATING_B);
-    ratings.put(Range.between(4, 5), RATING_C);
-    ratings.put(Range.between(6, 10), RATING_D);
-    ratings.put(Range.between(11, 20), RATING_E);
-    mapping.put(range, ratings);
-    range = Range.between(21, 50);
-    ratings = new HashMap<>();
-    ratings.put(Range.between(0, 2), RATING_A);
-    ratings.put(Range.between(3, 5), RATING_B);
-    ratings.put(Range.between(6, 10), RATING_C);
-    ratings.put(Range.between(11, 25), RATING_D);
-    ratings.put(Range.between(26, 50), RATING_E);
-    mapping.put(range, ratings);
-    range = Range.between(51, Integer.MAX_VALUE);
-    ratings = new HashMap<>();
-    ratings.put(Range.between(0, 5), RATING_A);
-    ratings.put(Range.between(6, 10), RATING_B);
-    ratings.put(Range.between(11, 20), RATING_C);
-    ratings.put(Range.between(21, 50), RATING_D);
-    ratings.put(Range.between(51, Integer.MAX_VALUE), RATING_E);
-    mapping.put(range, ratings);
-  }
-
+  static final String KEY_DELTA_OUTDATED = "metrics.delta.outdated";
+  static final String KEY_DELTA_OUTDATED_DATA = "metrics.delta.outdated.data";
+  static final String KEY_DELTA_RESOLVED = "metrics.delta.resolved";
+  static final String KEY_DELTA_STILL_OUTDATED = "metrics.delta.stillOutdated";
+  static final String KEY_DEGRADED = "metrics.degraded";
+  /**
+   * Number of fields of {@link Dependency#toDataString()}.
+   */
+  private static final int DATA_STRING_FIELDS = 5;
 
   private static final Metric<Integer> DEPENDENCIES = new Metric.Builder(Metrics.KEY_DEPENDENCIES, "Dependencies total", ValueType.INT)
       .setDescription("Total number of dependencies")
@@ -190,6 +153,48 @@ public final class Metrics implements org.sonar.api.measures.Metrics {
       .setWorstValue(5.0)
       .setBestValue(1.0)
       .create();
+
+  private static final Metric<Integer> DELTA_OUTDATED = new Metric.Builder(Metrics.KEY_DELTA_OUTDATED, "Dependencies outdated since previous analysis", ValueType.INT)
+      .setDescription("Dependencies outdated since the previous analysis")
+      .setDirection(Metric.DIRECTION_WORST)
+      .setQualitative(Boolean.TRUE)
+      .setDomain(Metrics.DOMAIN)
+      .setBestValue(0.0)
+      .setDeleteHistoricalData(true)
+      .create();
+
+  private static final Metric<String> DELTA_OUTDATED_DATA = new Metric.Builder(Metrics.KEY_DELTA_OUTDATED_DATA, "List of dependencies outdated since previous analysis", ValueType.STRING)
+      .setDescription("All dependencies outdated since the previous analysis concatenated in a list")
+      .setDirection(Metric.DIRECTION_NONE)
+      .setQualitative(false)
+      .setDomain(Metrics.DOMAIN)
+      .setHidden(true)
+      .setDeleteHistoricalData(true)
+      .create();
+
+  private static final Metric<Integer> DELTA_RESOLVED = new Metric.Builder(Metrics.KEY_DELTA_RESOLVED, "Resolved outdated dependencies", ValueType.INT)
+      .setDescription("Dependencies outdated in the previous analysis which are up to date or no longer used")
+      .setDirection(Metric.DIRECTION_BETTER)
+      .setQualitative(Boolean.FALSE)
+      .setDomain(Metrics.DOMAIN)
+      .setDeleteHistoricalData(true)
+      .create();
+
+  private static final Metric<Integer> DELTA_STILL_OUTDATED = new Metric.Builder(Metrics.KEY_DELTA_STILL_OUTDATED, "Still outdated dependencies", ValueType.INT)
+      .setDescription("Dependencies outdated in the previous analysis which are still outdated")
+      .setDirection(Metric.DIRECTION_WORST)
+      .setQualitative(Boolean.FALSE)
+      .setDomain(Metrics.DOMAIN)
+      .setDeleteHistoricalData(true)
+      .create();
+
+  private static final Metric<Integer> DEGRADED = new Metric.Builder(Metrics.KEY_DEGRADED, "Modules analysed in degraded mode", ValueType.INT)
+      .setDescription("Modules exceeding the time budget of the analysis, their issues and lists of dependencies are incomplete")
+      .setDirection(Metric.DIRECTION_WORST)
+      .setQualitative(Boolean.FALSE)
+      .setDomain(Metrics.DOMAIN)
+      .setBestValue(0.0)
+      .create();
   private final Configuration configuration;
 
   public Metrics(Configuration configuration) {
@@ -206,11 +211,86 @@ public final class Metrics implements org.sonar.api.measures.Metrics {
    * Calculates all metrics provided by this Sonar-Plugin based on the given Analysis.
    */
   static void calculateMetricsModule(SensorContext context, Analysis analysis) {
-    calculateMetrics(context, context.fileSystem().inputFile(context.fileSystem().predicates().hasRelativePath("pom.xml")), analysis);
+    calculateMetricsModule(context, analysis, false);
+  }
+
+  /**
+   * Calculates all metrics provided by this Sonar-Plugin based on the given Analysis. In degraded mode the lists of dependencies are replaced by a {@link CardinalitySketch} regardless of the
+   * configured exact limit and the module is counted in {@link #KEY_DEGRADED}.
+   */
+  static void calculateMetricsModule(SensorContext context, Analysis analysis, boolean degraded) {
+    InputComponent inputComponent = Utils.buildFile(context.fileSystem());
+    calculateMetrics(context, inputComponent, analysis, degraded ? 0 : exactLimit(context));
+    if (degraded) {
+      context.<Integer>newMeasure().forMetric(Metrics.DEGRADED).on(inputComponent).withValue(1).save();
+    }
+  }
+
+  /**
+   * Calculates the metrics of the changes since the previous analysis based on the outdated dependencies of the previous analysis.
+   */
+  static void calculateDeltaModule(SensorContext context, DependencyDelta delta) {
+    InputComponent inputComponent = Utils.buildFile(context.fileSystem());
+    context.<Integer>newMeasure().forMetric(Metrics.DELTA_OUTDATED).on(inputComponent).withValue(delta.getNewOutdated().size()).save();
+    context.<String>newMeasure().forMetric(Metrics.DELTA_OUTDATED_DATA).on(inputComponent).withValue(String.join(",", delta.getNewOutdated())).save();
+    context.<Integer>newMeasure().forMetric(Metrics.DELTA_RESOLVED).on(inputComponent).withValue(delta.getResolved()).save();
+    context.<Integer>newMeasure().forMetric(Metrics.DELTA_STILL_OUTDATED).on(inputComponent).withValue(delta.getStillOutdated()).save();
+  }
+
+  /**
+   * Calculates the metrics of the project from the distinct dependencies of all modules collected by {@link ProjectAggregation}. As these are merged in ascending order, the lists of dependencies are
+   * built without keeping a set of all dependencies.
+   */
+  static void calculateMetricsProject(SensorContext context, ProjectAggregation aggregation) throws IOException {
+    int exactLimit = exactLimit(context);
+    DataBuilder dependencies = new DataBuilder(exactLimit);
+    DataBuilder patches = new DataBuilder(exactLimit);
+    DataBuilder upgrades = new DataBuilder(exactLimit);
+    int[] missed = new int[2];
+    aggregation.merge(dataString -> {
+      dependencies.add(dataString);
+      String[] fields = dataString.split(":");
+      if (fields.length == DATA_STRING_FIELDS) {
+        int updateCount = Integer.parseInt(fields[DATA_STRING_FIELDS - 2]);
+        int upgradeCount = Integer.parseInt(fields[DATA_STRING_FIELDS - 1]);
+        if (updateCount > 0) {
+          patches.add(dataString);
+          missed[0] += updateCount;
+        }
+        if (upgradeCount > 0) {
+          upgrades.add(dataString);
+          missed[1] += upgradeCount;
+        }
+      }
+    });
+    InputComponent project = context.project();
+    int total = dependencies.count();
+    context.<Integer>newMeasure().forMetric(Metrics.DEPENDENCIES).on(project).withValue(total).save();
+    context.<String>newMeasure().forMetric(Metrics.DEPENDENCIES_DATA).on(project).withValue(dependencies.build()).save();
+    calculateProject(context, project, patches, total, missed[0], Metrics.PATCHES, Metrics.PATCHES_DATA, Metrics.PATCHES_MISSED, Metrics.PATCHES_RATIO, Metrics.PATCHES_RATING);
+    calculateProject(context, project, upgrades, total, missed[1], Metrics.UPGRADES, Metrics.UPGRADES_DATA, Metrics.UPGRADES_MISSED, Metrics.UPGRADES_RATIO, Metrics.UPGRADES_RATING);
+  }
+
+  private static void calculateProject(SensorContext context, InputComponent project, DataBuilder data, int total, int missed, Metric<Integer> metric, Metric<String> dataMetric,
+      Metric<Integer> missedMetric, Metric<Double> ratioMetric, Metric<Integer> ratingMetric) {
+    int count = data.count();
+    // same ratio as computed by DependencyUpdatesMeasureComputer, so the measures do not change with the aggregation mode
+    double ratio = total > 0 ? 100 * count / total : 0;
+    context.<Integer>newMeasure().forMetric(metric).on(project).withValue(count).save();
+    context.<String>newMeasure().forMetric(dataMetric).on(project).withValue(data.build()).save();
+    context.<Integer>newMeasure().forMetric(missedMetric).on(project).withValue(missed).save();
+    context.<Double>newMeasure().forMetric(ratioMetric).on(project).withValue(ratio).save();
+    context.<Integer>newMeasure().forMetric(ratingMetric).on(project).withValue(calculateRating(count, total)).save();
   }
 
+  private static int exactLimit(SensorContext context) {
+    if (context.config().getBoolean(Constants.CONFIG_COMPACT).orElse(Constants.CONFIG_COMPACT_DEFAULT)) {
+      return context.config().getInt(Constants.CONFIG_COMPACT_EXACT_LIMIT).orElse(Constants.CONFIG_COMPACT_EXACT_LIMIT_DEFAULT);
+    }
+    return Integer.MAX_VALUE;
+  }
 
-  private static void calculateMetrics(SensorContext context, InputComponent inputComponent, Analysis analysis) {
+  private static void calculateMetrics(SensorContext context, InputComponent inputComponent, Analysis analysis, int exactLimit) {
     calculateDependencies(context, inputComponent, analysis);
     calculatePatches(context, inputComponent, analysis);
     calculatePatchesRatio(context, inputComponent, analysis);
@@ -218,17 +298,24 @@ public final class Metrics implements org.sonar.api.measures.Metrics {
     calculateUpgrades(context, inputComponent, analysis);
     calculateUpgradesRatio(context, inputComponent, analysis);
     calculateUpgradesMissed(context, inputComponent, analysis);
-    calculateData(context, inputComponent, Metrics.DEPENDENCIES_DATA, analysis.all());
-    calculateData(context, inputComponent, Metrics.PATCHES_DATA, analysis.all().stream().filter(dependency -> dependency.getUpdateCount() > 0).collect(Collectors.toList()));
-    calculateData(context, inputComponent, Metrics.UPGRADES_DATA, analysis.all().stream().filter(dependency -> dependency.getUpgradeCount() > 0).collect(Collectors.toList()));
+    calculateData(context, inputComponent, Metrics.DEPENDENCIES_DATA, analysis.all(), exactLimit);
+    calculateData(context, inputComponent, Metrics.PATCHES_DATA, analysis.all().stream().filter(dependency -> dependency.getUpdateCount() > 0).collect(Collectors.toList()), exactLimit);
+    calculateData(context, inputComponent, Metrics.UPGRADES_DATA, analysis.all().stream().filter(dependency -> dependency.getUpgradeCount() > 0).collect(Collectors.toList()), exactLimit);
   }
 
   private static void calculateDependencies(SensorContext context, InputComponent inputComponent, Analysis analysis) {
     context.<Integer>newMeasure().forMetric(Metrics.DEPENDENCIES).on(inputComponent).withValue(analysis.all().size()).save();
   }
 
-  private static void calculateData(SensorContext context, InputComponent inputComponent, Metric<String> metric, List<Dependency> dependencies) {
-    String dependenciesList = dependencies.stream().map(Dependency::toDataString).collect(Collectors.joining(","));
+  private static void calculateData(SensorContext context, InputComponent inputComponent, Metric<String> metric, List<Dependency> dependencies, int exactLimit) {
+    String dependenciesList;
+    if (dependencies.size() > exactLimit) {
+      CardinalitySketch sketch = new CardinalitySketch();
+      dependencies.forEach(dependency -> sketch.add(dependency.toDataString()));
+      dependenciesList = sketch.encode();
+    } else {
+      dependenciesList = dependencies.stream().map(Dependency::toDataString).collect(Collectors.joining(","));
+    }
     context.<String>newMeasure().forMetric(metric).on(inputComponent).withValue(dependenciesList).save();
   }
 
@@ -275,9 +362,50 @@ public final class Metrics implements org.sonar.api.measures.Metrics {
   }
 
   static int calculateRating(int withLater, int total) {
-    Range range = mapping.keySet().stream().filter(r -> r.contains(total)).findFirst().get();
-    Map<Range<Integer>, Integer> ratings = mapping.get(range);
-    return ratings.get(ratings.keySet().stream().filter(r -> r.contains(withLater)).findFirst().get());
+    return MaintenanceRating.of(withLater, total);
+  }
+
+  /**
+   * Builds a list of distinct dependencies added one by one. The list is replaced by a {@link CardinalitySketch} once it exceeds the exact limit.
+   */
+  private static final class DataBuilder {
+
+    private final int exactLimit;
+    private final StringBuilder exact = new StringBuilder();
+    private int count;
+    private CardinalitySketch sketch;
+
+    DataBuilder(int exactLimit) {
+      this.exactLimit = exactLimit;
+    }
+
+    void add(String dataString) {
+      count++;
+      if (sketch == null && count > exactLimit) {
+        sketch = new CardinalitySketch();
+        if (exact.length() > 0) {
+          Arrays.stream(exact.toString().split(",")).forEach(sketch::add);
+        }
+        exact.setLength(0);
+        exact.trimToSize();
+      }
+      if (sketch != null) {
+        sketch.add(dataString);
+      } else {
+        if (exact.length() > 0) {
+          exact.append(',');
+        }
+        exact.append(dataString);
+      }
+    }
+
+    int count() {
+      return sketch == null ? count : sketch.estimate();
+    }
+
+    String build() {
+      return sketch == null ? exact.toString() : sketch.encode();
+    }
   }
 
   @Override
@@ -294,7 +422,12 @@ public final class Metrics implements org.sonar.api.measures.Metrics {
         Metrics.UPGRADES_DATA,
         Metrics.UPGRADES_RATIO,
         Metrics.UPGRADES_MISSED,
-        Metrics.UPGRADES_RATING
+        Metrics.UPGRADES_RATING,
+        Metrics.DELTA_OUTDATED,
+        Metrics.DELTA_OUTDATED_DATA,
+        Metrics.DELTA_RESOLVED,
+        Metrics.DELTA_STILL_OUTDATED,
+        Metrics.DEGRADED
     );
   }
 
@@ -18,9 +18,13 @@
 
 package io.mathan.sonar.dependencyupdates;
 
+import io.mathan.sonar.dependencyupdates.index.ArtifactIndex;
+import io.mathan.sonar.dependencyupdates.index.ArtifactIndexTask;
 import io.mathan.sonar.dependencyupdates.rule.MathanLanguage;
 import io.mathan.sonar.dependencyupdates.rule.MathanProfile;
 import io.mathan.sonar.dependencyupdates.rule.UsingOutdatedDepencencies;
+import io.mathan.sonar.dependencyupdates.ws.DependencyListingCache;
+import io.mathan.sonar.dependencyupdates.ws.DependencyUpdatesWs;
 import java.util.Arrays;
 
 public final class Plugin implements org.sonar.api.Plugin {
@@ -28,12 +32,22 @@ public final class Plugin implements org.sonar.api.Plugin {
   @Override
   public void define(Context context) {
     context.addExtensions(Arrays.asList(
+        DependencyUpdatesSettings.class,
+        ReportBundle.class,
+        BaselineCache.class,
+        ProjectAggregation.class,
         IssueSensor.class,
+        ProjectAggregationSensor.class,
         Metrics.class,
         MathanProfile.class,
         MathanLanguage.class,
         UsingOutdatedDepencencies.class,
-        DependencyUpdatesMeasureComputer.class
+        DependencyUpdatesMeasureComputer.class,
+        DependencyDeltaMeasureComputer.class,
+        ArtifactIndex.class,
+        ArtifactIndexTask.class,
+        DependencyListingCache.class,
+        DependencyUpdatesWs.class
         )
     );
     context.addExtensions(Configuration.getPropertyDefinitions());
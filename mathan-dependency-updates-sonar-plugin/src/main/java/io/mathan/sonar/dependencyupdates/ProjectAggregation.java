@@ -0,0 +1,287 @@
+/*
+ * mathan-dependency-updates-sonar-plugin
+ * Copyright (c) 2019 Matthias Hanisch
+ * matthias@mathan.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mathan.sonar.dependencyupdates;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import org.sonar.api.Startable;
+import org.sonar.api.batch.ScannerSide;
+import org.sonar.api.config.Configuration;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+
+/**
+ * Collects the dependencies of all modules of a scanner run to compute the measures of the project with {@link ProjectAggregationSensor}, see {@link Constants#CONFIG_EXTERNAL_MERGE}. The data
+ * strings of the dependencies are buffered until the configured memory threshold is reached and then written as sorted run without duplicates to the work directory. The runs are merged once all
+ * modules are analysed, so the heap used does not depend on the number of modules.
+ */
+@ScannerSide
+public class ProjectAggregation implements Startable {
+
+  private static final Logger LOGGER = Loggers.get(ProjectAggregation.class);
+  private static final long BYTES_PER_MEGABYTE = 1024L * 1024;
+  /**
+   * Estimated heap used by a buffered data string besides its characters.
+   */
+  private static final int ENTRY_OVERHEAD = 64;
+  /**
+   * Maximum number of runs merged at once. If exceeded, the runs are merged into a single run to keep the number of open files bounded.
+   */
+  private static final int MAX_RUNS = 64;
+
+  private final boolean enabled;
+  private final long threshold;
+  private final List<String> buffer = new ArrayList<>();
+  private final List<Path> runs = new ArrayList<>();
+  private long bufferBytes;
+  private Path directory;
+  private int modules;
+  private int skipped;
+  private boolean failed;
+
+  public ProjectAggregation(Configuration configuration) {
+    this.enabled = configuration.getBoolean(Constants.CONFIG_EXTERNAL_MERGE).orElse(Constants.CONFIG_EXTERNAL_MERGE_DEFAULT);
+    this.threshold = configuration.getLong(Constants.CONFIG_EXTERNAL_MERGE_THRESHOLD).orElse(Constants.CONFIG_EXTERNAL_MERGE_THRESHOLD_DEFAULT) * BYTES_PER_MEGABYTE;
+  }
+
+  ProjectAggregation(boolean enabled, long thresholdBytes) {
+    this.enabled = enabled;
+    this.threshold = thresholdBytes;
+  }
+
+  /**
+   * Checks if the measures of the project are computed by the scanner instead of the compute engine.
+   */
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Checks if the dependencies of all modules could be collected. If a module with a report was skipped (e.g. a module not changed by a pull request) or a run could not be written, the measures of
+   * the project are left to the compute engine.
+   */
+  synchronized boolean isComplete() {
+    return modules > 0 && skipped == 0 && !failed;
+  }
+
+  synchronized int getModules() {
+    return modules;
+  }
+
+  synchronized int getSkipped() {
+    return skipped;
+  }
+
+  /**
+   * Records a module with a report whose dependencies are not added.
+   */
+  synchronized void skip() {
+    skipped++;
+  }
+
+  synchronized int getRuns() {
+    return runs.size();
+  }
+
+  /**
+   * Adds the data strings of the dependencies of a module. The runs are written to a temporary directory within the given work directory of the first module exceeding the threshold.
+   */
+  synchronized void add(File workDir, Collection<String> dataStrings) {
+    if (failed) {
+      return;
+    }
+    modules++;
+    for (String dataString : dataStrings) {
+      buffer.add(dataString);
+      bufferBytes += 2L * dataString.length() + ENTRY_OVERHEAD;
+      if (bufferBytes >= threshold) {
+        try {
+          spill(workDir);
+        } catch (IOException e) {
+          LOGGER.warn("Dependency-Updates dependencies could not be written to {}, the measures of the project are computed by the compute engine", workDir, e);
+          failed = true;
+          buffer.clear();
+          bufferBytes = 0;
+          return;
+        }
+      }
+    }
+  }
+
+  private void spill(File workDir) throws IOException {
+    if (directory == null) {
+      directory = Files.createTempDirectory(workDir.toPath(), "dependency-updates-");
+    }
+    Collections.sort(buffer);
+    Path run = nextRun();
+    try (BufferedWriter writer = Files.newBufferedWriter(run, StandardCharsets.UTF_8)) {
+      String previous = null;
+      for (String dataString : buffer) {
+        if (!dataString.equals(previous)) {
+          writer.write(dataString);
+          writer.newLine();
+          previous = dataString;
+        }
+      }
+    }
+    runs.add(run);
+    buffer.clear();
+    bufferBytes = 0;
+    if (runs.size() >= MAX_RUNS) {
+      Path merged = nextRun();
+      try (BufferedWriter writer = Files.newBufferedWriter(merged, StandardCharsets.UTF_8)) {
+        merge(runs, Collections.emptyIterator(), dataString -> write(writer, dataString));
+      } catch (UncheckedIOException e) {
+        throw e.getCause();
+      }
+      for (Path path : runs) {
+        Files.delete(path);
+      }
+      runs.clear();
+      runs.add(merged);
+    }
+    LOGGER.debug("Dependency-Updates dependencies written to {}", run);
+  }
+
+  private Path nextRun() throws IOException {
+    return Files.createTempFile(directory, "run-", ".txt");
+  }
+
+  private static void write(BufferedWriter writer, String dataString) {
+    try {
+      writer.write(dataString);
+      writer.newLine();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Merges the runs written so far and the dependencies still buffered. Each distinct data string is passed to the consumer once, in ascending order.
+   */
+  synchronized void merge(Consumer<String> consumer) throws IOException {
+    Collections.sort(buffer);
+    try {
+      merge(runs, buffer.iterator(), consumer);
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  private static void merge(List<Path> runs, Iterator<String> buffered, Consumer<String> consumer) throws IOException {
+    PriorityQueue<Run> queue = new PriorityQueue<>(Comparator.comparing(Run::current));
+    List<BufferedReader> readers = new ArrayList<>();
+    try {
+      for (Path path : runs) {
+        BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8);
+        readers.add(reader);
+        Run.start(queue, reader.lines().iterator());
+      }
+      Run.start(queue, buffered);
+      String previous = null;
+      while (!queue.isEmpty()) {
+        Run run = queue.poll();
+        String dataString = run.current();
+        if (!dataString.equals(previous)) {
+          consumer.accept(dataString);
+          previous = dataString;
+        }
+        if (run.advance()) {
+          queue.add(run);
+        }
+      }
+    } finally {
+      for (BufferedReader reader : readers) {
+        reader.close();
+      }
+    }
+  }
+
+  @Override
+  public void start() {
+    // the directory of the runs is created on demand
+  }
+
+  @Override
+  public synchronized void stop() {
+    buffer.clear();
+    runs.clear();
+    if (directory != null) {
+      try (Stream<Path> paths = Files.list(directory)) {
+        for (Path path : (Iterable<Path>) paths::iterator) {
+          Files.deleteIfExists(path);
+        }
+        Files.deleteIfExists(directory);
+      } catch (IOException e) {
+        LOGGER.debug("Dependency-Updates directory {} could not be deleted", directory, e);
+      }
+      directory = null;
+    }
+  }
+
+  /**
+   * A sorted sequence of data strings taking part in the merge.
+   */
+  private static final class Run {
+
+    private final Iterator<String> iterator;
+    private String current;
+
+    private Run(Iterator<String> iterator) {
+      this.iterator = iterator;
+    }
+
+    /**
+     * Adds the run to the queue unless it is empty.
+     */
+    static void start(PriorityQueue<Run> queue, Iterator<String> iterator) {
+      Run run = new Run(iterator);
+      if (run.advance()) {
+        queue.add(run);
+      }
+    }
+
+    String current() {
+      return current;
+    }
+
+    boolean advance() {
+      if (iterator.hasNext()) {
+        current = iterator.next();
+        return true;
+      }
+      return false;
+    }
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * mathan-dependency-updates-sonar-plugin
+ * Copyright (c) 2019 Matthias Hanisch
+ * matthias@mathan.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mathan.sonar.dependencyupdates;
+
+import java.io.IOException;
+import org.sonar.api.batch.sensor.SensorContext;
+import org.sonar.api.batch.sensor.SensorDescriptor;
+import org.sonar.api.scanner.sensor.ProjectSensor;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonar.api.utils.log.Profiler;
+
+/**
+ * Saves the measures of the project computed from the dependencies of all modules collected by {@link ProjectAggregation}. Project sensors are executed after the sensors of all modules, so the
+ * {@link DependencyUpdatesMeasureComputer} finds the measures of the project already computed and aggregates the remaining components only.
+ */
+public class ProjectAggregationSensor implements ProjectSensor {
+
+  private static final Logger LOGGER = Loggers.get(ProjectAggregationSensor.class);
+  private static final String SENSOR_NAME = "MDU-ProjectAggregationSensor";
+
+  private final ProjectAggregation aggregation;
+
+  public ProjectAggregationSensor(ProjectAggregation aggregation) {
+    this.aggregation = aggregation;
+  }
+
+  @Override
+  public void describe(SensorDescriptor sensorDescriptor) {
+    sensorDescriptor
+        .name(SENSOR_NAME)
+        .onlyWhenConfiguration(configuration -> configuration.getBoolean(Constants.CONFIG_EXTERNAL_MERGE).orElse(Constants.CONFIG_EXTERNAL_MERGE_DEFAULT)
+            && !configuration.getBoolean(Constants.CONFIG_SKIP).orElse(Constants.CONFIG_SKIP_DEFAULT));
+  }
+
+  @Override
+  public void execute(SensorContext sensorContext) {
+    if (!aggregation.isComplete()) {
+      if (aggregation.getSkipped() > 0) {
+        LOGGER.info("Dependency-Updates skipped {} modules, the measures of the project are computed by the compute engine", aggregation.getSkipped());
+      }
+      return;
+    }
+    Profiler profiler = Profiler.create(LOGGER);
+    profiler.startInfo(String.format("Aggregate Dependency-Updates of %d modules from %d runs", aggregation.getModules(), aggregation.getRuns()));
+    try {
+      Metrics.calculateMetricsProject(sensorContext, aggregation);
+    } catch (IOException e) {
+      LOGGER.warn("Aggregation aborted due to: IO Errors", e);
+    }
+    profiler.stopInfo();
+  }
+}
@@ -0,0 +1,225 @@
+/*
+ * mathan-dependency-updates-sonar-plugin
+ * Copyright (c) 2019 Matthias Hanisch
+ * matthias@mathan.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mathan.sonar.dependencyupdates;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import io.mathan.sonar.dependencyupdates.parser.Analysis;
+import io.mathan.sonar.dependencyupdates.report.GradleReportFile;
+import io.mathan.sonar.dependencyupdates.report.ReportArchive;
+import io.mathan.sonar.dependencyupdates.report.XmlReportFile;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import javax.xml.stream.XMLStreamException;
+import org.sonar.api.Startable;
+import org.sonar.api.batch.ScannerSide;
+import org.sonar.api.config.Configuration;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+
+/**
+ * Provides the reports of all modules from a single archive configured with {@link Constants#CONFIG_REPORT_BUNDLE}. The Gradle reports are looked up in the archive at
+ * {@link Constants#CONFIG_GRADLE_REPORT_PATH_PROPERTY} as well. The archive is opened once per scanner run when the first module is analysed.
+ * The reports are parsed ahead in the order of the archive, so the analysis of a module usually finds its report parsed already. At most as many reports as the common {@link ForkJoinPool} has
+ * workers are parsed ahead and kept until their module is analysed, a report not parsed ahead is parsed when its module is analysed.
+ */
+@ScannerSide
+public class ReportBundle implements Startable {
+
+  private static final Logger LOGGER = Loggers.get(ReportBundle.class);
+  private static final String PROJECT_BASE_DIR = "sonar.projectBaseDir";
+
+  private final Configuration configuration;
+  private final DependencyUpdatesSettings settings;
+  private Path projectBaseDir;
+  private final int maxParsedAhead = Math.max(1, ForkJoinPool.getCommonPoolParallelism());
+  private ReportArchive archive;
+  private Map<String, List<XmlReportFile>> pending;
+  private Map<String, CompletableFuture<Analysis>> analyses;
+
+  public ReportBundle(Configuration configuration, DependencyUpdatesSettings settings) {
+    this.configuration = configuration;
+    this.settings = settings;
+  }
+
+  /**
+   * Checks if the reports are provided by an archive instead of the file system of the modules.
+   */
+  public boolean isEnabled() {
+    return configuration.get(Constants.CONFIG_REPORT_BUNDLE).isPresent();
+  }
+
+  /**
+   * Checks if the archive contains a report for the module with the given base directory.
+   */
+  public synchronized boolean hasReport(File moduleBaseDir) {
+    open();
+    String module = module(moduleBaseDir);
+    return pending.containsKey(module) || analyses.containsKey(module);
+  }
+
+  /**
+   * Returns the analysis of the report for the module with the given base directory. As each module is analysed once only, the analysis is not kept by this bundle afterwards.
+   *
+   * @return The analysis or <code>null</code> if the archive does not contain a report for the module.
+   */
+  @CheckForNull
+  public Analysis getAnalysis(File moduleBaseDir) throws IOException, XMLStreamException {
+    CompletableFuture<Analysis> analysis;
+    List<XmlReportFile> reports;
+    GradleReportFile gradleReport = null;
+    synchronized (this) {
+      open();
+      String module = module(moduleBaseDir);
+      analysis = analyses.remove(module);
+      reports = analysis == null ? pending.remove(module) : null;
+      if (reports != null) {
+        gradleReport = archive.getGradleReports().get(module);
+      }
+      parseAhead();
+    }
+    if (reports != null) {
+      return settings.getParser().parse(reports, gradleReport);
+    } else if (analysis == null) {
+      return null;
+    }
+    try {
+      return analysis.join();
+    } catch (CompletionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof UncheckedIOException) {
+        throw ((UncheckedIOException) cause).getCause();
+      } else if (cause instanceof ParseException) {
+        throw ((ParseException) cause).getCause();
+      }
+      throw e;
+    }
+  }
+
+  synchronized int getParsedAhead() {
+    return analyses == null ? 0 : analyses.size();
+  }
+
+  int getMaxParsedAhead() {
+    return maxParsedAhead;
+  }
+
+  private void open() {
+    if (analyses == null) {
+      projectBaseDir = configuration.get(PROJECT_BASE_DIR).map(Paths::get).orElse(Paths.get("")).toAbsolutePath().normalize();
+      Path bundle = projectBaseDir.resolve(configuration.get(Constants.CONFIG_REPORT_BUNDLE).orElse(""));
+      String reportPath = configuration.get(Constants.CONFIG_REPORT_PATH_PROPERTY).orElse(Constants.CONFIG_REPORT_PATH_DEFAULT);
+      String gradleReportPath = configuration.get(Constants.CONFIG_GRADLE_REPORT_PATH_PROPERTY).orElse(Constants.CONFIG_GRADLE_REPORT_PATH_DEFAULT);
+      try {
+        archive = ReportArchive.open(bundle, reportPath, settings.getReportKinds(), gradleReportPath);
+        pending = new LinkedHashMap<>(archive.getReports());
+        // modules built with Gradle only have a Gradle report
+        archive.getGradleReports().keySet().forEach(module -> pending.putIfAbsent(module, Collections.emptyList()));
+        analyses = new HashMap<>();
+        LOGGER.info("Found {} Dependency-Updates reports in {}", pending.size(), bundle);
+        parseAhead();
+      } catch (IOException e) {
+        LOGGER.warn("Dependency-Updates report bundle {} could not be read", bundle, e);
+        pending = Collections.emptyMap();
+        analyses = Collections.emptyMap();
+      }
+    }
+  }
+
+  /**
+   * Starts parsing the next pending reports until the maximum number of reports parsed ahead is reached.
+   */
+  private void parseAhead() {
+    Iterator<Entry<String, List<XmlReportFile>>> iterator = pending.entrySet().iterator();
+    while (analyses.size() < maxParsedAhead && iterator.hasNext()) {
+      Entry<String, List<XmlReportFile>> reports = iterator.next();
+      iterator.remove();
+      GradleReportFile gradleReport = archive.getGradleReports().get(reports.getKey());
+      analyses.put(reports.getKey(), CompletableFuture.supplyAsync(() -> parse(reports.getValue(), gradleReport), ForkJoinPool.commonPool()));
+    }
+  }
+
+  private Analysis parse(List<XmlReportFile> reports, @Nullable GradleReportFile gradleReport) {
+    try {
+      return settings.getParser().parse(reports, gradleReport);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } catch (XMLStreamException e) {
+      throw new ParseException(e);
+    }
+  }
+
+  private String module(File moduleBaseDir) {
+    return ReportArchive.normalize(projectBaseDir.relativize(moduleBaseDir.toPath().toAbsolutePath().normalize()).toString());
+  }
+
+  @Override
+  public void start() {
+    // the archive is opened lazily as it is not needed if the analysis is skipped
+  }
+
+  @Override
+  public synchronized void stop() {
+    if (analyses != null) {
+      if (!analyses.isEmpty() || !pending.isEmpty()) {
+        Set<String> unmatched = new TreeSet<>(analyses.keySet());
+        unmatched.addAll(pending.keySet());
+        LOGGER.debug("{} Dependency-Updates reports in bundle did not match any module: {}", unmatched.size(), unmatched);
+      }
+      analyses.values().forEach(analysis -> analysis.cancel(false));
+      analyses = null;
+      pending = null;
+    }
+    if (archive != null) {
+      try {
+        archive.close();
+      } catch (IOException e) {
+        LOGGER.warn("Dependency-Updates report bundle could not be closed", e);
+      }
+      archive = null;
+    }
+  }
+
+  private static final class ParseException extends RuntimeException {
+
+    private ParseException(XMLStreamException cause) {
+      super(cause);
+    }
+
+    @Override
+    public synchronized XMLStreamException getCause() {
+      return (XMLStreamException) super.getCause();
+    }
+  }
+}
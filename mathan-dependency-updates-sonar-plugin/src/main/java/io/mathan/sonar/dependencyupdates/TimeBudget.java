@@ -0,0 +1,55 @@
+/*
+ * mathan-dependency-updates-sonar-plugin
+ * Copyright (c) 2019 Matthias Hanisch
+ * matthias@mathan.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mathan.sonar.dependencyupdates;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time budget of the analysis of a module, see {@link Constants#CONFIG_TIME_BUDGET}. The budget is checked between the phases of the analysis and while creating issues, the parsing of a report is
+ * not interrupted.
+ */
+final class TimeBudget {
+
+  private final long budgetNanos;
+  private final long start;
+
+  private TimeBudget(long budgetNanos, long start) {
+    this.budgetNanos = budgetNanos;
+    this.start = start;
+  }
+
+  /**
+   * Starts a budget of the given number of milliseconds. A budget of <code>0</code> or less is never exceeded.
+   */
+  static TimeBudget start(long millis) {
+    return new TimeBudget(millis > 0 ? TimeUnit.MILLISECONDS.toNanos(millis) : Long.MAX_VALUE, System.nanoTime());
+  }
+
+  boolean isExceeded() {
+    return System.nanoTime() - start > budgetNanos;
+  }
+
+  long getBudgetMillis() {
+    return budgetNanos == Long.MAX_VALUE ? 0 : TimeUnit.NANOSECONDS.toMillis(budgetNanos);
+  }
+
+  long getElapsedMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+  }
+}
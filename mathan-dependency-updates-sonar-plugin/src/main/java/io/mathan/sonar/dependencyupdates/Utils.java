@@ -18,12 +18,20 @@
 
 package io.mathan.sonar.dependencyupdates;
 
+import javax.annotation.CheckForNull;
 import javax.xml.stream.FactoryConfigurationError;
 import javax.xml.stream.XMLInputFactory;
 import org.codehaus.staxmate.SMInputFactory;
+import org.sonar.api.batch.fs.FileSystem;
+import org.sonar.api.batch.fs.InputFile;
 
 public final class Utils {
 
+  /**
+   * The build files issues and measures are reported on, in the order they are looked up.
+   */
+  private static final String[] BUILD_FILES = {"pom.xml", "build.gradle", "build.gradle.kts"};
+
   private Utils() {
   }
 
@@ -38,4 +46,20 @@ public final class Utils {
     xmlFactory.setProperty(XMLInputFactory.IS_VALIDATING, Boolean.FALSE);
     return new SMInputFactory(xmlFactory);
   }
+
+  /**
+   * Returns the build file of the module, i.e. the pom.xml or for modules built with Gradle the build script.
+   *
+   * @return The build file or <code>null</code> if the module does not contain one.
+   */
+  @CheckForNull
+  public static InputFile buildFile(FileSystem fileSystem) {
+    for (String buildFile : BUILD_FILES) {
+      InputFile inputFile = fileSystem.inputFile(fileSystem.predicates().hasRelativePath(buildFile));
+      if (inputFile != null) {
+        return inputFile;
+      }
+    }
+    return null;
+  }
 }
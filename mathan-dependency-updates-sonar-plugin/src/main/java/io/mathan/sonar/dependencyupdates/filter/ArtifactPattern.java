@@ -0,0 +1,76 @@
+/*
+ * mathan-dependency-updates-sonar-plugin
+ * Copyright (c) 2019 Matthias Hanisch
+ * matthias@mathan.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mathan.sonar.dependencyupdates.filter;
+
+import io.mathan.sonar.dependencyupdates.version.Version;
+import javax.annotation.Nullable;
+
+/**
+ * A compiled artifact pattern <code>[groupId]:[artifactId]:[type]:[version]:[scope]:[classifier]</code>. Missing segments are treated as implicit wildcards.
+ */
+final class ArtifactPattern {
+
+  static final int GROUP_ID = 0;
+  static final int ARTIFACT_ID = 1;
+  static final int VERSION = 3;
+  static final int SEGMENTS = 6;
+
+  private final TokenMatcher[] matchers;
+
+  private ArtifactPattern(TokenMatcher[] matchers) {
+    this.matchers = matchers;
+  }
+
+  static ArtifactPattern compile(String pattern) {
+    String[] parts = pattern.split(":");
+    TokenMatcher[] matchers = new TokenMatcher[Math.min(parts.length, SEGMENTS)];
+    for (int i = 0; i < matchers.length; i++) {
+      matchers[i] = TokenMatcher.compile(parts[i]);
+    }
+    return new ArtifactPattern(matchers);
+  }
+
+  /**
+   * Returns the matcher for the given segment of this pattern.
+   */
+  TokenMatcher matcher(int segment) {
+    return segment < matchers.length ? matchers[segment] : TokenMatcher.any();
+  }
+
+  /**
+   * Checks if this pattern has a version range which requires the version of an artifact to be parsed.
+   */
+  boolean hasVersionRange() {
+    return matcher(VERSION).kind() == TokenMatcher.Kind.RANGE;
+  }
+
+  /**
+   * Checks if this pattern matches the tokens of an artifact given in the order of the pattern segments.
+   *
+   * @param version The parsed version of the artifact if available.
+   */
+  boolean matches(String[] tokens, @Nullable Version version) {
+    for (int i = 0; i < matchers.length; i++) {
+      if (!matchers[i].matches(tokens[i], version)) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
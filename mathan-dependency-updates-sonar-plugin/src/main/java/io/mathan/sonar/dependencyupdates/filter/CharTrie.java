@@ -0,0 +1,116 @@
+/*
+ * mathan-dependency-updates-sonar-plugin
+ * Copyright (c) 2019 Matthias Hanisch
+ * matthias@mathan.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mathan.sonar.dependencyupdates.filter;
+
+import io.mathan.sonar.dependencyupdates.version.Version;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import javax.annotation.Nullable;
+
+/**
+ * Trie of artifact patterns keyed by the literal part of a prefix or suffix segment. For suffixes the trie is built and walked from the end of the key, so a lookup visits every pattern whose
+ * key is a prefix (or suffix) of a token in a single pass over the token.
+ */
+final class CharTrie {
+
+  private final boolean reversed;
+  private final Node root = new Node();
+
+  CharTrie(boolean reversed) {
+    this.reversed = reversed;
+  }
+
+  void add(String key, ArtifactPattern pattern) {
+    Node node = root;
+    for (int i = 0; i < key.length(); i++) {
+      node = node.child(charAt(key, i), true);
+    }
+    node.add(pattern);
+  }
+
+  /**
+   * Checks if any of the patterns whose key is a prefix (or suffix if reversed) of the token matches the tokens of the artifact.
+   */
+  boolean matches(String token, String[] tokens, @Nullable Version version) {
+    Node node = root;
+    if (node.matches(tokens, version)) {
+      return true;
+    }
+    for (int i = 0; i < token.length(); i++) {
+      node = node.child(charAt(token, i), false);
+      if (node == null) {
+        return false;
+      }
+      if (node.matches(tokens, version)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private char charAt(String value, int index) {
+    return reversed ? value.charAt(value.length() - 1 - index) : value.charAt(index);
+  }
+
+  private static final class Node {
+
+    private char[] keys = new char[0];
+    private Node[] children = new Node[0];
+    private List<ArtifactPattern> patterns = Collections.emptyList();
+
+    Node child(char key, boolean create) {
+      int index = Arrays.binarySearch(keys, key);
+      if (index >= 0) {
+        return children[index];
+      } else if (!create) {
+        return null;
+      }
+      int insert = -index - 1;
+      char[] newKeys = new char[keys.length + 1];
+      Node[] newChildren = new Node[children.length + 1];
+      System.arraycopy(keys, 0, newKeys, 0, insert);
+      System.arraycopy(children, 0, newChildren, 0, insert);
+      newKeys[insert] = key;
+      newChildren[insert] = new Node();
+      System.arraycopy(keys, insert, newKeys, insert + 1, keys.length - insert);
+      System.arraycopy(children, insert, newChildren, insert + 1, children.length - insert);
+      keys = newKeys;
+      children = newChildren;
+      return newChildren[insert];
+    }
+
+    void add(ArtifactPattern pattern) {
+      if (patterns.isEmpty()) {
+        patterns = new ArrayList<>(1);
+      }
+      patterns.add(pattern);
+    }
+
+    boolean matches(String[] tokens, @Nullable Version version) {
+      for (ArtifactPattern pattern : patterns) {
+        if (pattern.matches(tokens, version)) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+}
@@ -0,0 +1,44 @@
+/*
+ * mathan-dependency-updates-sonar-plugin
+ * Copyright (c) 2019 Matthias Hanisch
+ * matthias@mathan.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mathan.sonar.dependencyupdates.filter;
+
+import javax.annotation.CheckForNull;
+
+/**
+ * Coordinate of an artifact as matched by the {@link PatternArtifactFilter}. The coordinate is implemented by the dependencies read from the reports, so matching a dependency neither copies it nor
+ * needs the artifact types of Maven.
+ */
+public interface Coordinate {
+
+  String getGroupId();
+
+  String getArtifactId();
+
+  @CheckForNull
+  String getType();
+
+  @CheckForNull
+  String getVersion();
+
+  @CheckForNull
+  String getScope();
+
+  @CheckForNull
+  String getClassifier();
+}
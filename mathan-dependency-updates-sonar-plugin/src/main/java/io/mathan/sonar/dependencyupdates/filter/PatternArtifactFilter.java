@@ -18,77 +18,76 @@
 
 package io.mathan.sonar.dependencyupdates.filter;
 
+import io.mathan.sonar.dependencyupdates.version.Version;
+import java.util.ArrayList;
 import java.util.List;
-import org.apache.maven.artifact.Artifact;
-import org.apache.maven.artifact.resolver.filter.ArtifactFilter;
-import org.apache.maven.artifact.versioning.DefaultArtifactVersion;
-import org.apache.maven.artifact.versioning.InvalidVersionSpecificationException;
-import org.apache.maven.artifact.versioning.VersionRange;
+import javax.annotation.Nullable;
 
 /**
  * Filter to include or exclude artifacts by a given pattern. The artifact pattern syntax is influenced by the artifact pattern used in Maven and was extended to the following format:
  *
  * <pre>[groupId]:[artifactId]:[type]:[version]:[scope]:[classifier]</pre>
+ *
+ * <p>The patterns are indexed by their groupId or, if the groupId is a wildcard, by their artifactId. Only patterns which cannot be indexed (e.g. <code>*contains*</code> or version ranges) are
+ * checked one after another, so the cost of matching an artifact does not grow with the number of exact or prefix/suffix patterns.</p>
+ *
+ * <p>Artifacts are matched by their {@link Coordinate}.</p>
  */
-public class PatternArtifactFilter implements ArtifactFilter {
+public class PatternArtifactFilter {
 
-  private final List<String> patterns;
+  private final PatternIndex groupIds = new PatternIndex(ArtifactPattern.GROUP_ID);
+  private final PatternIndex artifactIds = new PatternIndex(ArtifactPattern.ARTIFACT_ID);
+  private final List<ArtifactPattern> others = new ArrayList<>();
+  private boolean versionRanges;
 
   public PatternArtifactFilter(List<String> patterns) {
-    this.patterns = patterns;
-  }
-
-  @Override
-  public boolean include(Artifact artifact) {
     for (String pattern : patterns) {
-      if (include(artifact, pattern)) {
-        return true;
+      ArtifactPattern compiled = ArtifactPattern.compile(pattern);
+      versionRanges |= compiled.hasVersionRange();
+      if (!groupIds.add(compiled) && (compiled.matcher(ArtifactPattern.GROUP_ID).kind() != TokenMatcher.Kind.ANY || !artifactIds.add(compiled))) {
+        others.add(compiled);
       }
     }
-    return false;
   }
 
-  private boolean include(Artifact artifact, String pattern) {
-    String[] tokens = tokens(artifact);
-    String[] parts = pattern.split(":");
-    for (int i = 0; i < parts.length; i++) {
-      if (!match(tokens[i], parts[i])) {
-        return false;
-      }
+  /**
+   * Checks if any of the patterns contains a version range, i.e. the version of an artifact has to be parsed to match it.
+   */
+  public boolean hasVersionRanges() {
+    return versionRanges;
+  }
+
+  public boolean include(Coordinate coordinate) {
+    Version version = null;
+    if (versionRanges && coordinate.getVersion() != null) {
+      version = Version.parse(coordinate.getVersion());
     }
-    return true;
+    return include(coordinate, version);
   }
 
-  private boolean match(String token, String pattern) {
-    if ("*".equals(pattern) || pattern.isEmpty()) {
+  /**
+   * Checks if the artifact is included by this filter using the already parsed version of the artifact for version ranges.
+   */
+  public boolean include(Coordinate coordinate, @Nullable Version version) {
+    String[] tokens = tokens(coordinate);
+    if (groupIds.matches(tokens, version) || artifactIds.matches(tokens, version)) {
       return true;
-    } else if (pattern.startsWith("*") && pattern.endsWith("*")) {
-      String contains = pattern.substring(1, pattern.length() - 1);
-      return token.contains(contains);
-    } else if (pattern.startsWith("*")) {
-      String suffix = pattern.substring(1);
-      return token.endsWith(suffix);
-    } else if (pattern.endsWith("*")) {
-      String prefix = pattern.substring(0, pattern.length() - 1);
-      return token.startsWith(prefix);
-    } else if (pattern.startsWith("[") || pattern.startsWith("(")) {
-      try {
-        return VersionRange.createFromVersionSpec(pattern).containsVersion(new DefaultArtifactVersion(token));
-      } catch (InvalidVersionSpecificationException e) {
-        return false;
+    }
+    for (ArtifactPattern pattern : others) {
+      if (pattern.matches(tokens, version)) {
+        return true;
       }
-    } else {
-      return token.equals(pattern);
     }
+    return false;
   }
 
-  private String[] tokens(Artifact artifact) {
+  private String[] tokens(Coordinate coordinate) {
     return new String[]{
-        artifact.getGroupId(),
-        artifact.getArtifactId(),
-        artifact.getType(),
-        artifact.getBaseVersion(),
-        artifact.getScope(),
-        artifact.getClassifier()};
+        coordinate.getGroupId(),
+        coordinate.getArtifactId(),
+        coordinate.getType(),
+        coordinate.getVersion(),
+        coordinate.getScope(),
+        coordinate.getClassifier()};
   }
 }
@@ -0,0 +1,86 @@
+/*
+ * mathan-dependency-updates-sonar-plugin
+ * Copyright (c) 2019 Matthias Hanisch
+ * matthias@mathan.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mathan.sonar.dependencyupdates.filter;
+
+import io.mathan.sonar.dependencyupdates.version.Version;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+/**
+ * Index of artifact patterns by one of their segments. Patterns with an exact segment are kept in a hash map, patterns with a trailing <code>*</code> in a prefix trie and patterns with a leading
+ * <code>*</code> in a reversed trie. So only the patterns which may match a token have to be checked instead of all patterns.
+ */
+final class PatternIndex {
+
+  private final int segment;
+  private final Map<String, List<ArtifactPattern>> exact = new HashMap<>();
+  private final CharTrie prefixes = new CharTrie(false);
+  private final CharTrie suffixes = new CharTrie(true);
+  private boolean empty = true;
+
+  PatternIndex(int segment) {
+    this.segment = segment;
+  }
+
+  /**
+   * Adds the pattern to this index if its segment can be indexed.
+   *
+   * @return <code>true</code> if the pattern was added, <code>false</code> if the pattern has to be checked in another way.
+   */
+  boolean add(ArtifactPattern pattern) {
+    TokenMatcher matcher = pattern.matcher(segment);
+    switch (matcher.kind()) {
+      case EXACT:
+        exact.computeIfAbsent(matcher.value(), key -> new ArrayList<>(1)).add(pattern);
+        break;
+      case PREFIX:
+        prefixes.add(matcher.value(), pattern);
+        break;
+      case SUFFIX:
+        suffixes.add(matcher.value(), pattern);
+        break;
+      default:
+        return false;
+    }
+    empty = false;
+    return true;
+  }
+
+  boolean matches(String[] tokens, @Nullable Version version) {
+    if (empty) {
+      return false;
+    }
+    String token = tokens[segment];
+    if (token == null) {
+      return false;
+    }
+    List<ArtifactPattern> candidates = exact.get(token);
+    if (candidates != null) {
+      for (ArtifactPattern candidate : candidates) {
+        if (candidate.matches(tokens, version)) {
+          return true;
+        }
+      }
+    }
+    return prefixes.matches(token, tokens, version) || suffixes.matches(token, tokens, version);
+  }
+}
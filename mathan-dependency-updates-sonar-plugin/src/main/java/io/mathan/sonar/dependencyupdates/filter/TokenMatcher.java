@@ -0,0 +1,114 @@
+/*
+ * mathan-dependency-updates-sonar-plugin
+ * Copyright (c) 2019 Matthias Hanisch
+ * matthias@mathan.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mathan.sonar.dependencyupdates.filter;
+
+import io.mathan.sonar.dependencyupdates.version.Version;
+import io.mathan.sonar.dependencyupdates.version.VersionRange;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+
+/**
+ * Matcher for a single segment of an artifact pattern. The segment is compiled once so matching a token does not have to analyze the segment again.
+ */
+final class TokenMatcher {
+
+  private static final TokenMatcher ANY = new TokenMatcher(Kind.ANY, "", null);
+
+  private final Kind kind;
+  private final String value;
+  private final VersionRange range;
+
+  private TokenMatcher(Kind kind, String value, @Nullable VersionRange range) {
+    this.kind = kind;
+    this.value = value;
+    this.range = range;
+  }
+
+  static TokenMatcher any() {
+    return ANY;
+  }
+
+  static TokenMatcher compile(String pattern) {
+    if ("*".equals(pattern) || pattern.isEmpty()) {
+      return ANY;
+    } else if (pattern.startsWith("*") && pattern.endsWith("*")) {
+      return new TokenMatcher(Kind.CONTAINS, pattern.substring(1, pattern.length() - 1), null);
+    } else if (pattern.startsWith("*")) {
+      return new TokenMatcher(Kind.SUFFIX, pattern.substring(1), null);
+    } else if (pattern.endsWith("*")) {
+      return new TokenMatcher(Kind.PREFIX, pattern.substring(0, pattern.length() - 1), null);
+    } else if (pattern.startsWith("[") || pattern.startsWith("(")) {
+      return new TokenMatcher(Kind.RANGE, pattern, range(pattern));
+    } else {
+      return new TokenMatcher(Kind.EXACT, pattern, null);
+    }
+  }
+
+  @CheckForNull
+  private static VersionRange range(String pattern) {
+    try {
+      return VersionRange.parse(pattern);
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  Kind kind() {
+    return kind;
+  }
+
+  /**
+   * Returns the literal part of the segment, e.g. the prefix for a segment like <code>org.apache.*</code>.
+   */
+  String value() {
+    return value;
+  }
+
+  /**
+   * Checks if the token matches this segment. A version range is checked against the parsed version instead of the token.
+   */
+  boolean matches(@Nullable String token, @Nullable Version version) {
+    if (kind == Kind.ANY) {
+      return true;
+    } else if (token == null) {
+      return false;
+    }
+    switch (kind) {
+      case CONTAINS:
+        return token.contains(value);
+      case SUFFIX:
+        return token.endsWith(value);
+      case PREFIX:
+        return token.startsWith(value);
+      case RANGE:
+        return range != null && range.contains(version != null ? version : Version.parse(token));
+      default:
+        return token.equals(value);
+    }
+  }
+
+  enum Kind {
+    ANY,
+    EXACT,
+    PREFIX,
+    SUFFIX,
+    CONTAINS,
+    RANGE
+  }
+}
@@ -0,0 +1,217 @@
+/*
+ * mathan-dependency-updates-sonar-plugin
+ * Copyright (c) 2019 Matthias Hanisch
+ * matthias@mathan.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mathan.sonar.dependencyupdates.index;
+
+import io.mathan.sonar.dependencyupdates.Constants;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import javax.annotation.Nullable;
+import org.sonar.api.ce.ComputeEngineSide;
+import org.sonar.api.config.Configuration;
+import org.sonar.api.server.ServerSide;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+
+/**
+ * Persistent inverted index from the coordinates of the dependencies to the projects using them. The coordinates are distributed to a fixed number of shards by their groupId and artifactId, so
+ * all versions of an artifact are kept in the same shard and a lookup reads a single file. The coordinates of each project are kept as well, so an update only rewrites the shards of the
+ * coordinates added or removed since the previous analysis of the project.
+ */
+@ServerSide
+@ComputeEngineSide
+public class ArtifactIndex {
+
+  static final int SHARDS = 256;
+  private static final Logger LOGGER = Loggers.get(ArtifactIndex.class);
+  private static final String DATA_DIR = "sonar.path.data";
+  private static final String CLUSTER_ENABLED = "sonar.cluster.enabled";
+  private static final String PROJECTS_DIR = "projects";
+  private static final char SEPARATOR = '\t';
+
+  private final Path directory;
+  private final Object[] locks = new Object[SHARDS];
+
+  public ArtifactIndex(Configuration configuration) {
+    this(configuration.get(Constants.CONFIG_INDEX_DIR).map(Paths::get).orElseGet(() -> Paths.get(configuration.get(DATA_DIR).orElse("data"), "dependency-updates")));
+    if (configuration.getBoolean(CLUSTER_ENABLED).orElse(false) && !configuration.hasKey(Constants.CONFIG_INDEX_DIR)) {
+      // the data directory is local to each node, so the web server would not find the index written by the compute engine
+      LOGGER.warn("Artifact index is kept in the data directory {} of this cluster node, set property {} to a directory shared by all nodes", directory, Constants.CONFIG_INDEX_DIR);
+    }
+  }
+
+  ArtifactIndex(Path directory) {
+    this.directory = directory;
+    for (int i = 0; i < SHARDS; i++) {
+      locks[i] = new Object();
+    }
+  }
+
+  /**
+   * Returns the artifact of a coordinate, i.e. the coordinate without its version.
+   */
+  static String artifact(String coordinate) {
+    int index = coordinate.lastIndexOf(':');
+    return index < 0 ? coordinate : coordinate.substring(0, index);
+  }
+
+  static int shard(String artifact) {
+    return (artifact.hashCode() & Integer.MAX_VALUE) % SHARDS;
+  }
+
+  /**
+   * Replaces the coordinates used by the project. Only the shards of the coordinates which were added or removed since the previous update are written.
+   */
+  public void update(String project, Collection<String> coordinates) throws IOException {
+    replace(project, coordinates);
+    Files.deleteIfExists(unknownFile(project));
+  }
+
+  /**
+   * Removes the coordinates of a project whose dependencies are no longer known, e.g. as its measures are compact, and marks the project as unknown until it is updated again.
+   */
+  public void markUnknown(String project) throws IOException {
+    replace(project, Collections.emptySet());
+    write(unknownFile(project), Collections.emptySet());
+  }
+
+  /**
+   * Checks if the dependencies of the project are unknown, see {@link #markUnknown(String)}.
+   */
+  public boolean isUnknown(String project) throws IOException {
+    return Files.exists(unknownFile(project));
+  }
+
+  private void replace(String project, Collection<String> coordinates) throws IOException {
+    Path projectFile = projectFile(project);
+    Set<String> current = new HashSet<>(coordinates);
+    Set<String> previous = Files.exists(projectFile) ? new HashSet<>(Files.readAllLines(projectFile, StandardCharsets.UTF_8)) : Collections.emptySet();
+
+    Map<Integer, Set<String>> added = new TreeMap<>();
+    Map<Integer, Set<String>> removed = new TreeMap<>();
+    current.stream().filter(coordinate -> !previous.contains(coordinate))
+        .forEach(coordinate -> added.computeIfAbsent(shard(artifact(coordinate)), shard -> new HashSet<>()).add(coordinate));
+    previous.stream().filter(coordinate -> !current.contains(coordinate))
+        .forEach(coordinate -> removed.computeIfAbsent(shard(artifact(coordinate)), shard -> new HashSet<>()).add(coordinate));
+    if (added.isEmpty() && removed.isEmpty()) {
+      return;
+    }
+
+    Set<Integer> shards = new TreeSet<>(added.keySet());
+    shards.addAll(removed.keySet());
+    for (int shard : shards) {
+      synchronized (locks[shard]) {
+        SortedMap<String, SortedSet<String>> entries = readShard(shard);
+        for (String coordinate : added.getOrDefault(shard, Collections.emptySet())) {
+          entries.computeIfAbsent(coordinate, c -> new TreeSet<>()).add(project);
+        }
+        for (String coordinate : removed.getOrDefault(shard, Collections.emptySet())) {
+          SortedSet<String> projects = entries.get(coordinate);
+          if (projects != null && projects.remove(project) && projects.isEmpty()) {
+            entries.remove(coordinate);
+          }
+        }
+        writeShard(shard, entries);
+      }
+    }
+    // written last, so the next update repeats the changes of an update which failed in between
+    write(projectFile, new TreeSet<>(current));
+  }
+
+  /**
+   * Returns the projects using the given artifact by coordinate. The artifact is given as groupId and artifactId prefixed by the kind of the dependency if it is not a plain dependency, e.g.
+   * <code>plugin/org.apache.maven.plugins:maven-compiler-plugin</code>.
+   *
+   * @param version Version of the artifact or <code>null</code> for all versions.
+   */
+  public SortedMap<String, SortedSet<String>> find(String artifact, @Nullable String version) throws IOException {
+    SortedMap<String, SortedSet<String>> entries = readShard(shard(artifact));
+    entries.keySet().removeIf(coordinate -> !artifact.equals(artifact(coordinate)) || (version != null && !coordinate.equals(artifact + ":" + version)));
+    return entries;
+  }
+
+  private SortedMap<String, SortedSet<String>> readShard(int shard) throws IOException {
+    SortedMap<String, SortedSet<String>> entries = new TreeMap<>();
+    Path file = shardFile(shard);
+    if (!Files.exists(file)) {
+      return entries;
+    }
+    try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        int index = line.indexOf(SEPARATOR);
+        if (index > 0) {
+          SortedSet<String> projects = new TreeSet<>();
+          Collections.addAll(projects, line.substring(index + 1).split(","));
+          entries.put(line.substring(0, index), projects);
+        }
+      }
+    }
+    return entries;
+  }
+
+  private void writeShard(int shard, SortedMap<String, SortedSet<String>> entries) throws IOException {
+    Set<String> lines = new TreeSet<>();
+    entries.forEach((coordinate, projects) -> lines.add(coordinate + SEPARATOR + String.join(",", projects)));
+    write(shardFile(shard), lines);
+  }
+
+  /**
+   * Writes the lines to a temporary file which replaces the file afterwards, so a lookup of the web server never reads a partially written file.
+   */
+  private static void write(Path file, Collection<String> lines) throws IOException {
+    Files.createDirectories(file.getParent());
+    Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+    try (BufferedWriter writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+      for (String line : lines) {
+        writer.write(line);
+        writer.newLine();
+      }
+    }
+    Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  private Path shardFile(int shard) {
+    return directory.resolve(String.format("shard-%02x.txt", shard));
+  }
+
+  private Path projectFile(String project) throws UnsupportedEncodingException {
+    return directory.resolve(PROJECTS_DIR).resolve(URLEncoder.encode(project, StandardCharsets.UTF_8.name()) + ".txt");
+  }
+
+  private Path unknownFile(String project) throws UnsupportedEncodingException {
+    return directory.resolve(PROJECTS_DIR).resolve(URLEncoder.encode(project, StandardCharsets.UTF_8.name()) + ".unknown");
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ * mathan-dependency-updates-sonar-plugin
+ * Copyright (c) 2019 Matthias Hanisch
+ * matthias@mathan.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mathan.sonar.dependencyupdates.index;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.sonar.api.ce.posttask.Branch;
+import org.sonar.api.ce.posttask.CeTask;
+import org.sonar.api.ce.posttask.PostProjectAnalysisTask;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+
+/**
+ * Updates the {@link ArtifactIndex} after each successful analysis of the main branch of a project. The measures of an analysis are not available to a {@link PostProjectAnalysisTask}, so the
+ * dependencies of the project are handed over by the measure computer, which is executed by the same thread of the compute engine before.
+ */
+public class ArtifactIndexTask implements PostProjectAnalysisTask {
+
+  private static final Logger LOGGER = Loggers.get(ArtifactIndexTask.class);
+  private static final ThreadLocal<Set<String>> DEPENDENCIES = new ThreadLocal<>();
+  /**
+   * Handed over instead of the dependencies if these are no longer known, compared by identity.
+   */
+  private static final Set<String> UNKNOWN = Collections.unmodifiableSet(new HashSet<>());
+
+  private final ArtifactIndex index;
+
+  public ArtifactIndexTask(ArtifactIndex index) {
+    this.index = index;
+  }
+
+  /**
+   * Hands over the dependencies of the analysed project in the format of the data measures, i.e. <code>[kind/]groupId:artifactId:version:patches:upgrades</code>.
+   */
+  public static void collect(Collection<String> dependencies) {
+    DEPENDENCIES.set(dependencies.stream().map(ArtifactIndexTask::coordinate).collect(Collectors.toSet()));
+  }
+
+  /**
+   * Hands over that the dependencies of the analysed project are no longer known, e.g. as its measures are compact. The project is removed from the index and marked as unknown.
+   */
+  public static void collectUnknown() {
+    DEPENDENCIES.set(UNKNOWN);
+  }
+
+  /**
+   * Removes the numbers of patches and upgrades missed from a dependency of a data measure.
+   */
+  static String coordinate(String dependency) {
+    return ArtifactIndex.artifact(ArtifactIndex.artifact(dependency));
+  }
+
+  @Override
+  public String getDescription() {
+    return "Dependency-Updates artifact index";
+  }
+
+  @Override
+  public void finished(Context context) {
+    Set<String> dependencies = DEPENDENCIES.get();
+    DEPENDENCIES.remove();
+    ProjectAnalysis analysis = context.getProjectAnalysis();
+    if (dependencies == null || analysis.getCeTask().getStatus() != CeTask.Status.SUCCESS || !analysis.getBranch().map(Branch::isMain).orElse(true)) {
+      return;
+    }
+    String project = analysis.getProject().getKey();
+    try {
+      if (dependencies == UNKNOWN) {
+        index.markUnknown(project);
+      } else {
+        index.update(project, dependencies);
+      }
+    } catch (IOException e) {
+      LOGGER.warn("Artifact index could not be updated for project {}", project, e);
+    }
+  }
+}
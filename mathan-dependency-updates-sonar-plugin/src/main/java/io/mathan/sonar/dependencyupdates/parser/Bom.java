@@ -0,0 +1,83 @@
+/*
+ * mathan-dependency-updates-sonar-plugin
+ * Copyright (c) 2019 Matthias Hanisch
+ * matthias@mathan.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mathan.sonar.dependencyupdates.parser;
+
+import java.util.Objects;
+
+/**
+ * A BOM imported into the dependency management of a pom, i.e. a managed dependency of type <code>pom</code> with scope <code>import</code>.
+ */
+public final class Bom {
+
+  private final String groupId;
+  private final String artifactId;
+  private final String version;
+  private final int line;
+
+  Bom(String groupId, String artifactId, String version, int line) {
+    this.groupId = groupId;
+    this.artifactId = artifactId;
+    this.version = version;
+    this.line = line;
+  }
+
+  public String getGroupId() {
+    return groupId;
+  }
+
+  public String getArtifactId() {
+    return artifactId;
+  }
+
+  /**
+   * Returns the version of the BOM. Properties of the pom are resolved, other expressions are kept as they are.
+   */
+  public String getVersion() {
+    return version;
+  }
+
+  /**
+   * Returns the line of the declaration of the BOM within the pom.
+   */
+  public int getLine() {
+    return line;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    Bom bom = (Bom) o;
+    return groupId.equals(bom.groupId) && artifactId.equals(bom.artifactId);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(groupId, artifactId);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s:%s:%s", groupId, artifactId, version);
+  }
+}
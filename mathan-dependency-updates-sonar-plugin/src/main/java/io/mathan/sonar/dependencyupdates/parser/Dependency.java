@@ -18,23 +18,30 @@
 
 package io.mathan.sonar.dependencyupdates.parser;
 
+import io.mathan.sonar.dependencyupdates.filter.Coordinate;
+import io.mathan.sonar.dependencyupdates.report.ReportKind;
+import io.mathan.sonar.dependencyupdates.version.Version;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 
-public class Dependency {
+public class Dependency implements Coordinate {
 
 
   private String groupId;
   private String artifactId;
   private String version;
+  private Version parsedVersion;
   private String scope;
   private String classifier;
   private String type;
   private String next;
   private String last;
   private Availability availability;
+  private ReportKind kind = ReportKind.DEPENDENCY;
+  private String property;
 
   private List<String> incrementals = new ArrayList<>();
   private List<String> minors = new ArrayList<>();
@@ -58,6 +65,8 @@ public class Dependency {
         && Objects.equals(type, that.type)
         && Objects.equals(next, that.next)
         && availability == that.availability
+        && kind == that.kind
+        && Objects.equals(property, that.property)
         && Objects.equals(incrementals, that.incrementals)
         && Objects.equals(minors, that.minors)
         && Objects.equals(majors, that.majors);
@@ -93,14 +102,17 @@ public class Dependency {
     return minors.size() + majors.size();
   }
 
+  @Override
   public String getArtifactId() {
     return artifactId;
   }
 
+  @Override
   public String getClassifier() {
     return classifier;
   }
 
+  @Override
   public String getGroupId() {
     return groupId;
   }
@@ -113,18 +125,47 @@ public class Dependency {
     return last;
   }
 
+  @Override
   public String getScope() {
     return scope;
   }
 
+  @Override
   public String getType() {
     return type;
   }
 
+  @Override
   public String getVersion() {
     return version;
   }
 
+  /**
+   * Returns the kind of report this dependency was read from. Plugins and properties are represented as dependencies too, so they are processed the same way.
+   */
+  public ReportKind getKind() {
+    return kind;
+  }
+
+  /**
+   * Returns the name of the version property if this dependency was read from a property-updates-report. The artifact is the first one associated with the property then.
+   */
+  @CheckForNull
+  public String getProperty() {
+    return property;
+  }
+
+  /**
+   * Returns the current version of this dependency. The version is parsed only once.
+   */
+  @CheckForNull
+  public Version getParsedVersion() {
+    if (parsedVersion == null && version != null) {
+      parsedVersion = Version.parse(version);
+    }
+    return parsedVersion;
+  }
+
   public void setArtifactId(String artifactId) {
     this.artifactId = artifactId;
   }
@@ -159,6 +200,15 @@ public class Dependency {
 
   public void setVersion(String version) {
     this.version = version;
+    this.parsedVersion = null;
+  }
+
+  public void setKind(ReportKind kind) {
+    this.kind = kind;
+  }
+
+  public void setProperty(@Nullable String property) {
+    this.property = property;
   }
 
   public enum Availability {
@@ -190,7 +240,7 @@ public class Dependency {
 
   @Override
   public int hashCode() {
-    return Objects.hash(groupId, artifactId, version, scope, classifier, type, next, availability, incrementals, minors, majors);
+    return Objects.hash(groupId, artifactId, version, scope, classifier, type, next, availability, kind, property, incrementals, minors, majors);
   }
 
   @Override
@@ -199,9 +249,19 @@ public class Dependency {
   }
 
   /**
-   * Creates a String identifying this dependency in format <i>groupId</i>:<i>artifactId</i>:<i>version</i>:<i>updates</i>:<i>upgrades</i>
+   * Creates a String identifying the artifact of this dependency regardless of its version in format <i>kind</i>/<i>groupId</i>:<i>artifactId</i>, e.g. <code>dependency/junit:junit</code>. A
+   * property is identified by its name instead, e.g. <code>property/junit.version</code>.
+   */
+  public String toKeyString() {
+    return kind.getKey() + "/" + (kind == ReportKind.PROPERTY ? property : groupId + ":" + artifactId);
+  }
+
+  /**
+   * Creates a String identifying this dependency in format <i>groupId</i>:<i>artifactId</i>:<i>version</i>:<i>updates</i>:<i>upgrades</i>. Plugins and properties are prefixed with the key of their
+   * report kind, e.g. <code>plugin/</code>, so they are not counted as the same dependency as an artifact with the same coordinates.
    */
   public String toDataString() {
-    return String.format("%s:%s:%s:%s:%s", groupId, artifactId, version, getUpdateCount(), getUpgradeCount());
+    String data = String.format("%s:%s:%s:%s:%s", groupId, artifactId, version, getUpdateCount(), getUpgradeCount());
+    return kind == ReportKind.DEPENDENCY ? data : kind.getKey() + "/" + data;
   }
 }
@@ -0,0 +1,212 @@
+/*
+ * mathan-dependency-updates-sonar-plugin
+ * Copyright (c) 2019 Matthias Hanisch
+ * matthias@mathan.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mathan.sonar.dependencyupdates.parser;
+
+import java.io.IOException;
+import java.io.Reader;
+import javax.annotation.CheckForNull;
+
+/**
+ * Minimal pull reader for JSON created by tools, i.e. the responses of the SonarQube web services and the reports of the Gradle versions plugin. Values not needed are skipped without being kept,
+ * so only the values requested are held in memory. The input is buffered by the reader itself. Separators are not validated as the JSON is not written by hand.
+ */
+public final class JsonReader {
+
+  private static final int NONE = -2;
+  private static final int BUFFER_SIZE = 8192;
+
+  private final Reader reader;
+  private final char[] buffer = new char[BUFFER_SIZE];
+  private final StringBuilder value = new StringBuilder();
+  private int position;
+  private int limit;
+  private int next = NONE;
+
+  public JsonReader(Reader reader) {
+    this.reader = reader;
+  }
+
+  public void beginObject() throws IOException {
+    expect('{');
+  }
+
+  public void endObject() throws IOException {
+    expect('}');
+  }
+
+  public void beginArray() throws IOException {
+    expect('[');
+  }
+
+  public void endArray() throws IOException {
+    expect(']');
+  }
+
+  /**
+   * Checks if the current object or array contains another element.
+   */
+  public boolean hasNext() throws IOException {
+    int c = peek();
+    if (c == ',') {
+      read();
+      c = peek();
+    }
+    return c != '}' && c != ']' && c != -1;
+  }
+
+  public String nextName() throws IOException {
+    String name = readString();
+    expect(':');
+    return name;
+  }
+
+  /**
+   * Reads a string, number or boolean value.
+   *
+   * @return The value or <code>null</code> for a JSON <code>null</code>.
+   */
+  @CheckForNull
+  public String nextString() throws IOException {
+    if (peek() == '"') {
+      return readString();
+    }
+    StringBuilder literal = new StringBuilder();
+    for (int c = peek(); c != -1 && c != ',' && c != '}' && c != ']' && !Character.isWhitespace(c); c = peek()) {
+      literal.append((char) read());
+    }
+    return "null".contentEquals(literal) ? null : literal.toString();
+  }
+
+  /**
+   * Consumes the next value if it is a JSON <code>null</code>, e.g. before reading an object which may be <code>null</code>.
+   *
+   * @return <code>true</code> if the value was <code>null</code>.
+   */
+  public boolean nextNull() throws IOException {
+    if (peek() != 'n') {
+      return false;
+    }
+    nextString();
+    return true;
+  }
+
+  public void skipValue() throws IOException {
+    int c = peek();
+    if (c != '{' && c != '[') {
+      nextString();
+      return;
+    }
+    int depth = 0;
+    do {
+      c = read();
+      if (c == '"') {
+        next = c;
+        readString();
+      } else if (c == '{' || c == '[') {
+        depth++;
+      } else if (c == '}' || c == ']') {
+        depth--;
+      } else if (c == -1) {
+        throw new IOException("Unexpected end of JSON");
+      }
+    } while (depth > 0);
+  }
+
+  private String readString() throws IOException {
+    expect('"');
+    value.setLength(0);
+    for (int c = read(); c != '"'; c = read()) {
+      if (c == -1) {
+        throw new IOException("Unterminated JSON string");
+      } else if (c == '\\') {
+        value.append(unescape(read()));
+      } else {
+        value.append((char) c);
+      }
+    }
+    return value.toString();
+  }
+
+  private char unescape(int c) throws IOException {
+    switch (c) {
+      case 'b':
+        return '\b';
+      case 'f':
+        return '\f';
+      case 'n':
+        return '\n';
+      case 'r':
+        return '\r';
+      case 't':
+        return '\t';
+      case 'u':
+        char[] hex = new char[4];
+        for (int i = 0; i < hex.length; i++) {
+          hex[i] = (char) read();
+        }
+        try {
+          return (char) Integer.parseInt(new String(hex), 16);
+        } catch (NumberFormatException e) {
+          throw new IOException("Invalid JSON escape \\u" + new String(hex), e);
+        }
+      case -1:
+        throw new IOException("Unterminated JSON string");
+      default:
+        // \" \\ and \/
+        return (char) c;
+    }
+  }
+
+  private void expect(char expected) throws IOException {
+    int c = peek();
+    if (c != expected) {
+      throw new IOException(String.format("Expected '%s' but found '%s' in JSON", expected, c == -1 ? "end" : String.valueOf((char) c)));
+    }
+    read();
+  }
+
+  /**
+   * Returns the next character which is not a whitespace without consuming it.
+   */
+  private int peek() throws IOException {
+    int c = read();
+    while (c != -1 && Character.isWhitespace(c)) {
+      c = read();
+    }
+    next = c;
+    return c;
+  }
+
+  private int read() throws IOException {
+    if (next != NONE) {
+      int c = next;
+      next = NONE;
+      return c;
+    }
+    if (position == limit) {
+      limit = reader.read(buffer, 0, buffer.length);
+      position = 0;
+      if (limit <= 0) {
+        limit = 0;
+        return -1;
+      }
+    }
+    return buffer[position++];
+  }
+}
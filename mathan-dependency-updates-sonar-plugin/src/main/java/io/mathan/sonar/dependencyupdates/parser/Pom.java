@@ -0,0 +1,148 @@
+/*
+ * mathan-dependency-updates-sonar-plugin
+ * Copyright (c) 2019 Matthias Hanisch
+ * matthias@mathan.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mathan.sonar.dependencyupdates.parser;
+
+import io.mathan.sonar.dependencyupdates.report.ReportKind;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+
+/**
+ * The parts of a pom needed to attribute managed dependencies to the BOMs imported by the pom and to determine the coordinates changed by a pull request.
+ */
+public final class Pom {
+
+  /**
+   * Minimum number of leading group id segments a managed dependency has to share with a BOM to be attributed to it, e.g. <code>org.springframework</code>.
+   */
+  private static final int MIN_COMMON_SEGMENTS = 2;
+
+  private final List<Bom> boms = new ArrayList<>();
+  private final Set<String> managed = new HashSet<>();
+  private final Map<String, String> declared = new HashMap<>();
+  private boolean parent;
+
+  public List<Bom> getBoms() {
+    return Collections.unmodifiableList(boms);
+  }
+
+  /**
+   * Checks if the pom inherits from a parent. The dependency management of the parent is unknown then.
+   */
+  public boolean hasParent() {
+    return parent;
+  }
+
+  void setParent(boolean parent) {
+    this.parent = parent;
+  }
+
+  void addBom(Bom bom) {
+    boms.add(bom);
+  }
+
+  void addManaged(String groupId, String artifactId) {
+    managed.add(groupId + ":" + artifactId);
+  }
+
+  /**
+   * Returns the coordinates declared by the pom mapped to their version, e.g. <code>dependency/junit:junit</code> to <code>4.12</code> or <code>property/junit.version</code> to <code>4.12</code>.
+   * Dependencies without a version are mapped to an empty string.
+   */
+  public Map<String, String> getDeclared() {
+    return Collections.unmodifiableMap(declared);
+  }
+
+  void declare(ReportKind kind, String name, @Nullable String version) {
+    String key = key(kind, name);
+    if (version != null || !declared.containsKey(key)) {
+      // a dependency declared without version keeps the version of its management
+      declared.put(key, version == null ? "" : version);
+    }
+  }
+
+  /**
+   * Determines the declared coordinates added or changed compared to the given coordinates, e.g. those declared by the pom on the target branch of a pull request.
+   */
+  public Set<String> changedSince(Map<String, String> baseline) {
+    return declared.entrySet().stream()
+        .filter(entry -> !entry.getValue().equals(baseline.get(entry.getKey())))
+        .map(Map.Entry::getKey)
+        .collect(Collectors.toSet());
+  }
+
+  /**
+   * Checks if the declaration of a dependency of the dependency-updates-report is one of the given changed coordinates. A managed dependency attributed to a BOM is changed as well if the import of
+   * the BOM changed.
+   */
+  public boolean isChanged(Dependency dependency, boolean dependencyManagement, Set<String> changed) {
+    if (changed.contains(dependency.toKeyString())) {
+      return true;
+    }
+    Bom bom = dependencyManagement && dependency.getKind() == ReportKind.DEPENDENCY ? bomOf(dependency) : null;
+    return bom != null && changed.contains(key(ReportKind.DEPENDENCY, bom.getGroupId() + ":" + bom.getArtifactId()));
+  }
+
+  private static String key(ReportKind kind, @Nullable String name) {
+    return kind.getKey() + "/" + name;
+  }
+
+  /**
+   * Determines the BOM a managed dependency of the dependency-updates-report was imported from. Dependencies managed by the pom itself are not attributed to a BOM. Otherwise the dependency is
+   * attributed to the BOM sharing the most leading group id segments with it or, if there is no such BOM, to the only BOM imported by a pom without parent.
+   *
+   * @return The BOM or <code>null</code> if the dependency can not be attributed to a BOM.
+   */
+  @CheckForNull
+  public Bom bomOf(Dependency dependency) {
+    if (boms.isEmpty() || dependency.getGroupId() == null || managed.contains(dependency.getGroupId() + ":" + dependency.getArtifactId())) {
+      return null;
+    }
+    Bom best = null;
+    int bestSegments = MIN_COMMON_SEGMENTS - 1;
+    for (Bom bom : boms) {
+      int segments = commonSegments(bom.getGroupId(), dependency.getGroupId());
+      if (segments > bestSegments) {
+        best = bom;
+        bestSegments = segments;
+      }
+    }
+    if (best == null && boms.size() == 1 && !parent) {
+      best = boms.get(0);
+    }
+    return best;
+  }
+
+  private static int commonSegments(String groupId, String other) {
+    String[] segments = groupId.split("\\.");
+    String[] otherSegments = other.split("\\.");
+    int common = 0;
+    while (common < segments.length && common < otherSegments.length && segments[common].equals(otherSegments[common])) {
+      common++;
+    }
+    return common;
+  }
+}
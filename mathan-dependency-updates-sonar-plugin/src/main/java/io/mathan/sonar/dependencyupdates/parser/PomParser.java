@@ -0,0 +1,171 @@
+/*
+ * mathan-dependency-updates-sonar-plugin
+ * Copyright (c) 2019 Matthias Hanisch
+ * matthias@mathan.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mathan.sonar.dependencyupdates.parser;
+
+import io.mathan.sonar.dependencyupdates.Utils;
+import io.mathan.sonar.dependencyupdates.report.ReportKind;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Reads the dependencies, plugins and properties declared by a pom as well as the BOMs imported by it. Only the pom is read, neither the parent nor the BOMs are resolved.
+ * Like {@link ReportParser} the PomParser does not hold any state of a single parse and can therefore be shared between modules and threads.
+ */
+public class PomParser {
+
+  private static final Pattern PROPERTY = Pattern.compile("\\$\\{([^}]+)}");
+  private static final String DEPENDENCY = "project/dependencies/dependency";
+  private static final String MANAGED_DEPENDENCY = "project/dependencyManagement/dependencies/dependency";
+  private static final String PLUGIN = "project/build/plugins/plugin";
+  private static final String MANAGED_PLUGIN = "project/build/pluginManagement/plugins/plugin";
+  private static final List<String> DECLARATIONS = Arrays.asList(DEPENDENCY, MANAGED_DEPENDENCY, PLUGIN, MANAGED_PLUGIN);
+  private static final String PROPERTIES = "project/properties/";
+  private static final String DEFAULT_PLUGIN_GROUP_ID = "org.apache.maven.plugins";
+  /**
+   * Elements of the pom available as properties, e.g. <code>project/version</code> as <code>${project.version}</code>.
+   */
+  private static final List<String> PROJECT_PROPERTIES = Arrays.asList("project/groupId", "project/version", "project/parent/groupId", "project/parent/version");
+
+  private final ThreadLocal<XMLInputFactory> inputFactory = ThreadLocal.withInitial(() -> Utils.newStaxParser().getStaxFactory());
+
+  /**
+   * Parses the given pom. The stream is not closed.
+   */
+  public Pom parse(InputStream inputStream) throws IOException, XMLStreamException {
+    Pom pom = new Pom();
+    Map<String, String> properties = new LinkedHashMap<>();
+    List<Declaration> declarations = new ArrayList<>();
+    Deque<String> path = new ArrayDeque<>();
+    Declaration declaration = null;
+    StringBuilder text = new StringBuilder();
+    XMLStreamReader reader = inputFactory.get().createXMLStreamReader(inputStream);
+    try {
+      while (reader.hasNext()) {
+        int event = reader.next();
+        if (event == XMLStreamConstants.START_ELEMENT) {
+          path.addLast(path.isEmpty() ? reader.getLocalName() : path.peekLast() + "/" + reader.getLocalName());
+          text.setLength(0);
+          if (DECLARATIONS.contains(path.peekLast())) {
+            declaration = new Declaration(path.peekLast(), reader.getLocation().getLineNumber());
+          } else if ("project/parent".equals(path.peekLast())) {
+            pom.setParent(true);
+          }
+        } else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA) {
+          text.append(reader.getText());
+        } else if (event == XMLStreamConstants.END_ELEMENT) {
+          String element = path.removeLast();
+          String value = StringUtils.trim(text.toString());
+          if (declaration != null && element.startsWith(declaration.element + "/") && element.indexOf('/', declaration.element.length() + 1) < 0) {
+            declaration.values.put(reader.getLocalName(), value);
+          } else if (declaration != null && declaration.element.equals(element)) {
+            declarations.add(declaration);
+            declaration = null;
+          } else if (element.startsWith(PROPERTIES) && element.indexOf('/', PROPERTIES.length()) < 0) {
+            properties.put(reader.getLocalName(), value);
+          } else if (PROJECT_PROPERTIES.contains(element)) {
+            properties.put(element.replace('/', '.'), value);
+          }
+          text.setLength(0);
+        }
+      }
+    } finally {
+      reader.close();
+    }
+    // properties may be defined after the dependencies using them
+    for (Declaration resolved : declarations) {
+      add(pom, resolved, properties);
+    }
+    for (Map.Entry<String, String> property : properties.entrySet()) {
+      if (!PROJECT_PROPERTIES.contains(property.getKey().replace('.', '/'))) {
+        pom.declare(ReportKind.PROPERTY, property.getKey(), resolve(property.getValue(), properties));
+      }
+    }
+    return pom;
+  }
+
+  private static void add(Pom pom, Declaration declaration, Map<String, String> properties) {
+    boolean plugin = PLUGIN.equals(declaration.element) || MANAGED_PLUGIN.equals(declaration.element);
+    String groupId = resolve(declaration.values.getOrDefault("groupId", plugin ? DEFAULT_PLUGIN_GROUP_ID : null), properties);
+    String artifactId = resolve(declaration.values.get("artifactId"), properties);
+    if (groupId == null || artifactId == null) {
+      return;
+    }
+    String version = resolve(declaration.values.get("version"), properties);
+    pom.declare(plugin ? ReportKind.PLUGIN : ReportKind.DEPENDENCY, groupId + ":" + artifactId, version);
+    if (!MANAGED_DEPENDENCY.equals(declaration.element)) {
+      return;
+    }
+    if ("import".equals(declaration.values.get("scope")) && "pom".equals(declaration.values.get("type"))) {
+      pom.addBom(new Bom(groupId, artifactId, version, declaration.line));
+    } else {
+      pom.addManaged(groupId, artifactId);
+    }
+  }
+
+  /**
+   * Resolves references to properties of the pom. The group id and version of the project default to those of the parent like in Maven.
+   */
+  private static String resolve(String value, Map<String, String> properties) {
+    if (value == null || value.indexOf('$') < 0) {
+      return value;
+    }
+    StringBuffer resolved = new StringBuffer();
+    Matcher matcher = PROPERTY.matcher(value);
+    while (matcher.find()) {
+      String name = matcher.group(1);
+      String property = properties.get(name);
+      if (property == null && name.startsWith("project.")) {
+        property = properties.get("project.parent." + name.substring("project.".length()));
+      }
+      matcher.appendReplacement(resolved, Matcher.quoteReplacement(property != null ? property : matcher.group()));
+    }
+    matcher.appendTail(resolved);
+    return resolved.toString();
+  }
+
+  /**
+   * A dependency or plugin declared in the pom. It is resolved after the whole pom was read.
+   */
+  private static final class Declaration {
+
+    private final String element;
+    private final int line;
+    private final Map<String, String> values = new HashMap<>();
+
+    private Declaration(String element, int line) {
+      this.element = element;
+      this.line = line;
+    }
+  }
+}
@@ -0,0 +1,242 @@
+/*
+ * mathan-dependency-updates-sonar-plugin
+ * Copyright (c) 2019 Matthias Hanisch
+ * matthias@mathan.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mathan.sonar.dependencyupdates.parser;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Splits a dependency-updates-report into chunks of consecutive <code>&lt;dependencyManagement&gt;</code> or <code>&lt;dependency&gt;</code> elements by scanning the bytes for the element tags.
+ * Each chunk can be parsed on its own as it is wrapped into a document of its own by {@link Chunk#getInputStream()}.
+ */
+final class ReportChunks {
+
+  static final String DEPENDENCY_MANAGEMENT = "dependencyManagement";
+  static final String DEPENDENCY = "dependency";
+
+  private static final byte[] MANAGEMENTS_OPEN = ascii("<dependencyManagements>");
+  private static final byte[] MANAGEMENTS_CLOSE = ascii("</dependencyManagements>");
+  private static final byte[] MANAGEMENT_OPEN = ascii("<dependencyManagement>");
+  private static final byte[] MANAGEMENT_CLOSE = ascii("</dependencyManagement>");
+  private static final byte[] DEPENDENCIES_OPEN = ascii("<dependencies>");
+  private static final byte[] DEPENDENCIES_CLOSE = ascii("</dependencies>");
+  private static final byte[] DEPENDENCY_OPEN = ascii("<dependency>");
+  private static final byte[] DEPENDENCY_CLOSE = ascii("</dependency>");
+  private static final byte[] COMMENT = ascii("<!--");
+  private static final byte[] CDATA = ascii("<![CDATA[");
+  private static final byte[] PROCESSING_INSTRUCTION = ascii("<?");
+
+  private static final byte[] CHUNK_OPEN = ascii("<?xml version=\"1.0\" encoding=\"UTF-8\"?><chunk>");
+  private static final byte[] CHUNK_CLOSE = ascii("</chunk>");
+
+  private ReportChunks() {
+  }
+
+  /**
+   * Splits the report into chunks. A chunk is completed with the first element exceeding the given size, so a chunk contains at least one element.
+   *
+   * @return The chunks in document order or <code>null</code> if the report can not be split safely, e.g. as it is not encoded in UTF-8, contains comments or the element tags are not nested as
+   *     expected. The report has to be parsed sequentially then.
+   */
+  @CheckForNull
+  static List<Chunk> split(ByteBuffer buffer, int bytesPerChunk) {
+    int limit = buffer.limit();
+    int index = skipDeclaration(buffer);
+    if (index < 0) {
+      return null;
+    }
+    List<Chunk> chunks = new ArrayList<>();
+    String section = null;
+    String element = null;
+    int elementStart = -1;
+    Chunk chunk = null;
+    for (; index < limit; index++) {
+      if (buffer.get(index) != '<') {
+        continue;
+      }
+      if (startsWith(buffer, index, COMMENT) || startsWith(buffer, index, CDATA) || startsWith(buffer, index, PROCESSING_INSTRUCTION)) {
+        return null;
+      } else if (startsWith(buffer, index, MANAGEMENT_OPEN) || startsWith(buffer, index, DEPENDENCY_OPEN)) {
+        String opened = buffer.get(index + DEPENDENCY_OPEN.length - 1) == '>' ? DEPENDENCY : DEPENDENCY_MANAGEMENT;
+        if (element != null || !opened.equals(section)) {
+          return null;
+        }
+        element = opened;
+        elementStart = index;
+      } else if (startsWith(buffer, index, MANAGEMENT_CLOSE) || startsWith(buffer, index, DEPENDENCY_CLOSE)) {
+        byte[] close = buffer.get(index + DEPENDENCY_CLOSE.length - 1) == '>' ? DEPENDENCY_CLOSE : MANAGEMENT_CLOSE;
+        String closed = close == DEPENDENCY_CLOSE ? DEPENDENCY : DEPENDENCY_MANAGEMENT;
+        if (!closed.equals(element)) {
+          return null;
+        }
+        int elementEnd = index + close.length;
+        if (chunk == null || chunk.end - chunk.start >= bytesPerChunk) {
+          chunk = new Chunk(buffer, element, elementStart);
+          chunks.add(chunk);
+        }
+        chunk.end = elementEnd;
+        element = null;
+        index = elementEnd - 1;
+      } else if (element == null) {
+        if (section == null && startsWith(buffer, index, MANAGEMENTS_OPEN)) {
+          section = DEPENDENCY_MANAGEMENT;
+        } else if (section == null && startsWith(buffer, index, DEPENDENCIES_OPEN)) {
+          section = DEPENDENCY;
+        } else if (startsWith(buffer, index, MANAGEMENTS_CLOSE) || startsWith(buffer, index, DEPENDENCIES_CLOSE)) {
+          section = null;
+          chunk = null;
+        }
+      }
+    }
+    if (element != null || section != null) {
+      return null;
+    }
+    return chunks;
+  }
+
+  /**
+   * Skips a byte order mark and the XML declaration if present.
+   *
+   * @return The index after the XML declaration or <code>-1</code> if the report is not encoded in UTF-8.
+   */
+  private static int skipDeclaration(ByteBuffer buffer) {
+    int index = 0;
+    int limit = buffer.limit();
+    if (limit >= 2 && ((buffer.get(0) == (byte) 0xFE && buffer.get(1) == (byte) 0xFF) || (buffer.get(0) == (byte) 0xFF && buffer.get(1) == (byte) 0xFE))) {
+      // UTF-16
+      return -1;
+    }
+    if (limit >= 3 && buffer.get(0) == (byte) 0xEF && buffer.get(1) == (byte) 0xBB && buffer.get(2) == (byte) 0xBF) {
+      index = 3;
+    }
+    if (startsWith(buffer, index, PROCESSING_INSTRUCTION)) {
+      int end = index;
+      while (end + 1 < limit && !(buffer.get(end) == '?' && buffer.get(end + 1) == '>')) {
+        end++;
+      }
+      if (end + 1 >= limit) {
+        return -1;
+      }
+      byte[] declaration = new byte[end - index];
+      for (int i = 0; i < declaration.length; i++) {
+        declaration[i] = buffer.get(index + i);
+      }
+      String value = new String(declaration, StandardCharsets.US_ASCII).toLowerCase(Locale.ROOT);
+      int encoding = value.indexOf("encoding");
+      if (encoding >= 0 && value.indexOf("utf-8", encoding) < 0 && value.indexOf("us-ascii", encoding) < 0) {
+        return -1;
+      }
+      index = end + 2;
+    }
+    return index;
+  }
+
+  private static boolean startsWith(ByteBuffer buffer, int index, byte[] prefix) {
+    if (index + prefix.length > buffer.limit()) {
+      return false;
+    }
+    for (int i = 0; i < prefix.length; i++) {
+      if (buffer.get(index + i) != prefix[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static byte[] ascii(String value) {
+    return value.getBytes(StandardCharsets.US_ASCII);
+  }
+
+  /**
+   * Consecutive elements of the same kind within a report.
+   */
+  static final class Chunk {
+
+    private final ByteBuffer buffer;
+    private final String element;
+    private final int start;
+    private int end;
+
+    private Chunk(ByteBuffer buffer, String element, int start) {
+      this.buffer = buffer;
+      this.element = element;
+      this.start = start;
+    }
+
+    /**
+     * Returns the name of the elements, either {@link #DEPENDENCY_MANAGEMENT} or {@link #DEPENDENCY}.
+     */
+    String getElement() {
+      return element;
+    }
+
+    /**
+     * Returns the elements of this chunk wrapped into a <code>&lt;chunk&gt;</code> root element.
+     */
+    InputStream getInputStream() {
+      ByteBuffer slice = buffer.duplicate();
+      slice.limit(end).position(start);
+      return new SequenceInputStream(Collections.enumeration(Arrays.asList(
+          new ByteBufferInputStream(ByteBuffer.wrap(CHUNK_OPEN)),
+          new ByteBufferInputStream(slice.slice()),
+          new ByteBufferInputStream(ByteBuffer.wrap(CHUNK_CLOSE)))));
+    }
+  }
+
+  private static final class ByteBufferInputStream extends InputStream {
+
+    private final ByteBuffer buffer;
+
+    private ByteBufferInputStream(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    @Override
+    public int read() {
+      return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+      if (length == 0) {
+        return 0;
+      }
+      if (!buffer.hasRemaining()) {
+        return -1;
+      }
+      int count = Math.min(length, buffer.remaining());
+      buffer.get(bytes, offset, count);
+      return count;
+    }
+
+    @Override
+    public int available() {
+      return buffer.remaining();
+    }
+  }
+}
@@ -21,14 +21,34 @@ package io.mathan.sonar.dependencyupdates.parser;
 import io.mathan.sonar.dependencyupdates.Constants;
 import io.mathan.sonar.dependencyupdates.Utils;
 import io.mathan.sonar.dependencyupdates.parser.Dependency.Availability;
+import io.mathan.sonar.dependencyupdates.profiling.PhaseEvent;
+import io.mathan.sonar.dependencyupdates.report.GradleReportFile;
+import io.mathan.sonar.dependencyupdates.report.ReportKind;
 import io.mathan.sonar.dependencyupdates.report.XmlReportFile;
+import io.mathan.sonar.dependencyupdates.version.Version;
+import io.mathan.sonar.dependencyupdates.parser.ReportChunks.Chunk;
 import java.io.IOException;
-import java.util.Collection;
-import java.util.HashMap;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.regex.Pattern;
+import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import javax.xml.stream.XMLStreamException;
 import org.apache.commons.lang3.StringUtils;
@@ -42,65 +62,212 @@ import org.sonar.api.utils.log.Loggers;
 public class ReportParser {
 
   private static final Logger LOGGER = Loggers.get(ReportParser.class);
-  private final Configuration configuration;
+  /**
+   * Minimum size of a report to be parsed in parallel.
+   */
+  private static final long MIN_PARALLEL_SIZE = 1024L * 1024;
+  /**
+   * Minimum size of a chunk parsed by a single task.
+   */
+  private static final long MIN_CHUNK_SIZE = 256L * 1024;
+  /**
+   * Not all StAX implementations are thread-safe, so each thread parsing reports uses a factory of its own.
+   */
+  private final ThreadLocal<SMInputFactory> inputFactory = ThreadLocal.withInitial(Utils::newStaxParser);
   private final Pattern versionExclusionPattern;
-  private final Pattern incrementalVersionsPattern = Pattern.compile("(.*)");
-  private final Pattern minorVersionsPattern;
-  private final Pattern majorVersionsPattern;
+  /**
+   * Number of leading version segments identifying a discrete minor version or <code>0</code> if all minor versions are taken into account.
+   */
+  private final int minorVersionsSegments;
+  /**
+   * Number of leading version segments identifying a discrete major version or <code>0</code> if all major versions are taken into account.
+   */
+  private final int majorVersionsSegments;
+  /**
+   * If <code>true</code> large reports are split into chunks parsed in parallel.
+   */
+  private final boolean parallel;
 
   public ReportParser(Configuration configuration) {
-    this.configuration = configuration;
-    this.versionExclusionPattern = Pattern.compile(configuration.get(Constants.CONFIG_VERSION_EXCLUSION_REGEX).orElse(Constants.CONFIG_VERSION_EXCLUSION_REGEX_DEFAULT));
-    boolean discreteMinorMajor = configuration.getBoolean(Constants.CONFIG_DISCRETE_MINOR_MAJOR).orElse(Constants.CONFIG_DISCRETE_MINOR_MAJOR_DEFAULT);
+    this(Pattern.compile(configuration.get(Constants.CONFIG_VERSION_EXCLUSION_REGEX).orElse(Constants.CONFIG_VERSION_EXCLUSION_REGEX_DEFAULT)),
+        configuration.getBoolean(Constants.CONFIG_DISCRETE_MINOR_MAJOR).orElse(Constants.CONFIG_DISCRETE_MINOR_MAJOR_DEFAULT));
+  }
+
+  /**
+   * Creates a ReportParser with an already compiled version exclusion pattern. The ReportParser does not hold any state of a single parse and can therefore be shared between modules and threads.
+   */
+  public ReportParser(Pattern versionExclusionPattern, boolean discreteMinorMajor) {
+    this(versionExclusionPattern, discreteMinorMajor, false);
+  }
+
+  /**
+   * Creates a ReportParser with an already compiled version exclusion pattern which optionally parses large reports in parallel. Reports are split into chunks of consecutive dependencies which are
+   * parsed by the common {@link ForkJoinPool} and merged in document order afterwards. Reports which can not be split safely are parsed sequentially.
+   */
+  public ReportParser(Pattern versionExclusionPattern, boolean discreteMinorMajor, boolean parallel) {
+    this.versionExclusionPattern = versionExclusionPattern;
+    this.parallel = parallel;
     if (discreteMinorMajor) {
-      minorVersionsPattern = Pattern.compile("^(\\d+\\.\\d+)");
-      majorVersionsPattern = Pattern.compile("^(\\d+)");
+      minorVersionsSegments = 2;
+      majorVersionsSegments = 1;
     } else {
-      minorVersionsPattern = Pattern.compile("(.*)");
-      majorVersionsPattern = Pattern.compile("(.*)");
+      minorVersionsSegments = 0;
+      majorVersionsSegments = 0;
     }
   }
 
   /**
-   * Creates an Analysis based on one or more dependency-update-reports.
+   * Creates an Analysis based on one or more reports of the versions-maven-plugin. The kind of each report is determined by its root element, managed plugins are added to the dependency managements
+   * and plugins and properties to the dependencies of the analysis.
    */
   public Analysis parse(List<XmlReportFile> files) throws IOException, XMLStreamException {
+    return parse(files, null);
+  }
+
+  /**
+   * Creates an Analysis based on the reports of the versions-maven-plugin and a report of the Gradle versions plugin. Gradle reports only contain dependencies, so they are added to the dependencies
+   * of the analysis.
+   */
+  public Analysis parse(List<XmlReportFile> files, @Nullable GradleReportFile gradleReport) throws IOException, XMLStreamException {
     Analysis analysis = new Analysis();
     for (XmlReportFile file : files) {
       parse(analysis, file);
     }
+    if (gradleReport != null) {
+      parse(analysis, gradleReport);
+    }
     return analysis;
   }
 
   private void parse(Analysis analysis, XmlReportFile file) throws IOException, XMLStreamException {
-    SMInputFactory inputFactory = Utils.newStaxParser();
-    SMHierarchicCursor rootC = inputFactory.rootElementCursor(file.getInputStream());
-    rootC.advance(); // <DependencyUpdatesReport>
+    try (PhaseEvent event = PhaseEvent.begin(PhaseEvent.REPORT_PARSE)) {
+      if (event.isEnabled()) {
+        event.setPath(file.getPath()).setBytes(file.getPath() != null ? Files.size(file.getPath()) : 0);
+      }
+      int dependencies = analysis.getDependencies().size() + analysis.getDependencyManagements().size();
+      parseReport(analysis, file);
+      event.setDependencies(analysis.getDependencies().size() + analysis.getDependencyManagements().size() - dependencies);
+    }
+  }
 
-    SMInputCursor childCursor = rootC.childCursor();
-    while (childCursor.getNext() != null) {
-      String nodeName = childCursor.getLocalName();
-      if ("dependencyManagements".equals(nodeName)) {
-        processDependencies(analysis.getDependencyManagements(), childCursor, "dependencyManagement");
-      } else if ("dependencies".equals(nodeName)) {
-        processDependencies(analysis.getDependencies(), childCursor, "dependency");
+  private void parse(Analysis analysis, GradleReportFile file) throws IOException {
+    try (PhaseEvent event = PhaseEvent.begin(PhaseEvent.REPORT_PARSE)) {
+      if (event.isEnabled()) {
+        event.setPath(file.getPath()).setBytes(file.getPath() != null ? Files.size(file.getPath()) : 0);
       }
+      int dependencies = analysis.getDependencies().size();
+      parseGradleReport(analysis, file);
+      event.setDependencies(analysis.getDependencies().size() - dependencies);
     }
   }
 
+  private void parseReport(Analysis analysis, XmlReportFile file) throws IOException, XMLStreamException {
+    Path path = file.getPath();
+    if (parallel && file.getKind() == ReportKind.DEPENDENCY && path != null && Files.size(path) >= MIN_PARALLEL_SIZE && Files.size(path) <= Integer.MAX_VALUE
+        && parseParallel(analysis, path)) {
+      return;
+    }
+    try (InputStream inputStream = file.getInputStream()) {
+      SMHierarchicCursor rootC = inputFactory.get().rootElementCursor(inputStream);
+      rootC.advance(); // <DependencyUpdatesReport>, <PluginUpdatesReport> or <PropertyUpdatesReport>
+      ReportKind kind = ReportKind.fromRootElement(rootC.getLocalName());
+      if (kind == null) {
+        kind = file.getKind();
+      }
+
+      SMInputCursor childCursor = rootC.childCursor();
+      while (childCursor.getNext() != null) {
+        String nodeName = childCursor.getLocalName();
+        if (nodeName.equals(kind.getManagementsElement())) {
+          processDependencies(kind, analysis.getDependencyManagements(), childCursor, kind.getManagementElement());
+        } else if (nodeName.equals(kind.getEntriesElement())) {
+          processDependencies(kind, analysis.getDependencies(), childCursor, kind.getEntryElement());
+        }
+      }
+    }
+  }
+
+
+  /**
+   * Parses the report in chunks in parallel.
+   *
+   * @return <code>false</code> if the report could not be split into chunks and has to be parsed sequentially.
+   */
+  private boolean parseParallel(Analysis analysis, Path path) throws IOException, XMLStreamException {
+    List<Chunk> chunks;
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+      int bytesPerChunk = (int) Math.max(MIN_CHUNK_SIZE, channel.size() / (ForkJoinPool.getCommonPoolParallelism() * 4L));
+      chunks = ReportChunks.split(buffer, bytesPerChunk);
+    }
+    if (chunks == null) {
+      LOGGER.debug("Report {} can not be split into chunks, parsing sequentially", path);
+      return false;
+    }
+    List<ForkJoinTask<List<Dependency>>> tasks = new ArrayList<>(chunks.size());
+    for (Chunk chunk : chunks) {
+      tasks.add(ForkJoinPool.commonPool().submit(() -> parseChunk(chunk)));
+    }
+    for (int i = 0; i < chunks.size(); i++) {
+      List<Dependency> dependencies = join(tasks.get(i));
+      if (ReportChunks.DEPENDENCY_MANAGEMENT.equals(chunks.get(i).getElement())) {
+        analysis.getDependencyManagements().addAll(dependencies);
+      } else {
+        analysis.getDependencies().addAll(dependencies);
+      }
+    }
+    return true;
+  }
+
+  private List<Dependency> parseChunk(Chunk chunk) throws XMLStreamException {
+    List<Dependency> dependencies = new ArrayList<>();
+    SMHierarchicCursor rootC = inputFactory.get().rootElementCursor(chunk.getInputStream());
+    rootC.advance(); // <chunk>
+    processDependencies(ReportKind.DEPENDENCY, dependencies, rootC, chunk.getElement());
+    return dependencies;
+  }
 
-  private void processDependencies(List<Dependency> list, SMInputCursor parent, String childName) throws XMLStreamException {
+  private static <T> T join(ForkJoinTask<T> task) throws IOException, XMLStreamException {
+    try {
+      return task.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while parsing report");
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof XMLStreamException) {
+        throw (XMLStreamException) cause;
+      } else if (cause instanceof IOException) {
+        throw (IOException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new IllegalStateException(cause);
+    }
+  }
+
+  private void processDependencies(ReportKind kind, List<Dependency> list, SMInputCursor parent, String childName) throws XMLStreamException {
     SMInputCursor childCursor = parent.childCursor();
     while (childCursor.getNext() != null) {
       String nodeName = childCursor.getLocalName();
       if (childName.equals(nodeName)) {
-        list.add(processDependency(childCursor));
+        Dependency dependency = processDependency(kind, childCursor);
+        // a property only refers to an artifact by its associations, without one there is nothing to report an issue for
+        if (kind == ReportKind.PROPERTY && (dependency.getGroupId() == null || dependency.getArtifactId() == null)) {
+          LOGGER.info("Skipping property {} without associated artifact", dependency.getProperty());
+        } else {
+          list.add(dependency);
+        }
       }
     }
   }
 
-  private Dependency processDependency(SMInputCursor cursor) throws XMLStreamException {
+  private Dependency processDependency(ReportKind kind, SMInputCursor cursor) throws XMLStreamException {
     Dependency dependency = new Dependency();
+    dependency.setKind(kind);
+    List<Version> incrementals = new ArrayList<>();
+    List<Version> minors = new ArrayList<>();
+    List<Version> majors = new ArrayList<>();
     SMInputCursor childCursor = cursor.childCursor();
     while (childCursor.getNext() != null) {
       String nodeName = childCursor.getLocalName();
@@ -119,43 +286,192 @@ public class ReportParser {
       } else if ("nextVersion".equals(nodeName)) {
         dependency.setNext(StringUtils.trim(childCursor.collectDescendantText(true)));
       } else if ("incrementals".equals(nodeName)) {
-        dependency.getIncrementals().addAll(processVersions(incrementalVersionsPattern, childCursor, "incremental"));
+        incrementals.addAll(processVersions(0, childCursor, "incremental"));
       } else if ("minors".equals(nodeName)) {
-        dependency.getMinors().addAll(processVersions(minorVersionsPattern, childCursor, "minor"));
+        minors.addAll(processVersions(minorVersionsSegments, childCursor, "minor"));
       } else if ("majors".equals(nodeName)) {
-        dependency.getMajors().addAll(processVersions(majorVersionsPattern, childCursor, "major"));
+        majors.addAll(processVersions(majorVersionsSegments, childCursor, "major"));
       } else if ("status".equals(nodeName)) {
         dependency.setAvailability(Availability.fromDependencyUpdatesReportStatus(StringUtils.trim(childCursor.collectDescendantText(true))));
+      } else if ("propertyName".equals(nodeName)) {
+        dependency.setProperty(StringUtils.trim(childCursor.collectDescendantText(true)));
+      } else if ("propertyAssociations".equals(nodeName)) {
+        processPropertyAssociations(dependency, childCursor);
       }
     }
-    if (dependency.getNext() != null && versionExclusionPattern.matcher(dependency.getNext()).matches()) {
-      if (dependency.getIncrementals().size() > 0) {
-        dependency.setNext(dependency.getIncrementals().get(0));
+    if (dependency.getType() == null) {
+      dependency.setType(kind.getDefaultType());
+    }
+    // plugin and property reports do not contain the next version
+    complete(dependency, incrementals, minors, majors, kind == ReportKind.DEPENDENCY);
+    return dependency;
+  }
+
+  /**
+   * Adds the versions not excluded to the dependency and determines the last version. The next version and the availability are determined from the versions as well if the report does not contain
+   * the next version or if it is excluded.
+   */
+  private void complete(Dependency dependency, List<Version> incrementals, List<Version> minors, List<Version> majors, boolean nextReported) {
+    addAll(dependency.getIncrementals(), incrementals);
+    addAll(dependency.getMinors(), minors);
+    addAll(dependency.getMajors(), majors);
+    if (dependency.getNext() != null ? versionExclusionPattern.matcher(dependency.getNext()).matches() : !nextReported) {
+      if (!incrementals.isEmpty()) {
+        dependency.setNext(Collections.min(incrementals).toString());
         dependency.setAvailability(Availability.Incremental);
-      } else if (dependency.getMinors().size() > 0) {
-        dependency.setNext(dependency.getMinors().get(0));
+      } else if (!minors.isEmpty()) {
+        dependency.setNext(Collections.min(minors).toString());
         dependency.setAvailability(Availability.Minor);
-      } else if (dependency.getMajors().size() > 0) {
-        dependency.setNext(dependency.getMajors().get(0));
+      } else if (!majors.isEmpty()) {
+        dependency.setNext(Collections.min(majors).toString());
         dependency.setAvailability(Availability.Major);
       } else {
         dependency.setNext(null);
         dependency.setAvailability(Availability.None);
       }
     }
-    if (dependency.getMajors().size() > 0) {
-      dependency.setLast(dependency.getMajors().get(dependency.getMajors().size() - 1));
-    } else if (dependency.getMinors().size() > 0) {
-      dependency.setLast(dependency.getMinors().get(dependency.getMinors().size() - 1));
-    } else if (dependency.getIncrementals().size() > 0) {
-      dependency.setLast(dependency.getIncrementals().get(dependency.getIncrementals().size() - 1));
+    if (!majors.isEmpty()) {
+      dependency.setLast(Collections.max(majors).toString());
+    } else if (!minors.isEmpty()) {
+      dependency.setLast(Collections.max(minors).toString());
+    } else if (!incrementals.isEmpty()) {
+      dependency.setLast(Collections.max(incrementals).toString());
     } else {
       dependency.setLast(dependency.getVersion());
     }
+  }
+
+  /**
+   * Reads a report of the Gradle versions plugin as a stream. The current and outdated dependencies and those exceeding the latest version are kept, unresolved and undeclared dependencies are
+   * skipped as the report of the versions-maven-plugin does not contain them either.
+   */
+  private void parseGradleReport(Analysis analysis, GradleReportFile file) throws IOException {
+    try (Reader reader = new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8)) {
+      JsonReader json = new JsonReader(reader);
+      json.beginObject();
+      while (json.hasNext()) {
+        String name = json.nextName();
+        if ("current".equals(name) || "outdated".equals(name) || "exceeded".equals(name)) {
+          processGradleDependencies(analysis.getDependencies(), json);
+        } else {
+          json.skipValue();
+        }
+      }
+      json.endObject();
+    }
+  }
+
+  private void processGradleDependencies(List<Dependency> list, JsonReader json) throws IOException {
+    json.beginObject();
+    while (json.hasNext()) {
+      if ("dependencies".equals(json.nextName())) {
+        json.beginArray();
+        while (json.hasNext()) {
+          Dependency dependency = processGradleDependency(json);
+          if (dependency.getGroupId() != null && dependency.getArtifactId() != null && dependency.getVersion() != null) {
+            list.add(dependency);
+          } else {
+            LOGGER.debug("Skipping {} without artifact or version: {}", "Gradle dependency", dependency);
+          }
+        }
+        json.endArray();
+      } else {
+        json.skipValue();
+      }
+    }
+    json.endObject();
+  }
 
+  /**
+   * Reads a dependency of a Gradle report. Other than the versions-maven-plugin the Gradle versions plugin only reports the latest version available per revision (release, milestone and
+   * integration), so each of them is classified as incremental, minor or major update by comparing it with the current version.
+   */
+  private Dependency processGradleDependency(JsonReader json) throws IOException {
+    Dependency dependency = new Dependency();
+    dependency.setKind(ReportKind.DEPENDENCY);
+    dependency.setType(ReportKind.DEPENDENCY.getDefaultType());
+    List<String> available = new ArrayList<>();
+    json.beginObject();
+    while (json.hasNext()) {
+      String name = json.nextName();
+      if ("group".equals(name)) {
+        dependency.setGroupId(StringUtils.trim(json.nextString()));
+      } else if ("name".equals(name)) {
+        dependency.setArtifactId(StringUtils.trim(json.nextString()));
+      } else if ("version".equals(name)) {
+        dependency.setVersion(StringUtils.trim(json.nextString()));
+      } else if ("available".equals(name)) {
+        processAvailable(json, available);
+      } else {
+        json.skipValue();
+      }
+    }
+    json.endObject();
+    Version current = dependency.getParsedVersion();
+    if (current == null) {
+      return dependency;
+    }
+    Map<Object, Version> incrementals = new LinkedHashMap<>();
+    Map<Object, Version> minors = new LinkedHashMap<>();
+    Map<Object, Version> majors = new LinkedHashMap<>();
+    for (String value : available) {
+      Version version = version(value);
+      if (version == null) {
+        continue;
+      } else if (version.getMajor() != current.getMajor()) {
+        addVersion(majors, majorVersionsSegments, version);
+      } else if (version.getMinor() != current.getMinor()) {
+        addVersion(minors, minorVersionsSegments, version);
+      } else {
+        addVersion(incrementals, 0, version);
+      }
+    }
+    complete(dependency, new ArrayList<>(incrementals.values()), new ArrayList<>(minors.values()), new ArrayList<>(majors.values()), false);
     return dependency;
   }
 
+  /**
+   * Collects the latest versions per revision. The versions are <code>null</code> for revisions not requested and the whole object is <code>null</code> for current dependencies.
+   */
+  private static void processAvailable(JsonReader json, List<String> available) throws IOException {
+    if (json.nextNull()) {
+      return;
+    }
+    json.beginObject();
+    while (json.hasNext()) {
+      json.nextName();
+      String value = StringUtils.trim(json.nextString());
+      if (value != null) {
+        available.add(value);
+      }
+    }
+    json.endObject();
+  }
+
+  /**
+   * Uses the first artifact associated with a version property as artifact of the property.
+   */
+  private static void processPropertyAssociations(Dependency dependency, SMInputCursor cursor) throws XMLStreamException {
+    SMInputCursor associationCursor = cursor.childCursor();
+    while (associationCursor.getNext() != null && dependency.getArtifactId() == null) {
+      SMInputCursor childCursor = associationCursor.childCursor();
+      while (childCursor.getNext() != null) {
+        String nodeName = childCursor.getLocalName();
+        if ("groupId".equals(nodeName)) {
+          dependency.setGroupId(StringUtils.trim(childCursor.collectDescendantText(true)));
+        } else if ("artifactId".equals(nodeName)) {
+          dependency.setArtifactId(StringUtils.trim(childCursor.collectDescendantText(true)));
+        }
+      }
+    }
+  }
+
+  private static void addAll(List<String> target, List<Version> versions) {
+    for (Version version : versions) {
+      target.add(version.toString());
+    }
+  }
+
   private static String nonNull(@Nullable String value) {
     if ("null".equals(value)) {
       return null;
@@ -163,21 +479,55 @@ public class ReportParser {
     return value;
   }
 
-  private Collection<String> processVersions(Pattern pattern, SMInputCursor cursor, String childName) throws XMLStreamException {
-    Map<String, String> versions = new HashMap<>();
+  /**
+   * Collects the versions not excluded by the version exclusion pattern. If discrete segments are given, only the last version of versions sharing the same leading segments is kept, e.g. for
+   * <code>1.1.0, 1.1.1, 1.2.0</code> and two segments only <code>1.1.1</code> and <code>1.2.0</code> are kept.
+   */
+  private List<Version> processVersions(int discreteSegments, SMInputCursor cursor, String childName) throws XMLStreamException {
+    Map<Object, Version> versions = new LinkedHashMap<>();
     SMInputCursor childCursor = cursor.childCursor();
     while (childCursor.getNext() != null) {
       String nodeName = childCursor.getLocalName();
       if (childName.equals(nodeName)) {
-        String version = StringUtils.trim(childCursor.collectDescendantText(true));
-        if (!versionExclusionPattern.matcher(version).matches()) {
-          Matcher matcher = pattern.matcher(version);
-          if (matcher.find()) {
-            versions.put(matcher.group(1), version);
-          }
+        Version version = version(StringUtils.trim(childCursor.collectDescendantText(true)));
+        if (version != null) {
+          addVersion(versions, discreteSegments, version);
         }
       }
     }
-    return versions.values();
+    return new ArrayList<>(versions.values());
+  }
+
+  /**
+   * Parses a version available unless it is excluded by the version exclusion pattern.
+   *
+   * @return The version or <code>null</code> if it is excluded.
+   */
+  @CheckForNull
+  private Version version(String value) {
+    if (versionExclusionPattern.matcher(value).matches()) {
+      return null;
+    }
+    return Version.parse(value);
+  }
+
+  private static void addVersion(Map<Object, Version> versions, int discreteSegments, Version version) {
+    Object key = discreteKey(version, discreteSegments);
+    if (key != null) {
+      versions.put(key, version);
+    }
+  }
+
+  @CheckForNull
+  private static Object discreteKey(Version version, int discreteSegments) {
+    if (discreteSegments == 0) {
+      return version.toString();
+    } else if (version.getNumericSegments() < discreteSegments) {
+      return null;
+    } else if (discreteSegments == 1) {
+      return (long) version.getMajor();
+    } else {
+      return ((long) version.getMajor() << Integer.SIZE) | version.getMinor();
+    }
   }
 }
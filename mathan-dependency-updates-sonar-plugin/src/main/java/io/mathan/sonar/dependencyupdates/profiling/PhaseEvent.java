@@ -0,0 +1,260 @@
+/*
+ * mathan-dependency-updates-sonar-plugin
+ * Copyright (c) 2019 Matthias Hanisch
+ * matthias@mathan.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mathan.sonar.dependencyupdates.profiling;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+
+/**
+ * Event of the JDK Flight Recorder for a phase of the analysis, e.g. parsing a report. The Flight Recorder API is not available in all versions of Java 8, so the event type is created with the
+ * <code>jdk.jfr.EventFactory</code> by reflection. An event is only created while the Flight Recorder is initialized and the event type is enabled by a recording, otherwise {@link #begin(String)}
+ * returns a shared instance ignoring all values.
+ *
+ * <pre>
+ * try (PhaseEvent event = PhaseEvent.begin(PhaseEvent.REPORT_PARSE)) {
+ *   event.setPath(path);
+ *   ...
+ * }
+ * </pre>
+ */
+public final class PhaseEvent implements AutoCloseable {
+
+  public static final String REPORT_PARSE = "Report parse";
+  public static final String FILTER_CLASSIFICATION = "Filter classification";
+  public static final String ISSUE_EMISSION = "Issue emission";
+  public static final String METRIC_SAVING = "Metric saving";
+  public static final String MEASURE_COMPUTATION = "Measure computation";
+
+  static final String EVENT_NAME = "io.mathan.sonar.dependencyupdates.Phase";
+  private static final int FIELD_PHASE = 0;
+  private static final int FIELD_COMPONENT = 1;
+  private static final int FIELD_PATH = 2;
+  private static final int FIELD_BYTES = 3;
+  private static final int FIELD_DEPENDENCIES = 4;
+  private static final PhaseEvent DISABLED = new PhaseEvent(null, null);
+
+  private final Recorder recorder;
+  private final Object event;
+
+  private PhaseEvent(@Nullable Recorder recorder, @Nullable Object event) {
+    this.recorder = recorder;
+    this.event = event;
+  }
+
+  /**
+   * Begins the event of a phase if the Flight Recorder is recording events of this type.
+   */
+  public static PhaseEvent begin(String phase) {
+    Recorder recorder = Recorder.get();
+    if (recorder == null) {
+      return DISABLED;
+    }
+    Object event = recorder.begin();
+    if (event == null) {
+      return DISABLED;
+    }
+    PhaseEvent phaseEvent = new PhaseEvent(recorder, event);
+    phaseEvent.set(FIELD_PHASE, phase);
+    return phaseEvent;
+  }
+
+  /**
+   * Returns the number of times it was checked by reflection whether the Flight Recorder is initialized.
+   */
+  static int initializationChecks() {
+    return Recorder.getChecks();
+  }
+
+  public boolean isEnabled() {
+    return event != null;
+  }
+
+  /**
+   * Sets the key of the SonarQube component the phase is executed for.
+   */
+  public PhaseEvent setComponent(@Nullable Object component) {
+    return set(FIELD_COMPONENT, component != null ? component.toString() : null);
+  }
+
+  /**
+   * Sets the path of the file processed.
+   */
+  public PhaseEvent setPath(@Nullable Object path) {
+    return set(FIELD_PATH, path != null ? path.toString() : null);
+  }
+
+  public PhaseEvent setBytes(long bytes) {
+    return set(FIELD_BYTES, bytes);
+  }
+
+  /**
+   * Sets the number of dependencies processed.
+   */
+  public PhaseEvent setDependencies(int dependencies) {
+    return set(FIELD_DEPENDENCIES, dependencies);
+  }
+
+  private PhaseEvent set(int index, @Nullable Object value) {
+    if (event != null) {
+      recorder.set(event, index, value);
+    }
+    return this;
+  }
+
+  /**
+   * Ends the event and commits it if its duration exceeds the threshold of the recording.
+   */
+  @Override
+  public void close() {
+    if (event != null) {
+      recorder.commit(event);
+    }
+  }
+
+  /**
+   * The event type created by reflection. It is created when the Flight Recorder is initialized, so the Flight Recorder is not initialized by the plugin. Any failure of the reflective calls
+   * disables the events for the rest of the analysis.
+   */
+  private static final class Recorder {
+
+    private static final Method IS_INITIALIZED = method("jdk.jfr.FlightRecorder", "isInitialized");
+    /**
+     * Interval the Flight Recorder is checked again after it was found not to be initialized.
+     */
+    private static final long RECHECK_NANOS = 1_000_000_000L;
+    private static volatile Recorder instance;
+    private static volatile boolean failed = IS_INITIALIZED == null;
+    private static volatile long nextCheck = System.nanoTime();
+    private static int checks;
+
+    private final Object eventFactory;
+    private final Method newEvent;
+    private final Method isEnabled;
+    private final Object eventType;
+    private final Method beginEvent;
+    private final Method setField;
+    private final Method commitEvent;
+
+    private Recorder() throws ReflectiveOperationException {
+      Class<?> eventFactoryClass = Class.forName("jdk.jfr.EventFactory");
+      Class<?> eventTypeClass = Class.forName("jdk.jfr.EventType");
+      Class<?> eventClass = Class.forName("jdk.jfr.Event");
+      Constructor<?> annotationElement = Class.forName("jdk.jfr.AnnotationElement").getConstructor(Class.class, Object.class);
+      Constructor<?> valueDescriptor = Class.forName("jdk.jfr.ValueDescriptor").getConstructor(Class.class, String.class);
+      List<Object> annotations = Arrays.asList(
+          annotationElement.newInstance(Class.forName("jdk.jfr.Name"), EVENT_NAME),
+          annotationElement.newInstance(Class.forName("jdk.jfr.Label"), "Dependency-Updates Phase"),
+          annotationElement.newInstance(Class.forName("jdk.jfr.Category"), new String[] {"SonarQube", "Dependency-Updates"}));
+      List<Object> fields = Arrays.asList(
+          valueDescriptor.newInstance(String.class, "phase"),
+          valueDescriptor.newInstance(String.class, "component"),
+          valueDescriptor.newInstance(String.class, "path"),
+          valueDescriptor.newInstance(long.class, "bytes"),
+          valueDescriptor.newInstance(int.class, "dependencies"));
+      eventFactory = eventFactoryClass.getMethod("create", List.class, List.class).invoke(null, annotations, fields);
+      newEvent = eventFactoryClass.getMethod("newEvent");
+      eventType = eventFactoryClass.getMethod("getEventType").invoke(eventFactory);
+      isEnabled = eventTypeClass.getMethod("isEnabled");
+      beginEvent = eventClass.getMethod("begin");
+      setField = eventClass.getMethod("set", int.class, Object.class);
+      commitEvent = eventClass.getMethod("commit");
+    }
+
+    @CheckForNull
+    private static Method method(String className, String methodName) {
+      try {
+        return Class.forName(className).getMethod(methodName);
+      } catch (ReflectiveOperationException | LinkageError e) {
+        return null;
+      }
+    }
+
+    /**
+     * Returns the event type once the Flight Recorder is initialized. While it is not initialized, it is checked at most once per {@link #RECHECK_NANOS}, so the phases of an analysis without
+     * recording neither wait for a lock nor make a reflective call.
+     *
+     * @return The event type or <code>null</code> if the Flight Recorder is not available or not initialized yet.
+     */
+    @CheckForNull
+    static Recorder get() {
+      Recorder recorder = instance;
+      if (recorder != null || failed || System.nanoTime() - nextCheck < 0) {
+        return recorder;
+      }
+      synchronized (Recorder.class) {
+        try {
+          if (instance == null && !failed && System.nanoTime() - nextCheck >= 0) {
+            checks++;
+            nextCheck = System.nanoTime() + RECHECK_NANOS;
+            if ((Boolean) IS_INITIALIZED.invoke(null)) {
+              instance = new Recorder();
+            }
+          }
+        } catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+          failed = true;
+        }
+        return instance;
+      }
+    }
+
+    static synchronized int getChecks() {
+      return checks;
+    }
+
+    @CheckForNull
+    Object begin() {
+      try {
+        if (!(Boolean) isEnabled.invoke(eventType)) {
+          return null;
+        }
+        Object event = newEvent.invoke(eventFactory);
+        beginEvent.invoke(event);
+        return event;
+      } catch (ReflectiveOperationException | RuntimeException e) {
+        disable();
+        return null;
+      }
+    }
+
+    void set(Object event, int index, @Nullable Object value) {
+      try {
+        setField.invoke(event, index, value);
+      } catch (ReflectiveOperationException | RuntimeException e) {
+        disable();
+      }
+    }
+
+    void commit(Object event) {
+      try {
+        commitEvent.invoke(event);
+      } catch (ReflectiveOperationException | RuntimeException e) {
+        disable();
+      }
+    }
+
+    private static void disable() {
+      failed = true;
+      instance = null;
+    }
+  }
+}
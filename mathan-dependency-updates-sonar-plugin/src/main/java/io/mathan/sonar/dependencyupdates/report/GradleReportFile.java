@@ -0,0 +1,41 @@
+/*
+ * mathan-dependency-updates-sonar-plugin
+ * Copyright (c) 2019 Matthias Hanisch
+ * matthias@mathan.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mathan.sonar.dependencyupdates.report;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+
+/**
+ * A JSON report of the Gradle versions plugin (<code>com.github.ben-manes.versions</code>) as written by its task <code>dependencyUpdates</code>. The report is read with the same
+ * {@link io.mathan.sonar.dependencyupdates.parser.ReportParser} as the XML reports of the versions-maven-plugin.
+ */
+public interface GradleReportFile {
+
+  InputStream getInputStream() throws IOException;
+
+  /**
+   * Returns the path of the report if it is a file in the local file system.
+   */
+  @CheckForNull
+  default Path getPath() {
+    return null;
+  }
+}
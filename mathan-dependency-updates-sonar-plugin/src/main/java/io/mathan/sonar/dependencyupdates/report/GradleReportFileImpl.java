@@ -0,0 +1,83 @@
+/*
+ * mathan-dependency-updates-sonar-plugin
+ * Copyright (c) 2019 Matthias Hanisch
+ * matthias@mathan.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mathan.sonar.dependencyupdates.report;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import io.mathan.sonar.dependencyupdates.Constants;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.sonar.api.batch.fs.FileSystem;
+import org.sonar.api.config.Configuration;
+import org.sonar.api.scan.filesystem.PathResolver;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+
+public class GradleReportFileImpl implements GradleReportFile {
+
+  private static final Logger LOGGER = Loggers.get(GradleReportFileImpl.class);
+
+  private final File report;
+
+  private GradleReportFileImpl(File report) {
+    this.report = report;
+  }
+
+  @Override
+  public InputStream getInputStream() throws IOException {
+    return Files.newInputStream(this.report.toPath());
+  }
+
+  @Override
+  public Path getPath() {
+    return this.report.toPath();
+  }
+
+  /**
+   * Returns the Gradle report of a module if it exists at the configured path. As for {@link XmlReportFileImpl#findReports(Configuration, FileSystem, PathResolver, java.util.Set)} only the file
+   * attributes are checked.
+   *
+   * @return The report or <code>null</code> if there is no readable report at the configured path.
+   */
+  @CheckForNull
+  public static GradleReportFile findReport(Configuration config, FileSystem fileSystem, PathResolver pathResolver) {
+    String path = config.get(Constants.CONFIG_GRADLE_REPORT_PATH_PROPERTY).orElse(Constants.CONFIG_GRADLE_REPORT_PATH_DEFAULT);
+    return checkReport(pathResolver.relativeFile(fileSystem.baseDir(), path));
+  }
+
+  /**
+   * Returns the Gradle report of the module in the given directory if it exists. This is used outside of a scanner run where there is no {@link FileSystem}.
+   */
+  @CheckForNull
+  public static GradleReportFile findReport(Configuration config, File baseDir) {
+    File report = new File(config.get(Constants.CONFIG_GRADLE_REPORT_PATH_PROPERTY).orElse(Constants.CONFIG_GRADLE_REPORT_PATH_DEFAULT));
+    return checkReport(report.isAbsolute() ? report : new File(baseDir, report.getPath()));
+  }
+
+  @CheckForNull
+  private static GradleReportFile checkReport(File report) {
+    if (report.isFile() && report.canRead()) {
+      return new GradleReportFileImpl(report);
+    }
+    LOGGER.debug("No Dependency-Updates {} report found at {}", "Gradle", report.getAbsolutePath());
+    return null;
+  }
+}
@@ -0,0 +1,407 @@
+/*
+ * mathan-dependency-updates-sonar-plugin
+ * Copyright (c) 2019 Matthias Hanisch
+ * matthias@mathan.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mathan.sonar.dependencyupdates.report;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.CountingInputStream;
+
+/**
+ * An archive (zip or tar.gz) containing the reports of the versions-maven-plugin and of the Gradle versions plugin of several modules. Reports are read from the archive directly without
+ * extracting any files to disk. A zip is opened as {@link FileSystem}. Of a tar.gz only the positions of the reports are kept when it is opened, the reports of a module are read from the archive
+ * when the first of them is opened and are only held in memory until they are opened.
+ */
+public final class ReportArchive implements Closeable {
+
+  private static final int TAR_BLOCK = 512;
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final Map<String, List<XmlReportFile>> reports;
+  private final Map<String, GradleReportFile> gradleReports;
+  private final Closeable closeable;
+
+  private ReportArchive(Map<String, List<XmlReportFile>> reports, Map<String, GradleReportFile> gradleReports, Closeable closeable) {
+    this.reports = reports;
+    this.gradleReports = gradleReports;
+    this.closeable = closeable;
+    reports.values().forEach(list -> list.sort(Comparator.comparing(XmlReportFile::getKind)));
+  }
+
+  /**
+   * Opens the given archive and looks up all reports. A report is expected at the given report path relative to the directory of its module within the archive.
+   *
+   * @param archive The archive, either a zip (<code>.zip</code>) or a gzipped tar (<code>.tar.gz</code>, <code>.tgz</code>).
+   * @param reportPath The path of a report relative to its module, e.g. <code>target/dependency-updates-report.xml</code>.
+   * @throws IOException If the archive could not be read or the type of the archive is not supported.
+   */
+  public static ReportArchive open(Path archive, String reportPath) throws IOException {
+    return open(archive, reportPath, EnumSet.of(ReportKind.DEPENDENCY));
+  }
+
+  /**
+   * Opens the given archive and looks up all reports of the given kinds. The reports of all kinds are expected in the directory of the dependency-updates-report, see
+   * {@link ReportKind#reportPath(String)}.
+   *
+   * @param archive The archive, either a zip (<code>.zip</code>) or a gzipped tar (<code>.tar.gz</code>, <code>.tgz</code>).
+   * @param reportPath The path of a dependency-updates-report relative to its module, e.g. <code>target/dependency-updates-report.xml</code>.
+   * @param kinds The kinds of reports to look up.
+   * @throws IOException If the archive could not be read or the type of the archive is not supported.
+   */
+  public static ReportArchive open(Path archive, String reportPath, Set<ReportKind> kinds) throws IOException {
+    return open(archive, reportPath, kinds, null);
+  }
+
+  /**
+   * Opens the given archive and looks up all reports of the given kinds and the reports of the Gradle versions plugin.
+   *
+   * @param archive The archive, either a zip (<code>.zip</code>) or a gzipped tar (<code>.tar.gz</code>, <code>.tgz</code>).
+   * @param reportPath The path of a dependency-updates-report relative to its module, e.g. <code>target/dependency-updates-report.xml</code>.
+   * @param kinds The kinds of reports to look up.
+   * @param gradleReportPath The path of a Gradle report relative to its module, e.g. <code>build/dependencyUpdates/report.json</code>, or <code>null</code> if Gradle reports are not looked up.
+   * @throws IOException If the archive could not be read or the type of the archive is not supported.
+   */
+  public static ReportArchive open(Path archive, String reportPath, Set<ReportKind> kinds, @Nullable String gradleReportPath) throws IOException {
+    String name = archive.getFileName().toString().toLowerCase(Locale.ROOT);
+    Map<ReportKind, String> suffixes = new EnumMap<>(ReportKind.class);
+    kinds.forEach(kind -> suffixes.put(kind, normalize(kind.reportPath(reportPath))));
+    String gradleSuffix = gradleReportPath != null ? normalize(gradleReportPath) : null;
+    if (name.endsWith(".zip")) {
+      return openZip(archive, suffixes, gradleSuffix);
+    } else if (name.endsWith(".tar.gz") || name.endsWith(".tgz")) {
+      return openTarGz(archive, suffixes, gradleSuffix);
+    }
+    throw new IOException("Unsupported report archive " + archive + ", only .zip, .tar.gz and .tgz are supported.");
+  }
+
+  private static ReportArchive openZip(Path archive, Map<ReportKind, String> suffixes, @Nullable String gradleSuffix) throws IOException {
+    FileSystem fileSystem = FileSystems.newFileSystem(archive, (ClassLoader) null);
+    Map<String, List<XmlReportFile>> reports = new LinkedHashMap<>();
+    Map<String, GradleReportFile> gradleReports = new LinkedHashMap<>();
+    try (Stream<Path> paths = Files.walk(fileSystem.getPath("/"))) {
+      paths.filter(Files::isRegularFile).forEach(path -> {
+        for (Entry<ReportKind, String> suffix : suffixes.entrySet()) {
+          String module = module(path.toString(), suffix.getValue());
+          if (module != null) {
+            reports.computeIfAbsent(module, key -> new ArrayList<>()).add(new Report(suffix.getKey(), () -> Files.newInputStream(path)));
+          }
+        }
+        String module = gradleSuffix != null ? module(path.toString(), gradleSuffix) : null;
+        if (module != null) {
+          gradleReports.put(module, () -> Files.newInputStream(path));
+        }
+      });
+    } catch (IOException | RuntimeException e) {
+      fileSystem.close();
+      throw e;
+    }
+    return new ReportArchive(reports, gradleReports, fileSystem);
+  }
+
+  private static ReportArchive openTarGz(Path archive, Map<ReportKind, String> suffixes, @Nullable String gradleSuffix) throws IOException {
+    Map<String, List<XmlReportFile>> reports = new LinkedHashMap<>();
+    Map<String, GradleReportFile> gradleReports = new LinkedHashMap<>();
+    Map<String, List<TarEntry>> modules = new LinkedHashMap<>();
+    TarCursor cursor = new TarCursor(archive);
+    try (CountingInputStream in = new CountingInputStream(new GZIPInputStream(Files.newInputStream(archive), BUFFER_SIZE))) {
+      byte[] header = new byte[TAR_BLOCK];
+      String longName = null;
+      while (readBlock(in, header)) {
+        if (header[0] == 0) {
+          // end of archive
+          break;
+        }
+        long size = parseOctal(header, 124, 12);
+        byte type = header[156];
+        String name = longName != null ? longName : tarName(header);
+        longName = null;
+        if (type == 'L') {
+          longName = trimNul(new String(read(in, size), StandardCharsets.UTF_8));
+        } else if (type == 'x') {
+          longName = paxPath(read(in, size));
+        } else if ((type == '0' || type == 0) && kind(name, suffixes) != null) {
+          ReportKind kind = kind(name, suffixes);
+          String module = module(name, suffixes.get(kind));
+          TarEntry entry = new TarEntry(modules.computeIfAbsent(module, key -> new ArrayList<>()), in.getByteCount(), size);
+          reports.computeIfAbsent(module, key -> new ArrayList<>()).add(new Report(kind, () -> cursor.open(entry)));
+          IOUtils.skipFully(in, size);
+        } else if ((type == '0' || type == 0) && gradleSuffix != null && module(name, gradleSuffix) != null) {
+          String module = module(name, gradleSuffix);
+          TarEntry entry = new TarEntry(modules.computeIfAbsent(module, key -> new ArrayList<>()), in.getByteCount(), size);
+          gradleReports.put(module, () -> cursor.open(entry));
+          IOUtils.skipFully(in, size);
+        } else {
+          IOUtils.skipFully(in, size);
+        }
+        IOUtils.skipFully(in, (TAR_BLOCK - size % TAR_BLOCK) % TAR_BLOCK);
+      }
+    }
+    return new ReportArchive(reports, gradleReports, cursor);
+  }
+
+  /**
+   * Returns the reports found in the archive by the path of their module relative to the root of the archive. The reports of the root module are mapped to an empty String. The modules are in the
+   * order of their first report in the archive, the reports of a module are ordered by their kind.
+   */
+  public Map<String, List<XmlReportFile>> getReports() {
+    return reports;
+  }
+
+  /**
+   * Returns the reports of the Gradle versions plugin found in the archive by the path of their module, see {@link #getReports()}.
+   */
+  public Map<String, GradleReportFile> getGradleReports() {
+    return gradleReports;
+  }
+
+  /**
+   * Returns the number of bytes of reports read from a tar.gz which are held in memory until they are opened.
+   */
+  long getBufferedBytes() {
+    return closeable instanceof TarCursor ? ((TarCursor) closeable).getBufferedBytes() : 0;
+  }
+
+  @Override
+  public void close() throws IOException {
+    closeable.close();
+  }
+
+  @CheckForNull
+  private static ReportKind kind(String path, Map<ReportKind, String> suffixes) {
+    for (Entry<ReportKind, String> suffix : suffixes.entrySet()) {
+      if (module(path, suffix.getValue()) != null) {
+        return suffix.getKey();
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns the path of the module of a report or <code>null</code> if the given path does not denote a report.
+   */
+  static String module(String path, String suffix) {
+    String normalized = normalize(path);
+    if (normalized.equals(suffix)) {
+      return "";
+    } else if (normalized.endsWith("/" + suffix)) {
+      return normalized.substring(0, normalized.length() - suffix.length() - 1);
+    }
+    return null;
+  }
+
+  /**
+   * Normalizes a path to the form used for the keys of {@link #getReports()}: separated by <code>/</code> without leading or trailing separators.
+   */
+  public static String normalize(String path) {
+    String normalized = path.replace('\\', '/');
+    while (normalized.startsWith("/") || normalized.startsWith("./")) {
+      normalized = normalized.substring(normalized.startsWith("/") ? 1 : 2);
+    }
+    while (normalized.endsWith("/")) {
+      normalized = normalized.substring(0, normalized.length() - 1);
+    }
+    return normalized;
+  }
+
+  private static boolean readBlock(InputStream in, byte[] block) throws IOException {
+    int read = IOUtils.read(in, block);
+    if (read == 0) {
+      return false;
+    } else if (read < block.length) {
+      throw new EOFException("Unexpected end of tar archive");
+    }
+    return true;
+  }
+
+  private static byte[] read(InputStream in, long size) throws IOException {
+    if (size > Integer.MAX_VALUE) {
+      throw new IOException("Tar entry too large: " + size);
+    }
+    ByteArrayOutputStream out = new ByteArrayOutputStream((int) size);
+    if (IOUtils.copyLarge(in, out, 0, size) < size) {
+      throw new EOFException("Unexpected end of tar archive");
+    }
+    return out.toByteArray();
+  }
+
+  private static String tarName(byte[] header) {
+    String name = trimNul(new String(header, 0, 100, StandardCharsets.UTF_8));
+    if (header[257] == 'u' && header[258] == 's' && header[259] == 't' && header[260] == 'a' && header[261] == 'r') {
+      String prefix = trimNul(new String(header, 345, 155, StandardCharsets.UTF_8));
+      if (!prefix.isEmpty()) {
+        return prefix + "/" + name;
+      }
+    }
+    return name;
+  }
+
+  /**
+   * Returns the path of a pax extended header or <code>null</code> if not present. Records are formatted as <code>"%d %s=%s\n", length, keyword, value</code>.
+   */
+  private static String paxPath(byte[] content) {
+    String headers = new String(content, StandardCharsets.UTF_8);
+    for (String record : headers.split("\n")) {
+      int space = record.indexOf(' ');
+      if (space >= 0 && record.startsWith("path=", space + 1)) {
+        return record.substring(space + 1 + "path=".length());
+      }
+    }
+    return null;
+  }
+
+  private static long parseOctal(byte[] header, int offset, int length) {
+    int index = offset;
+    int end = offset + length;
+    while (index < end && (header[index] == ' ' || header[index] == 0)) {
+      index++;
+    }
+    long value = 0;
+    while (index < end && header[index] >= '0' && header[index] <= '7') {
+      value = value * 8 + (header[index] - '0');
+      index++;
+    }
+    return value;
+  }
+
+  private static String trimNul(String value) {
+    int end = value.indexOf(0);
+    return end >= 0 ? value.substring(0, end) : value;
+  }
+
+  /**
+   * A report within the archive. The content is opened by the given report which does not know the kind of the report.
+   */
+  private static final class Report implements XmlReportFile {
+
+    private final ReportKind kind;
+    private final XmlReportFile content;
+
+    private Report(ReportKind kind, XmlReportFile content) {
+      this.kind = kind;
+      this.content = content;
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+      return content.getInputStream();
+    }
+
+    @Override
+    public ReportKind getKind() {
+      return kind;
+    }
+  }
+
+  /**
+   * The position of a report within the decompressed tar. The reports of a module are read together, as the reports of a module are usually adjacent in the archive but are not opened in the
+   * order of the archive.
+   */
+  private static final class TarEntry {
+
+    private final List<TarEntry> module;
+    private final long offset;
+    private final long size;
+    private byte[] content;
+
+    private TarEntry(List<TarEntry> module, long offset, long size) {
+      this.module = module;
+      this.offset = offset;
+      this.size = size;
+      module.add(this);
+    }
+  }
+
+  /**
+   * Reads the reports of a tar.gz on demand. The decompressed stream is kept open and only read forward as long as the reports are opened in the order of the archive, otherwise the archive is
+   * read again from the start.
+   */
+  private static final class TarCursor implements Closeable {
+
+    private final Path archive;
+    private InputStream in;
+    private long position;
+    private long buffered;
+
+    private TarCursor(Path archive) {
+      this.archive = archive;
+    }
+
+    synchronized InputStream open(TarEntry entry) throws IOException {
+      if (entry.content == null) {
+        for (TarEntry report : entry.module) {
+          if (report.content == null) {
+            report.content = read(report);
+            buffered += report.size;
+          }
+        }
+      }
+      byte[] content = entry.content;
+      entry.content = null;
+      buffered -= entry.size;
+      return new ByteArrayInputStream(content);
+    }
+
+    private byte[] read(TarEntry entry) throws IOException {
+      if (in == null || entry.offset < position) {
+        close();
+        in = new GZIPInputStream(Files.newInputStream(archive), BUFFER_SIZE);
+        position = 0;
+      }
+      IOUtils.skipFully(in, entry.offset - position);
+      byte[] content = ReportArchive.read(in, entry.size);
+      position = entry.offset + entry.size;
+      return content;
+    }
+
+    synchronized long getBufferedBytes() {
+      return buffered;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+      if (in != null) {
+        in.close();
+        in = null;
+      }
+    }
+  }
+}
@@ -0,0 +1,135 @@
+/*
+ * mathan-dependency-updates-sonar-plugin
+ * Copyright (c) 2019 Matthias Hanisch
+ * matthias@mathan.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mathan.sonar.dependencyupdates.report;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+/**
+ * The kinds of XML reports written by the versions-maven-plugin. All kinds share the structure of an entry with current version, available updates and status, they only differ in the names of the
+ * elements and the file name of the report.
+ */
+public enum ReportKind {
+  DEPENDENCY("dependency", "dependency-updates-report.xml", "DependencyUpdatesReport", "dependencyManagements", "dependencyManagement", "dependencies", "dependency", "jar"),
+  PLUGIN("plugin", "plugin-updates-report.xml", "PluginUpdatesReport", "pluginManagements", "pluginManagement", "plugins", "plugin", "maven-plugin"),
+  PROPERTY("property", "property-updates-report.xml", "PropertyUpdatesReport", null, null, "properties", "property", "pom");
+
+  private final String key;
+  private final String fileName;
+  private final String rootElement;
+  private final String managementsElement;
+  private final String managementElement;
+  private final String entriesElement;
+  private final String entryElement;
+  private final String defaultType;
+
+  ReportKind(String key, String fileName, String rootElement, @Nullable String managementsElement, @Nullable String managementElement, String entriesElement, String entryElement,
+      String defaultType) {
+    this.key = key;
+    this.fileName = fileName;
+    this.rootElement = rootElement;
+    this.managementsElement = managementsElement;
+    this.managementElement = managementElement;
+    this.entriesElement = entriesElement;
+    this.entryElement = entryElement;
+    this.defaultType = defaultType;
+  }
+
+  /**
+   * Returns the key of this kind as used in the configuration and in issue messages, e.g. <code>plugin</code>.
+   */
+  public String getKey() {
+    return key;
+  }
+
+  public String getFileName() {
+    return fileName;
+  }
+
+  public String getRootElement() {
+    return rootElement;
+  }
+
+  /**
+   * Returns the name of the element containing the managed entries or <code>null</code> if this kind of report does not distinguish managed entries.
+   */
+  @CheckForNull
+  public String getManagementsElement() {
+    return managementsElement;
+  }
+
+  @CheckForNull
+  public String getManagementElement() {
+    return managementElement;
+  }
+
+  public String getEntriesElement() {
+    return entriesElement;
+  }
+
+  public String getEntryElement() {
+    return entryElement;
+  }
+
+  /**
+   * Returns the artifact type used for entries without a type. Only the dependency report contains the type of an entry.
+   */
+  public String getDefaultType() {
+    return defaultType;
+  }
+
+  /**
+   * Returns the path of the report of this kind. The reports are written to the same directory, so the path is derived from the path of the dependency-updates-report.
+   *
+   * @param dependencyReportPath The configured path of the dependency-updates-report.
+   */
+  public String reportPath(String dependencyReportPath) {
+    if (this == DEPENDENCY) {
+      return dependencyReportPath;
+    }
+    int separator = Math.max(dependencyReportPath.lastIndexOf('/'), dependencyReportPath.lastIndexOf('\\'));
+    return dependencyReportPath.substring(0, separator + 1) + fileName;
+  }
+
+  /**
+   * Returns the kind with the given key or <code>null</code> if there is none.
+   */
+  @CheckForNull
+  public static ReportKind fromKey(String key) {
+    for (ReportKind kind : values()) {
+      if (kind.key.equals(key)) {
+        return kind;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns the kind of report with the given root element or <code>null</code> if the root element is unknown.
+   */
+  @CheckForNull
+  public static ReportKind fromRootElement(String rootElement) {
+    for (ReportKind kind : values()) {
+      if (kind.rootElement.equals(rootElement)) {
+        return kind;
+      }
+    }
+    return null;
+  }
+}
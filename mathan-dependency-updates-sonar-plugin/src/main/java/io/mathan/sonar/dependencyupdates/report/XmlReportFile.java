@@ -18,10 +18,27 @@
 
 package io.mathan.sonar.dependencyupdates.report;
 
+import edu.umd.cs.findbugs.annotations.CheckForNull;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
 
 public interface XmlReportFile {
 
   InputStream getInputStream() throws IOException;
+
+  /**
+   * Returns the path of the report if it is a file in the local file system. Only reports with a path can be memory mapped for parsing in parallel.
+   */
+  @CheckForNull
+  default Path getPath() {
+    return null;
+  }
+
+  /**
+   * Returns the kind of the report as expected by its file name. The parser determines the kind from the root element of the report and uses this kind only if the root element is unknown.
+   */
+  default ReportKind getKind() {
+    return ReportKind.DEPENDENCY;
+  }
 }
@@ -26,7 +26,12 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.filefilter.DirectoryFileFilter;
@@ -42,15 +47,27 @@ public class XmlReportFileImpl implements XmlReportFile {
   private static final Logger LOGGER = Loggers.get(XmlReportFileImpl.class);
 
   private final File report;
+  private final ReportKind kind;
 
-  private XmlReportFileImpl(File report) {
+  private XmlReportFileImpl(File report, ReportKind kind) {
     this.report = report;
+    this.kind = kind;
   }
 
   public InputStream getInputStream() throws IOException {
     return Files.newInputStream(this.report.toPath());
   }
 
+  @Override
+  public Path getPath() {
+    return this.report.toPath();
+  }
+
+  @Override
+  public ReportKind getKind() {
+    return kind;
+  }
+
   @CheckForNull
   private static File checkReport(@Nullable File report) {
     if (report != null) {
@@ -82,12 +99,59 @@ public class XmlReportFileImpl implements XmlReportFile {
     if (report == null) {
       throw new FileNotFoundException("XML-Dependency-Updates report does not exist.");
     }
-    return new XmlReportFileImpl(report);
+    return new XmlReportFileImpl(report, ReportKind.DEPENDENCY);
+  }
+
+  /**
+   * Returns a {@link XmlReportFile} for a dependency-updates-report if it exists at the configured path. Other than {@link #getReport(Configuration, FileSystem, PathResolver)} only the file
+   * attributes are checked, so this can be used as a cheap precheck for modules without a report.
+   *
+   * @return The report or <code>null</code> if there is no readable report at the configured path.
+   */
+  @CheckForNull
+  public static XmlReportFile findReport(Configuration config, FileSystem fileSystem, PathResolver pathResolver) {
+    List<XmlReportFile> reports = findReports(config, fileSystem, pathResolver, EnumSet.of(ReportKind.DEPENDENCY));
+    return reports.isEmpty() ? null : reports.get(0);
+  }
+
+  /**
+   * Returns the reports of the given kinds existing for a module. The reports of all kinds are expected in the directory of the configured dependency-updates-report, see
+   * {@link ReportKind#reportPath(String)}. As for {@link #findReport(Configuration, FileSystem, PathResolver)} only the file attributes are checked.
+   *
+   * @return The reports in the order of the kinds. The list is empty if there is no readable report for any of the kinds.
+   */
+  public static List<XmlReportFile> findReports(Configuration config, FileSystem fileSystem, PathResolver pathResolver, Set<ReportKind> kinds) {
+    return findReports(config, kinds, path -> pathResolver.relativeFile(fileSystem.baseDir(), path));
+  }
+
+  /**
+   * Returns the reports of the given kinds existing for the module in the given directory. This is used outside of a scanner run where there is no {@link FileSystem}, see
+   * {@link #findReports(Configuration, FileSystem, PathResolver, Set)}.
+   */
+  public static List<XmlReportFile> findReports(Configuration config, File baseDir, Set<ReportKind> kinds) {
+    return findReports(config, kinds, path -> {
+      File file = new File(path);
+      return file.isAbsolute() ? file : new File(baseDir, path);
+    });
+  }
+
+  private static List<XmlReportFile> findReports(Configuration config, Set<ReportKind> kinds, Function<String, File> resolver) {
+    String path = config.get(Constants.CONFIG_REPORT_PATH_PROPERTY).orElse(Constants.CONFIG_REPORT_PATH_DEFAULT);
+    List<XmlReportFile> reports = new ArrayList<>(kinds.size());
+    for (ReportKind kind : kinds) {
+      File report = resolver.apply(kind.reportPath(path));
+      if (report.isFile() && report.canRead()) {
+        reports.add(new XmlReportFileImpl(report, kind));
+      } else {
+        LOGGER.debug("No Dependency-Updates {} report found at {}", "XML", report.getAbsolutePath());
+      }
+    }
+    return reports;
   }
 
   public static List<XmlReportFile> getReports(FileSystem fileSystem) {
-    return FileUtils.listFiles(fileSystem.baseDir(), new NameFileFilter("dependency-updates-report.xml"), DirectoryFileFilter.DIRECTORY).stream().map(file -> new XmlReportFileImpl(file)).collect(
-        Collectors.toList());
+    return FileUtils.listFiles(fileSystem.baseDir(), new NameFileFilter("dependency-updates-report.xml"), DirectoryFileFilter.DIRECTORY).stream()
+        .map(file -> new XmlReportFileImpl(file, ReportKind.DEPENDENCY)).collect(Collectors.toList());
   }
 
 }
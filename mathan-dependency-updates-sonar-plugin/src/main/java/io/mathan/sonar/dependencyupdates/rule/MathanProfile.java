@@ -27,7 +27,9 @@ public class MathanProfile implements BuiltInQualityProfilesDefinition {
   public void define(Context context) {
     NewBuiltInQualityProfile dependencyCheckWay = context.createBuiltInQualityProfile("mathan", Constants.LANGUAGE_KEY);
     dependencyCheckWay.setDefault(true);
-    dependencyCheckWay.activateRule(Constants.REPOSITORY_KEY, Constants.RULE_KEY);
+    dependencyCheckWay.activateRule(Constants.REPOSITORY_KEY, Constants.RULE_KEY_PATCH);
+    dependencyCheckWay.activateRule(Constants.REPOSITORY_KEY, Constants.RULE_KEY_MINOR);
+    dependencyCheckWay.activateRule(Constants.REPOSITORY_KEY, Constants.RULE_KEY_MAJOR);
     dependencyCheckWay.done();
   }
 }
@@ -26,23 +26,36 @@ import org.sonar.api.server.rule.RulesDefinition;
 
 public class UsingOutdatedDepencencies implements RulesDefinition {
 
+  private static final String DESCRIPTION = "<p>Dependencies, such as libraries, frameworks, and other software modules, will be almost outdated after a period of time. "
+      + "In general dependencies should be updated on a regular basis. Applications using outdated dependencies will more likely be affected by vulnerabilities. "
+      + "On the other hand applications updating their dependencies profit from vulnerabilities fixes faster.</p>";
+
   @Override
   @ParametersAreNonnullByDefault
   public void define(Context context) {
     NewRepository repo = context.createRepository(Constants.REPOSITORY_KEY, Constants.LANGUAGE_KEY);
     repo.setName("UsingOutdatedDependencies");
-    NewRule rule = repo.createRule(Constants.RULE_KEY);
+    NewRule rule = createRule(repo, Constants.RULE_KEY, "Using outdated dependencies", Severity.MAJOR);
+    rule.setStatus(RuleStatus.DEPRECATED);
+    rule.setHtmlDescription(DESCRIPTION + "<p>This rule reports all kinds of updates and is deprecated. Use the rules for patches, minor and major updates instead, so updates not of "
+        + "interest can be deactivated separately.</p>");
+    createRule(repo, Constants.RULE_KEY_PATCH, "Using dependencies with available patches", Severity.MINOR)
+        .setHtmlDescription(DESCRIPTION + "<p>This rule reports dependencies with a patch (incremental update) available.</p>");
+    createRule(repo, Constants.RULE_KEY_MINOR, "Using dependencies with available minor updates", Severity.MAJOR)
+        .setHtmlDescription(DESCRIPTION + "<p>This rule reports dependencies with a minor update available.</p>");
+    createRule(repo, Constants.RULE_KEY_MAJOR, "Using dependencies with available major updates", Severity.CRITICAL)
+        .setHtmlDescription(DESCRIPTION + "<p>This rule reports dependencies with a major update available.</p>");
+    repo.done();
+  }
+
+  private static NewRule createRule(NewRepository repo, String key, String name, String severity) {
+    NewRule rule = repo.createRule(key);
     rule.addTags("security", "vulnerability");
-    rule.setName("Using outdated dependencies");
-    rule.setSeverity(Severity.MAJOR);
+    rule.setName(name);
+    rule.setSeverity(severity);
     rule.setStatus(RuleStatus.READY);
     rule.addOwaspTop10(OwaspTop10.A9);
-
-    String description = "<p>Dependencies, such as libraries, frameworks, and other software modules, will be almost outdated after a period of time. "
-        + "In general dependencies should be updated on a regular basis. Applications using outdated dependencies will more likely be affected by vulnerabilities. "
-        + "On the other hand applications updating their dependencies profit from vulnerabilities fixes faster.</p>";
-    rule.setHtmlDescription(description);
-    repo.done();
+    return rule;
   }
 
-}
\ No newline at end of file
+}
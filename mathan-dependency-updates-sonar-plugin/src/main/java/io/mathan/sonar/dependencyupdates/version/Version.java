@@ -0,0 +1,298 @@
+/*
+ * mathan-dependency-updates-sonar-plugin
+ * Copyright (c) 2019 Matthias Hanisch
+ * matthias@mathan.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mathan.sonar.dependencyupdates.version;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nullable;
+
+/**
+ * A version parsed once into a compact form. Up to three numeric segments (major, minor, patch) are packed into a single <code>long</code>, the remaining part of the version is kept as qualifier.
+ * Comparing two versions does not allocate any objects. A segment too large to be packed, e.g. a date like <code>20210101</code>, is kept as digits and compared without packing instead.
+ *
+ * <p>The ordering follows the ordering known from Maven: numeric segments are compared first, missing segments are treated as <code>0</code>. Versions with a pre-release qualifier (alpha, beta,
+ * milestone, release candidate, snapshot) are ordered before the release, service packs and other qualifiers after it.</p>
+ */
+public final class Version implements Comparable<Version> {
+
+  private static final int MAJOR_BITS = 28;
+  private static final int MINOR_BITS = 18;
+  private static final int PATCH_BITS = 18;
+  private static final long[] MAX_SEGMENT = {(1L << MAJOR_BITS) - 1, (1L << MINOR_BITS) - 1, (1L << PATCH_BITS) - 1};
+
+  private static final int RANK_ALPHA = 1;
+  private static final int RANK_BETA = 2;
+  private static final int RANK_MILESTONE = 3;
+  private static final int RANK_RC = 4;
+  private static final int RANK_SNAPSHOT = 5;
+  private static final int RANK_RELEASE = 6;
+  private static final int RANK_SP = 7;
+  private static final int RANK_OTHER = 8;
+  private static final int RANK_NUMERIC = 9;
+
+  /**
+   * Maximum number of digits of a segment returned as <code>int</code> as is.
+   */
+  private static final int MAX_INT_DIGITS = 9;
+
+  private static final Map<String, Integer> RANKS = new ConcurrentHashMap<>();
+
+  static {
+    RANKS.put("alpha", RANK_ALPHA);
+    RANKS.put("a", RANK_ALPHA);
+    RANKS.put("dev", RANK_ALPHA);
+    RANKS.put("beta", RANK_BETA);
+    RANKS.put("b", RANK_BETA);
+    RANKS.put("milestone", RANK_MILESTONE);
+    RANKS.put("m", RANK_MILESTONE);
+    RANKS.put("ea", RANK_MILESTONE);
+    RANKS.put("preview", RANK_MILESTONE);
+    RANKS.put("rc", RANK_RC);
+    RANKS.put("cr", RANK_RC);
+    RANKS.put("snapshot", RANK_SNAPSHOT);
+    RANKS.put("", RANK_RELEASE);
+    RANKS.put("ga", RANK_RELEASE);
+    RANKS.put("final", RANK_RELEASE);
+    RANKS.put("release", RANK_RELEASE);
+    RANKS.put("sp", RANK_SP);
+  }
+
+  private final String value;
+  private final long numbers;
+  private final int segments;
+  private final int rank;
+  private final int qualifierNumber;
+  private final String qualifier;
+  /**
+   * The digits of the numeric segments without leading zeros if a segment is too large to be packed, <code>null</code> otherwise.
+   */
+  private final String[] digits;
+
+  private Version(String value, long numbers, int segments, int rank, int qualifierNumber, String qualifier, @Nullable String[] digits) {
+    this.value = value;
+    this.numbers = numbers;
+    this.segments = segments;
+    this.rank = rank;
+    this.qualifierNumber = qualifierNumber;
+    this.qualifier = qualifier;
+    this.digits = digits;
+  }
+
+  /**
+   * Parses the given version. Parsing never fails, a version not starting with a number is treated as version <code>0</code> with a qualifier.
+   */
+  public static Version parse(String value) {
+    int length = value.length();
+    int index = 0;
+    int segments = 0;
+    long numbers = 0;
+    String[] digits = null;
+    while (segments < MAX_SEGMENT.length && index < length && isDigit(value.charAt(index))) {
+      int start = index;
+      long number = 0;
+      while (index < length && isDigit(value.charAt(index))) {
+        if (number <= MAX_SEGMENT[segments]) {
+          number = number * 10 + value.charAt(index) - '0';
+        }
+        index++;
+      }
+      if (digits == null && number > MAX_SEGMENT[segments]) {
+        // too large to be packed, all numeric segments are kept as digits
+        digits = new String[MAX_SEGMENT.length];
+        Arrays.fill(digits, "0");
+        for (int i = 0; i < segments; i++) {
+          digits[i] = Long.toString(segment(numbers, i));
+        }
+      }
+      if (digits != null) {
+        digits[segments] = digits(value, start, index);
+      } else {
+        numbers |= number << shift(segments);
+      }
+      segments++;
+      if (segments < MAX_SEGMENT.length && index + 1 < length && value.charAt(index) == '.' && isDigit(value.charAt(index + 1))) {
+        index++;
+      } else {
+        break;
+      }
+    }
+    while (index < length && isSeparator(value.charAt(index))) {
+      index++;
+    }
+    String qualifier = value.substring(index).toLowerCase(Locale.ROOT);
+    int wordEnd = 0;
+    while (wordEnd < qualifier.length() && Character.isLetter(qualifier.charAt(wordEnd))) {
+      wordEnd++;
+    }
+    int numberStart = wordEnd;
+    while (numberStart < qualifier.length() && isSeparator(qualifier.charAt(numberStart))) {
+      numberStart++;
+    }
+    int numberEnd = numberStart;
+    int qualifierNumber = 0;
+    while (numberEnd < qualifier.length() && isDigit(qualifier.charAt(numberEnd)) && qualifierNumber < Integer.MAX_VALUE / 10) {
+      qualifierNumber = qualifierNumber * 10 + qualifier.charAt(numberEnd) - '0';
+      numberEnd++;
+    }
+    int rank;
+    if (wordEnd == 0 && numberEnd > 0) {
+      rank = RANK_NUMERIC;
+    } else {
+      rank = RANKS.getOrDefault(qualifier.substring(0, wordEnd), RANK_OTHER);
+    }
+    return new Version(value, numbers, segments, rank, qualifierNumber, qualifier, digits);
+  }
+
+  /**
+   * Returns the digits of a segment without leading zeros.
+   */
+  private static String digits(String value, int start, int end) {
+    int first = start;
+    while (first < end - 1 && value.charAt(first) == '0') {
+      first++;
+    }
+    return value.substring(first, end);
+  }
+
+  private static long segment(long numbers, int segment) {
+    return (numbers >>> shift(segment)) & MAX_SEGMENT[segment];
+  }
+
+  private static int shift(int segment) {
+    switch (segment) {
+      case 0:
+        return MINOR_BITS + PATCH_BITS;
+      case 1:
+        return PATCH_BITS;
+      default:
+        return 0;
+    }
+  }
+
+  private static boolean isDigit(char c) {
+    return c >= '0' && c <= '9';
+  }
+
+  private static boolean isSeparator(char c) {
+    return c == '.' || c == '-' || c == '_';
+  }
+
+  public int getMajor() {
+    return getSegment(0);
+  }
+
+  public int getMinor() {
+    return getSegment(1);
+  }
+
+  public int getPatch() {
+    return getSegment(2);
+  }
+
+  /**
+   * Returns a numeric segment, limited to {@link Integer#MAX_VALUE} if it is too large.
+   */
+  private int getSegment(int segment) {
+    if (digits == null) {
+      return (int) segment(numbers, segment);
+    }
+    return digits[segment].length() > MAX_INT_DIGITS ? Integer.MAX_VALUE : Integer.parseInt(digits[segment]);
+  }
+
+  private String getDigits(int segment) {
+    return digits != null ? digits[segment] : Long.toString(segment(numbers, segment));
+  }
+
+  /**
+   * Returns the number of numeric segments found at the beginning of the version, e.g. <code>2</code> for <code>1.2-beta</code>.
+   */
+  public int getNumericSegments() {
+    return segments;
+  }
+
+  /**
+   * Returns the qualifier of the version in lower case, e.g. <code>beta-1</code> for <code>1.2-BETA-1</code> or an empty String for a release.
+   */
+  public String getQualifier() {
+    return qualifier;
+  }
+
+  /**
+   * Checks if the version is an alpha, beta, milestone, release candidate or snapshot version.
+   */
+  public boolean isPreRelease() {
+    return rank < RANK_RELEASE;
+  }
+
+  @Override
+  public int compareTo(Version other) {
+    int result = digits == null && other.digits == null ? Long.compareUnsigned(numbers, other.numbers) : compareDigits(other);
+    if (result == 0) {
+      result = Integer.compare(rank, other.rank);
+    }
+    if (result == 0) {
+      result = Integer.compare(qualifierNumber, other.qualifierNumber);
+    }
+    if (result == 0) {
+      result = qualifier.compareTo(other.qualifier);
+    }
+    return result;
+  }
+
+  /**
+   * Compares the numeric segments if one of the versions has a segment too large to be packed. Digits without leading zeros are ordered by their number of digits first.
+   */
+  private int compareDigits(Version other) {
+    for (int i = 0; i < MAX_SEGMENT.length; i++) {
+      String first = getDigits(i);
+      String second = other.getDigits(i);
+      int result = first.length() != second.length() ? Integer.compare(first.length(), second.length()) : first.compareTo(second);
+      if (result != 0) {
+        return result;
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Two versions are equal if they are ordered equally, e.g. <code>1.0</code> and <code>1.0.0</code>.
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    return compareTo((Version) o) == 0;
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * (31 * Long.hashCode(numbers) + Arrays.hashCode(digits)) + qualifier.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return value;
+  }
+}
@@ -0,0 +1,139 @@
+/*
+ * mathan-dependency-updates-sonar-plugin
+ * Copyright (c) 2019 Matthias Hanisch
+ * matthias@mathan.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mathan.sonar.dependencyupdates.version;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+
+/**
+ * A version range using the syntax known from Maven, e.g. <code>[1.0,2.0)</code>, <code>(,1.0]</code>, <code>[1.2.3]</code> or <code>[1.0,2.0),[3.0,)</code>.
+ */
+public final class VersionRange {
+
+  private final List<Restriction> restrictions;
+
+  private VersionRange(List<Restriction> restrictions) {
+    this.restrictions = restrictions;
+  }
+
+  /**
+   * Parses the given range specification.
+   *
+   * @throws IllegalArgumentException If the specification is not a valid version range.
+   */
+  public static VersionRange parse(String spec) {
+    List<Restriction> restrictions = new ArrayList<>();
+    String remaining = spec.trim();
+    while (!remaining.isEmpty()) {
+      char start = remaining.charAt(0);
+      if (start != '[' && start != '(') {
+        throw new IllegalArgumentException("Invalid version range " + spec);
+      }
+      int end = indexOfEnd(remaining);
+      if (end < 0) {
+        throw new IllegalArgumentException("Unbounded version range " + spec);
+      }
+      restrictions.add(restriction(spec, remaining.substring(1, end), start == '[', remaining.charAt(end) == ']'));
+      remaining = remaining.substring(end + 1).trim();
+      if (remaining.startsWith(",")) {
+        remaining = remaining.substring(1).trim();
+      }
+    }
+    if (restrictions.isEmpty()) {
+      throw new IllegalArgumentException("Empty version range " + spec);
+    }
+    return new VersionRange(restrictions);
+  }
+
+  private static int indexOfEnd(String value) {
+    for (int i = 1; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == ']' || c == ')') {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static Restriction restriction(String spec, String bounds, boolean lowerInclusive, boolean upperInclusive) {
+    int comma = bounds.indexOf(',');
+    if (comma < 0) {
+      if (!lowerInclusive || !upperInclusive || bounds.trim().isEmpty()) {
+        throw new IllegalArgumentException("Single version must be surrounded by [] in " + spec);
+      }
+      Version version = Version.parse(bounds.trim());
+      return new Restriction(version, true, version, true);
+    }
+    Version lower = version(bounds.substring(0, comma));
+    Version upper = version(bounds.substring(comma + 1));
+    if (lower != null && upper != null && lower.compareTo(upper) > 0) {
+      throw new IllegalArgumentException("Lower bound is greater than upper bound in " + spec);
+    }
+    return new Restriction(lower, lowerInclusive, upper, upperInclusive);
+  }
+
+  @CheckForNull
+  private static Version version(String bound) {
+    String trimmed = bound.trim();
+    return trimmed.isEmpty() ? null : Version.parse(trimmed);
+  }
+
+  /**
+   * Checks if the given version is contained in any of the restrictions of this range.
+   */
+  public boolean contains(Version version) {
+    for (Restriction restriction : restrictions) {
+      if (restriction.contains(version)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static final class Restriction {
+
+    private final Version lower;
+    private final boolean lowerInclusive;
+    private final Version upper;
+    private final boolean upperInclusive;
+
+    Restriction(@Nullable Version lower, boolean lowerInclusive, @Nullable Version upper, boolean upperInclusive) {
+      this.lower = lower;
+      this.lowerInclusive = lowerInclusive;
+      this.upper = upper;
+      this.upperInclusive = upperInclusive;
+    }
+
+    boolean contains(Version version) {
+      if (lower != null) {
+        int result = lower.compareTo(version);
+        if (result > 0 || (result == 0 && !lowerInclusive)) {
+          return false;
+        }
+      }
+      if (upper != null) {
+        int result = upper.compareTo(version);
+        return result > 0 || (result == 0 && upperInclusive);
+      }
+      return true;
+    }
+  }
+}
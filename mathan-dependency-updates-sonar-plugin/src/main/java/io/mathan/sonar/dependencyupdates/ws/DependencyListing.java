@@ -0,0 +1,275 @@
+/*
+ * mathan-dependency-updates-sonar-plugin
+ * Copyright (c) 2019 Matthias Hanisch
+ * matthias@mathan.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mathan.sonar.dependencyupdates.ws;
+
+import io.mathan.sonar.dependencyupdates.CardinalitySketch;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+
+/**
+ * The dependencies of a component decoded from the measure {@link io.mathan.sonar.dependencyupdates.Metrics#KEY_DEPENDENCIES_DATA} of an analysis. The dependencies are decoded once and kept
+ * sorted by groupId and artifactId. The order by missed updates is created when requested first.
+ */
+final class DependencyListing {
+
+  /**
+   * Estimated number of bytes used by an entry apart from its strings.
+   */
+  private static final int ENTRY_OVERHEAD = 96;
+  private static final int LISTING_OVERHEAD = 128;
+
+  private final List<Entry> entries;
+  private final boolean compact;
+  private final int estimate;
+  private final long size;
+  private List<Entry> byMissed;
+
+  private DependencyListing(List<Entry> entries, boolean compact, int estimate) {
+    this.entries = entries;
+    this.compact = compact;
+    this.estimate = estimate;
+    long bytes = LISTING_OVERHEAD;
+    for (Entry entry : entries) {
+      bytes += entry.size();
+    }
+    // the entries may be kept in a second order
+    this.size = bytes + (long) entries.size() * Integer.BYTES;
+  }
+
+  /**
+   * Decodes the dependencies from the value of the measure. A measure of compact mode containing a {@link CardinalitySketch} does not contain the dependencies but their estimated number only.
+   */
+  static DependencyListing decode(@Nullable String data) {
+    if (data == null || data.isEmpty()) {
+      return new DependencyListing(Collections.emptyList(), false, 0);
+    }
+    if (CardinalitySketch.isSketch(data)) {
+      return new DependencyListing(Collections.emptyList(), true, CardinalitySketch.decode(data).estimate());
+    }
+    List<Entry> entries = new ArrayList<>();
+    for (String dataString : data.split(",")) {
+      Entry entry = Entry.decode(dataString);
+      if (entry != null) {
+        entries.add(entry);
+      }
+    }
+    entries.sort(Sort.GROUP_ID.comparator);
+    return new DependencyListing(Collections.unmodifiableList(entries), false, entries.size());
+  }
+
+  /**
+   * Checks if the dependencies are not known as the measure was compacted.
+   */
+  boolean isCompact() {
+    return compact;
+  }
+
+  /**
+   * Returns the number of dependencies. For a compacted measure this is an estimate.
+   */
+  int getEstimate() {
+    return estimate;
+  }
+
+  /**
+   * Returns the estimated number of bytes used by this listing.
+   */
+  long size() {
+    return size;
+  }
+
+  /**
+   * Returns the dependencies matching the given filters in the given order.
+   */
+  List<Entry> query(Availability availability, @Nullable String groupId, int minMissed, Sort sort, boolean ascending) {
+    List<Entry> sorted = sort == Sort.MISSED ? byMissed() : entries;
+    List<Entry> result = new ArrayList<>();
+    for (Entry entry : sorted) {
+      if (availability.matches(entry) && (groupId == null || entry.groupId.startsWith(groupId)) && entry.getMissed() >= minMissed) {
+        result.add(entry);
+      }
+    }
+    if (!ascending) {
+      Collections.reverse(result);
+    }
+    return result;
+  }
+
+  private synchronized List<Entry> byMissed() {
+    if (byMissed == null) {
+      List<Entry> sorted = new ArrayList<>(entries);
+      sorted.sort(Sort.MISSED.comparator);
+      byMissed = Collections.unmodifiableList(sorted);
+    }
+    return byMissed;
+  }
+
+  enum Availability {
+    ANY("any"),
+    UP_TO_DATE("upToDate"),
+    PATCH("patch"),
+    UPGRADE("upgrade"),
+    OUTDATED("outdated");
+
+    private final String key;
+
+    Availability(String key) {
+      this.key = key;
+    }
+
+    String getKey() {
+      return key;
+    }
+
+    boolean matches(Entry entry) {
+      switch (this) {
+        case UP_TO_DATE:
+          return entry.getMissed() == 0;
+        case PATCH:
+          return entry.patches > 0;
+        case UPGRADE:
+          return entry.upgrades > 0;
+        case OUTDATED:
+          return entry.getMissed() > 0;
+        default:
+          return true;
+      }
+    }
+
+    @CheckForNull
+    static Availability fromKey(String key) {
+      return Arrays.stream(values()).filter(availability -> availability.key.equals(key)).findFirst().orElse(null);
+    }
+  }
+
+  enum Sort {
+    GROUP_ID("groupId", Comparator.comparing(Entry::getGroupId).thenComparing(Entry::getArtifactId).thenComparing(Entry::getKind).thenComparing(Entry::getVersion)),
+    MISSED("missed", Comparator.comparingInt(Entry::getMissed).thenComparing(GROUP_ID.comparator));
+
+    private final String key;
+    private final Comparator<Entry> comparator;
+
+    Sort(String key, Comparator<Entry> comparator) {
+      this.key = key;
+      this.comparator = comparator;
+    }
+
+    String getKey() {
+      return key;
+    }
+
+    @CheckForNull
+    static Sort fromKey(String key) {
+      return Arrays.stream(values()).filter(sort -> sort.key.equals(key)).findFirst().orElse(null);
+    }
+  }
+
+  /**
+   * A dependency decoded from its data string, see {@link io.mathan.sonar.dependencyupdates.parser.Dependency#toDataString()}.
+   */
+  static final class Entry {
+
+    private final String kind;
+    private final String groupId;
+    private final String artifactId;
+    private final String version;
+    private final int patches;
+    private final int upgrades;
+
+    private Entry(String kind, String groupId, String artifactId, String version, int patches, int upgrades) {
+      this.kind = kind;
+      this.groupId = groupId;
+      this.artifactId = artifactId;
+      this.version = version;
+      this.patches = patches;
+      this.upgrades = upgrades;
+    }
+
+    /**
+     * Decodes an entry in format <i>[kind/]groupId</i>:<i>artifactId</i>:<i>version</i>:<i>updates</i>:<i>upgrades</i>.
+     *
+     * @return The entry or <code>null</code> if the data string is invalid.
+     */
+    @CheckForNull
+    static Entry decode(String dataString) {
+      String kind = "dependency";
+      String coordinates = dataString;
+      int slash = dataString.indexOf('/');
+      if (slash > 0 && slash < dataString.indexOf(':')) {
+        kind = dataString.substring(0, slash);
+        coordinates = dataString.substring(slash + 1);
+      }
+      String[] parts = coordinates.split(":");
+      if (parts.length < 5) {
+        return null;
+      }
+      try {
+        int patches = Integer.parseInt(parts[parts.length - 2]);
+        int upgrades = Integer.parseInt(parts[parts.length - 1]);
+        String version = String.join(":", Arrays.asList(parts).subList(2, parts.length - 2));
+        return new Entry(kind, parts[0], parts[1], version, patches, upgrades);
+      } catch (NumberFormatException e) {
+        return null;
+      }
+    }
+
+    String getKind() {
+      return kind;
+    }
+
+    String getGroupId() {
+      return groupId;
+    }
+
+    String getArtifactId() {
+      return artifactId;
+    }
+
+    String getVersion() {
+      return version;
+    }
+
+    /**
+     * Returns the number of patches missed.
+     */
+    int getPatches() {
+      return patches;
+    }
+
+    /**
+     * Returns the number of upgrades missed.
+     */
+    int getUpgrades() {
+      return upgrades;
+    }
+
+    int getMissed() {
+      return patches + upgrades;
+    }
+
+    private long size() {
+      return ENTRY_OVERHEAD + 2L * (kind.length() + groupId.length() + artifactId.length() + version.length());
+    }
+  }
+}
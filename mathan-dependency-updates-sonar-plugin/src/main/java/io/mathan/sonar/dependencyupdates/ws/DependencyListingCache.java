@@ -0,0 +1,80 @@
+/*
+ * mathan-dependency-updates-sonar-plugin
+ * Copyright (c) 2019 Matthias Hanisch
+ * matthias@mathan.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mathan.sonar.dependencyupdates.ws;
+
+import io.mathan.sonar.dependencyupdates.Constants;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.annotation.CheckForNull;
+import org.sonar.api.config.Configuration;
+import org.sonar.api.server.ServerSide;
+
+/**
+ * Least recently used cache of the decoded dependencies of analyses. The cache is bounded by the estimated memory used by the listings instead of their number, as the dependencies of a single large
+ * project may use more memory than those of hundreds of small ones. A listing is never updated but replaced by the listing of a later analysis with a key of its own.
+ */
+@ServerSide
+public class DependencyListingCache {
+
+  private static final long MEGABYTE = 1024L * 1024L;
+
+  private final long maxSize;
+  private final LinkedHashMap<String, DependencyListing> listings = new LinkedHashMap<>(16, 0.75f, true);
+  private long size;
+
+  public DependencyListingCache(Configuration configuration) {
+    this(Math.max(0, configuration.getInt(Constants.CONFIG_WS_CACHE_SIZE).orElse(Constants.CONFIG_WS_CACHE_SIZE_DEFAULT)) * MEGABYTE);
+  }
+
+  DependencyListingCache(long maxSize) {
+    this.maxSize = maxSize;
+  }
+
+  @CheckForNull
+  synchronized DependencyListing getIfPresent(String key) {
+    return listings.get(key);
+  }
+
+  /**
+   * Caches the listing of the analysis with the given key. A listing larger than the whole cache is not cached at all.
+   */
+  synchronized void put(String key, DependencyListing listing) {
+    if (listing.size() > maxSize) {
+      return;
+    }
+    DependencyListing previous = listings.put(key, listing);
+    if (previous != null) {
+      size -= previous.size();
+    }
+    size += listing.size();
+    Iterator<Map.Entry<String, DependencyListing>> eldest = listings.entrySet().iterator();
+    while (size > maxSize && eldest.hasNext()) {
+      size -= eldest.next().getValue().size();
+      eldest.remove();
+    }
+  }
+
+  /**
+   * Returns the estimated number of bytes used by the cached listings.
+   */
+  synchronized long size() {
+    return size;
+  }
+}
@@ -0,0 +1,417 @@
+/*
+ * mathan-dependency-updates-sonar-plugin
+ * Copyright (c) 2019 Matthias Hanisch
+ * matthias@mathan.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mathan.sonar.dependencyupdates.ws;
+
+import io.mathan.sonar.dependencyupdates.Metrics;
+import io.mathan.sonar.dependencyupdates.index.ArtifactIndex;
+import io.mathan.sonar.dependencyupdates.parser.JsonReader;
+import io.mathan.sonar.dependencyupdates.report.ReportKind;
+import io.mathan.sonar.dependencyupdates.ws.DependencyListing.Availability;
+import io.mathan.sonar.dependencyupdates.ws.DependencyListing.Entry;
+import io.mathan.sonar.dependencyupdates.ws.DependencyListing.Sort;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.stream.Collectors;
+import javax.annotation.CheckForNull;
+import org.sonar.api.server.ws.LocalConnector;
+import org.sonar.api.server.ws.LocalConnector.LocalResponse;
+import org.sonar.api.server.ws.Request;
+import org.sonar.api.server.ws.Response;
+import org.sonar.api.server.ws.WebService;
+import org.sonar.api.utils.text.JsonWriter;
+
+/**
+ * Web service listing the dependencies of a component without transferring the whole measure {@link Metrics#KEY_DEPENDENCIES_DATA} to the client. The measure is read with the permissions of the
+ * current user, decoded once per analysis and kept in the {@link DependencyListingCache}. Each request filters, sorts and pages the cached dependencies. The projects using an artifact are looked up
+ * in the {@link ArtifactIndex} instead of reading the measures of all projects.
+ */
+public class DependencyUpdatesWs implements WebService {
+
+  static final String CONTROLLER = "api/dependency_updates";
+  static final String ACTION_SEARCH = "search";
+  static final String ACTION_PROJECTS = "projects";
+  static final String PARAM_COMPONENT = "component";
+  static final String PARAM_BRANCH = "branch";
+  static final String PARAM_PULL_REQUEST = "pullRequest";
+  static final String PARAM_AVAILABILITY = "availability";
+  static final String PARAM_GROUP_ID = "groupId";
+  static final String PARAM_MIN_MISSED = "minMissed";
+  static final String PARAM_ARTIFACT = "artifact";
+  static final String PARAM_VERSION = "version";
+  static final String PARAM_KIND = "kind";
+  private static final int DEFAULT_PAGE_SIZE = 100;
+  private static final int MAX_PAGE_SIZE = 500;
+  private static final int HTTP_OK = 200;
+  private static final int HTTP_FORBIDDEN = 403;
+  private static final int HTTP_NOT_FOUND = 404;
+  private static final String MEDIA_TYPE_JSON = "application/json";
+
+  private final DependencyListingCache cache;
+  private final ArtifactIndex index;
+
+  public DependencyUpdatesWs(DependencyListingCache cache, ArtifactIndex index) {
+    this.cache = cache;
+    this.index = index;
+  }
+
+  @Override
+  public void define(Context context) {
+    NewController controller = context.createController(CONTROLLER)
+        .setDescription("Dependencies analysed by the Dependency-Updates plugin")
+        .setSince("8.0");
+    NewAction action = controller.createAction(ACTION_SEARCH)
+        .setDescription("Search the dependencies of a component. Requires the 'Browse' permission on the project of the component.")
+        .setSince("8.0")
+        .setHandler(this::handle)
+        .addPagingParams(DEFAULT_PAGE_SIZE, MAX_PAGE_SIZE)
+        .addSortParams(Arrays.stream(Sort.values()).map(Sort::getKey).collect(Collectors.toList()), Sort.GROUP_ID.getKey(), true);
+    action.createParam(PARAM_COMPONENT)
+        .setDescription("Component key")
+        .setRequired(true)
+        .setExampleValue("my_project");
+    action.createParam(PARAM_BRANCH)
+        .setDescription("Branch key");
+    action.createParam(PARAM_PULL_REQUEST)
+        .setDescription("Pull request id");
+    action.createParam(PARAM_AVAILABILITY)
+        .setDescription("Only dependencies with the given kind of updates available")
+        .setPossibleValues(Arrays.stream(Availability.values()).map(Availability::getKey).collect(Collectors.toList()))
+        .setDefaultValue(Availability.ANY.getKey());
+    action.createParam(PARAM_GROUP_ID)
+        .setDescription("Only dependencies with a groupId starting with the given value")
+        .setExampleValue("org.apache");
+    action.createParam(PARAM_MIN_MISSED)
+        .setDescription("Only dependencies with at least the given number of patches and upgrades missed")
+        .setDefaultValue("0");
+
+    NewAction projects = controller.createAction(ACTION_PROJECTS)
+        .setDescription("Search the projects using an artifact, as of the last analysis of their main branch. Only projects the user has the 'Browse' permission on are returned.")
+        .setSince("8.0")
+        .setHandler(this::handleProjects)
+        .addPagingParams(DEFAULT_PAGE_SIZE, MAX_PAGE_SIZE);
+    projects.createParam(PARAM_ARTIFACT)
+        .setDescription("Artifact in format groupId:artifactId")
+        .setRequired(true)
+        .setExampleValue("org.apache.logging.log4j:log4j-core");
+    projects.createParam(PARAM_VERSION)
+        .setDescription("Only projects using the given version of the artifact")
+        .setExampleValue("2.14.1");
+    projects.createParam(PARAM_KIND)
+        .setDescription("Kind of the artifact")
+        .setPossibleValues(Arrays.stream(ReportKind.values()).map(ReportKind::getKey).collect(Collectors.toList()))
+        .setDefaultValue(ReportKind.DEPENDENCY.getKey());
+    controller.done();
+  }
+
+  void handle(Request request, Response response) throws IOException {
+    LocalConnector connector = request.localConnector();
+    Map<String, String> component = new HashMap<>();
+    component.put(PARAM_COMPONENT, request.mandatoryParam(PARAM_COMPONENT));
+    component.put(PARAM_BRANCH, request.param(PARAM_BRANCH));
+    component.put(PARAM_PULL_REQUEST, request.param(PARAM_PULL_REQUEST));
+
+    // checks the permission of the user as well
+    LocalResponse show = connector.call(new LocalRequest("api/components/show", component));
+    if (show.getStatus() != HTTP_OK) {
+      forward(response, show);
+      return;
+    }
+    String analysisDate = analysisDate(show);
+    String key = component.values().stream().map(String::valueOf).collect(Collectors.joining(":")) + "@" + analysisDate;
+    DependencyListing listing = analysisDate != null ? cache.getIfPresent(key) : null;
+    if (listing == null) {
+      Map<String, String> params = new HashMap<>(component);
+      params.put("metricKeys", Metrics.KEY_DEPENDENCIES_DATA);
+      LocalResponse measures = connector.call(new LocalRequest("api/measures/component", params));
+      if (measures.getStatus() != HTTP_OK) {
+        forward(response, measures);
+        return;
+      }
+      listing = DependencyListing.decode(measureValue(measures, Metrics.KEY_DEPENDENCIES_DATA));
+      if (analysisDate != null) {
+        cache.put(key, listing);
+      }
+    }
+
+    List<Entry> entries = listing.query(
+        Availability.fromKey(request.mandatoryParam(PARAM_AVAILABILITY)),
+        request.param(PARAM_GROUP_ID),
+        request.mandatoryParamAsInt(PARAM_MIN_MISSED),
+        Sort.fromKey(request.mandatoryParam(Param.SORT)),
+        request.mandatoryParamAsBoolean(Param.ASCENDING));
+    int page = request.mandatoryParamAsInt(Param.PAGE);
+    int pageSize = request.mandatoryParamAsInt(Param.PAGE_SIZE);
+    write(response, listing, entries, page, pageSize);
+  }
+
+  void handleProjects(Request request, Response response) throws IOException {
+    String kind = request.mandatoryParam(PARAM_KIND);
+    String artifact = request.mandatoryParam(PARAM_ARTIFACT);
+    SortedMap<String, SortedSet<String>> coordinates = index.find(ReportKind.DEPENDENCY.getKey().equals(kind) ? artifact : kind + "/" + artifact, request.param(PARAM_VERSION));
+
+    Set<String> visible = new HashSet<>();
+    LocalResponse failed = visibleProjects(request.localConnector(), coordinates.values(), visible);
+    if (failed != null) {
+      forward(response, failed);
+      return;
+    }
+
+    List<String[]> usages = new ArrayList<>();
+    coordinates.forEach((coordinate, projects) -> projects.stream()
+        .filter(visible::contains)
+        .forEach(project -> usages.add(new String[] {project, coordinate.substring(coordinate.lastIndexOf(':') + 1)})));
+    int page = request.mandatoryParamAsInt(Param.PAGE);
+    int pageSize = request.mandatoryParamAsInt(Param.PAGE_SIZE);
+    int from = (int) Math.min((long) (page - 1) * pageSize, usages.size());
+    int to = Math.min(from + pageSize, usages.size());
+    try (JsonWriter json = response.newJsonWriter()) {
+      json.beginObject();
+      json.name("paging").beginObject()
+          .prop("pageIndex", page)
+          .prop("pageSize", pageSize)
+          .prop("total", usages.size())
+          .endObject();
+      json.name("projects").beginArray();
+      for (String[] usage : usages.subList(from, to)) {
+        json.beginObject()
+            .prop("key", usage[0])
+            .prop("version", usage[1])
+            .endObject();
+      }
+      json.endArray();
+      json.endObject();
+    }
+  }
+
+  /**
+   * Adds the projects the user has the 'Browse' permission on. The permission is checked for each project found in the index only, a project deleted since its last analysis is not found.
+   *
+   * @return The response of the check failing for other reasons or <code>null</code>.
+   */
+  @CheckForNull
+  static LocalResponse visibleProjects(LocalConnector connector, Collection<? extends Collection<String>> projects, Set<String> visible) {
+    Set<String> checked = new HashSet<>();
+    for (Collection<String> keys : projects) {
+      for (String project : keys) {
+        if (checked.add(project)) {
+          LocalResponse show = connector.call(new LocalRequest("api/components/show", Collections.singletonMap(PARAM_COMPONENT, project)));
+          if (show.getStatus() == HTTP_OK) {
+            visible.add(project);
+          } else if (show.getStatus() != HTTP_FORBIDDEN && show.getStatus() != HTTP_NOT_FOUND) {
+            return show;
+          }
+        }
+      }
+    }
+    return null;
+  }
+
+  private static void write(Response response, DependencyListing listing, List<Entry> entries, int page, int pageSize) {
+    int from = (int) Math.min((long) (page - 1) * pageSize, entries.size());
+    int to = Math.min(from + pageSize, entries.size());
+    try (JsonWriter json = response.newJsonWriter()) {
+      json.beginObject();
+      json.name("paging").beginObject()
+          .prop("pageIndex", page)
+          .prop("pageSize", pageSize)
+          .prop("total", entries.size())
+          .endObject();
+      if (listing.isCompact()) {
+        // the dependencies are not known in compact mode
+        json.prop("compact", true);
+        json.prop("estimatedDependencies", listing.getEstimate());
+      }
+      json.name("dependencies").beginArray();
+      for (Entry entry : entries.subList(from, to)) {
+        json.beginObject()
+            .prop("kind", entry.getKind())
+            .prop("groupId", entry.getGroupId())
+            .prop("artifactId", entry.getArtifactId())
+            .prop("version", entry.getVersion())
+            .prop("patchesMissed", entry.getPatches())
+            .prop("upgradesMissed", entry.getUpgrades())
+            .endObject();
+      }
+      json.endArray();
+      json.endObject();
+    }
+  }
+
+  private static void forward(Response response, LocalResponse localResponse) throws IOException {
+    Response.Stream stream = response.stream()
+        .setStatus(localResponse.getStatus())
+        .setMediaType(MEDIA_TYPE_JSON);
+    try (OutputStream output = stream.output()) {
+      output.write(localResponse.getBytes());
+    }
+  }
+
+  /**
+   * Reads the date of the last analysis from the response of <code>api/components/show</code>.
+   */
+  @CheckForNull
+  static String analysisDate(LocalResponse response) throws IOException {
+    try (Reader reader = reader(response)) {
+      JsonReader json = new JsonReader(reader);
+      json.beginObject();
+      while (json.hasNext()) {
+        if (!"component".equals(json.nextName())) {
+          json.skipValue();
+          continue;
+        }
+        json.beginObject();
+        while (json.hasNext()) {
+          if ("analysisDate".equals(json.nextName())) {
+            return json.nextString();
+          }
+          json.skipValue();
+        }
+        json.endObject();
+      }
+      return null;
+    }
+  }
+
+  /**
+   * Reads the value of a measure from the response of <code>api/measures/component</code>. Only the value of the measure is kept, the response is not parsed into a tree.
+   */
+  @CheckForNull
+  static String measureValue(LocalResponse response, String metric) throws IOException {
+    try (Reader reader = reader(response)) {
+      JsonReader json = new JsonReader(reader);
+      json.beginObject();
+      while (json.hasNext()) {
+        if (!"component".equals(json.nextName())) {
+          json.skipValue();
+          continue;
+        }
+        json.beginObject();
+        while (json.hasNext()) {
+          if (!"measures".equals(json.nextName())) {
+            json.skipValue();
+            continue;
+          }
+          json.beginArray();
+          while (json.hasNext()) {
+            String value = measureValue(json, metric);
+            if (value != null) {
+              return value;
+            }
+          }
+          json.endArray();
+        }
+        json.endObject();
+      }
+      return null;
+    }
+  }
+
+  @CheckForNull
+  private static String measureValue(JsonReader json, String metric) throws IOException {
+    String key = null;
+    String value = null;
+    json.beginObject();
+    while (json.hasNext()) {
+      String name = json.nextName();
+      if ("metric".equals(name)) {
+        key = json.nextString();
+      } else if ("value".equals(name)) {
+        value = json.nextString();
+      } else {
+        json.skipValue();
+      }
+    }
+    json.endObject();
+    return metric.equals(key) ? value : null;
+  }
+
+  private static Reader reader(LocalResponse response) {
+    return new InputStreamReader(new ByteArrayInputStream(response.getBytes()), StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Request of another web service of the SonarQube server. It is executed with the permissions of the current user.
+   */
+  private static final class LocalRequest implements LocalConnector.LocalRequest {
+
+    private final String path;
+    private final Map<String, String> params;
+
+    private LocalRequest(String path, Map<String, String> params) {
+      this.path = path;
+      this.params = params.entrySet().stream().filter(param -> param.getValue() != null).collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    }
+
+    @Override
+    public String getPath() {
+      return path;
+    }
+
+    @Override
+    public String getMediaType() {
+      return MEDIA_TYPE_JSON;
+    }
+
+    @Override
+    public boolean hasParam(String key) {
+      return params.containsKey(key);
+    }
+
+    @Override
+    @CheckForNull
+    public String getParam(String key) {
+      return params.get(key);
+    }
+
+    @Override
+    public List<String> getMultiParam(String key) {
+      return params.containsKey(key) ? Collections.singletonList(params.get(key)) : Collections.emptyList();
+    }
+
+    @Override
+    public String getMethod() {
+      return "GET";
+    }
+
+    @Override
+    public Optional<String> getHeader(String name) {
+      return Optional.empty();
+    }
+
+    public Map<String, String[]> getParameterMap() {
+      return params.entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey, param -> new String[] {param.getValue()}));
+    }
+  }
+}
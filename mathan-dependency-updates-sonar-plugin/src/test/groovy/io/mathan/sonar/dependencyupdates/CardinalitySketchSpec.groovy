@@ -0,0 +1,66 @@
+/*
+ * mathan-dependency-updates-sonar-plugin
+ * Copyright (c) 2019 Matthias Hanisch
+ * matthias@mathan.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mathan.sonar.dependencyupdates
+
+import spock.lang.Specification
+
+class CardinalitySketchSpec extends Specification {
+
+  /**
+   * Tests that the estimated number of distinct dependencies is within 5% of the actual number no matter if the dependencies
+   * were added to a single sketch or to several sketches merged afterwards.
+   */
+  def estimate(int distinct) {
+    expect:
+    CardinalitySketch single = new CardinalitySketch()
+    CardinalitySketch first = new CardinalitySketch()
+    CardinalitySketch second = new CardinalitySketch()
+    for (int i = 0; i < distinct; i++) {
+      String dependency = "com.example.group${i % 97}:artifact-${i}:1.${i % 13}.0:0:0"
+      single.add(dependency)
+      single.add(dependency)
+      (i % 2 == 0 ? first : second).add(dependency)
+    }
+    first.merge(second)
+    Math.abs(single.estimate() - distinct) <= distinct * 0.05
+    first.estimate() == single.estimate()
+    where:
+    distinct << [0, 1, 10, 1000, 10000, 100000]
+  }
+
+  /**
+   * Tests that a sketch is restored completely from its encoded form.
+   */
+  def encode() {
+    expect:
+    CardinalitySketch sketch = new CardinalitySketch()
+    (1..1000).each { sketch.add("g:a${it}:1.0:0:0") }
+    String encoded = sketch.encode()
+    CardinalitySketch.isSketch(encoded)
+    !CardinalitySketch.isSketch("g:a:1.0:0:0")
+    CardinalitySketch.decode(encoded).estimate() == sketch.estimate()
+    CardinalitySketch.decode(encoded).encode() == encoded
+  }
+
+  def "decode invalid"() {
+    when:
+    CardinalitySketch.decode("g:a:1.0:0:0")
+    then:
+    thrown(IllegalArgumentException)
+  }
+}
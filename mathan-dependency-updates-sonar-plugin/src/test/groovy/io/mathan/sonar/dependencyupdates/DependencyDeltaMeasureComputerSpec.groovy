@@ -0,0 +1,65 @@
+/*
+ * mathan-dependency-updates-sonar-plugin
+ * Copyright (c) 2019 Matthias Hanisch
+ * matthias@mathan.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mathan.sonar.dependencyupdates
+
+import org.sonar.api.ce.measure.Component
+import org.sonar.api.ce.measure.MeasureComputer
+import org.sonar.api.ce.measure.test.TestComponent
+import org.sonar.api.ce.measure.test.TestMeasureComputerContext
+import org.sonar.api.ce.measure.test.TestMeasureComputerDefinition
+import org.sonar.api.ce.measure.test.TestSettings
+import spock.lang.Specification
+
+class DependencyDeltaMeasureComputerSpec extends Specification {
+
+  /**
+   * Tests that the metrics of the changes since the previous analysis of the children are aggregated. All counts are summed up while the list of outdated dependencies is unique.
+   */
+  def aggregate() {
+    expect:
+    TestMeasureComputerContext context = context()
+    context.addChildrenMeasures(Metrics.KEY_DELTA_OUTDATED, 2, 1, 0)
+    context.addChildrenMeasures(Metrics.KEY_DELTA_OUTDATED_DATA, "dependency/a:b,dependency/c:d", "dependency/a:b", "")
+    context.addChildrenMeasures(Metrics.KEY_DELTA_RESOLVED, 1, 2, 0)
+    context.addChildrenMeasures(Metrics.KEY_DELTA_STILL_OUTDATED, 3, 0, 4)
+    new DependencyDeltaMeasureComputer().compute(context)
+    context.getMeasure(Metrics.KEY_DELTA_OUTDATED).intValue == 3
+    context.getMeasure(Metrics.KEY_DELTA_OUTDATED_DATA).stringValue == "dependency/a:b,dependency/c:d"
+    context.getMeasure(Metrics.KEY_DELTA_RESOLVED).intValue == 3
+    context.getMeasure(Metrics.KEY_DELTA_STILL_OUTDATED).intValue == 7
+  }
+
+  /**
+   * Tests that no measures are computed if there was no previous analysis for any child.
+   */
+  def "no previous analysis"() {
+    expect:
+    TestMeasureComputerContext context = context()
+    new DependencyDeltaMeasureComputer().compute(context)
+    context.getMeasure(Metrics.KEY_DELTA_OUTDATED) == null
+  }
+
+  TestMeasureComputerContext context() {
+    TestComponent component = new TestComponent("key", Component.Type.DIRECTORY, null)
+    TestMeasureComputerDefinition.MeasureComputerDefinitionBuilderImpl builder = new TestMeasureComputerDefinition.MeasureComputerDefinitionBuilderImpl()
+    builder.setInputMetrics(Metrics.KEY_DELTA_OUTDATED, Metrics.KEY_DELTA_OUTDATED_DATA, Metrics.KEY_DELTA_RESOLVED, Metrics.KEY_DELTA_STILL_OUTDATED)
+    builder.setOutputMetrics(Metrics.KEY_DELTA_OUTDATED, Metrics.KEY_DELTA_OUTDATED_DATA, Metrics.KEY_DELTA_RESOLVED, Metrics.KEY_DELTA_STILL_OUTDATED)
+    MeasureComputer.MeasureComputerDefinition definition = builder.build()
+    return new TestMeasureComputerContext(component, new TestSettings(), definition)
+  }
+}
@@ -0,0 +1,47 @@
+/*
+ * mathan-dependency-updates-sonar-plugin
+ * Copyright (c) 2019 Matthias Hanisch
+ * matthias@mathan.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mathan.sonar.dependencyupdates
+
+import spock.lang.Specification
+
+class DependencyDeltaSpec extends Specification {
+
+  /**
+   * Tests that the outdated dependencies of the previous and the current analysis are merged into new outdated, resolved and still outdated dependencies.
+   * @param previous The sorted outdated dependencies of the previous analysis.
+   * @param current The sorted outdated dependencies of the current analysis.
+   * @param newOutdated The expected new outdated dependencies.
+   * @param resolved The expected number of resolved dependencies.
+   * @param stillOutdated The expected number of still outdated dependencies.
+   */
+  def merge(List<String> previous, List<String> current, List<String> newOutdated, int resolved, int stillOutdated) {
+    expect:
+    DependencyDelta delta = DependencyDelta.merge(previous, current)
+    delta.newOutdated == newOutdated
+    delta.resolved == resolved
+    delta.stillOutdated == stillOutdated
+    where:
+    previous        | current         | newOutdated | resolved | stillOutdated
+    []              | []              | []          | 0        | 0
+    []              | ["a", "b"]      | ["a", "b"]  | 0        | 0
+    ["a", "b"]      | []              | []          | 2        | 0
+    ["a", "b"]      | ["a", "b"]      | []          | 0        | 2
+    ["a", "c"]      | ["b", "c", "d"] | ["b", "d"]  | 1        | 1
+    ["b", "c", "d"] | ["a", "c"]      | ["a"]       | 2        | 1
+  }
+}
@@ -48,8 +48,7 @@ class DependencyFilterSpec extends Specification {
    */
   def "defaultSeverityIncremental"(Severity severityIncremental, Availability availability, Severity expected) {
     expect:
-    DependencyFilter filter = configuration()
-    filter.setDefaultSeverityIncremental(severityIncremental)
+    DependencyFilter filter = builder().defaultSeverityIncremental(severityIncremental).build()
     Dependency dependency = dependency(availability)
     filter.severity(dependency) == expected
     where:
@@ -70,8 +69,7 @@ class DependencyFilterSpec extends Specification {
    */
   def "defaultSeverityMinor"(Severity severityMinor, Availability availability, Severity expected) {
     expect:
-    DependencyFilter filter = configuration()
-    filter.setDefaultSeverityMinor(severityMinor)
+    DependencyFilter filter = builder().defaultSeverityMinor(severityMinor).build()
     Dependency dependency = dependency(availability)
     filter.severity(dependency) == expected
     where:
@@ -92,8 +90,7 @@ class DependencyFilterSpec extends Specification {
    */
   def "defaultSeverityMajor"(Severity severityMajor, Availability availability, Severity expected) {
     expect:
-    DependencyFilter filter = configuration()
-    filter.setDefaultSeverityMajor(severityMajor)
+    DependencyFilter filter = builder().defaultSeverityMajor(severityMajor).build()
     Dependency dependency = dependency(availability)
     filter.severity(dependency) == expected
     where:
@@ -112,8 +109,7 @@ class DependencyFilterSpec extends Specification {
    */
   def "inclusion"(String inclusions, boolean included) {
     expect:
-    DependencyFilter filter = configuration()
-    filter.setInclusions(inclusions)
+    DependencyFilter filter = builder().inclusions(inclusions).build()
     Dependency dependency = dependency()
     Severity.MINOR.equals(filter.severity(dependency)) == included
     where:
@@ -139,8 +135,7 @@ class DependencyFilterSpec extends Specification {
    */
   def "exclusions"(String exclusions, boolean included) {
     expect:
-    DependencyFilter filter = configuration()
-    filter.setExclusions(exclusions)
+    DependencyFilter filter = builder().exclusions(exclusions).build()
     Dependency dependency = dependency()
     Severity.MINOR.equals(filter.severity(dependency)) == included
     where:
@@ -158,12 +153,13 @@ class DependencyFilterSpec extends Specification {
 
   def "overrides"(Availability availability, String info, String minor, String major, String critical, String blocker, Severity severity) {
     expect:
-    DependencyFilter filter = configuration()
-    filter.setOverrideInfo(info)
-    filter.setOverrideMinor(minor)
-    filter.setOverrideMajor(major)
-    filter.setOverrideCritical(critical)
-    filter.setOverrideBlocker(blocker)
+    DependencyFilter filter = builder()
+        .overrideInfo(info)
+        .overrideMinor(minor)
+        .overrideMajor(major)
+        .overrideCritical(critical)
+        .overrideBlocker(blocker)
+        .build()
     Dependency dependency = dependency(availability)
     filter.severity(dependency) == severity
     where:
@@ -190,10 +186,42 @@ class DependencyFilterSpec extends Specification {
     Availability.Incremental | ":::" | ":::" | ":::" | ":::"    | ":::"   | Severity.BLOCKER
   }
 
+  /**
+   * Tests that the severities determined for a batch of dependencies are returned in the order of the dependencies no matter
+   * if the batch is classified sequentially or in parallel.
+   */
+  def "severities"(int parallelThreshold, int size) {
+    expect:
+    DependencyFilter filter = builder().overrideBlocker("io.mathan.sonar.test:test-artifact-1*").parallelThreshold(parallelThreshold).build()
+    List<Dependency> dependencies = new ArrayList<>()
+    for (int i = 0; i < size; i++) {
+      Dependency dependency = dependency(Availability.values()[i % Availability.values().length])
+      dependency.setArtifactId("test-artifact-" + i)
+      dependencies.add(dependency)
+    }
+    filter.severities(dependencies) == dependencies.collect { filter.severity(it) }
+    where:
+    parallelThreshold | size
+    0                 | 0
+    0                 | 1000
+    1                 | 1
+    1                 | 1000
+    1000              | 999
+    1000              | 10000
+  }
+
   DependencyFilter configuration() {
     DependencyFilter.create(Severity.MINOR, Severity.MAJOR, Severity.CRITICAL, ":::", "", "", "", "", "", "");
   }
 
+  DependencyFilter.Builder builder() {
+    DependencyFilter.builder()
+        .defaultSeverityIncremental(Severity.MINOR)
+        .defaultSeverityMinor(Severity.MAJOR)
+        .defaultSeverityMajor(Severity.CRITICAL)
+        .inclusions(":::")
+  }
+
   Dependency dependency(Availability availablility) {
     Dependency dependency = dependency()
     dependency.setAvailability(availablility)
@@ -123,6 +123,105 @@ class DependencyUpdatesMeasureComputerSpec extends Specification {
     "a:b:c:0:4"   | "a:b:c:0:0"   | "a:b:c:0:4" | ""          | 1        | "a:b:c:0:4"           | 50.0          | 2              | 4
   }
 
+  /**
+   * Tests that in compact mode the lists of dependencies are kept as long as they do not exceed the exact limit and are replaced by a
+   * {@link CardinalitySketch} otherwise. If replaced, the number of dependencies is estimated and the missed patches of the children
+   * are summed up.
+   * @param exactLimit The value for {@link Constants#CONFIG_COMPACT_EXACT_LIMIT}.
+   * @param patches The expected value for measure {@link Metrics#KEY_PATCHES}.
+   * @param patchesMissed The expected value for measure {@link Metrics#KEY_PATCHES_MISSED}.
+   * @param sketch If the measure {@link Metrics#KEY_PATCHES_DATA} is expected to contain a sketch.
+   */
+  def compact(int exactLimit, int patches, int patchesMissed, boolean sketch) {
+    expect:
+    TestSettings settings = new TestSettings()
+    settings.setValue(Constants.CONFIG_COMPACT, "true")
+    settings.setValue(Constants.CONFIG_COMPACT_EXACT_LIMIT, String.valueOf(exactLimit))
+    DependencyUpdatesMeasureComputer computer = new DependencyUpdatesMeasureComputer()
+    TestMeasureComputerContext context = context(settings, "a:b:c:1:0,d:e:f:2:0", "a:b:c:1:0", "a:b:c:1:0,d:e:f:2:0", "a:b:c:1:0", null, null)
+    context.addChildrenMeasures(Metrics.KEY_PATCHES_MISSED, 3, 1)
+    computer.compute(context)
+    assert context.getMeasure(Metrics.KEY_DEPENDENCIES).intValue == 2
+    assert context.getMeasure(Metrics.KEY_PATCHES).intValue == patches
+    assert context.getMeasure(Metrics.KEY_PATCHES_MISSED).intValue == patchesMissed
+    assert CardinalitySketch.isSketch(context.getMeasure(Metrics.KEY_PATCHES_DATA).stringValue) == sketch
+    where:
+    exactLimit | patches | patchesMissed | sketch
+    2          | 2       | 3             | false
+    1          | 2       | 4             | true
+  }
+
+  /**
+   * Tests that sketches of child components are merged with each other and with exact lists of other child components.
+   */
+  def "compact merge"() {
+    expect:
+    CardinalitySketch sketch = new CardinalitySketch()
+    (1..50).each { sketch.add("g:a${it}:1.0:0:0") }
+    TestSettings settings = new TestSettings()
+    settings.setValue(Constants.CONFIG_COMPACT, "true")
+    DependencyUpdatesMeasureComputer computer = new DependencyUpdatesMeasureComputer()
+    TestMeasureComputerContext context = context(settings, sketch.encode(), "g:a1:1.0:0:0,g:a51:1.0:0:0", null, null, null, null)
+    computer.compute(context)
+    assert context.getMeasure(Metrics.KEY_DEPENDENCIES).intValue == 51
+    assert CardinalitySketch.isSketch(context.getMeasure(Metrics.KEY_DEPENDENCIES_DATA).stringValue)
+  }
+
+  /**
+   * Tests that the components computed are tracked per analysis and that the statistics are reset once the project has been computed.
+   */
+  def statistics() {
+    expect:
+    DependencyUpdatesMeasureComputer computer = new DependencyUpdatesMeasureComputer()
+    // computing a project resets the statistics of the components computed by other tests
+    computer.compute(context(new TestSettings(), new TestComponent("other", Component.Type.PROJECT, null), "", "", null, null, null, null))
+    computer.compute(context(new TestSettings(), new TestComponent("module", Component.Type.MODULE, null), "a:b:c:0:0,d:e:f:1:0", "a:b:c:0:0", null, null, null, null))
+    computer.compute(context(new TestSettings(), new TestComponent("directory", Component.Type.DIRECTORY, null), "a:b:c:0:0", "", null, null, null, null))
+    DependencyUpdatesMeasureComputer.Statistics statistics = DependencyUpdatesMeasureComputer.statistics()
+    assert statistics.components == 2
+    assert statistics.largestComponent == "module"
+    assert statistics.largestEntries == 2
+    assert statistics.largestBytes == "a:b:c:0:0,d:e:f:1:0".length()
+    computer.compute(context(new TestSettings(), new TestComponent("project", Component.Type.PROJECT, null), "a:b:c:0:0", "", null, null, null, null))
+    assert DependencyUpdatesMeasureComputer.statistics().components == 0
+    assert DependencyUpdatesMeasureComputer.statistics().largestComponent == null
+  }
+
+  /**
+   * Tests that the statistics are reset if the computation of a component fails, as the analysis is aborted then.
+   */
+  def "statistics after failure"() {
+    given:
+    DependencyUpdatesMeasureComputer computer = new DependencyUpdatesMeasureComputer()
+    computer.compute(context(new TestSettings(), new TestComponent("module", Component.Type.MODULE, null), "a:b:c:0:0", "", null, null, null, null))
+    MeasureComputer.MeasureComputerContext failing = Stub(MeasureComputer.MeasureComputerContext) {
+      getComponent() >> new TestComponent("directory", Component.Type.DIRECTORY, null)
+      getSettings() >> { throw new IllegalStateException("failure") }
+    }
+    when:
+    computer.compute(failing)
+    then:
+    thrown(IllegalStateException)
+    DependencyUpdatesMeasureComputer.statistics().components == 0
+  }
+
+  /**
+   * Tests that the measures of a project computed by the scanner are kept while the degraded modules are still summed up.
+   */
+  def "aggregated by scanner"() {
+    expect:
+    DependencyUpdatesMeasureComputer computer = new DependencyUpdatesMeasureComputer()
+    TestMeasureComputerContext context = context(new TestSettings(), new TestComponent("project", Component.Type.PROJECT, null), "a:b:c:1:0,d:e:f:0:0", "g:h:i:0:1", null, null, null,
+        null)
+    context.addChildrenMeasures(Metrics.KEY_DEGRADED, 1, 1)
+    context.addMeasure(Metrics.KEY_DEPENDENCIES, 3)
+    context.addMeasure(Metrics.KEY_DEPENDENCIES_DATA, "a:b:c:1:0,d:e:f:0:0,g:h:i:0:1")
+    computer.compute(context)
+    assert context.getMeasure(Metrics.KEY_DEPENDENCIES).intValue == 3
+    assert context.getMeasure(Metrics.KEY_PATCHES) == null
+    assert context.getMeasure(Metrics.KEY_DEGRADED).intValue == 2
+  }
+
   /**
    * Creates a MeasureComputerContext with metric values for {@link Metrics#KEY_DEPENDENCIES_DATA}.
    * @param dependenciesA The measure {@link Metrics#KEY_DEPENDENCIES_DATA} for child A.
@@ -143,15 +242,30 @@ class DependencyUpdatesMeasureComputerSpec extends Specification {
    * @return
    */
   MeasureComputer.MeasureComputerContext context(String dependenciesA, String dependenciesB, String patchesA, String patchesB, String upgradesA, String upgradesB) {
-    TestComponent component = new TestComponent("key", Component.Type.DIRECTORY, null)
-    TestSettings settings = new TestSettings()
+    return context(new TestSettings(), dependenciesA, dependenciesB, patchesA, patchesB, upgradesA, upgradesB)
+  }
+
+  /**
+   * Creates a MeasureComputerContext using the given settings with metric values for {@link Metrics#KEY_DEPENDENCIES_DATA},
+   * {@link Metrics#KEY_PATCHES_DATA} and {@link Metrics#KEY_UPGRADES_DATA}.
+   */
+  TestMeasureComputerContext context(TestSettings settings, String dependenciesA, String dependenciesB, String patchesA, String patchesB, String upgradesA, String upgradesB) {
+    return context(settings, new TestComponent("key", Component.Type.DIRECTORY, null), dependenciesA, dependenciesB, patchesA, patchesB, upgradesA, upgradesB)
+  }
+
+  /**
+   * Creates a MeasureComputerContext for the given component using the given settings with metric values for {@link Metrics#KEY_DEPENDENCIES_DATA},
+   * {@link Metrics#KEY_PATCHES_DATA} and {@link Metrics#KEY_UPGRADES_DATA}.
+   */
+  TestMeasureComputerContext context(TestSettings settings, TestComponent component, String dependenciesA, String dependenciesB, String patchesA, String patchesB, String upgradesA,
+      String upgradesB) {
     TestMeasureComputerDefinition.MeasureComputerDefinitionBuilderImpl builder = new TestMeasureComputerDefinition.MeasureComputerDefinitionBuilderImpl()
     builder.setInputMetrics(
         Metrics.KEY_DEPENDENCIES, Metrics.KEY_DEPENDENCIES_DATA, Metrics.KEY_PATCHES, Metrics.KEY_PATCHES_DATA, Metrics.KEY_PATCHES_MISSED, Metrics.KEY_PATCHES_RATING, Metrics.KEY_PATCHES_RATIO,
-        Metrics.KEY_UPGRADES, Metrics.KEY_UPGRADES_DATA, Metrics.KEY_UPGRADES_MISSED, Metrics.KEY_UPGRADES_RATING, Metrics.KEY_UPGRADES_RATIO)
+        Metrics.KEY_UPGRADES, Metrics.KEY_UPGRADES_DATA, Metrics.KEY_UPGRADES_MISSED, Metrics.KEY_UPGRADES_RATING, Metrics.KEY_UPGRADES_RATIO, Metrics.KEY_DEGRADED)
     builder.setOutputMetrics(
         Metrics.KEY_DEPENDENCIES, Metrics.KEY_DEPENDENCIES_DATA, Metrics.KEY_PATCHES, Metrics.KEY_PATCHES_DATA, Metrics.KEY_PATCHES_MISSED, Metrics.KEY_PATCHES_RATING, Metrics.KEY_PATCHES_RATIO,
-        Metrics.KEY_UPGRADES, Metrics.KEY_UPGRADES_DATA, Metrics.KEY_UPGRADES_MISSED, Metrics.KEY_UPGRADES_RATING, Metrics.KEY_UPGRADES_RATIO)
+        Metrics.KEY_UPGRADES, Metrics.KEY_UPGRADES_DATA, Metrics.KEY_UPGRADES_MISSED, Metrics.KEY_UPGRADES_RATING, Metrics.KEY_UPGRADES_RATIO, Metrics.KEY_DEGRADED)
     MeasureComputer.MeasureComputerDefinition definition = builder.build()
 
     TestMeasureComputerContext context = new TestMeasureComputerContext(component, settings, definition)
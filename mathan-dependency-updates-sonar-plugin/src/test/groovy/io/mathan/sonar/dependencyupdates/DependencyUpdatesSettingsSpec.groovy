@@ -0,0 +1,90 @@
+/*
+ * mathan-dependency-updates-sonar-plugin
+ * Copyright (c) 2019 Matthias Hanisch
+ * matthias@mathan.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mathan.sonar.dependencyupdates
+
+import io.mathan.sonar.dependencyupdates.parser.Dependency
+import io.mathan.sonar.dependencyupdates.parser.Dependency.Availability
+import io.mathan.sonar.dependencyupdates.report.ReportKind
+import org.sonar.api.batch.rule.Severity
+import org.sonar.api.config.Configuration
+import org.sonar.api.utils.MessageException
+import spock.lang.Specification
+
+class DependencyUpdatesSettingsSpec extends Specification {
+
+  /**
+   * Tests that the default configuration is used if no property is set.
+   */
+  def "defaults"() {
+    when:
+    DependencyUpdatesSettings settings = new DependencyUpdatesSettings(configuration([:]))
+    then:
+    settings.filter.severity(dependency(Availability.Incremental)) == Severity.MINOR
+    settings.filter.severity(dependency(Availability.Minor)) == Severity.MAJOR
+    settings.filter.severity(dependency(Availability.Major)) == Severity.CRITICAL
+    settings.parser != null
+    settings.reportKinds == EnumSet.of(ReportKind.DEPENDENCY)
+  }
+
+  /**
+   * Tests that only the configured kinds of reports are read.
+   */
+  def "reportKinds"() {
+    when:
+    DependencyUpdatesSettings settings = new DependencyUpdatesSettings(configuration([(Constants.CONFIG_REPORT_KINDS): "property, dependency"]))
+    then:
+    settings.reportKinds as List == [ReportKind.DEPENDENCY, ReportKind.PROPERTY]
+  }
+
+  /**
+   * Tests that invalid severities and regular expressions are reported with a MessageException naming the
+   * configured value.
+   */
+  def "invalid"(String key, String value) {
+    when:
+    new DependencyUpdatesSettings(configuration([(key): value]))
+    then:
+    MessageException e = thrown()
+    e.message.contains(value)
+    where:
+    key                                      | value
+    Constants.CONFIG_UPDATE_INCREMENTAL      | "SEVERE"
+    Constants.CONFIG_UPDATE_MAJOR            | "minor"
+    Constants.CONFIG_VERSION_EXCLUSION_REGEX | ".*[alpha"
+    Constants.CONFIG_REPORT_KINDS            | "plugins"
+    Constants.CONFIG_ISSUE_GROUPING          | "artifactId"
+  }
+
+  private Configuration configuration(Map<String, String> properties) {
+    Configuration configuration = Stub()
+    configuration.get(_ as String) >> { String key -> Optional.ofNullable(properties[key]) }
+    configuration.getBoolean(_ as String) >> Optional.empty()
+    configuration.getInt(_ as String) >> Optional.empty()
+    configuration.getStringArray(_ as String) >> { String key -> properties[key] != null ? properties[key].split(",") : new String[0] }
+    return configuration
+  }
+
+  private static Dependency dependency(Availability availability) {
+    Dependency dependency = new Dependency()
+    dependency.setGroupId("io.mathan")
+    dependency.setArtifactId("test")
+    dependency.setVersion("1.0.0")
+    dependency.setAvailability(availability)
+    return dependency
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ * mathan-dependency-updates-sonar-plugin
+ * Copyright (c) 2019 Matthias Hanisch
+ * matthias@mathan.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mathan.sonar.dependencyupdates.filter
+
+import io.mathan.sonar.dependencyupdates.parser.Dependency
+import spock.lang.Specification
+
+class PatternArtifactFilterSpec extends Specification {
+
+  /**
+   * Tests that each kind of pattern segment (exact, prefix, suffix, contains, version range) is matched properly no matter
+   * if the pattern is indexed by groupId, by artifactId or checked sequentially.
+   */
+  def "include"(String patterns, boolean included) {
+    expect:
+    new PatternArtifactFilter(Arrays.asList(patterns.split(","))).include(artifact()) == included
+    where:
+    patterns                                       | included
+    "com.ourcorp.platform"                         | true
+    "com.ourcorp"                                  | false
+    "com.ourcorp.*"                                | true
+    "com.ourcorp.platform.*"                       | false
+    "com.other.*,com.ourcorp.p*"                   | true
+    "*.platform"                                   | true
+    "*.ourcorp"                                    | false
+    "*ourcorp*"                                    | true
+    "*other*"                                      | false
+    ":platform-api"                                | true
+    ":platform-*"                                  | true
+    ":*-api"                                       | true
+    ":*-impl"                                      | false
+    "com.ourcorp.*:*-impl"                         | false
+    "com.ourcorp.*:*-impl,com.ourcorp.*:*-api"     | true
+    ":::[1.2.3]"                                   | true
+    ":::[1.2.4]"                                   | false
+    "com.ourcorp.platform:platform-api:jar:1.2.3"  | true
+    "com.ourcorp.platform:platform-api:pom:1.2.3"  | false
+    "com.ourcorp.*::::test"                        | false
+    "*.platform:::::sources"                       | false
+  }
+
+  /**
+   * Tests that a large number of exact and prefix patterns are matched properly.
+   */
+  def "large pattern set"() {
+    expect:
+    List<String> patterns = new ArrayList<>()
+    for (int i = 0; i < 1000; i++) {
+      patterns.add("com.ourcorp.team" + i)
+      patterns.add("com.ourcorp.team" + i + ".*")
+      patterns.add("*.team" + i + ".internal")
+    }
+    PatternArtifactFilter filter = new PatternArtifactFilter(patterns)
+    filter.include(artifact("com.ourcorp.team42"))
+    filter.include(artifact("com.ourcorp.team42.sub"))
+    filter.include(artifact("org.other.team42.internal"))
+    !filter.include(artifact("com.ourcorp.team1000"))
+    !filter.include(artifact("com.ourcorp.team"))
+  }
+
+  Coordinate artifact() {
+    artifact("com.ourcorp.platform")
+  }
+
+  Coordinate artifact(String groupId) {
+    Dependency dependency = new Dependency()
+    dependency.setGroupId(groupId)
+    dependency.setArtifactId("platform-api")
+    dependency.setVersion("1.2.3")
+    dependency.setScope("compile")
+    dependency.setType("jar")
+    dependency
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ * mathan-dependency-updates-sonar-plugin
+ * Copyright (c) 2019 Matthias Hanisch
+ * matthias@mathan.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mathan.sonar.dependencyupdates.version
+
+import spock.lang.Specification
+
+class VersionSpec extends Specification {
+
+  def "parse"(String value, int major, int minor, int patch, int segments, String qualifier, boolean preRelease) {
+    when:
+    Version version = Version.parse(value)
+    then:
+    version.major == major
+    version.minor == minor
+    version.patch == patch
+    version.numericSegments == segments
+    version.qualifier == qualifier
+    version.preRelease == preRelease
+    version.toString() == value
+    where:
+    value            | major | minor | patch | segments | qualifier  | preRelease
+    "1"              | 1     | 0     | 0     | 1        | ""         | false
+    "1.2"            | 1     | 2     | 0     | 2        | ""         | false
+    "1.2.3"          | 1     | 2     | 3     | 3        | ""         | false
+    "1.2.3-SNAPSHOT" | 1     | 2     | 3     | 3        | "snapshot" | true
+    "2.0.0-M1"       | 2     | 0     | 0     | 3        | "m1"       | true
+    "5.0.0.RC2"      | 5     | 0     | 0     | 3        | "rc2"      | true
+    "4.3.21.RELEASE" | 4     | 3     | 21    | 3        | "release"  | false
+  }
+
+  def "compareTo"() {
+    expect:
+    List<Version> versions = ["1.0.1", "1.0-sp1", "1.0", "1.0-SNAPSHOT", "1.0-rc1", "1.0-beta", "1.0-alpha", "0.9"].collect { Version.parse(it) }
+    versions.sort(false)*.toString() == ["0.9", "1.0-alpha", "1.0-beta", "1.0-rc1", "1.0-SNAPSHOT", "1.0", "1.0-sp1", "1.0.1"]
+  }
+
+  /**
+   * Tests that segments too large to be packed are compared as numbers instead of qualifiers.
+   */
+  def "compareTo large segments"() {
+    expect:
+    List<Version> versions = ["1.20210101", "1.5", "2.0", "1.20210101.1", "1.020210102", "20210101", "1.5.99999999999999999999"].collect { Version.parse(it) }
+    versions.sort(false)*.toString() == ["1.5", "1.5.99999999999999999999", "1.20210101", "1.20210101.1", "1.020210102", "2.0", "20210101"]
+    Version.parse("1.20210101").minor == 20210101
+    Version.parse("1.20210101").qualifier == ""
+    Version.parse("1.020210101") == Version.parse("1.20210101.0")
+    Version.parse("1.020210101").hashCode() == Version.parse("1.20210101.0").hashCode()
+  }
+
+  def "equals"(String first, String second) {
+    expect:
+    Version.parse(first) == Version.parse(second)
+    Version.parse(first).hashCode() == Version.parse(second).hashCode()
+    where:
+    first      | second
+    "1.0"      | "1.0.0"
+    "1"        | "1.0.0"
+    "1.0-BETA" | "1.0.0-beta"
+  }
+
+  def "range"(String range, String version, boolean contained) {
+    expect:
+    VersionRange.parse(range).contains(Version.parse(version)) == contained
+    where:
+    range           | version | contained
+    "[1.0,2.0)"     | "1.0"   | true
+    "[1.0,2.0)"     | "1.5.3" | true
+    "[1.0,2.0)"     | "2.0"   | false
+    "(1.0,2.0]"     | "1.0"   | false
+    "(,1.0],[1.2,)" | "1.1"   | false
+    "(,1.0],[1.2,)" | "1.3"   | true
+    "[1.2.3]"       | "1.2.3" | true
+    "[1.2.3]"       | "1.2.4" | false
+  }
+
+  def "invalid range"() {
+    when:
+    VersionRange.parse("[1.0")
+    then:
+    thrown(IllegalArgumentException)
+  }
+}
@@ -0,0 +1,116 @@
+/*
+ * mathan-dependency-updates-sonar-plugin
+ * Copyright (c) 2019 Matthias Hanisch
+ * matthias@mathan.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mathan.sonar.dependencyupdates;
+
+import io.mathan.sonar.dependencyupdates.parser.Dependency;
+import io.mathan.sonar.dependencyupdates.report.ReportGenerator;
+import io.mathan.sonar.dependencyupdates.report.XmlReportFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.config.internal.MapSettings;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+
+/**
+ * Measures {@link DependencyFilter#severities(List)} sequentially and split across the common {@link ForkJoinPool} for growing numbers of dependencies. The median times are logged with the
+ * smallest number of dependencies from which on the parallel classification was faster, which is a value for {@link Constants#CONFIG_PARALLEL_THRESHOLD} on the machine executing the
+ * benchmark. Only executed with the Maven profile <code>performance</code>.
+ */
+public class ClassificationBenchmarkTest {
+
+  private static final Logger LOGGER = Loggers.get(ClassificationBenchmarkTest.class);
+
+  private static final int[] SIZES = {500, 1_000, 2_000, 5_000, 10_000, 20_000, 50_000, 100_000};
+  private static final int WARMUP_ROUNDS = 10;
+  private static final int ROUNDS = 51;
+  private static final long NANOS_PER_MICRO = 1000;
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void parallelThreshold() throws Exception {
+    Assume.assumeTrue("Enable with -P performance", Boolean.getBoolean(ReportScaleTest.PERFORMANCE_PROPERTY));
+    Path report = temporaryFolder.newFolder().toPath().resolve(Constants.CONFIG_REPORT_PATH_DEFAULT);
+    Files.createDirectories(report.getParent());
+    new ReportGenerator().dependencies(SIZES[SIZES.length - 1]).write(report);
+    List<Dependency> dependencies = new DependencyUpdatesSettings(new MapSettings().asConfig()).getParser()
+        .parse(Collections.singletonList((XmlReportFile) () -> Files.newInputStream(report))).getDependencies();
+    DependencyFilter sequential = filter(0);
+    DependencyFilter parallel = filter(1);
+
+    for (int i = 0; i < WARMUP_ROUNDS; i++) {
+      sequential.severities(dependencies);
+      parallel.severities(dependencies);
+    }
+    Integer threshold = null;
+    StringBuilder results = new StringBuilder();
+    for (int size : SIZES) {
+      List<Dependency> batch = dependencies.subList(0, size);
+      Assert.assertEquals(sequential.severities(batch), parallel.severities(batch));
+      long sequentialMicros = median(sequential, batch);
+      long parallelMicros = median(parallel, batch);
+      results.append(String.format("%n%8d dependencies: sequential %6d us, parallel %6d us", size, sequentialMicros, parallelMicros));
+      if (parallelMicros >= sequentialMicros) {
+        threshold = null;
+      } else if (threshold == null) {
+        threshold = size;
+      }
+    }
+    LOGGER.info("Classification with parallelism {}:{}{}Parallel classification faster from {} dependencies", ForkJoinPool.getCommonPoolParallelism(), results, System.lineSeparator(),
+        threshold != null ? threshold : "(never)");
+  }
+
+  /**
+   * Creates a filter with a typical configuration of overrides, so each dependency is matched against several patterns.
+   */
+  private static DependencyFilter filter(int parallelThreshold) {
+    return DependencyFilter.builder()
+        .exclusions("com.example.internal:*")
+        .overrideInfo("*:*:*-SNAPSHOT")
+        .overrideMajor("org.apache.*:*")
+        .overrideCritical("org.springframework*:*")
+        .overrideBlocker("*:log4j-core")
+        .parallelThreshold(parallelThreshold)
+        .build();
+  }
+
+  /**
+   * Returns the median time of classifying the dependencies in microseconds.
+   */
+  private static long median(DependencyFilter filter, List<Dependency> dependencies) {
+    long[] nanos = new long[ROUNDS];
+    for (int i = 0; i < ROUNDS; i++) {
+      long start = System.nanoTime();
+      filter.severities(dependencies);
+      nanos[i] = System.nanoTime() - start;
+    }
+    Arrays.sort(nanos);
+    return nanos[ROUNDS / 2] / NANOS_PER_MICRO;
+  }
+}
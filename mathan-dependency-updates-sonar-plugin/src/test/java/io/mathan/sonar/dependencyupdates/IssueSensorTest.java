@@ -0,0 +1,285 @@
+/*
+ * mathan-dependency-updates-sonar-plugin
+ * Copyright (c) 2019 Matthias Hanisch
+ * matthias@mathan.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mathan.sonar.dependencyupdates;
+
+import io.mathan.sonar.dependencyupdates.report.ReportGenerator;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+import org.sonar.api.batch.fs.FilePredicate;
+import org.sonar.api.batch.fs.FileSystem;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
+import org.sonar.api.batch.rule.ActiveRules;
+import org.sonar.api.batch.rule.Severity;
+import org.sonar.api.batch.rule.internal.ActiveRulesBuilder;
+import org.sonar.api.batch.rule.internal.NewActiveRule;
+import org.sonar.api.batch.sensor.internal.SensorContextTester;
+import org.sonar.api.batch.sensor.issue.Issue;
+import org.sonar.api.rule.RuleKey;
+import org.sonar.api.scan.filesystem.PathResolver;
+
+public class IssueSensorTest {
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private File baseDir;
+
+  @Before
+  public void setUp() throws IOException {
+    baseDir = temporaryFolder.newFolder();
+    Path report = baseDir.toPath().resolve(Constants.CONFIG_REPORT_PATH_DEFAULT);
+    Files.createDirectories(report.getParent());
+    new ReportGenerator().dependencies(100).dependencyManagements(10).write(report);
+  }
+
+  @Test
+  public void allRulesActive() {
+    SensorContextTester context = execute(activeRules(Constants.RULE_KEY_PATCH, Constants.RULE_KEY_MINOR, Constants.RULE_KEY_MAJOR));
+    Assert.assertEquals(rules(Constants.RULE_KEY_PATCH, Constants.RULE_KEY_MINOR, Constants.RULE_KEY_MAJOR), reportedRules(context));
+  }
+
+  @Test
+  public void someRulesActive() {
+    SensorContextTester context = execute(activeRules(Constants.RULE_KEY_MAJOR));
+    Assert.assertEquals(rules(Constants.RULE_KEY_MAJOR), reportedRules(context));
+  }
+
+  @Test
+  public void deprecatedRuleActive() {
+    SensorContextTester context = execute(activeRules(Constants.RULE_KEY, Constants.RULE_KEY_PATCH));
+    Assert.assertEquals(rules(Constants.RULE_KEY, Constants.RULE_KEY_PATCH), reportedRules(context));
+  }
+
+  @Test
+  public void noRuleActive() {
+    SensorContextTester context = execute(activeRules());
+    Assert.assertTrue(context.allIssues().isEmpty());
+    // metrics are calculated anyway
+    Assert.assertEquals(Integer.valueOf(110), context.<Integer>measure("module:pom.xml", Metrics.KEY_DEPENDENCIES).value());
+    Assert.assertNull(context.measure("module:pom.xml", Metrics.KEY_DEGRADED));
+  }
+
+  @Test
+  public void groupByAvailability() {
+    SensorContextTester context = execute(activeRules(Constants.RULE_KEY_PATCH, Constants.RULE_KEY_MINOR, Constants.RULE_KEY_MAJOR), Constants.CONFIG_ISSUE_GROUPING, "availability");
+    Assert.assertEquals(3, context.allIssues().size());
+    for (Issue issue : context.allIssues()) {
+      Assert.assertTrue(issue.primaryLocation().message(), issue.primaryLocation().message().matches("\\d+ (patches|minor updates|major updates) available: .*"));
+      Assert.assertTrue(issue.primaryLocation().message().length() <= IssueGroup.MAX_MESSAGE_LENGTH);
+    }
+  }
+
+  @Test
+  public void groupByGroupId() {
+    SensorContextTester ungrouped = execute(activeRules(Constants.RULE_KEY_PATCH, Constants.RULE_KEY_MINOR, Constants.RULE_KEY_MAJOR));
+    SensorContextTester grouped = execute(activeRules(Constants.RULE_KEY_PATCH, Constants.RULE_KEY_MINOR, Constants.RULE_KEY_MAJOR), Constants.CONFIG_ISSUE_GROUPING, "groupId");
+    Assert.assertTrue(grouped.allIssues().size() < ungrouped.allIssues().size());
+    Assert.assertEquals(reportedRules(ungrouped), reportedRules(grouped));
+  }
+
+  @Test
+  public void maxIssues() {
+    SensorContextTester context = execute(activeRules(Constants.RULE_KEY_PATCH, Constants.RULE_KEY_MINOR, Constants.RULE_KEY_MAJOR), Constants.CONFIG_MAX_ISSUES, "5");
+    Assert.assertEquals(5, context.allIssues().size());
+    // the default severity of major updates is the highest
+    for (Issue issue : context.allIssues()) {
+      Assert.assertEquals(Severity.CRITICAL, issue.overriddenSeverity());
+    }
+  }
+
+  @Test
+  public void moduleWithoutReport() throws IOException {
+    SensorContextTester context = SensorContextTester.create(temporaryFolder.newFolder());
+    context.fileSystem().add(TestInputFileBuilder.create("module", "pom.xml").setContents("<project/>").build());
+    context.setActiveRules(activeRules(Constants.RULE_KEY_PATCH, Constants.RULE_KEY_MINOR, Constants.RULE_KEY_MAJOR));
+    FileSystem fileSystem = Mockito.spy(context.fileSystem());
+    DependencyUpdatesSettings settings = Mockito.spy(new DependencyUpdatesSettings(context.config()));
+    new IssueSensor(fileSystem, new PathResolver(), settings, new ReportBundle(context.config(), settings), new BaselineCache(context.config()), new ProjectAggregation(false, Long.MAX_VALUE))
+        .execute(context);
+    // only the file attributes of the report are checked, neither the index of input files nor the filter or parser are used
+    Mockito.verify(fileSystem, Mockito.never()).inputFile(Mockito.any(FilePredicate.class));
+    Mockito.verify(fileSystem, Mockito.never()).predicates();
+    Mockito.verify(settings, Mockito.never()).getFilter();
+    Mockito.verify(settings, Mockito.never()).getParser();
+    Assert.assertTrue(context.allIssues().isEmpty());
+    Assert.assertNull(context.measure("module:pom.xml", Metrics.KEY_DEPENDENCIES));
+  }
+
+  @Test
+  public void pullRequestNotChangingPom() {
+    SensorContextTester context = execute(activeRules(Constants.RULE_KEY_PATCH, Constants.RULE_KEY_MINOR, Constants.RULE_KEY_MAJOR), InputFile.Status.SAME, "sonar.pullrequest.key", "1");
+    Assert.assertTrue(context.allIssues().isEmpty());
+    Assert.assertNull(context.measure("module:pom.xml", Metrics.KEY_DEPENDENCIES));
+  }
+
+  @Test
+  public void pullRequestAggregation() {
+    ProjectAggregation aggregation = new ProjectAggregation(true, Long.MAX_VALUE);
+    execute(activeRules(Constants.RULE_KEY_PATCH), InputFile.Status.CHANGED, aggregation, "sonar.pullrequest.key", "1");
+    Assert.assertTrue(aggregation.isComplete());
+    // the module has a report but is skipped, so the dependencies of the project are not complete
+    execute(activeRules(Constants.RULE_KEY_PATCH), InputFile.Status.SAME, aggregation, "sonar.pullrequest.key", "1");
+    Assert.assertEquals(1, aggregation.getModules());
+    Assert.assertEquals(1, aggregation.getSkipped());
+    Assert.assertFalse(aggregation.isComplete());
+  }
+
+  @Test
+  public void pullRequestChangingPom() throws IOException {
+    String baselineDir = temporaryFolder.newFolder().getAbsolutePath();
+    SensorContextTester branch = execute(activeRules(Constants.RULE_KEY_PATCH, Constants.RULE_KEY_MINOR, Constants.RULE_KEY_MAJOR), InputFile.Status.CHANGED,
+        Constants.CONFIG_BASELINE_DIR, baselineDir);
+    Assert.assertFalse(branch.allIssues().isEmpty());
+    // the dependencies of the report are not declared by the pom, so the pull request does not change any of them
+    SensorContextTester pullRequest = execute(activeRules(Constants.RULE_KEY_PATCH, Constants.RULE_KEY_MINOR, Constants.RULE_KEY_MAJOR), InputFile.Status.CHANGED,
+        Constants.CONFIG_BASELINE_DIR, baselineDir, "sonar.pullrequest.key", "1");
+    Assert.assertTrue(pullRequest.allIssues().isEmpty());
+    Assert.assertEquals(Integer.valueOf(110), pullRequest.<Integer>measure("module:pom.xml", Metrics.KEY_DEPENDENCIES).value());
+    // without baseline all dependencies are reported
+    SensorContextTester unknownBaseline = execute(activeRules(Constants.RULE_KEY_PATCH, Constants.RULE_KEY_MINOR, Constants.RULE_KEY_MAJOR), InputFile.Status.CHANGED,
+        Constants.CONFIG_BASELINE_DIR, temporaryFolder.newFolder().getAbsolutePath(), "sonar.pullrequest.key", "1");
+    Assert.assertEquals(branch.allIssues().size(), unknownBaseline.allIssues().size());
+  }
+
+  @Test
+  public void pullRequestChangingDependency() throws IOException {
+    Files.write(baseDir.toPath().resolve(Constants.CONFIG_REPORT_PATH_DEFAULT), ("<DependencyUpdatesReport>\n"
+        + "  <dependencies>\n"
+        + dependency("changed", "1.1.0", "1.1.1")
+        + dependency("unchanged", "2.0.0", "2.0.1")
+        + "  </dependencies>\n"
+        + "</DependencyUpdatesReport>\n").getBytes(StandardCharsets.UTF_8));
+    String baselineDir = temporaryFolder.newFolder().getAbsolutePath();
+    SensorContextTester branch = execute(activeRules(Constants.RULE_KEY_PATCH), InputFile.Status.CHANGED, pom("1.0.0", "2.0.0"), new ProjectAggregation(false, Long.MAX_VALUE),
+        Constants.CONFIG_BASELINE_DIR, baselineDir);
+    Assert.assertEquals(2, branch.allIssues().size());
+    // the pull request only changes the version of one of the declared dependencies
+    SensorContextTester pullRequest = execute(activeRules(Constants.RULE_KEY_PATCH), InputFile.Status.CHANGED, pom("1.1.0", "2.0.0"), new ProjectAggregation(false, Long.MAX_VALUE),
+        Constants.CONFIG_BASELINE_DIR, baselineDir, "sonar.pullrequest.key", "1");
+    Assert.assertEquals(1, pullRequest.allIssues().size());
+    String message = pullRequest.allIssues().iterator().next().primaryLocation().message();
+    Assert.assertTrue(message, message.contains("io.mathan.test:changed:1.1.0"));
+  }
+
+  @Test
+  public void newCode() throws IOException {
+    String baselineDir = temporaryFolder.newFolder().getAbsolutePath();
+    SensorContextTester first = execute(activeRules(Constants.RULE_KEY_PATCH), Constants.CONFIG_BASELINE_DIR, baselineDir);
+    // there is no previous analysis
+    Assert.assertNull(first.measure("module:pom.xml", Metrics.KEY_DELTA_OUTDATED));
+    SensorContextTester second = execute(activeRules(Constants.RULE_KEY_PATCH), Constants.CONFIG_BASELINE_DIR, baselineDir);
+    Assert.assertEquals(Integer.valueOf(0), second.<Integer>measure("module:pom.xml", Metrics.KEY_DELTA_OUTDATED).value());
+    Assert.assertEquals("", second.<String>measure("module:pom.xml", Metrics.KEY_DELTA_OUTDATED_DATA).value());
+    Assert.assertEquals(Integer.valueOf(0), second.<Integer>measure("module:pom.xml", Metrics.KEY_DELTA_RESOLVED).value());
+    Assert.assertTrue(second.<Integer>measure("module:pom.xml", Metrics.KEY_DELTA_STILL_OUTDATED).value() > 0);
+  }
+
+  @Test
+  public void timeBudgetExceeded() throws IOException {
+    // parsing a report of this size alone exceeds the time budget
+    new ReportGenerator().dependencies(20000).write(baseDir.toPath().resolve(Constants.CONFIG_REPORT_PATH_DEFAULT));
+    SensorContextTester context = execute(activeRules(Constants.RULE_KEY_PATCH, Constants.RULE_KEY_MINOR, Constants.RULE_KEY_MAJOR), Constants.CONFIG_TIME_BUDGET, "1");
+    Assert.assertTrue(context.allIssues().isEmpty());
+    Assert.assertEquals(Integer.valueOf(1), context.<Integer>measure("module:pom.xml", Metrics.KEY_DEGRADED).value());
+    Assert.assertEquals(Integer.valueOf(20000), context.<Integer>measure("module:pom.xml", Metrics.KEY_DEPENDENCIES).value());
+    Assert.assertTrue(CardinalitySketch.isSketch(context.<String>measure("module:pom.xml", Metrics.KEY_DEPENDENCIES_DATA).value()));
+  }
+
+  private SensorContextTester execute(ActiveRules activeRules, String... properties) {
+    return execute(activeRules, InputFile.Status.ADDED, properties);
+  }
+
+  private SensorContextTester execute(ActiveRules activeRules, InputFile.Status status, String... properties) {
+    return execute(activeRules, status, new ProjectAggregation(false, Long.MAX_VALUE), properties);
+  }
+
+  private SensorContextTester execute(ActiveRules activeRules, InputFile.Status status, ProjectAggregation aggregation, String... properties) {
+    return execute(activeRules, status, "<project/>", aggregation, properties);
+  }
+
+  private SensorContextTester execute(ActiveRules activeRules, InputFile.Status status, String pom, ProjectAggregation aggregation, String... properties) {
+    SensorContextTester context = SensorContextTester.create(baseDir);
+    context.fileSystem().add(TestInputFileBuilder.create("module", "pom.xml").setContents(pom).setStatus(status).build());
+    context.setActiveRules(activeRules);
+    context.settings().setProperty("sonar.projectBaseDir", baseDir.getAbsolutePath());
+    for (int i = 0; i < properties.length; i += 2) {
+      context.settings().setProperty(properties[i], properties[i + 1]);
+    }
+    DependencyUpdatesSettings settings = new DependencyUpdatesSettings(context.config());
+    new IssueSensor(context.fileSystem(), new PathResolver(), settings, new ReportBundle(context.config(), settings), new BaselineCache(context.config()), aggregation).execute(context);
+    return context;
+  }
+
+  private static String dependency(String artifactId, String currentVersion, String incremental) {
+    return "    <dependency>\n"
+        + "      <groupId>io.mathan.test</groupId>\n"
+        + "      <artifactId>" + artifactId + "</artifactId>\n"
+        + "      <scope>compile</scope>\n"
+        + "      <classifier>null</classifier>\n"
+        + "      <type>jar</type>\n"
+        + "      <currentVersion>" + currentVersion + "</currentVersion>\n"
+        + "      <nextVersion>" + incremental + "</nextVersion>\n"
+        + "      <incrementals>\n"
+        + "        <incremental>" + incremental + "</incremental>\n"
+        + "      </incrementals>\n"
+        + "      <status>incremental available</status>\n"
+        + "    </dependency>\n";
+  }
+
+  /**
+   * Creates a pom declaring the dependencies of {@link #dependency(String, String, String)} with the given versions.
+   */
+  private static String pom(String changedVersion, String unchangedVersion) {
+    return "<project><dependencies>"
+        + "<dependency><groupId>io.mathan.test</groupId><artifactId>changed</artifactId><version>" + changedVersion + "</version></dependency>"
+        + "<dependency><groupId>io.mathan.test</groupId><artifactId>unchanged</artifactId><version>" + unchangedVersion + "</version></dependency>"
+        + "</dependencies></project>";
+  }
+
+  private static Set<RuleKey> reportedRules(SensorContextTester context) {
+    return context.allIssues().stream().map(issue -> issue.ruleKey()).collect(Collectors.toSet());
+  }
+
+  private static Set<RuleKey> rules(String... ruleKeys) {
+    return activeRules(ruleKeys).findAll().stream().map(rule -> rule.ruleKey()).collect(Collectors.toSet());
+  }
+
+  /**
+   * Creates the active rules of a quality profile with the given rules of this Sonar-Plugin activated.
+   */
+  static ActiveRules activeRules(String... ruleKeys) {
+    ActiveRulesBuilder builder = new ActiveRulesBuilder();
+    for (String ruleKey : ruleKeys) {
+      builder.addRule(new NewActiveRule.Builder().setRuleKey(RuleKey.of(Constants.REPOSITORY_KEY, ruleKey)).build());
+    }
+    return builder.build();
+  }
+}
@@ -0,0 +1,146 @@
+/*
+ * mathan-dependency-updates-sonar-plugin
+ * Copyright (c) 2019 Matthias Hanisch
+ * matthias@mathan.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mathan.sonar.dependencyupdates;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.batch.sensor.internal.SensorContextTester;
+
+public class ProjectAggregationTest {
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private File workDir;
+
+  @Before
+  public void setUp() throws IOException {
+    workDir = temporaryFolder.newFolder();
+  }
+
+  @Test
+  public void mergeInMemory() throws IOException {
+    ProjectAggregation aggregation = new ProjectAggregation(true, Long.MAX_VALUE);
+    aggregation.add(workDir, Arrays.asList("b:b:1.0:0:0", "a:a:1.0:1:0"));
+    aggregation.add(workDir, Arrays.asList("a:a:1.0:1:0", "c:c:1.0:0:2"));
+    Assert.assertEquals(0, aggregation.getRuns());
+    Assert.assertEquals(Arrays.asList("a:a:1.0:1:0", "b:b:1.0:0:0", "c:c:1.0:0:2"), merge(aggregation));
+    Assert.assertEquals(0, workDir.list().length);
+  }
+
+  @Test
+  public void skippedModule() {
+    ProjectAggregation aggregation = new ProjectAggregation(true, Long.MAX_VALUE);
+    Assert.assertFalse(aggregation.isComplete());
+    aggregation.add(workDir, Arrays.asList("a:a:1.0:1:0"));
+    Assert.assertTrue(aggregation.isComplete());
+    aggregation.skip();
+    aggregation.add(workDir, Arrays.asList("b:b:1.0:0:0"));
+    Assert.assertEquals(2, aggregation.getModules());
+    Assert.assertFalse(aggregation.isComplete());
+  }
+
+  @Test
+  public void mergeRuns() throws IOException {
+    ProjectAggregation aggregation = new ProjectAggregation(true, 1000);
+    TreeSet<String> expected = new TreeSet<>();
+    for (int module = 0; module < 20; module++) {
+      List<String> dependencies = new ArrayList<>();
+      for (int i = 0; i < 50; i++) {
+        // modules share most of their dependencies
+        String dependency = String.format("com.example:artifact-%d:1.%d:%d:%d", (module + i) % 70, i % 3, i % 2, i % 5);
+        dependencies.add(dependency);
+        expected.add(dependency);
+      }
+      aggregation.add(workDir, dependencies);
+    }
+    Assert.assertTrue(aggregation.getRuns() > 1);
+    Assert.assertEquals(new ArrayList<>(expected), merge(aggregation));
+    aggregation.stop();
+    Assert.assertEquals(0, workDir.list().length);
+  }
+
+  @Test
+  public void mergeManyRuns() throws IOException {
+    // every dependency exceeds the threshold, so the runs are merged while modules are added
+    ProjectAggregation aggregation = new ProjectAggregation(true, 1);
+    TreeSet<String> expected = new TreeSet<>();
+    for (int i = 0; i < 500; i++) {
+      String dependency = String.format("com.example:artifact-%d:1.0:0:0", i % 300);
+      aggregation.add(workDir, Arrays.asList(dependency));
+      expected.add(dependency);
+    }
+    Assert.assertTrue(aggregation.getRuns() < 100);
+    Assert.assertEquals(new ArrayList<>(expected), merge(aggregation));
+    aggregation.stop();
+  }
+
+  @Test
+  public void measures() throws IOException {
+    ProjectAggregation aggregation = new ProjectAggregation(true, 100);
+    aggregation.add(workDir, Arrays.asList("a:a:1.0:1:0", "b:b:1.0:0:0", "plugin/c:c:1.0:2:3"));
+    aggregation.add(workDir, Arrays.asList("a:a:1.0:1:0", "d:d:1.0:0:1"));
+    SensorContextTester context = SensorContextTester.create(temporaryFolder.newFolder());
+    Metrics.calculateMetricsProject(context, aggregation);
+    String project = context.project().key();
+    Assert.assertEquals(Integer.valueOf(4), context.<Integer>measure(project, Metrics.KEY_DEPENDENCIES).value());
+    Assert.assertEquals("a:a:1.0:1:0,b:b:1.0:0:0,d:d:1.0:0:1,plugin/c:c:1.0:2:3", context.<String>measure(project, Metrics.KEY_DEPENDENCIES_DATA).value());
+    Assert.assertEquals(Integer.valueOf(2), context.<Integer>measure(project, Metrics.KEY_PATCHES).value());
+    Assert.assertEquals("a:a:1.0:1:0,plugin/c:c:1.0:2:3", context.<String>measure(project, Metrics.KEY_PATCHES_DATA).value());
+    Assert.assertEquals(Integer.valueOf(3), context.<Integer>measure(project, Metrics.KEY_PATCHES_MISSED).value());
+    Assert.assertEquals(Double.valueOf(50), context.<Double>measure(project, Metrics.KEY_PATCHES_RATIO).value());
+    Assert.assertEquals(Integer.valueOf(2), context.<Integer>measure(project, Metrics.KEY_UPGRADES).value());
+    Assert.assertEquals(Integer.valueOf(4), context.<Integer>measure(project, Metrics.KEY_UPGRADES_MISSED).value());
+    aggregation.stop();
+  }
+
+  @Test
+  public void compactMeasures() throws IOException {
+    ProjectAggregation aggregation = new ProjectAggregation(true, 1000);
+    List<String> dependencies = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      dependencies.add(String.format("com.example:artifact-%d:1.0:1:0", i));
+    }
+    aggregation.add(workDir, dependencies);
+    SensorContextTester context = SensorContextTester.create(temporaryFolder.newFolder());
+    context.settings().setProperty(Constants.CONFIG_COMPACT, true);
+    context.settings().setProperty(Constants.CONFIG_COMPACT_EXACT_LIMIT, 100);
+    Metrics.calculateMetricsProject(context, aggregation);
+    String project = context.project().key();
+    Assert.assertTrue(CardinalitySketch.isSketch(context.<String>measure(project, Metrics.KEY_DEPENDENCIES_DATA).value()));
+    Assert.assertEquals(200, context.<Integer>measure(project, Metrics.KEY_DEPENDENCIES).value(), 10);
+    Assert.assertEquals(Integer.valueOf(200), context.<Integer>measure(project, Metrics.KEY_PATCHES_MISSED).value());
+    aggregation.stop();
+  }
+
+  private static List<String> merge(ProjectAggregation aggregation) throws IOException {
+    List<String> merged = new ArrayList<>();
+    aggregation.merge(merged::add);
+    return merged;
+  }
+}
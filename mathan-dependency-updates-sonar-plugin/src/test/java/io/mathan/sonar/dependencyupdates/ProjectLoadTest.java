@@ -0,0 +1,227 @@
+/*
+ * mathan-dependency-updates-sonar-plugin
+ * Copyright (c) 2019 Matthias Hanisch
+ * matthias@mathan.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mathan.sonar.dependencyupdates;
+
+import io.mathan.sonar.dependencyupdates.report.ReportGenerator;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
+import org.sonar.api.batch.sensor.internal.SensorContextTester;
+import org.sonar.api.batch.sensor.measure.Measure;
+import org.sonar.api.ce.measure.Component;
+import org.sonar.api.ce.measure.MeasureComputer.MeasureComputerDefinition;
+import org.sonar.api.ce.measure.test.TestComponent;
+import org.sonar.api.ce.measure.test.TestMeasureComputerContext;
+import org.sonar.api.ce.measure.test.TestMeasureComputerDefinition.MeasureComputerDefinitionBuilderImpl;
+import org.sonar.api.ce.measure.test.TestSettings;
+import org.sonar.api.config.internal.MapSettings;
+import org.sonar.api.scan.filesystem.PathResolver;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+
+/**
+ * Runs {@link IssueSensor} for every module of a generated multi-module project and aggregates the measures bottom-up with {@link DependencyUpdatesMeasureComputer}. Wall time, allocated bytes and
+ * the size of the largest data measure are logged for sizing scanner and Compute Engine nodes. The project with 2,000 modules is only analysed with the Maven profile <code>performance</code>, the
+ * regular build uses a small project to keep the harness working.
+ */
+public class ProjectLoadTest {
+
+  private static final Logger LOGGER = Loggers.get(ProjectLoadTest.class);
+
+  private static final String[] DATA_METRICS = {Metrics.KEY_DEPENDENCIES_DATA, Metrics.KEY_PATCHES_DATA, Metrics.KEY_UPGRADES_DATA};
+  private static final String[] COUNT_METRICS = {Metrics.KEY_PATCHES_MISSED, Metrics.KEY_UPGRADES_MISSED};
+  private static final String[] METRICS = {
+      Metrics.KEY_DEPENDENCIES, Metrics.KEY_DEPENDENCIES_DATA, Metrics.KEY_PATCHES, Metrics.KEY_PATCHES_DATA, Metrics.KEY_PATCHES_MISSED, Metrics.KEY_PATCHES_RATING, Metrics.KEY_PATCHES_RATIO,
+      Metrics.KEY_UPGRADES, Metrics.KEY_UPGRADES_DATA, Metrics.KEY_UPGRADES_MISSED, Metrics.KEY_UPGRADES_RATING, Metrics.KEY_UPGRADES_RATIO};
+
+  /**
+   * Number of modules grouped in a directory of the generated component hierarchy.
+   */
+  private static final int MODULES_PER_DIRECTORY = 50;
+  /**
+   * Aggregating twice the number of modules may take at most this factor of the time needed for the smaller project.
+   */
+  private static final int MAX_GROWTH = 4;
+  private static final long SLACK_MILLIS = 1000;
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void smallProject() throws Exception {
+    Result small = analyse(25, 50, false);
+    Result large = analyse(50, 50, false);
+    assertLinear(small, large);
+  }
+
+  @Test
+  public void largeProject() throws Exception {
+    Assume.assumeTrue("Enable with -P performance", Boolean.getBoolean(ReportScaleTest.PERFORMANCE_PROPERTY));
+    Result small = analyse(1000, 200, false);
+    Result large = analyse(2000, 200, false);
+    assertLinear(small, large);
+  }
+
+  @Test
+  public void largeProjectCompact() throws Exception {
+    Assume.assumeTrue("Enable with -P performance", Boolean.getBoolean(ReportScaleTest.PERFORMANCE_PROPERTY));
+    Result small = analyse(1000, 200, true);
+    Result large = analyse(2000, 200, true);
+    assertLinear(small, large);
+  }
+
+  private static void assertLinear(Result small, Result large) {
+    Assert.assertTrue(String.format("Aggregation of %d modules took %d ms, %d modules %d ms", small.modules, small.aggregationMillis, large.modules, large.aggregationMillis),
+        large.aggregationMillis <= MAX_GROWTH * small.aggregationMillis + SLACK_MILLIS);
+  }
+
+  private Result analyse(int modules, int dependenciesPerModule, boolean compact) throws Exception {
+    File projectDir = temporaryFolder.newFolder();
+    MapSettings settings = new MapSettings();
+    settings.setProperty(Constants.CONFIG_COMPACT, compact);
+    DependencyUpdatesSettings dependencyUpdatesSettings = new DependencyUpdatesSettings(settings.asConfig());
+    ReportBundle bundle = new ReportBundle(settings.asConfig(), dependencyUpdatesSettings);
+    Result result = new Result(modules);
+
+    // scanner: one sensor execution per module
+    List<Map<String, Object>> moduleMeasures = new ArrayList<>();
+    long allocated = allocatedBytes();
+    long start = System.nanoTime();
+    for (int i = 0; i < modules; i++) {
+      String moduleKey = "module-" + i;
+      File moduleDir = new File(projectDir, moduleKey);
+      Path report = moduleDir.toPath().resolve(Constants.CONFIG_REPORT_PATH_DEFAULT);
+      Files.createDirectories(report.getParent());
+      Files.write(moduleDir.toPath().resolve("pom.xml"), "<project/>".getBytes());
+      new ReportGenerator().dependencies(dependenciesPerModule).seed(i).write(report);
+
+      SensorContextTester context = SensorContextTester.create(moduleDir);
+      context.settings().setProperty(Constants.CONFIG_COMPACT, compact);
+      context.fileSystem().add(TestInputFileBuilder.create(moduleKey, "pom.xml").setModuleBaseDir(moduleDir.toPath()).setContents("<project/>").build());
+      context.setActiveRules(IssueSensorTest.activeRules(Constants.RULE_KEY_PATCH, Constants.RULE_KEY_MINOR, Constants.RULE_KEY_MAJOR));
+      new IssueSensor(context.fileSystem(), new PathResolver(), dependencyUpdatesSettings, bundle, new BaselineCache(settings.asConfig()), new ProjectAggregation(settings.asConfig()))
+          .execute(context);
+      moduleMeasures.add(measures(context, moduleKey + ":pom.xml"));
+    }
+    result.sensorMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    result.sensorAllocated = allocatedBytes() - allocated;
+
+    // compute engine: module directories, grouping directories and the project
+    TestSettings ceSettings = new TestSettings();
+    ceSettings.setValue(Constants.CONFIG_COMPACT, String.valueOf(compact));
+    DependencyUpdatesMeasureComputer computer = new DependencyUpdatesMeasureComputer();
+    allocated = allocatedBytes();
+    start = System.nanoTime();
+    List<Map<String, Object>> directoryMeasures = new ArrayList<>();
+    List<Map<String, Object>> groupMeasures = new ArrayList<>();
+    for (int i = 0; i < modules; i++) {
+      directoryMeasures.add(compute(computer, ceSettings, "module-" + i, Component.Type.DIRECTORY, moduleMeasures.subList(i, i + 1), result));
+    }
+    for (int i = 0; i < modules; i += MODULES_PER_DIRECTORY) {
+      groupMeasures.add(compute(computer, ceSettings, "group-" + i, Component.Type.DIRECTORY, directoryMeasures.subList(i, Math.min(modules, i + MODULES_PER_DIRECTORY)), result));
+    }
+    Map<String, Object> projectMeasures = compute(computer, ceSettings, "project", Component.Type.PROJECT, groupMeasures, result);
+    result.aggregationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    result.aggregationAllocated = allocatedBytes() - allocated;
+
+    Assert.assertTrue((Integer) projectMeasures.get(Metrics.KEY_DEPENDENCIES) > 0);
+    LOGGER.info("{} modules with {} dependencies each (compact: {}): sensor {} ms / {} MB allocated, aggregation {} ms / {} MB allocated, largest data measure {} characters, {} dependencies",
+        modules, dependenciesPerModule, compact, result.sensorMillis, result.sensorAllocated / 1024 / 1024, result.aggregationMillis, result.aggregationAllocated / 1024 / 1024,
+        result.largestDataMeasure, projectMeasures.get(Metrics.KEY_DEPENDENCIES));
+    return result;
+  }
+
+  private static Map<String, Object> measures(SensorContextTester context, String componentKey) {
+    Map<String, Object> measures = new HashMap<>();
+    for (String metric : DATA_METRICS) {
+      Measure<String> measure = context.measure(componentKey, metric);
+      measures.put(metric, measure.value());
+    }
+    for (String metric : COUNT_METRICS) {
+      Measure<Integer> measure = context.measure(componentKey, metric);
+      measures.put(metric, measure.value());
+    }
+    return measures;
+  }
+
+  private static Map<String, Object> compute(DependencyUpdatesMeasureComputer computer, TestSettings settings, String key, Component.Type type, List<Map<String, Object>> children,
+      Result result) {
+    MeasureComputerDefinitionBuilderImpl builder = new MeasureComputerDefinitionBuilderImpl();
+    builder.setInputMetrics(METRICS);
+    builder.setOutputMetrics(METRICS);
+    MeasureComputerDefinition definition = builder.build();
+    TestMeasureComputerContext context = new TestMeasureComputerContext(new TestComponent(key, type, null), settings, definition);
+    for (String metric : DATA_METRICS) {
+      context.addChildrenMeasures(metric, children.stream().map(measures -> (String) measures.get(metric)).toArray(String[]::new));
+    }
+    for (String metric : COUNT_METRICS) {
+      context.addChildrenMeasures(metric, children.stream().map(measures -> (Integer) measures.get(metric)).toArray(Integer[]::new));
+    }
+    computer.compute(context);
+    Map<String, Object> measures = new HashMap<>();
+    for (String metric : DATA_METRICS) {
+      String value = context.getMeasure(metric).getStringValue();
+      result.largestDataMeasure = Math.max(result.largestDataMeasure, value.length());
+      measures.put(metric, value);
+    }
+    for (String metric : COUNT_METRICS) {
+      measures.put(metric, context.getMeasure(metric).getIntValue());
+    }
+    measures.put(Metrics.KEY_DEPENDENCIES, context.getMeasure(Metrics.KEY_DEPENDENCIES).getIntValue());
+    return measures;
+  }
+
+  /**
+   * Returns the bytes allocated by the current thread or <code>0</code> if not supported by the JVM.
+   */
+  private static long allocatedBytes() {
+    ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    if (bean instanceof com.sun.management.ThreadMXBean) {
+      return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+    return 0;
+  }
+
+  private static final class Result {
+
+    private final int modules;
+    private long sensorMillis;
+    private long sensorAllocated;
+    private long aggregationMillis;
+    private long aggregationAllocated;
+    private int largestDataMeasure;
+
+    private Result(int modules) {
+      this.modules = modules;
+    }
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * mathan-dependency-updates-sonar-plugin
+ * Copyright (c) 2019 Matthias Hanisch
+ * matthias@mathan.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mathan.sonar.dependencyupdates;
+
+import io.mathan.sonar.dependencyupdates.report.ReportGenerator;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.apache.commons.io.IOUtils;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.config.internal.MapSettings;
+
+public class ReportBundleTest {
+
+  private static final int MODULES = 20;
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void parseAhead() throws Exception {
+    File projectDir = temporaryFolder.getRoot();
+    try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(projectDir.toPath().resolve("reports.zip")))) {
+      for (int i = 0; i < MODULES; i++) {
+        StringWriter report = new StringWriter();
+        new ReportGenerator().dependencies(i + 1).seed(i).write(report);
+        out.putNextEntry(new ZipEntry("module-" + i + "/" + Constants.CONFIG_REPORT_PATH_DEFAULT));
+        out.write(report.toString().getBytes(StandardCharsets.UTF_8));
+        out.closeEntry();
+      }
+    }
+    MapSettings settings = new MapSettings();
+    settings.setProperty("sonar.projectBaseDir", projectDir.getAbsolutePath());
+    settings.setProperty(Constants.CONFIG_REPORT_BUNDLE, "reports.zip");
+    ReportBundle bundle = new ReportBundle(settings.asConfig(), new DependencyUpdatesSettings(settings.asConfig()));
+    Assert.assertTrue(bundle.hasReport(new File(projectDir, "module-0")));
+    Assert.assertFalse(bundle.hasReport(new File(projectDir, "module-unknown")));
+    // modules are analysed in reverse order, so most reports are parsed on demand
+    for (int i = MODULES - 1; i >= 0; i--) {
+      Assert.assertTrue(bundle.getParsedAhead() <= bundle.getMaxParsedAhead());
+      Assert.assertEquals(i + 1, bundle.getAnalysis(new File(projectDir, "module-" + i)).getDependencies().size());
+    }
+    Assert.assertEquals(0, bundle.getParsedAhead());
+    Assert.assertNull(bundle.getAnalysis(new File(projectDir, "module-0")));
+    bundle.stop();
+  }
+
+  @Test
+  public void gradleReport() throws Exception {
+    File projectDir = temporaryFolder.getRoot();
+    try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(projectDir.toPath().resolve("reports.zip")));
+        InputStream report = getClass().getClassLoader().getResourceAsStream("report/sample-gradle-report.json")) {
+      out.putNextEntry(new ZipEntry("module-gradle/" + Constants.CONFIG_GRADLE_REPORT_PATH_DEFAULT));
+      IOUtils.copy(report, out);
+      out.closeEntry();
+    }
+    MapSettings settings = new MapSettings();
+    settings.setProperty("sonar.projectBaseDir", projectDir.getAbsolutePath());
+    settings.setProperty(Constants.CONFIG_REPORT_BUNDLE, "reports.zip");
+    ReportBundle bundle = new ReportBundle(settings.asConfig(), new DependencyUpdatesSettings(settings.asConfig()));
+    File module = new File(projectDir, "module-gradle");
+    Assert.assertTrue(bundle.hasReport(module));
+    // the unresolved dependency of the sample report is skipped
+    Assert.assertEquals(6, bundle.getAnalysis(module).getDependencies().size());
+    bundle.stop();
+  }
+
+  @Test
+  public void missingBundle() throws IOException {
+    MapSettings settings = new MapSettings();
+    settings.setProperty("sonar.projectBaseDir", temporaryFolder.getRoot().getAbsolutePath());
+    settings.setProperty(Constants.CONFIG_REPORT_BUNDLE, "missing.zip");
+    ReportBundle bundle = new ReportBundle(settings.asConfig(), new DependencyUpdatesSettings(settings.asConfig()));
+    Assert.assertFalse(bundle.hasReport(temporaryFolder.getRoot()));
+    bundle.stop();
+  }
+}
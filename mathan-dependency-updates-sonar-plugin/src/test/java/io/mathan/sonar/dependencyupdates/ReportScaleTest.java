@@ -0,0 +1,169 @@
+/*
+ * mathan-dependency-updates-sonar-plugin
+ * Copyright (c) 2019 Matthias Hanisch
+ * matthias@mathan.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mathan.sonar.dependencyupdates;
+
+import io.mathan.sonar.dependencyupdates.parser.Analysis;
+import io.mathan.sonar.dependencyupdates.report.ReportGenerator;
+import io.mathan.sonar.dependencyupdates.report.XmlReportFile;
+import java.io.File;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
+import org.sonar.api.batch.sensor.internal.SensorContextTester;
+import org.sonar.api.config.internal.MapSettings;
+import org.sonar.api.scan.filesystem.PathResolver;
+
+/**
+ * Verifies {@link io.mathan.sonar.dependencyupdates.parser.ReportParser}, {@link IssueSensor} and {@link Metrics} for large generated reports. The time and retained heap budgets are only verified
+ * with the Maven profile <code>performance</code>, as they depend on the machine running the build. The test with one million dependencies is only executed with this profile as well.
+ */
+public class ReportScaleTest {
+
+  static final String PERFORMANCE_PROPERTY = "dependencyUpdates.performance";
+  private static final boolean PERFORMANCE = Boolean.getBoolean(PERFORMANCE_PROPERTY);
+
+  /**
+   * Heap allowed to be retained regardless of the number of dependencies, e.g. for classes loaded.
+   */
+  private static final long BASE_HEAP = 16L * 1024 * 1024;
+  private static final long BASE_MILLIS = 2000;
+
+  private static final long PARSER_BYTES_PER_DEPENDENCY = 2048;
+  private static final long PARSER_MICROS_PER_DEPENDENCY = 100;
+  private static final long SENSOR_BYTES_PER_DEPENDENCY = 4096;
+  private static final long SENSOR_MICROS_PER_DEPENDENCY = 200;
+  private static final long METRICS_BYTES_PER_DEPENDENCY = 512;
+  private static final long METRICS_MICROS_PER_DEPENDENCY = 20;
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void scale1k() throws Exception {
+    verify(1_000);
+  }
+
+  @Test
+  public void scale100k() throws Exception {
+    verify(100_000);
+  }
+
+  @Test
+  public void scale1m() throws Exception {
+    Assume.assumeTrue("Enable with -P performance", PERFORMANCE);
+    verify(1_000_000);
+  }
+
+  @Test
+  public void generatorIsDeterministic() throws Exception {
+    StringWriter first = new StringWriter();
+    StringWriter second = new StringWriter();
+    new ReportGenerator().dependencies(100).dependencyManagements(10).write(first);
+    new ReportGenerator().dependencies(100).dependencyManagements(10).write(second);
+    Assert.assertEquals(first.toString(), second.toString());
+  }
+
+  private void verify(int total) throws Exception {
+    File baseDir = temporaryFolder.newFolder();
+    Path report = baseDir.toPath().resolve(Constants.CONFIG_REPORT_PATH_DEFAULT);
+    Files.createDirectories(report.getParent());
+    new ReportGenerator()
+        .dependencies(total - total / 10)
+        .dependencyManagements(total / 10)
+        .write(report);
+    DependencyUpdatesSettings settings = new DependencyUpdatesSettings(new MapSettings().asConfig());
+
+    // ReportParser
+    long heap = measuredHeap();
+    long start = System.nanoTime();
+    Analysis analysis = settings.getParser().parse(Collections.singletonList((XmlReportFile) () -> Files.newInputStream(report)));
+    long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    long retained = measuredHeap() - heap;
+    Assert.assertEquals(total, analysis.all().size());
+    assertBudget("ReportParser", total, millis, PARSER_MICROS_PER_DEPENDENCY, retained, PARSER_BYTES_PER_DEPENDENCY);
+
+    // Metrics
+    SensorContextTester context = context(baseDir);
+    heap = measuredHeap();
+    start = System.nanoTime();
+    Metrics.calculateMetricsModule(context, analysis);
+    millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    retained = measuredHeap() - heap;
+    Assert.assertEquals(Integer.valueOf(total), context.<Integer>measure("module:pom.xml", Metrics.KEY_DEPENDENCIES).value());
+    assertBudget("Metrics", total, millis, METRICS_MICROS_PER_DEPENDENCY, retained, METRICS_BYTES_PER_DEPENDENCY);
+    analysis = null;
+    context = null;
+
+    // IssueSensor (parsing, issues and metrics)
+    context = context(baseDir);
+    heap = measuredHeap();
+    start = System.nanoTime();
+    new IssueSensor(context.fileSystem(), new PathResolver(), settings, new ReportBundle(new MapSettings().asConfig(), settings), new BaselineCache(new MapSettings().asConfig()),
+        new ProjectAggregation(new MapSettings().asConfig())).execute(context);
+    millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    retained = measuredHeap() - heap;
+    Assert.assertFalse(context.allIssues().isEmpty());
+    assertBudget("IssueSensor", total, millis, SENSOR_MICROS_PER_DEPENDENCY, retained, SENSOR_BYTES_PER_DEPENDENCY);
+  }
+
+  private static SensorContextTester context(File baseDir) {
+    SensorContextTester context = SensorContextTester.create(baseDir);
+    context.fileSystem().add(TestInputFileBuilder.create("module", "pom.xml").setContents("<project/>").build());
+    context.setActiveRules(IssueSensorTest.activeRules(Constants.RULE_KEY_PATCH, Constants.RULE_KEY_MINOR, Constants.RULE_KEY_MAJOR));
+    return context;
+  }
+
+  private static void assertBudget(String name, int total, long millis, long microsPerDependency, long retained, long bytesPerDependency) {
+    if (!PERFORMANCE) {
+      return;
+    }
+    long maxMillis = BASE_MILLIS + total * microsPerDependency / 1000;
+    long maxRetained = BASE_HEAP + total * bytesPerDependency;
+    Assert.assertTrue(String.format("%s took %d ms for %d dependencies, budget is %d ms", name, millis, total, maxMillis), millis <= maxMillis);
+    Assert.assertTrue(String.format("%s retained %d bytes for %d dependencies, budget is %d bytes", name, retained, total, maxRetained), retained <= maxRetained);
+  }
+
+  /**
+   * Returns the heap used after garbage collection if the budgets are verified, otherwise the garbage collections are skipped.
+   */
+  private static long measuredHeap() {
+    return PERFORMANCE ? usedHeap() : 0;
+  }
+
+  /**
+   * Returns the heap used after garbage collection. As {@link System#gc()} is only a hint, the lowest value of several attempts is used.
+   */
+  static long usedHeap() {
+    Runtime runtime = Runtime.getRuntime();
+    long used = Long.MAX_VALUE;
+    for (int i = 0; i < 5; i++) {
+      System.gc();
+      used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+    }
+    return used;
+  }
+}
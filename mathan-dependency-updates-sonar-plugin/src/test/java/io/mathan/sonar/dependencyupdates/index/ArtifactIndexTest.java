@@ -0,0 +1,127 @@
+/*
+ * mathan-dependency-updates-sonar-plugin
+ * Copyright (c) 2019 Matthias Hanisch
+ * matthias@mathan.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mathan.sonar.dependencyupdates.index;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.ce.posttask.CeTask;
+import org.sonar.api.ce.posttask.PostProjectAnalysisTaskTester;
+
+public class ArtifactIndexTest {
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void find() throws Exception {
+    ArtifactIndex index = new ArtifactIndex(temporaryFolder.getRoot().toPath());
+    index.update("a", Arrays.asList("org.apache.logging.log4j:log4j-core:2.14.1", "junit:junit:4.12", "plugin/org.apache.maven.plugins:maven-compiler-plugin:3.8.1"));
+    index.update("b", Arrays.asList("org.apache.logging.log4j:log4j-core:2.17.1", "junit:junit:4.12"));
+    index.update("c", Collections.singletonList("org.apache.logging.log4j:log4j-core:2.14.1"));
+
+    SortedMap<String, SortedSet<String>> all = index.find("org.apache.logging.log4j:log4j-core", null);
+    Assert.assertEquals(2, all.size());
+    Assert.assertEquals(new TreeSet<>(Arrays.asList("a", "c")), all.get("org.apache.logging.log4j:log4j-core:2.14.1"));
+    Assert.assertEquals(new TreeSet<>(Collections.singletonList("b")), all.get("org.apache.logging.log4j:log4j-core:2.17.1"));
+
+    SortedMap<String, SortedSet<String>> version = index.find("org.apache.logging.log4j:log4j-core", "2.17.1");
+    Assert.assertEquals(Collections.singleton("org.apache.logging.log4j:log4j-core:2.17.1"), version.keySet());
+
+    Assert.assertEquals(1, index.find("plugin/org.apache.maven.plugins:maven-compiler-plugin", "3.8.1").size());
+    Assert.assertTrue(index.find("org.apache.maven.plugins:maven-compiler-plugin", null).isEmpty());
+    Assert.assertTrue(index.find("org.apache.logging.log4j:log4j", null).isEmpty());
+  }
+
+  @Test
+  public void update() throws Exception {
+    ArtifactIndex index = new ArtifactIndex(temporaryFolder.getRoot().toPath());
+    index.update("a", Arrays.asList("org.apache.logging.log4j:log4j-core:2.14.1", "junit:junit:4.12"));
+    index.update("b", Collections.singletonList("junit:junit:4.12"));
+    File junit = new File(temporaryFolder.getRoot(), String.format("shard-%02x.txt", ArtifactIndex.shard("junit:junit")));
+    long modified = junit.lastModified();
+    Assert.assertTrue(junit.setLastModified(modified - 10000));
+
+    index.update("a", Arrays.asList("org.apache.logging.log4j:log4j-core:2.17.1", "junit:junit:4.12"));
+    Assert.assertEquals("shard of unchanged coordinates is not written", modified - 10000, junit.lastModified());
+    Assert.assertEquals(Collections.singleton("org.apache.logging.log4j:log4j-core:2.17.1"), index.find("org.apache.logging.log4j:log4j-core", null).keySet());
+
+    index.update("a", Collections.emptyList());
+    Assert.assertTrue(index.find("org.apache.logging.log4j:log4j-core", null).isEmpty());
+    Assert.assertEquals(new TreeSet<>(Collections.singletonList("b")), index.find("junit:junit", "4.12").get("junit:junit:4.12"));
+    Assert.assertEquals(Collections.singletonList("junit:junit:4.12\tb"), Files.readAllLines(junit.toPath()));
+  }
+
+  @Test
+  public void markUnknown() throws Exception {
+    ArtifactIndex index = new ArtifactIndex(temporaryFolder.getRoot().toPath());
+    index.update("a", Arrays.asList("org.apache.logging.log4j:log4j-core:2.14.1", "junit:junit:4.12"));
+    index.update("b", Collections.singletonList("junit:junit:4.12"));
+    Assert.assertFalse(index.isUnknown("a"));
+
+    index.markUnknown("a");
+    Assert.assertTrue(index.isUnknown("a"));
+    Assert.assertTrue(index.find("org.apache.logging.log4j:log4j-core", null).isEmpty());
+    Assert.assertEquals(new TreeSet<>(Collections.singletonList("b")), index.find("junit:junit", "4.12").get("junit:junit:4.12"));
+
+    index.update("a", Collections.singletonList("junit:junit:4.12"));
+    Assert.assertFalse(index.isUnknown("a"));
+    Assert.assertEquals(new TreeSet<>(Arrays.asList("a", "b")), index.find("junit:junit", "4.12").get("junit:junit:4.12"));
+  }
+
+  /**
+   * Tests that a project switching to compact measures is removed from the index.
+   */
+  @Test
+  public void compactProject() throws Exception {
+    ArtifactIndex index = new ArtifactIndex(temporaryFolder.getRoot().toPath());
+    ArtifactIndexTask task = new ArtifactIndexTask(index);
+    ArtifactIndexTask.collect(Collections.singletonList("junit:junit:4.12:0:1"));
+    analyse(task, "a");
+    Assert.assertEquals(new TreeSet<>(Collections.singletonList("a")), index.find("junit:junit", "4.12").get("junit:junit:4.12"));
+
+    ArtifactIndexTask.collectUnknown();
+    analyse(task, "a");
+    Assert.assertTrue(index.find("junit:junit", null).isEmpty());
+    Assert.assertTrue(index.isUnknown("a"));
+  }
+
+  private static void analyse(ArtifactIndexTask task, String project) {
+    PostProjectAnalysisTaskTester.of(task)
+        .withCeTask(PostProjectAnalysisTaskTester.newCeTaskBuilder().setId("task").setStatus(CeTask.Status.SUCCESS).build())
+        .withProject(PostProjectAnalysisTaskTester.newProjectBuilder().setUuid(project).setKey(project).setName(project).build())
+        .at(new Date())
+        .execute();
+  }
+
+  @Test
+  public void coordinate() {
+    Assert.assertEquals("junit:junit:4.12", ArtifactIndexTask.coordinate("junit:junit:4.12:0:1"));
+    Assert.assertEquals("plugin/org.apache.maven.plugins:maven-compiler-plugin:3.8.1", ArtifactIndexTask.coordinate("plugin/org.apache.maven.plugins:maven-compiler-plugin:3.8.1:0:0"));
+  }
+}
@@ -0,0 +1,131 @@
+/*
+ * mathan-dependency-updates-sonar-plugin
+ * Copyright (c) 2019 Matthias Hanisch
+ * matthias@mathan.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mathan.sonar.dependencyupdates.parser;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PomParserTest {
+
+  private final PomParser parser = new PomParser();
+
+  @Test
+  public void parseBoms() throws Exception {
+    Pom pom = parse();
+
+    Assert.assertEquals(2, pom.getBoms().size());
+    Bom springBoot = pom.getBoms().get(0);
+    Assert.assertEquals("org.springframework.boot:spring-boot-dependencies:2.1.0.RELEASE", springBoot.toString());
+    Assert.assertEquals(16, springBoot.getLine());
+    Assert.assertEquals("com.fasterxml.jackson:jackson-bom:2.9.7", pom.getBoms().get(1).toString());
+    Assert.assertFalse(pom.hasParent());
+  }
+
+  @Test
+  public void bomOf() throws Exception {
+    Pom pom = parse();
+
+    Assert.assertEquals("spring-boot-dependencies", pom.bomOf(dependency("org.springframework.boot", "spring-boot-starter-actuator")).getArtifactId());
+    Assert.assertEquals("spring-boot-dependencies", pom.bomOf(dependency("org.springframework", "spring-core")).getArtifactId());
+    Assert.assertEquals("jackson-bom", pom.bomOf(dependency("com.fasterxml.jackson.core", "jackson-databind")).getArtifactId());
+    // managed by the pom itself
+    Assert.assertNull(pom.bomOf(dependency("org.springframework.boot", "spring-boot-starter-web")));
+    Assert.assertNull(pom.bomOf(dependency("io.mathan.test", "bom-test-api")));
+    // no BOM with a common group id and more than one BOM
+    Assert.assertNull(pom.bomOf(dependency("junit", "junit")));
+  }
+
+  @Test
+  public void singleBom() throws Exception {
+    Pom pom = parser.parse(stream("<project><dependencyManagement><dependencies><dependency><groupId>io.mathan</groupId><artifactId>bom</artifactId>"
+        + "<version>1.0</version><type>pom</type><scope>import</scope></dependency></dependencies></dependencyManagement></project>"));
+    Assert.assertEquals("bom", pom.bomOf(dependency("junit", "junit")).getArtifactId());
+
+    Pom child = parser.parse(stream("<project><parent><groupId>io.mathan</groupId><artifactId>parent</artifactId><version>1.0</version></parent>"
+        + "<dependencyManagement><dependencies><dependency><groupId>${project.groupId}</groupId><artifactId>bom</artifactId>"
+        + "<version>${project.version}</version><type>pom</type><scope>import</scope></dependency></dependencies></dependencyManagement></project>"));
+    Assert.assertTrue(child.hasParent());
+    Assert.assertEquals("io.mathan:bom:1.0", child.getBoms().get(0).toString());
+    // the dependency may be managed by the parent
+    Assert.assertNull(child.bomOf(dependency("junit", "junit")));
+    Assert.assertEquals("bom", child.bomOf(dependency("io.mathan.test", "test")).getArtifactId());
+  }
+
+  @Test
+  public void declared() throws Exception {
+    Pom pom = parser.parse(stream("<project><dependencies><dependency><groupId>junit</groupId><artifactId>junit</artifactId><version>${junit.version}</version></dependency>"
+        + "<dependency><groupId>io.mathan</groupId><artifactId>managed</artifactId></dependency></dependencies>"
+        + "<build><plugins><plugin><artifactId>maven-compiler-plugin</artifactId><version>3.8.0</version></plugin></plugins></build>"
+        + "<properties><junit.version>4.12</junit.version></properties></project>"));
+
+    Assert.assertEquals("4.12", pom.getDeclared().get("dependency/junit:junit"));
+    Assert.assertEquals("", pom.getDeclared().get("dependency/io.mathan:managed"));
+    Assert.assertEquals("3.8.0", pom.getDeclared().get("plugin/org.apache.maven.plugins:maven-compiler-plugin"));
+    Assert.assertEquals("4.12", pom.getDeclared().get("property/junit.version"));
+
+    Map<String, String> baseline = new HashMap<>(pom.getDeclared());
+    Assert.assertTrue(pom.changedSince(baseline).isEmpty());
+    baseline.put("property/junit.version", "4.11");
+    baseline.put("dependency/junit:junit", "4.11");
+    baseline.remove("dependency/io.mathan:managed");
+    Assert.assertEquals(new HashSet<>(Arrays.asList("property/junit.version", "dependency/junit:junit", "dependency/io.mathan:managed")), pom.changedSince(baseline));
+
+    Set<String> changed = pom.changedSince(baseline);
+    Assert.assertTrue(pom.isChanged(dependency("junit", "junit"), false, changed));
+    Assert.assertFalse(pom.isChanged(dependency("org.hamcrest", "hamcrest-core"), false, changed));
+  }
+
+  @Test
+  public void changedBom() throws Exception {
+    Pom pom = parse();
+    Map<String, String> baseline = new HashMap<>(pom.getDeclared());
+    baseline.put("dependency/com.fasterxml.jackson:jackson-bom", "2.9.6");
+    Set<String> changed = pom.changedSince(baseline);
+
+    Assert.assertTrue(pom.isChanged(dependency("com.fasterxml.jackson.core", "jackson-databind"), true, changed));
+    Assert.assertFalse(pom.isChanged(dependency("com.fasterxml.jackson.core", "jackson-databind"), false, changed));
+    Assert.assertFalse(pom.isChanged(dependency("org.springframework", "spring-core"), true, changed));
+  }
+
+  private Pom parse() throws Exception {
+    try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream("pom/bom-pom.xml")) {
+      return parser.parse(inputStream);
+    }
+  }
+
+  private static InputStream stream(String pom) {
+    return new ByteArrayInputStream(pom.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static Dependency dependency(String groupId, String artifactId) {
+    Dependency dependency = new Dependency();
+    dependency.setGroupId(groupId);
+    dependency.setArtifactId(artifactId);
+    dependency.setVersion("1.0");
+    return dependency;
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ * mathan-dependency-updates-sonar-plugin
+ * Copyright (c) 2019 Matthias Hanisch
+ * matthias@mathan.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mathan.sonar.dependencyupdates.parser;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ReportChunksTest {
+
+  private static final String REPORT = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+      + "<DependencyUpdatesReport>\n"
+      + "  <dependencyManagements>\n"
+      + "    <dependencyManagement><artifactId>a</artifactId></dependencyManagement>\n"
+      + "  </dependencyManagements>\n"
+      + "  <dependencies>\n"
+      + "    <dependency><artifactId>b</artifactId></dependency>\n"
+      + "    <dependency><artifactId>c</artifactId></dependency>\n"
+      + "    <dependency><artifactId>d</artifactId></dependency>\n"
+      + "  </dependencies>\n"
+      + "</DependencyUpdatesReport>\n";
+
+  @Test
+  public void split() {
+    List<ReportChunks.Chunk> chunks = ReportChunks.split(buffer(REPORT), 1);
+    Assert.assertNotNull(chunks);
+    Assert.assertEquals(4, chunks.size());
+    Assert.assertEquals(ReportChunks.DEPENDENCY_MANAGEMENT, chunks.get(0).getElement());
+    Assert.assertEquals(ReportChunks.DEPENDENCY, chunks.get(1).getElement());
+  }
+
+  @Test
+  public void splitChunksDoNotSpanSections() {
+    List<ReportChunks.Chunk> chunks = ReportChunks.split(buffer(REPORT), Integer.MAX_VALUE);
+    Assert.assertNotNull(chunks);
+    Assert.assertEquals(2, chunks.size());
+  }
+
+  @Test
+  public void splitNotUtf8() {
+    Assert.assertNull(ReportChunks.split(buffer(REPORT.replace("UTF-8", "ISO-8859-1")), 1));
+  }
+
+  @Test
+  public void splitWithComment() {
+    Assert.assertNull(ReportChunks.split(buffer(REPORT.replace("<dependencies>", "<dependencies><!-- <dependency> -->")), 1));
+  }
+
+  @Test
+  public void splitUnbalanced() {
+    Assert.assertNull(ReportChunks.split(buffer(REPORT.replace("</dependency>\n    <dependency><artifactId>d", "\n    <dependency><artifactId>d")), 1));
+  }
+
+  @Test
+  public void splitOutsideOfSection() {
+    Assert.assertNull(ReportChunks.split(buffer(REPORT.replace("<dependencyManagements>", "<other>").replace("</dependencyManagements>", "</other>")), 1));
+  }
+
+  private static ByteBuffer buffer(String report) {
+    return ByteBuffer.wrap(report.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -19,14 +19,25 @@ package io.mathan.sonar.dependencyupdates.parser;
 
 import io.mathan.sonar.dependencyupdates.Constants;
 import io.mathan.sonar.dependencyupdates.parser.Dependency.Availability;
+import io.mathan.sonar.dependencyupdates.report.GradleReportFile;
+import io.mathan.sonar.dependencyupdates.report.ReportGenerator;
+import io.mathan.sonar.dependencyupdates.report.ReportKind;
 import io.mathan.sonar.dependencyupdates.report.XmlReportFile;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.regex.Pattern;
 import org.junit.Assert;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.Mockito;
@@ -38,6 +49,9 @@ public class ReportParserTest {
 
   private static final String GROUP_ID = "io.mathan.test";
 
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
   @Mock
   private Configuration configuration;
 
@@ -83,6 +97,127 @@ public class ReportParserTest {
   }
 
 
+  @Test
+  public void parsePluginAndPropertyReports() throws Exception {
+    Mockito.doReturn(Optional.of(Constants.CONFIG_VERSION_EXCLUSION_REGEX_DEFAULT)).when(configuration).get(Constants.CONFIG_VERSION_EXCLUSION_REGEX);
+    Mockito.doReturn(Optional.of(Constants.CONFIG_DISCRETE_MINOR_MAJOR_DEFAULT)).when(configuration).getBoolean(Constants.CONFIG_DISCRETE_MINOR_MAJOR);
+
+    Analysis analysis = new ReportParser(configuration).parse(Arrays.asList(
+        resource("report/sample-dependency-updates-report.xml"),
+        resource("report/sample-plugin-updates-report.xml"),
+        resource("report/sample-property-updates-report.xml")));
+
+    List<Dependency> dependencyManagements = analysis.getDependencyManagements();
+    Assert.assertEquals(5, dependencyManagements.size());
+    Dependency pluginManagement = dependencyManagements.get(4);
+    Assert.assertEquals(ReportKind.PLUGIN, pluginManagement.getKind());
+    Assert.assertEquals("pluginmanagement-with-minor", pluginManagement.getArtifactId());
+    Assert.assertEquals("maven-plugin", pluginManagement.getType());
+    Assert.assertEquals("3.1.0", pluginManagement.getNext());
+    Assert.assertEquals("3.2.0", pluginManagement.getLast());
+    Assert.assertEquals(Availability.Minor, pluginManagement.getAvailability());
+
+    List<Dependency> dependencies = analysis.getDependencies();
+    Assert.assertEquals(7, dependencies.size());
+    Dependency plugin = dependencies.get(4);
+    Assert.assertEquals(ReportKind.PLUGIN, plugin.getKind());
+    Assert.assertEquals("plugin-with-incremental", plugin.getArtifactId());
+    Assert.assertEquals("2.1.1", plugin.getNext());
+    Assert.assertEquals(Availability.Incremental, plugin.getAvailability());
+    Assert.assertEquals("plugin/io.mathan.test:plugin-with-incremental:2.1.0:1:0", plugin.toDataString());
+    Dependency unchanged = dependencies.get(5);
+    Assert.assertNull(unchanged.getNext());
+    Assert.assertEquals(Availability.None, unchanged.getAvailability());
+
+    // the property without associated artifact is skipped
+    Dependency property = dependencies.get(6);
+    Assert.assertEquals(ReportKind.PROPERTY, property.getKind());
+    Assert.assertEquals("test.version", property.getProperty());
+    Assert.assertEquals("property-with-major", property.getArtifactId());
+    Assert.assertEquals("1.4.0", property.getVersion());
+    Assert.assertEquals("2.0.0", property.getNext());
+    Assert.assertEquals(Arrays.asList("2.0.0"), property.getMajors());
+    Assert.assertEquals(Availability.Major, property.getAvailability());
+  }
+
+  @Test
+  public void keepDependencyWithoutVersion() throws Exception {
+    Mockito.doReturn(Optional.of(Constants.CONFIG_VERSION_EXCLUSION_REGEX_DEFAULT)).when(configuration).get(Constants.CONFIG_VERSION_EXCLUSION_REGEX);
+    Mockito.doReturn(Optional.of(Constants.CONFIG_DISCRETE_MINOR_MAJOR_DEFAULT)).when(configuration).getBoolean(Constants.CONFIG_DISCRETE_MINOR_MAJOR);
+    String report = "<DependencyUpdatesReport><dependencies><dependency><groupId>" + GROUP_ID + "</groupId><artifactId>dependency-without-version</artifactId>"
+        + "<status>no new available</status></dependency></dependencies></DependencyUpdatesReport>";
+
+    Analysis analysis = new ReportParser(configuration).parse(Arrays.asList((XmlReportFile) () -> new ByteArrayInputStream(report.getBytes(StandardCharsets.UTF_8))));
+
+    // only properties are skipped without artifact, entries of other reports are kept as before
+    Assert.assertEquals(1, analysis.getDependencies().size());
+    Assert.assertEquals("dependency-without-version", analysis.getDependencies().get(0).getArtifactId());
+    Assert.assertNull(analysis.getDependencies().get(0).getVersion());
+  }
+
+  @Test
+  public void parseParallel() throws Exception {
+    Path path = new ReportGenerator().dependencies(9000).dependencyManagements(1000).write(temporaryFolder.newFile().toPath());
+    XmlReportFile report = new XmlReportFile() {
+      @Override
+      public InputStream getInputStream() throws IOException {
+        return Files.newInputStream(path);
+      }
+
+      @Override
+      public Path getPath() {
+        return path;
+      }
+    };
+    Pattern versionExclusionPattern = Pattern.compile(Constants.CONFIG_VERSION_EXCLUSION_REGEX_DEFAULT);
+
+    Analysis sequential = new ReportParser(versionExclusionPattern, true, false).parse(Collections.singletonList(report));
+    Analysis parallel = new ReportParser(versionExclusionPattern, true, true).parse(Collections.singletonList(report));
+
+    Assert.assertEquals(1000, parallel.getDependencyManagements().size());
+    Assert.assertEquals(9000, parallel.getDependencies().size());
+    Assert.assertEquals(sequential.getDependencyManagements(), parallel.getDependencyManagements());
+    Assert.assertEquals(sequential.getDependencies(), parallel.getDependencies());
+  }
+
+  @Test
+  public void parseGradleReport() throws Exception {
+    ReportParser parser = new ReportParser(Pattern.compile(Constants.CONFIG_VERSION_EXCLUSION_REGEX_DEFAULT), false);
+    GradleReportFile report = () -> getClass().getClassLoader().getResourceAsStream("report/sample-gradle-report.json");
+
+    Analysis analysis = parser.parse(Collections.emptyList(), report);
+
+    Assert.assertTrue(analysis.getDependencyManagements().isEmpty());
+    List<Dependency> dependencies = analysis.getDependencies();
+    // the unresolved dependency is skipped
+    Assert.assertEquals(6, dependencies.size());
+    verifyPresent(
+        dependencies, "dependency-with-none", null, null, "jar", "3.0.9", null,
+        Collections.emptyList(), Collections.emptyList(), Collections.emptyList(), Availability.None);
+    verifyPresent(
+        dependencies, "dependency-exceeded", null, null, "jar", "2.0.0-SNAPSHOT", null,
+        Collections.emptyList(), Collections.emptyList(), Collections.emptyList(), Availability.None);
+    verifyPresent(
+        dependencies, "dependency-with-incremental", null, null, "jar", "4.2.2", "4.2.3",
+        Arrays.asList("4.2.3"), Collections.emptyList(), Collections.emptyList(), Availability.Incremental);
+    verifyPresent(
+        dependencies, "dependency-with-minor", null, null, "jar", "4.0.0", "4.1.2",
+        Collections.emptyList(), Arrays.asList("4.1.2"), Collections.emptyList(), Availability.Minor);
+    verifyPresent(
+        dependencies, "dependency-with-major", null, null, "jar", "1.4.0", "2.1.0",
+        Collections.emptyList(), Collections.emptyList(), Arrays.asList("2.1.0"), Availability.Major);
+    // the milestone is excluded by the version exclusion pattern
+    verifyPresent(
+        dependencies, "dependency-with-excluded", null, null, "jar", "1.0.0", null,
+        Collections.emptyList(), Collections.emptyList(), Collections.emptyList(), Availability.None);
+    Assert.assertEquals("2.1.0", dependencies.get(4).getLast());
+    Assert.assertEquals("io.mathan.test:dependency-with-major:1.4.0:0:1", dependencies.get(4).toDataString());
+  }
+
+  private XmlReportFile resource(String name) {
+    return () -> getClass().getClassLoader().getResourceAsStream(name);
+  }
+
   private static void verifyPresent(
       List<Dependency> dependencies, String artifactId, String scope, String classifier, String type,
       String version, String next, List<String> incrementals, List<String> minors, List<String> majors, Availability availability) {
@@ -0,0 +1,47 @@
+/*
+ * mathan-dependency-updates-sonar-plugin
+ * Copyright (c) 2019 Matthias Hanisch
+ * matthias@mathan.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mathan.sonar.dependencyupdates.profiling;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PhaseEventTest {
+
+  @Test
+  public void disabledWithoutRecording() {
+    try (PhaseEvent event = PhaseEvent.begin(PhaseEvent.REPORT_PARSE)) {
+      Assert.assertFalse(event.isEnabled());
+      Assert.assertSame(event, event.setPath("target/dependency-updates-report.xml").setBytes(1024).setDependencies(1).setComponent(null));
+      Assert.assertSame(event, PhaseEvent.begin(PhaseEvent.ISSUE_EMISSION));
+    }
+  }
+
+  /**
+   * Tests that the Flight Recorder is not checked again by each phase while it is not initialized.
+   */
+  @Test
+  public void disabledWithoutChecks() {
+    PhaseEvent.begin(PhaseEvent.REPORT_PARSE).close();
+    int checks = PhaseEvent.initializationChecks();
+    for (int i = 0; i < 10000; i++) {
+      PhaseEvent.begin(PhaseEvent.MEASURE_COMPUTATION).close();
+    }
+    Assert.assertTrue(PhaseEvent.initializationChecks() - checks <= 1);
+  }
+}
@@ -0,0 +1,238 @@
+/*
+ * mathan-dependency-updates-sonar-plugin
+ * Copyright (c) 2019 Matthias Hanisch
+ * matthias@mathan.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mathan.sonar.dependencyupdates.report;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeSet;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.apache.commons.io.IOUtils;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ReportArchiveTest {
+
+  private static final String REPORT_PATH = "target/dependency-updates-report.xml";
+  private static final String GRADLE_REPORT_PATH = "build/dependencyUpdates/report.json";
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void zip() throws IOException {
+    Path archive = temporaryFolder.getRoot().toPath().resolve("reports.zip");
+    try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(archive))) {
+      for (Entry<String, String> entry : entries().entrySet()) {
+        out.putNextEntry(new ZipEntry(entry.getKey()));
+        out.write(entry.getValue().getBytes(StandardCharsets.UTF_8));
+        out.closeEntry();
+      }
+    }
+    verify(archive);
+  }
+
+  @Test
+  public void tarGz() throws IOException {
+    Path archive = temporaryFolder.getRoot().toPath().resolve("reports.tar.gz");
+    try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(archive))) {
+      for (Entry<String, String> entry : entries().entrySet()) {
+        writeTarEntry(out, entry.getKey(), entry.getValue().getBytes(StandardCharsets.UTF_8));
+      }
+      out.write(new byte[1024]);
+    }
+    verify(archive);
+  }
+
+  @Test
+  public void kinds() throws IOException {
+    Path archive = temporaryFolder.getRoot().toPath().resolve("reports.tgz");
+    try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(archive))) {
+      writeTarEntry(out, "module-a/target/property-updates-report.xml", "property".getBytes(StandardCharsets.UTF_8));
+      writeTarEntry(out, "module-a/" + REPORT_PATH, "dependency".getBytes(StandardCharsets.UTF_8));
+      writeTarEntry(out, "module-b/target/plugin-updates-report.xml", "plugin".getBytes(StandardCharsets.UTF_8));
+      out.write(new byte[1024]);
+    }
+    try (ReportArchive reportArchive = ReportArchive.open(archive, REPORT_PATH, EnumSet.of(ReportKind.DEPENDENCY, ReportKind.PROPERTY))) {
+      Map<String, List<XmlReportFile>> reports = reportArchive.getReports();
+      Assert.assertEquals(Collections.singleton("module-a"), reports.keySet());
+      List<XmlReportFile> moduleA = reports.get("module-a");
+      Assert.assertEquals(2, moduleA.size());
+      Assert.assertEquals(ReportKind.DEPENDENCY, moduleA.get(0).getKind());
+      Assert.assertEquals("dependency", content(moduleA.get(0)));
+      Assert.assertEquals(ReportKind.PROPERTY, moduleA.get(1).getKind());
+      Assert.assertEquals("property", content(moduleA.get(1)));
+    }
+  }
+
+  @Test
+  public void tarGzRetainedMemory() throws IOException {
+    int modules = 64;
+    int reportSize = 256 * 1024;
+    Path archive = temporaryFolder.getRoot().toPath().resolve("large.tar.gz");
+    try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(archive))) {
+      for (int i = 0; i < modules; i++) {
+        // the property report precedes the dependency report, so the reports of a module are not opened in the order of the archive
+        writeTarEntry(out, "module-" + i + "/target/property-updates-report.xml", report("property-" + i, reportSize));
+        writeTarEntry(out, "module-" + i + "/" + REPORT_PATH, report("dependency-" + i, reportSize));
+      }
+      out.write(new byte[1024]);
+    }
+    try (ReportArchive reportArchive = ReportArchive.open(archive, REPORT_PATH, EnumSet.of(ReportKind.DEPENDENCY, ReportKind.PROPERTY))) {
+      Map<String, List<XmlReportFile>> reports = reportArchive.getReports();
+      Assert.assertEquals(modules, reports.size());
+      Assert.assertEquals(0, reportArchive.getBufferedBytes());
+      // the modules are read in reverse order, so the archive has to be read again for each of them
+      for (int i = modules - 1; i >= 0; i -= 7) {
+        List<XmlReportFile> module = reports.get("module-" + i);
+        Assert.assertTrue(content(module.get(0)).startsWith("dependency-" + i + ":"));
+        // only the other report of the module is held until it is opened
+        Assert.assertEquals(reportSize, reportArchive.getBufferedBytes());
+        Assert.assertTrue(content(module.get(1)).startsWith("property-" + i + ":"));
+        Assert.assertEquals(0, reportArchive.getBufferedBytes());
+      }
+      // a report can be opened again
+      Assert.assertTrue(content(reports.get("module-0").get(1)).startsWith("property-0:"));
+      Assert.assertEquals(reportSize, reportArchive.getBufferedBytes());
+    }
+  }
+
+  @Test
+  public void gradleReports() throws IOException {
+    Path zip = temporaryFolder.getRoot().toPath().resolve("gradle.zip");
+    try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(zip))) {
+      out.putNextEntry(new ZipEntry("module-a/" + REPORT_PATH));
+      out.write("dependency".getBytes(StandardCharsets.UTF_8));
+      out.closeEntry();
+      out.putNextEntry(new ZipEntry("module-g/" + GRADLE_REPORT_PATH));
+      out.write("gradle".getBytes(StandardCharsets.UTF_8));
+      out.closeEntry();
+    }
+    Path tarGz = temporaryFolder.getRoot().toPath().resolve("gradle.tar.gz");
+    try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(tarGz))) {
+      writeTarEntry(out, "module-a/" + REPORT_PATH, "dependency".getBytes(StandardCharsets.UTF_8));
+      writeTarEntry(out, "module-g/" + GRADLE_REPORT_PATH, "gradle".getBytes(StandardCharsets.UTF_8));
+      out.write(new byte[1024]);
+    }
+    for (Path archive : Arrays.asList(zip, tarGz)) {
+      try (ReportArchive reportArchive = ReportArchive.open(archive, REPORT_PATH, EnumSet.of(ReportKind.DEPENDENCY), GRADLE_REPORT_PATH)) {
+        Assert.assertEquals(Collections.singleton("module-a"), reportArchive.getReports().keySet());
+        Assert.assertEquals(Collections.singleton("module-g"), reportArchive.getGradleReports().keySet());
+        try (InputStream in = reportArchive.getGradleReports().get("module-g").getInputStream()) {
+          Assert.assertEquals("gradle", IOUtils.toString(in, StandardCharsets.UTF_8));
+        }
+      }
+      // without the path of Gradle reports these are not looked up
+      try (ReportArchive reportArchive = ReportArchive.open(archive, REPORT_PATH)) {
+        Assert.assertTrue(reportArchive.getGradleReports().isEmpty());
+      }
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void unsupported() throws IOException {
+    Path archive = temporaryFolder.newFile("reports.rar").toPath();
+    ReportArchive.open(archive, REPORT_PATH);
+  }
+
+  @Test
+  public void normalize() {
+    Assert.assertEquals("a/b", ReportArchive.normalize("./a\\b/"));
+    Assert.assertEquals("", ReportArchive.normalize("/"));
+  }
+
+  private static Map<String, String> entries() {
+    Map<String, String> entries = new LinkedHashMap<>();
+    entries.put(REPORT_PATH, "root");
+    entries.put("module-a/" + REPORT_PATH, "module-a");
+    entries.put("parent/module-b/" + REPORT_PATH, "module-b");
+    entries.put("module-c/target/site/index.html", "site");
+    return entries;
+  }
+
+  private static void verify(Path path) throws IOException {
+    try (ReportArchive archive = ReportArchive.open(path, REPORT_PATH)) {
+      Map<String, List<XmlReportFile>> reports = archive.getReports();
+      Assert.assertEquals(new TreeSet<>(Arrays.asList("", "module-a", "parent/module-b")), reports.keySet());
+      Assert.assertEquals("root", content(reports.get("").get(0)));
+      Assert.assertEquals("module-a", content(reports.get("module-a").get(0)));
+      Assert.assertEquals("module-b", content(reports.get("parent/module-b").get(0)));
+    }
+  }
+
+  private static byte[] report(String name, int size) {
+    byte[] report = new byte[size];
+    Arrays.fill(report, (byte) 'x');
+    byte[] prefix = (name + ":").getBytes(StandardCharsets.UTF_8);
+    System.arraycopy(prefix, 0, report, 0, prefix.length);
+    return report;
+  }
+
+  private static String content(XmlReportFile report) throws IOException {
+    try (InputStream in = report.getInputStream()) {
+      return IOUtils.toString(in, StandardCharsets.UTF_8);
+    }
+  }
+
+  /**
+   * Writes a minimal ustar entry: the header is padded to 512 bytes, sizes are octal and the checksum is calculated with the checksum field filled with spaces.
+   */
+  private static void writeTarEntry(OutputStream out, String name, byte[] content) throws IOException {
+    byte[] header = new byte[512];
+    put(header, 0, name);
+    put(header, 100, "0000644");
+    put(header, 108, "0000000");
+    put(header, 116, "0000000");
+    put(header, 124, String.format("%011o", content.length));
+    put(header, 136, String.format("%011o", 0));
+    put(header, 148, "        ");
+    header[156] = '0';
+    put(header, 257, "ustar");
+    put(header, 263, "00");
+    int checksum = 0;
+    for (byte b : header) {
+      checksum += b & 0xff;
+    }
+    put(header, 148, String.format("%06o", checksum));
+    header[154] = 0;
+    out.write(header);
+    out.write(content);
+    int padding = (512 - content.length % 512) % 512;
+    out.write(new byte[padding]);
+  }
+
+  private static void put(byte[] header, int offset, String value) {
+    byte[] bytes = value.getBytes(StandardCharsets.US_ASCII);
+    System.arraycopy(bytes, 0, header, offset, bytes.length);
+  }
+}
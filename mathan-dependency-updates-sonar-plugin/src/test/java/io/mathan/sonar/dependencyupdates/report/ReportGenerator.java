@@ -0,0 +1,160 @@
+/*
+ * mathan-dependency-updates-sonar-plugin
+ * Copyright (c) 2019 Matthias Hanisch
+ * matthias@mathan.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mathan.sonar.dependencyupdates.report;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Generates synthetic dependency-updates-reports as created by the versions-maven-plugin. The same configuration always generates the same report.
+ */
+public class ReportGenerator {
+
+  private static final String[] PRE_RELEASES = {"alpha-1", "beta-2", "RC1", "M3", "EA"};
+  private static final String[] STATUS = {"no new available", "incremental available", "minor available", "major available"};
+  private static final String[] BUCKETS = {"incremental", "minor", "major"};
+
+  private int dependencies = 1000;
+  private int dependencyManagements = 0;
+  private int versionsPerBucket = 3;
+  private double preReleaseRatio = 0.1;
+  private long seed = 42;
+
+  /**
+   * Number of dependencies to generate. Default is 1000.
+   */
+  public ReportGenerator dependencies(int dependencies) {
+    this.dependencies = dependencies;
+    return this;
+  }
+
+  /**
+   * Number of managed dependencies to generate. Default is 0.
+   */
+  public ReportGenerator dependencyManagements(int dependencyManagements) {
+    this.dependencyManagements = dependencyManagements;
+    return this;
+  }
+
+  /**
+   * Number of versions listed for each kind of update available. Default is 3.
+   */
+  public ReportGenerator versionsPerBucket(int versionsPerBucket) {
+    this.versionsPerBucket = versionsPerBucket;
+    return this;
+  }
+
+  /**
+   * Ratio of listed versions being alpha, beta, milestone or release candidate versions. Default is 0.1.
+   */
+  public ReportGenerator preReleaseRatio(double preReleaseRatio) {
+    this.preReleaseRatio = preReleaseRatio;
+    return this;
+  }
+
+  /**
+   * Seed for the random numbers used. Default is 42.
+   */
+  public ReportGenerator seed(long seed) {
+    this.seed = seed;
+    return this;
+  }
+
+  /**
+   * Writes the report to the given file.
+   */
+  public Path write(Path file) throws IOException {
+    try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+      write(writer);
+    }
+    return file;
+  }
+
+  /**
+   * Writes the report to the given writer.
+   */
+  public void write(Writer out) throws IOException {
+    Random random = new Random(seed);
+    BufferedWriter writer = out instanceof BufferedWriter ? (BufferedWriter) out : new BufferedWriter(out);
+    writer.write("<DependencyUpdatesReport>\n");
+    writer.write("  <dependencyManagements>\n");
+    for (int i = 0; i < dependencyManagements; i++) {
+      writeDependency(writer, random, "dependencyManagement", "managed-" + i);
+    }
+    writer.write("  </dependencyManagements>\n");
+    writer.write("  <dependencies>\n");
+    for (int i = 0; i < dependencies; i++) {
+      writeDependency(writer, random, "dependency", "artifact-" + i);
+    }
+    writer.write("  </dependencies>\n");
+    writer.write("</DependencyUpdatesReport>\n");
+    writer.flush();
+  }
+
+  private void writeDependency(BufferedWriter writer, Random random, String element, String artifactId) throws IOException {
+    int major = random.nextInt(10);
+    int minor = random.nextInt(20);
+    int patch = random.nextInt(20);
+    // 0 = none, 1 = incremental, 2 = minor, 3 = major
+    int status = versionsPerBucket > 0 ? random.nextInt(STATUS.length) : 0;
+    writer.write("    <" + element + ">\n");
+    writer.write("      <groupId>io.mathan.generated.group" + random.nextInt(100) + "</groupId>\n");
+    writer.write("      <artifactId>" + artifactId + "</artifactId>\n");
+    writer.write("      <scope>" + (random.nextInt(4) == 0 ? "test" : "compile") + "</scope>\n");
+    writer.write("      <classifier>null</classifier>\n");
+    writer.write("      <type>jar</type>\n");
+    writer.write("      <currentVersion>" + major + "." + minor + "." + patch + "</currentVersion>\n");
+    if (status > 0) {
+      writer.write("      <nextVersion>" + version(status, 0, major, minor, patch, null) + "</nextVersion>\n");
+      for (int bucket = status; bucket <= BUCKETS.length; bucket++) {
+        if (bucket == status || random.nextBoolean()) {
+          writer.write("      <" + BUCKETS[bucket - 1] + "s>\n");
+          for (int i = 0; i < versionsPerBucket; i++) {
+            String preRelease = random.nextDouble() < preReleaseRatio ? PRE_RELEASES[random.nextInt(PRE_RELEASES.length)] : null;
+            writer.write("        <" + BUCKETS[bucket - 1] + ">" + version(bucket, i, major, minor, patch, preRelease) + "</" + BUCKETS[bucket - 1] + ">\n");
+          }
+          writer.write("      </" + BUCKETS[bucket - 1] + "s>\n");
+        }
+      }
+    }
+    writer.write("      <status>" + STATUS[status] + "</status>\n");
+    writer.write("    </" + element + ">\n");
+  }
+
+  private static String version(int bucket, int index, int major, int minor, int patch, String preRelease) {
+    String version;
+    switch (bucket) {
+      case 1:
+        version = major + "." + minor + "." + (patch + 1 + index);
+        break;
+      case 2:
+        version = major + "." + (minor + 1 + index / 2) + "." + index % 2;
+        break;
+      default:
+        version = (major + 1 + index / 2) + "." + index % 2 + ".0";
+        break;
+    }
+    return preRelease == null ? version : version + "-" + preRelease;
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * mathan-dependency-updates-sonar-plugin
+ * Copyright (c) 2019 Matthias Hanisch
+ * matthias@mathan.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mathan.sonar.dependencyupdates.ws;
+
+import io.mathan.sonar.dependencyupdates.ws.DependencyListing.Availability;
+import io.mathan.sonar.dependencyupdates.ws.DependencyListing.Entry;
+import io.mathan.sonar.dependencyupdates.ws.DependencyListing.Sort;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DependencyListingTest {
+
+  private static final String DATA = "org.apache.commons:commons-lang3:3.5:2:1,junit:junit:4.12:0:0,plugin/org.apache.maven.plugins:maven-compiler-plugin:3.1:0:3,"
+      + "org.apache.commons:commons-io:2.5:1:0,invalid";
+
+  @Test
+  public void decode() {
+    DependencyListing listing = DependencyListing.decode(DATA);
+    Assert.assertFalse(listing.isCompact());
+    Assert.assertEquals(4, listing.getEstimate());
+    List<Entry> entries = listing.query(Availability.ANY, null, 0, Sort.GROUP_ID, true);
+    Assert.assertEquals("junit,commons-io,commons-lang3,maven-compiler-plugin", artifactIds(entries));
+    Entry plugin = entries.get(3);
+    Assert.assertEquals("plugin", plugin.getKind());
+    Assert.assertEquals("org.apache.maven.plugins", plugin.getGroupId());
+    Assert.assertEquals("3.1", plugin.getVersion());
+    Assert.assertEquals(3, plugin.getUpgrades());
+  }
+
+  @Test
+  public void decodeEmpty() {
+    Assert.assertEquals(0, DependencyListing.decode(null).getEstimate());
+    Assert.assertEquals(0, DependencyListing.decode("").getEstimate());
+  }
+
+  @Test
+  public void query() {
+    DependencyListing listing = DependencyListing.decode(DATA);
+    Assert.assertEquals("commons-io,commons-lang3", artifactIds(listing.query(Availability.PATCH, null, 0, Sort.GROUP_ID, true)));
+    Assert.assertEquals("commons-lang3,maven-compiler-plugin", artifactIds(listing.query(Availability.UPGRADE, null, 0, Sort.GROUP_ID, true)));
+    Assert.assertEquals("junit", artifactIds(listing.query(Availability.UP_TO_DATE, null, 0, Sort.GROUP_ID, true)));
+    Assert.assertEquals("commons-io,commons-lang3", artifactIds(listing.query(Availability.OUTDATED, "org.apache.commons", 0, Sort.GROUP_ID, true)));
+    Assert.assertEquals("commons-lang3,maven-compiler-plugin", artifactIds(listing.query(Availability.ANY, null, 3, Sort.GROUP_ID, true)));
+    Assert.assertEquals("maven-compiler-plugin,commons-lang3,commons-io,junit", artifactIds(listing.query(Availability.ANY, null, 0, Sort.GROUP_ID, false)));
+    Assert.assertEquals("junit,commons-io,commons-lang3,maven-compiler-plugin", artifactIds(listing.query(Availability.ANY, null, 0, Sort.MISSED, true)));
+    Assert.assertEquals("maven-compiler-plugin,commons-lang3,commons-io,junit", artifactIds(listing.query(Availability.ANY, null, 0, Sort.MISSED, false)));
+  }
+
+  @Test
+  public void cache() {
+    DependencyListing listing = DependencyListing.decode(DATA);
+    DependencyListingCache cache = new DependencyListingCache(listing.size() * 2);
+    cache.put("a", listing);
+    cache.put("b", DependencyListing.decode(DATA));
+    Assert.assertSame(listing, cache.getIfPresent("a"));
+    // b is the least recently used listing now
+    cache.put("c", DependencyListing.decode(DATA));
+    Assert.assertNotNull(cache.getIfPresent("a"));
+    Assert.assertNull(cache.getIfPresent("b"));
+    Assert.assertNotNull(cache.getIfPresent("c"));
+    Assert.assertEquals(listing.size() * 2, cache.size());
+  }
+
+  @Test
+  public void cacheTooSmall() {
+    DependencyListing listing = DependencyListing.decode(DATA);
+    DependencyListingCache cache = new DependencyListingCache(listing.size() - 1);
+    cache.put("a", listing);
+    Assert.assertNull(cache.getIfPresent("a"));
+    Assert.assertEquals(0, cache.size());
+  }
+
+  private static String artifactIds(List<Entry> entries) {
+    return entries.stream().map(Entry::getArtifactId).collect(Collectors.joining(","));
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * mathan-dependency-updates-sonar-plugin
+ * Copyright (c) 2019 Matthias Hanisch
+ * matthias@mathan.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mathan.sonar.dependencyupdates.ws;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.Assert;
+import org.junit.Test;
+import org.sonar.api.server.ws.LocalConnector;
+import org.sonar.api.server.ws.LocalConnector.LocalResponse;
+
+public class DependencyUpdatesWsTest {
+
+  @Test
+  public void measureValue() throws Exception {
+    String json = "{\"component\":{\"key\":\"my_project\",\"name\":\"My \\\"Project\\\"\",\"qualifier\":\"TRK\",\"ancestors\":[{\"key\":\"x\"}],"
+        + "\"measures\":[{\"metric\":\"metrics.dependencies\",\"value\":\"2\"},{\"metric\":\"metrics.dependencies.data\",\"value\":\"a:b:1.0:0:0,c:d:2.0:1:0\"}]}}";
+    Assert.assertEquals("a:b:1.0:0:0,c:d:2.0:1:0", DependencyUpdatesWs.measureValue(response(json), "metrics.dependencies.data"));
+    Assert.assertNull(DependencyUpdatesWs.measureValue(response(json), "metrics.patches.data"));
+    Assert.assertNull(DependencyUpdatesWs.measureValue(response("{\"component\":{\"key\":\"my_project\",\"measures\":[]}}"), "metrics.dependencies.data"));
+  }
+
+  @Test
+  public void analysisDate() throws Exception {
+    String json = "{\"component\":{\"key\":\"my_project\",\"tags\":[\"a\", \"b\"],\"visibility\":null,\"analysisDate\":\"2019-10-01T12:00:00+0200\",\"version\":\"1.0\"},"
+        + "\"ancestors\":[]}";
+    Assert.assertEquals("2019-10-01T12:00:00+0200", DependencyUpdatesWs.analysisDate(response(json)));
+    Assert.assertNull(DependencyUpdatesWs.analysisDate(response("{\"component\":{\"key\":\"my_project\"},\"ancestors\":[]}")));
+  }
+
+  /**
+   * Tests that the permission is checked once for each project found only.
+   */
+  @Test
+  public void visibleProjects() {
+    Map<String, Integer> status = new HashMap<>();
+    status.put("a", 200);
+    status.put("b", 403);
+    status.put("c", 404);
+    List<String> calls = new ArrayList<>();
+    LocalConnector connector = request -> {
+      calls.add(request.getPath() + "?" + request.getParam("component"));
+      return response(status.get(request.getParam("component")), "{}");
+    };
+    Set<String> visible = new HashSet<>();
+    Assert.assertNull(DependencyUpdatesWs.visibleProjects(connector, Arrays.asList(Arrays.asList("a", "b"), Arrays.asList("a", "c")), visible));
+    Assert.assertEquals(Collections.singleton("a"), visible);
+    Assert.assertEquals(Arrays.asList("api/components/show?a", "api/components/show?b", "api/components/show?c"), calls);
+
+    status.put("b", 401);
+    LocalResponse failed = DependencyUpdatesWs.visibleProjects(connector, Collections.singletonList(Arrays.asList("a", "b")), new HashSet<>());
+    Assert.assertNotNull(failed);
+    Assert.assertEquals(401, failed.getStatus());
+  }
+
+  private static LocalResponse response(String json) {
+    return response(200, json);
+  }
+
+  private static LocalResponse response(int status, String json) {
+    return new LocalResponse() {
+      @Override
+      public int getStatus() {
+        return status;
+      }
+
+      @Override
+      public byte[] getBytes() {
+        return json.getBytes(StandardCharsets.UTF_8);
+      }
+
+      @Override
+      public Collection<String> getHeaderNames() {
+        return Collections.emptyList();
+      }
+
+      @Override
+      public String getHeader(String name) {
+        return null;
+      }
+    };
+  }
+}